@@ -0,0 +1,104 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.common.util;
+
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.DoubleArray;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares big arrays backed by heap pages with big arrays backed by off-heap pages, both for allocating and releasing arrays, which
+ * exercises the recyclers, and for random access to the values, which is what aggregations mostly do.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class BigArraysBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean offHeap;
+
+    @Param({ "100000", "10000000" })
+    public int size;
+
+    private BigArrays bigArrays;
+    private LongArray longs;
+    private DoubleArray doubles;
+    private long[] indices;
+
+    @Setup
+    public void setup() {
+        final PageCacheRecycler recycler = new PageCacheRecycler(
+            Settings.builder()
+                .put(PageCacheRecycler.OFF_HEAP_SETTING.getKey(), offHeap)
+                .put(PageCacheRecycler.LIMIT_OFF_HEAP_SETTING.getKey(), "1gb")
+                .build()
+        );
+        bigArrays = new BigArrays(recycler, new NoneCircuitBreakerService(), CircuitBreaker.REQUEST);
+        longs = bigArrays.newLongArray(size);
+        doubles = bigArrays.newDoubleArray(size);
+        indices = new long[1 << 16];
+        for (int i = 0; i < indices.length; i++) {
+            // a cheap LCG is enough to defeat the prefetcher
+            indices[i] = Math.floorMod(i * 6364136223846793005L + 1442695040888963407L, size);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        longs.close();
+        doubles.close();
+    }
+
+    @Benchmark
+    public long allocateAndRelease() {
+        try (LongArray array = bigArrays.newLongArray(size, false)) {
+            return array.size();
+        }
+    }
+
+    @Benchmark
+    public long incrementLongs() {
+        long sum = 0;
+        for (long index : indices) {
+            sum += longs.increment(index, 1);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double incrementDoubles() {
+        double sum = 0;
+        for (long index : indices) {
+            sum += doubles.increment(index, 1.5d);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.common.util.concurrent;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs bursts of tasks that block for a while, like the tasks of the snapshot and recovery thread pools that wait for blob store and
+ * disk I/O, on a scaling executor with platform threads and on one with virtual threads. Besides the time to complete a burst, the
+ * benchmark reports the number of platform threads that are alive at the end of the burst; run it with {@code -prof gc} to compare
+ * the allocations of both executors as well. The virtual thread variant requires a JDK that supports virtual threads.
+ */
+@Fork(3)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class ScalingExecutorBenchmark {
+
+    @Param({ "platform", "virtual" })
+    public String threads;
+
+    @Param({ "5", "128", "512" })
+    public int maxThreads;
+
+    @Param({ "1024" })
+    public int tasks;
+
+    @Param({ "1" })
+    public long blockMillis;
+
+    private EsThreadPoolExecutor executor;
+
+    @Setup
+    public void setup() {
+        final ThreadFactory threadFactory;
+        if ("virtual".equals(threads)) {
+            threadFactory = EsExecutors.virtualThreadFactory("benchmark");
+        } else {
+            threadFactory = EsExecutors.daemonThreadFactory("benchmark");
+        }
+        executor = EsExecutors.newScaling("benchmark", 0, maxThreads, 30, TimeUnit.SECONDS, threadFactory,
+            new ThreadContext(Settings.EMPTY));
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class ThreadCounters {
+        private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        /**
+         * The number of live platform threads after the burst, virtual threads are not included.
+         */
+        public long platformThreads;
+
+        /**
+         * The largest number of threads the executor ran at the same time.
+         */
+        public long largestPoolSize;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            platformThreads = 0;
+            largestPoolSize = 0;
+        }
+    }
+
+    @Benchmark
+    public void blockingBurst(ThreadCounters counters) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(blockMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+        counters.platformThreads = Math.max(counters.platformThreads, counters.threadMXBean.getThreadCount());
+        counters.largestPoolSize = Math.max(counters.largestPoolSize, executor.getLargestPoolSize());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.common.util.concurrent;
+
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.tasks.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the context switches that every transport message and every forked task goes through: stashing and restoring a context,
+ * deriving a context with an additional header or transient value, and serializing the headers of a context and reading them back.
+ * The number of headers roughly corresponds to a request without security and a request with security and a few custom headers.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class ThreadContextBenchmark {
+
+    @Param({ "1", "8" })
+    public int headers;
+
+    private ThreadContext threadContext;
+    private BytesStreamOutput out;
+
+    @Setup
+    public void setup() throws IOException {
+        threadContext = new ThreadContext(Settings.EMPTY);
+        threadContext.putHeader(Task.X_OPAQUE_ID, "benchmark");
+        for (int i = 1; i < headers; i++) {
+            threadContext.putHeader("header-" + i, "value-of-header-" + i);
+            threadContext.putTransient("transient-" + i, new Object());
+        }
+        out = new BytesStreamOutput();
+    }
+
+    @Benchmark
+    public void stashAndRestore(Blackhole bh) {
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            bh.consume(threadContext.getHeader(Task.X_OPAQUE_ID));
+        }
+    }
+
+    @Benchmark
+    public void newStoredContextAndRestore(Blackhole bh) {
+        try (ThreadContext.StoredContext ignored = threadContext.newStoredContext(false)) {
+            threadContext.putTransient("benchmark", bh);
+            bh.consume(threadContext.getTransient("benchmark"));
+        }
+    }
+
+    @Benchmark
+    public void preserveContext(Blackhole bh) {
+        threadContext.preserveContext(() -> bh.consume(threadContext.getHeader(Task.X_OPAQUE_ID))).run();
+    }
+
+    @Benchmark
+    public void putHeaderAndRestore(Blackhole bh) {
+        try (ThreadContext.StoredContext ignored = threadContext.newStoredContext(false)) {
+            threadContext.putHeader("benchmark", "value");
+            bh.consume(threadContext.getHeader("benchmark"));
+        }
+    }
+
+    @Benchmark
+    public void serialize(Blackhole bh) throws IOException {
+        out.reset();
+        threadContext.writeTo(out);
+        bh.consume(out.size());
+    }
+
+    @Benchmark
+    public void serializationRoundTrip(Blackhole bh) throws IOException {
+        out.reset();
+        threadContext.writeTo(out);
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            threadContext.readHeaders(out.bytes().streamInput());
+            bh.consume(threadContext.getHeader(Task.X_OPAQUE_ID));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.common.xcontent;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.lucene.BytesRefs;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.xcontent.DeprecationHandler;
+import org.elasticsearch.xcontent.NamedXContentRegistry;
+import org.elasticsearch.xcontent.XContentParser;
+import org.elasticsearch.xcontent.XContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a log document the way keyword fields consume their values while indexing: either by creating a string for every value and
+ * encoding it to UTF-8, or by encoding the characters of the parser directly. Run with {@code -prof gc} to see the bytes that are
+ * allocated per document.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class KeywordParsingBenchmark {
+
+    private static final String DOCUMENT = "{"
+        + "\"@timestamp\":\"2021-04-28T19:45:28.222Z\","
+        + "\"host.name\":\"web-server-042.eu-west-1.compute.internal\","
+        + "\"event.dataset\":\"nginx.access\","
+        + "\"http.request.method\":\"GET\","
+        + "\"url.original\":\"/api/v1/orders/93c1c4b2-7f0e-4f53-a7e4-5a2e9c5b8d11?expand=items&page=3\","
+        + "\"http.response.status_code\":200,"
+        + "\"user_agent.original\":\"Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/90.0 Safari/537.36\","
+        + "\"source.ip\":\"203.0.113.17\","
+        + "\"log.level\":\"info\","
+        + "\"service.name\":\"order-service\","
+        + "\"labels\":{\"env\":\"production\",\"region\":\"eu-west-1\",\"team\":\"checkout\"},"
+        + "\"tags\":[\"nginx\",\"access\",\"frontend\"]"
+        + "}";
+
+    private BytesReference source;
+
+    @Setup
+    public void setup() {
+        source = new BytesArray(DOCUMENT.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private XContentParser parser() throws IOException {
+        return XContentHelper.createParser(NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source,
+            XContentType.JSON);
+    }
+
+    @Benchmark
+    public void viaString(Blackhole bh) throws IOException {
+        try (XContentParser parser = parser()) {
+            XContentParser.Token token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == XContentParser.Token.FIELD_NAME) {
+                    bh.consume(parser.currentName());
+                } else if (token == XContentParser.Token.VALUE_STRING) {
+                    bh.consume(new BytesRef(parser.text()));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void viaCharacters(Blackhole bh) throws IOException {
+        try (XContentParser parser = parser()) {
+            XContentParser.Token token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == XContentParser.Token.FIELD_NAME) {
+                    bh.consume(parser.currentName());
+                } else if (token == XContentParser.Token.VALUE_STRING) {
+                    bh.consume(BytesRefs.toBytesRef(parser.textCharacters(), parser.textOffset(), parser.textLength()));
+                }
+            }
+        }
+    }
+}
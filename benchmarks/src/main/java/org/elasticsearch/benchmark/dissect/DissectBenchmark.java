@@ -0,0 +1,69 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.dissect;
+
+import org.elasticsearch.dissect.DissectParser;
+import org.elasticsearch.ingest.IngestDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dissects an access log line into a new ingest document, either by collecting the values in a map that is then copied into the
+ * document, or by writing every value straight into the document as the dissect processor does. Run with
+ * {@code -prof gc} to see the bytes that are allocated per document.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class DissectBenchmark {
+
+    private static final String LINE = "203.0.113.17 - frank [28/Apr/2021:19:45:28 +0000] \"GET /api/v1/orders/93c1c4b2?page=3 HTTP/1.1\" "
+        + "200 2326 \"https://example.com/checkout\" \"Mozilla/5.0 (X11; Linux x86_64) Chrome/90.0 Safari/537.36\"";
+
+    private final DissectParser parser = new DissectParser(
+        "%{source.ip} %{?ident} %{user.name} [%{@timestamp}] \"%{http.request.method} %{url.original} HTTP/%{http.version}\" "
+            + "%{http.response.status_code} %{http.response.body.bytes} \"%{http.request.referrer}\" \"%{user_agent.original}\"",
+        ""
+    );
+
+    private static IngestDocument document() {
+        final Map<String, Object> source = new HashMap<>();
+        source.put("message", LINE);
+        return new IngestDocument(source, new HashMap<>());
+    }
+
+    @Benchmark
+    public IngestDocument viaMap() {
+        final IngestDocument document = document();
+        parser.forceParse(document.getFieldValue("message", String.class)).forEach(document::setFieldValue);
+        return document;
+    }
+
+    @Benchmark
+    public IngestDocument streaming() {
+        final IngestDocument document = document();
+        parser.forceParse(document.getFieldValue("message", String.class),
+            (key, value, offset, length) -> document.setFieldValue(key, value.substring(offset, offset + length)));
+        return document;
+    }
+}
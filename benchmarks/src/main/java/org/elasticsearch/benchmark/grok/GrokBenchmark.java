@@ -0,0 +1,94 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.grok;
+
+import org.elasticsearch.grok.Grok;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches common log lines against a grok expression that combines several alternative patterns, the way the grok processor combines
+ * the patterns it is configured with. The {@code unmatched} lines contain none of the literals of the patterns and are rejected
+ * without running the regular expression, the {@code mixed} lines match one of the patterns or are rejected.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class GrokBenchmark {
+
+    private static final List<String> PATTERNS = List.of(
+        "%{SYSLOGTIMESTAMP:timestamp} %{SYSLOGHOST:host} sshd(?:\\[%{POSINT:pid}\\])?: Failed password for %{USERNAME:user} "
+            + "from %{IP:source} port %{NUMBER:port}",
+        "%{SYSLOGTIMESTAMP:timestamp} %{SYSLOGHOST:host} sshd(?:\\[%{POSINT:pid}\\])?: Accepted publickey for %{USERNAME:user} "
+            + "from %{IP:source} port %{NUMBER:port}",
+        "%{TIMESTAMP_ISO8601:timestamp} \\[%{LOGLEVEL:level}\\] %{NUMBER:pid}#%{NUMBER:tid}: %{GREEDYDATA:message}",
+        "%{IPORHOST:client} - %{USER:user} \\[%{HTTPDATE:timestamp}\\] \"%{WORD:verb} %{NOTSPACE:request} HTTP/%{NUMBER:version}\" "
+            + "%{NUMBER:status} %{NUMBER:bytes}"
+    );
+
+    private static final List<String> MIXED = List.of(
+        "Oct 11 22:14:15 bastion sshd[4242]: Failed password for root from 198.51.100.7 port 52113",
+        "Oct 11 22:14:16 bastion sshd[4243]: Accepted publickey for deploy from 203.0.113.17 port 50022",
+        "2021/04/28 19:45:28 [error] 1234#0: *1 open() \"/var/www/favicon.ico\" failed (2: No such file or directory)",
+        "2021-04-28T19:45:28.222Z [ERROR] 1234#5: upstream timed out while reading response header from upstream",
+        "127.0.0.1 - frank [10/Oct/2000:13:55:36 -0700] \"GET /apache_pb.gif HTTP/1.0\" 200 2326",
+        "Oct 11 22:14:17 bastion CRON[4250]: (root) CMD (run-parts /etc/cron.hourly)"
+    );
+
+    private static final List<String> UNMATCHED = List.of(
+        "Oct 11 22:14:17 bastion CRON[4250]: (root) CMD (run-parts /etc/cron.hourly)",
+        "Oct 11 22:14:18 bastion kernel: eth0: link up, 1000Mbps, full-duplex",
+        "Oct 11 22:14:19 bastion systemd[1]: Started Session 42 of user deploy.",
+        "Oct 11 22:14:20 bastion dhclient[812]: bound to 10.0.0.12 -- renewal in 1643 seconds."
+    );
+
+    @Param({ "mixed", "unmatched" })
+    public String lines;
+
+    private Grok grok;
+    private List<String> input;
+
+    @Setup
+    public void setup() {
+        final StringBuilder expression = new StringBuilder();
+        for (String pattern : PATTERNS) {
+            if (expression.length() > 0) {
+                expression.append('|');
+            }
+            expression.append("(?:").append(pattern).append(')');
+        }
+        grok = new Grok(Grok.getBuiltinPatterns(false), expression.toString(), message -> {});
+        input = "mixed".equals(lines) ? MIXED : UNMATCHED;
+    }
+
+    @Benchmark
+    public void captures(Blackhole bh) {
+        for (String line : input) {
+            final Map<String, Object> captures = grok.captures(line);
+            bh.consume(captures);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.xpack.ml.inference;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.xcontent.DeprecationHandler;
+import org.elasticsearch.xcontent.NamedXContentRegistry;
+import org.elasticsearch.xcontent.ToXContent;
+import org.elasticsearch.xcontent.XContentBuilder;
+import org.elasticsearch.xcontent.XContentFactory;
+import org.elasticsearch.xcontent.XContentParser;
+import org.elasticsearch.xcontent.XContentType;
+import org.elasticsearch.xpack.core.ml.inference.MlInferenceNamedXContentProvider;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.InferenceHelpers;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.NullInferenceConfig;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.RegressionConfig;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.TargetType;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.TrainedModel;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.ensemble.Ensemble;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.inference.EnsembleInferenceModel;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.inference.InferenceModel;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.tree.Tree;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.tree.TreeNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Infers a regression ensemble of complete trees for a batch of documents. {@code objectGraph} walks the nodes of every tree as
+ * objects and looks up the feature of every split in the fields of the document, {@code infer} is the inference the inference
+ * processor runs, and {@code inferFeatures} walks the flat arrays of the trees for features that are already extracted.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(TreeEnsembleInferenceBenchmark.DOCUMENTS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class TreeEnsembleInferenceBenchmark {
+
+    static final int DOCUMENTS = 1024;
+
+    @Param({ "100", "1000" })
+    private int numberOfTrees;
+
+    @Param({ "6" })
+    private int depth;
+
+    @Param({ "20" })
+    private int numberOfFeatures;
+
+    private List<String> featureNames;
+    private List<List<TreeNode>> trees;
+    private EnsembleInferenceModel model;
+    private List<Map<String, Object>> documents;
+    private List<double[]> features;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        featureNames = IntStream.range(0, numberOfFeatures).mapToObj(i -> "feature_" + i).collect(Collectors.toList());
+        trees = new ArrayList<>(numberOfTrees);
+        List<TrainedModel> trainedModels = new ArrayList<>(numberOfTrees);
+        for (int i = 0; i < numberOfTrees; i++) {
+            List<TreeNode.Builder> nodes = buildTree(random);
+            trees.add(nodes.stream().map(TreeNode.Builder::build).collect(Collectors.toList()));
+            trainedModels.add(Tree.builder().setFeatureNames(featureNames).setNodes(nodes).build());
+        }
+        Ensemble ensemble = Ensemble.builder()
+            .setFeatureNames(featureNames)
+            .setTargetType(TargetType.REGRESSION)
+            .setTrainedModels(trainedModels)
+            .build();
+        NamedXContentRegistry registry = new NamedXContentRegistry(new MlInferenceNamedXContentProvider().getNamedXContentParsers());
+        try (
+            XContentBuilder builder = ensemble.toXContent(XContentFactory.jsonBuilder(), ToXContent.EMPTY_PARAMS);
+            XContentParser parser = XContentType.JSON.xContent()
+                .createParser(registry, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, BytesReference.bytes(builder).streamInput())
+        ) {
+            model = EnsembleInferenceModel.fromXContent(parser);
+        }
+        model.rewriteFeatureIndices(Collections.emptyMap());
+
+        documents = new ArrayList<>(DOCUMENTS);
+        features = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            Map<String, Object> document = new HashMap<>();
+            for (String featureName : featureNames) {
+                // some of the features are missing
+                if (random.nextInt(10) > 0) {
+                    document.put(featureName, random.nextDouble());
+                }
+            }
+            documents.add(document);
+            features.add(InferenceModel.extractFeatures(model.getFeatureNames(), document));
+        }
+    }
+
+    private List<TreeNode.Builder> buildTree(Random random) {
+        // a complete tree, the children of node n are 2n + 1 and 2n + 2
+        int numberOfInnerNodes = (1 << depth) - 1;
+        int numberOfNodes = (1 << (depth + 1)) - 1;
+        List<TreeNode.Builder> nodes = new ArrayList<>(numberOfNodes);
+        for (int i = 0; i < numberOfNodes; i++) {
+            if (i < numberOfInnerNodes) {
+                nodes.add(
+                    TreeNode.builder(i)
+                        .setSplitFeature(random.nextInt(numberOfFeatures))
+                        .setThreshold(random.nextDouble())
+                        .setDefaultLeft(random.nextBoolean())
+                        .setLeftChild(2 * i + 1)
+                        .setRightChild(2 * i + 2)
+                );
+            } else {
+                nodes.add(TreeNode.builder(i).setLeafValue(random.nextDouble()));
+            }
+        }
+        return nodes;
+    }
+
+    @Benchmark
+    public void objectGraph(Blackhole blackhole) {
+        for (Map<String, Object> document : documents) {
+            double value = 0.0;
+            for (List<TreeNode> tree : trees) {
+                TreeNode node = tree.get(0);
+                while (node.isLeaf() == false) {
+                    Double feature = InferenceHelpers.toDouble(document.get(featureNames.get(node.getSplitFeature())));
+                    boolean left = feature == null ? node.isDefaultLeft() : node.getOperator().test(feature, node.getThreshold());
+                    node = tree.get(left ? node.getLeftChild() : node.getRightChild());
+                }
+                value += node.getLeafValue()[0];
+            }
+            blackhole.consume(value);
+        }
+    }
+
+    @Benchmark
+    public void infer(Blackhole blackhole) {
+        for (Map<String, Object> document : documents) {
+            blackhole.consume(model.infer(document, RegressionConfig.EMPTY_PARAMS, Collections.emptyMap()));
+        }
+    }
+
+    @Benchmark
+    public void inferFeatures(Blackhole blackhole) {
+        NullInferenceConfig config = new NullInferenceConfig(false);
+        for (double[] documentFeatures : features) {
+            blackhole.consume(model.infer(documentFeatures, config));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.xpack.ml.inference;
+
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.BertTokenization;
+import org.elasticsearch.xpack.ml.inference.nlp.tokenizers.BertTokenizer;
+import org.elasticsearch.xpack.ml.inference.nlp.tokenizers.TokenizationResult;
+import org.elasticsearch.xpack.ml.inference.nlp.tokenizers.WordPieceTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenizes a long document with a vocabulary of the size of the BERT vocabulary. The pieces of the vocabulary and the words of
+ * the document are random, so that most words are split into several pieces. {@code wordPiece} tokenizes the words of the document
+ * one by one, and {@code bert} also runs the basic tokenization of the document.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class WordPieceTokenizerBenchmark {
+
+    @Param({ "30000" })
+    private int vocabularySize;
+
+    @Param({ "1000", "100000" })
+    private int numberOfWords;
+
+    private String document;
+    private String[] words;
+    private WordPieceTokenizer wordPieceTokenizer;
+    private BertTokenizer bertTokenizer;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        Set<String> pieces = new LinkedHashSet<>(
+            List.of(BertTokenizer.UNKNOWN_TOKEN, BertTokenizer.CLASS_TOKEN, BertTokenizer.SEPARATOR_TOKEN, BertTokenizer.PAD_TOKEN)
+        );
+        for (char c = 'a'; c <= 'z'; c++) {
+            pieces.add(String.valueOf(c));
+            pieces.add("##" + c);
+        }
+        while (pieces.size() < vocabularySize) {
+            pieces.add((random.nextInt(3) == 0 ? "##" : "") + randomWord(random, 2, 8));
+        }
+        List<String> vocabulary = new ArrayList<>(pieces);
+        Map<String, Integer> vocabularyMap = new HashMap<>();
+        for (int i = 0; i < vocabulary.size(); i++) {
+            vocabularyMap.put(vocabulary.get(i), i);
+        }
+
+        words = new String[numberOfWords];
+        for (int i = 0; i < numberOfWords; i++) {
+            words[i] = randomWord(random, 1, 14);
+        }
+        document = String.join(" ", words);
+
+        wordPieceTokenizer = new WordPieceTokenizer(
+            vocabularyMap,
+            BertTokenizer.UNKNOWN_TOKEN,
+            BertTokenizer.DEFAULT_MAX_INPUT_CHARS_PER_WORD
+        );
+        bertTokenizer = BertTokenizer.builder(vocabulary, new BertTokenization(true, true, Integer.MAX_VALUE)).build();
+    }
+
+    private static String randomWord(Random random, int minLength, int maxLength) {
+        StringBuilder word = new StringBuilder();
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    @Benchmark
+    public void wordPiece(Blackhole bh) {
+        for (String word : words) {
+            bh.consume(wordPieceTokenizer.tokenize(word));
+        }
+    }
+
+    @Benchmark
+    public TokenizationResult.Tokenization bert() {
+        return bertTokenizer.tokenize(document);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.ingest.geoip;
+
+import com.maxmind.geoip2.model.AbstractResponse;
+
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.network.InetAddresses;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Looks up addresses in the geoip cache from as many threads as a large ingest node has, and compares it with a single
+ * {@link Cache} like the one the cache used to be. Most of the addresses are cached, the way the addresses of the clients of a
+ * service repeat in its logs.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(32)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class GeoIpCacheBenchmark {
+
+    private static final String DATABASE_PATH = "GeoLite2-ASN.mmdb";
+    private static final AbstractResponse RESPONSE = new AbstractResponse() {
+    };
+
+    @Param({ "1000" })
+    private int cacheSize;
+
+    @Param({ "800" })
+    private int addresses;
+
+    private GeoIpCache geoIpCache;
+    private Cache<CacheKey, AbstractResponse> cache;
+
+    @Setup
+    public void setUp() {
+        geoIpCache = new GeoIpCache(cacheSize);
+        cache = CacheBuilder.<CacheKey, AbstractResponse>builder().setMaximumWeight(cacheSize).build();
+    }
+
+    @State(Scope.Thread)
+    public static class Addresses {
+
+        private List<InetAddress> addresses;
+        private int next;
+
+        @Setup
+        public void setUp(GeoIpCacheBenchmark benchmark) {
+            Random random = new Random();
+            addresses = random.ints(4096, 0, benchmark.addresses)
+                .mapToObj(i -> InetAddresses.forString("10.0." + (i >> 8) + "." + (i & 0xFF)))
+                .collect(Collectors.toList());
+        }
+
+        InetAddress next() {
+            return addresses.get(next++ & (addresses.size() - 1));
+        }
+    }
+
+    @Benchmark
+    public AbstractResponse geoIpCache(Addresses addresses) {
+        return geoIpCache.putIfAbsent(addresses.next(), DATABASE_PATH, ip -> RESPONSE);
+    }
+
+    @Benchmark
+    public AbstractResponse cache(Addresses addresses) {
+        InetAddress address = addresses.next();
+        CacheKey cacheKey = new CacheKey(address, DATABASE_PATH);
+        AbstractResponse response = cache.get(cacheKey);
+        if (response == null) {
+            response = RESPONSE;
+            cache.put(cacheKey, response);
+        }
+        return response;
+    }
+
+    private static final class CacheKey {
+
+        private final InetAddress ip;
+        private final String databasePath;
+
+        private CacheKey(InetAddress ip, String databasePath) {
+            this.ip = ip;
+            this.databasePath = databasePath;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CacheKey cacheKey = (CacheKey) o;
+            return Objects.equals(ip, cacheKey.ip) && Objects.equals(databasePath, cacheKey.databasePath);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ip, databasePath);
+        }
+    }
+}
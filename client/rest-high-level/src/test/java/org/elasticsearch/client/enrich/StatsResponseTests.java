@@ -46,7 +46,7 @@ public class StatsResponseTests extends AbstractResponseTestCase<EnrichStatsActi
                     randomNonNegativeLong(), randomNonNegativeLong())
             );
         }
-        return new EnrichStatsAction.Response(executingPolicies, coordinatorStats, cacheStats);
+        return new EnrichStatsAction.Response(executingPolicies, coordinatorStats, cacheStats, Collections.emptyList());
     }
 
     @Override
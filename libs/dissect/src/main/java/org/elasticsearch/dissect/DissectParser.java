@@ -8,12 +8,9 @@
 
 package org.elasticsearch.dissect;
 
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -100,6 +97,8 @@ public final class DissectParser {
     private final int appendCount;
     private final int referenceCount;
     private final String appendSeparator;
+    // whether every key that is not skipped takes a single value that can be reported in place
+    private final boolean simple;
 
     public DissectParser(String pattern, String appendSeparator) {
         this.pattern = pattern;
@@ -153,6 +152,8 @@ public final class DissectParser {
 
         referenceCount = referenceGroupings.size() * 2;
         this.matchPairs = Collections.unmodifiableList(dissectPairs);
+        this.simple = appendCount == 0 && referenceCount == 0
+            && dissectPairs.stream().filter(dissectPair -> dissectPair.getKey().skip() == false).count() == maxResults;
     }
 
 
@@ -164,13 +165,63 @@ public final class DissectParser {
      * @throws DissectException if unable to dissect a pair into it's parts.
      */
     public Map<String, String> parse(String inputString) {
+        int[] bounds = new int[maxMatches * 2];
+        if (match(inputString, bounds) == false) {
+            return null;
+        }
+        return results(inputString, bounds);
+    }
+
+    /**
+     * <p>Entry point to dissect a string into it's parts without collecting the results in a map.</p>
+     * <p>If the string matches, each key is passed to the consumer together with the position of its value in the string. The values
+     * of keys that append to other keys or that reference other keys are assembled first, such values are passed to the consumer as
+     * a string of their own.</p>
+     *
+     * @param inputString The string to dissect
+     * @param consumer The consumer of the keys and values
+     * @return true if the string matched, false otherwise, in which case the consumer is not called
+     * @throws DissectException if unable to dissect a pair into it's parts.
+     */
+    public boolean parse(String inputString, MatchConsumer consumer) {
+        int[] bounds = new int[maxMatches * 2];
+        if (match(inputString, bounds) == false) {
+            return false;
+        }
+        if (simple) {
+            for (int i = 0; i < maxMatches; i++) {
+                DissectKey key = matchPairs.get(i).getKey();
+                if (key.skip() == false) {
+                    consumer.accept(key.getName(), inputString, bounds[i * 2], bounds[i * 2 + 1] - bounds[i * 2]);
+                }
+            }
+            return true;
+        }
+        Map<String, String> results = results(inputString, bounds);
+        if (results == null) {
+            return false;
+        }
+        for (Map.Entry<String, String> result : results.entrySet()) {
+            consumer.accept(result.getKey(), result.getValue(), 0, result.getValue().length());
+        }
+        return true;
+    }
+
+    /**
+     * Finds the values of all keys in the input string.
+     *
+     * @param inputString The string to dissect
+     * @param bounds Receives the start and the end of the value of each key and delimiter pair
+     * @return true if the value of every key was found
+     */
+    private boolean match(String inputString, int[] bounds) {
         /**
          *
-         * This implements a naive string matching algorithm. The string is walked left to right, comparing each byte against
-         * another string's bytes looking for matches. If the bytes match, then a second cursor looks ahead to see if all the bytes
-         * of the other string matches. If they all match, record it and advances the primary cursor to the match point. If it can not match
-         * all of the bytes then progress the main cursor. Repeat till the end of the input string. Since the string being searching for
-         * (the delimiter) is generally small and rare the naive approach is efficient.
+         * This implements a naive string matching algorithm. The string is walked left to right, comparing each character against
+         * another string's characters looking for matches. If the characters match, then a second cursor looks ahead to see if all the
+         * characters of the other string matches. If they all match, record it and advances the primary cursor to the match point. If it
+         * can not match all of the characters then progress the main cursor. Repeat till the end of the input string. Since the string
+         * being searching for (the delimiter) is generally small and rare the naive approach is efficient.
          *
          * In this case the string that is walked is the input string, and the string being searched for is the current delimiter.
          * For example for a dissect pattern of {@code %{a},%{b}:%{c}} the delimiters (comma then colon) are searched for in the
@@ -184,92 +235,78 @@ public final class DissectParser {
          * without assigning any values. For example {@code %{a->},{%b}} will match the input string of {@code foo,,,,,,bar} with a=foo and
          * b=bar.
          *
+         * Values are only recorded as their start and end in the input string, so that no copies are made while walking it.
+         *
          */
-        DissectMatch dissectMatch = new DissectMatch(appendSeparator, maxMatches, maxResults, appendCount, referenceCount);
-        Iterator<DissectPair> it = matchPairs.iterator();
         //ensure leading delimiter matches
-        if (inputString != null && inputString.length() > leadingDelimiter.length()
-            && leadingDelimiter.equals(inputString.substring(0, leadingDelimiter.length()))) {
-            byte[] input = inputString.getBytes(StandardCharsets.UTF_8);
-            //grab the first key/delimiter pair
-            DissectPair dissectPair = it.next();
-            DissectKey key = dissectPair.getKey();
-            byte[] delimiter = dissectPair.getDelimiter().getBytes(StandardCharsets.UTF_8);
-            //start dissection after the first delimiter
-            int i = leadingDelimiter.length();
-            int valueStart = i;
-            int lookAheadMatches;
-            //start walking the input string byte by byte, look ahead for matches where needed
-            //if a match is found jump forward to the end of the match
-            while (i < input.length) {
-                lookAheadMatches = 0;
-                //potential match between delimiter and input string
-                if (delimiter.length > 0 && input[i] == delimiter[0]) {
-                    //look ahead to see if the entire delimiter matches the input string
-                    for (int j = 0; j < delimiter.length; j++) {
-                        if (i + j < input.length && input[i + j] == delimiter[j]) {
-                            lookAheadMatches++;
-                        }
-                    }
-                    //found a full delimiter match
-                    if (lookAheadMatches == delimiter.length) {
-                        //record the key/value tuple
-                        byte[] value = Arrays.copyOfRange(input, valueStart, i);
-                        dissectMatch.add(key, new String(value, StandardCharsets.UTF_8));
-                        //jump to the end of the match
-                        i += lookAheadMatches;
-                        //look for consecutive delimiters (e.g. a,,,,d,e)
-                        while (i < input.length) {
-                            lookAheadMatches = 0;
-                            for (int j = 0; j < delimiter.length; j++) {
-                                if (i + j < input.length && input[i + j] == delimiter[j]) {
-                                    lookAheadMatches++;
-                                }
-                            }
-                            //found consecutive delimiters
-                            if (lookAheadMatches == delimiter.length) {
-                                //jump to the end of the match
-                                i += lookAheadMatches;
-                                if (key.skipRightPadding() == false) {
-                                    //progress the keys/delimiter if possible
-                                    if (it.hasNext() == false) {
-                                        break; //the while loop
-                                    }
-                                    dissectPair = it.next();
-                                    key = dissectPair.getKey();
-                                    //add the key with an empty value for the empty delimiter
-                                    dissectMatch.add(key, "");
-                                }
-                            } else {
-                                break; //the while loop
-                            }
-                        }
+        if (inputString == null || inputString.length() <= leadingDelimiter.length() || inputString.startsWith(leadingDelimiter) == false) {
+            return false;
+        }
+        int matches = 0;
+        //grab the first key/delimiter pair
+        int pair = 0;
+        DissectKey key = matchPairs.get(pair).getKey();
+        String delimiter = matchPairs.get(pair).getDelimiter();
+        //start dissection after the first delimiter
+        int i = leadingDelimiter.length();
+        int valueStart = i;
+        //start walking the input string character by character, look ahead for matches where needed
+        //if a match is found jump forward to the end of the match
+        while (i < inputString.length()) {
+            //potential match between delimiter and input string, look ahead to see if the entire delimiter matches the input string
+            if (delimiter.length() > 0 && inputString.charAt(i) == delimiter.charAt(0) && inputString.startsWith(delimiter, i)) {
+                //record the key/value tuple
+                bounds[pair * 2] = valueStart;
+                bounds[pair * 2 + 1] = i;
+                matches++;
+                //jump to the end of the match
+                i += delimiter.length();
+                //look for consecutive delimiters (e.g. a,,,,d,e)
+                while (i < inputString.length() && inputString.startsWith(delimiter, i)) {
+                    //jump to the end of the match
+                    i += delimiter.length();
+                    if (key.skipRightPadding() == false) {
                         //progress the keys/delimiter if possible
-                        if (it.hasNext() == false) {
-                            break; //the for loop
+                        if (pair + 1 == maxMatches) {
+                            break; //the while loop
                         }
-                        dissectPair = it.next();
-                        key = dissectPair.getKey();
-                        delimiter = dissectPair.getDelimiter().getBytes(StandardCharsets.UTF_8);
-                        //i is always one byte after the last found delimiter, aka the start of the next value
-                        valueStart = i;
-                    } else {
-                        i++;
+                        pair++;
+                        key = matchPairs.get(pair).getKey();
+                        //add the key with an empty value for the empty delimiter
+                        bounds[pair * 2] = i;
+                        bounds[pair * 2 + 1] = i;
+                        matches++;
                     }
-                } else {
-                    i++;
                 }
-            }
-            //the last key, grab the rest of the input (unless consecutive delimiters already grabbed the last key)
-            //and there is no trailing delimiter
-            if (dissectMatch.fullyMatched() == false && delimiter.length == 0 ) {
-                byte[] value = Arrays.copyOfRange(input, valueStart, input.length);
-                String valueString = new String(value, StandardCharsets.UTF_8);
-                dissectMatch.add(key, valueString);
+                //progress the keys/delimiter if possible
+                if (pair + 1 == maxMatches) {
+                    break; //the for loop
+                }
+                pair++;
+                key = matchPairs.get(pair).getKey();
+                delimiter = matchPairs.get(pair).getDelimiter();
+                //i is always one character after the last found delimiter, aka the start of the next value
+                valueStart = i;
+            } else {
+                i++;
             }
         }
-        Map<String, String> results = dissectMatch.getResults();
+        //the last key, grab the rest of the input (unless consecutive delimiters already grabbed the last key)
+        //and there is no trailing delimiter
+        if (matches < maxMatches && delimiter.isEmpty()) {
+            bounds[pair * 2] = valueStart;
+            bounds[pair * 2 + 1] = inputString.length();
+            matches++;
+        }
+        return matches == maxMatches;
+    }
 
+    private Map<String, String> results(String inputString, int[] bounds) {
+        DissectMatch dissectMatch = new DissectMatch(appendSeparator, maxMatches, maxResults, appendCount, referenceCount);
+        for (int i = 0; i < maxMatches; i++) {
+            dissectMatch.add(matchPairs.get(i).getKey(), inputString.substring(bounds[i * 2], bounds[i * 2 + 1]));
+        }
+        Map<String, String> results = dissectMatch.getResults();
         return dissectMatch.isValid(results) ? results : null;
     }
 
@@ -288,6 +325,34 @@ public final class DissectParser {
         return results;
     }
 
+    /**
+     * <p>Entry point to dissect a string into it's parts without collecting the results in a map.</p>
+     *
+     * @param inputString The string to dissect
+     * @param consumer The consumer of the keys and values, see {@link #parse(String, MatchConsumer)}
+     * @throws DissectException if unable to dissect a pair into it's parts.
+     */
+    public void forceParse(String inputString, MatchConsumer consumer) {
+        if (parse(inputString, consumer) == false) {
+            throw new DissectException.FindMatch(pattern, inputString);
+        }
+    }
+
+    /**
+     * Receives the keys and values of a match.
+     */
+    @FunctionalInterface
+    public interface MatchConsumer {
+
+        /**
+         * @param key the name of the key
+         * @param input the string that holds the value
+         * @param offset the offset of the value in {@code input}
+         * @param length the length of the value
+         */
+        void accept(String key, String input, int offset, int length);
+    }
+
     /**
      * A tuple class to hold the dissect key and delimiter
      */
@@ -17,6 +17,7 @@ import org.mockito.internal.util.collections.Sets;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -351,6 +352,7 @@ public class DissectParserTests extends ESTestCase {
 
     private void assertMiss(String pattern, String input) {
         assertNull(new DissectParser(pattern, null).parse(input));
+        assertFalse(new DissectParser(pattern, null).parse(input, (key, value, offset, length) -> fail("unexpected key [" + key + "]")));
         DissectException e = assertFail(pattern, input);
         assertThat(e.getMessage(), CoreMatchers.containsString("Unable to find match for dissect pattern"));
         assertThat(e.getMessage(), CoreMatchers.containsString(pattern));
@@ -379,6 +381,10 @@ public class DissectParserTests extends ESTestCase {
 
     private void assertMatch(String pattern, String input, List<String> expectedKeys, List<String> expectedValues, String appendSeperator) {
         Map<String, String> results = new DissectParser(pattern, appendSeperator).parse(input);
+        Map<String, String> streamed = new HashMap<>();
+        assertTrue(new DissectParser(pattern, appendSeperator).parse(input,
+            (key, value, offset, length) -> streamed.put(key, value.substring(offset, offset + length))));
+        assertThat(streamed, Matchers.equalTo(results));
         assertThat(results.size(), Matchers.equalTo(expectedKeys.size()));
         assertThat(results.size(), Matchers.equalTo(expectedValues.size()));
         for (int i = 0; i < results.size(); i++) {
@@ -65,6 +65,7 @@ public final class Grok {
     private final Regex compiledExpression;
     private final MatcherWatchdog matcherWatchdog;
     private final List<GrokCaptureConfig> captureConfig;
+    private final GrokLiteralPrefilter prefilter;
 
     public Grok(Map<String, String> patternBank, String grokPattern, Consumer<String> logCallBack) {
         this(patternBank, grokPattern, true, MatcherWatchdog.noop(), logCallBack);
@@ -96,6 +97,7 @@ public final class Grok {
             grokCaptureConfigs.add(new GrokCaptureConfig(entry.next()));
         }
         this.captureConfig = List.copyOf(grokCaptureConfigs);
+        this.prefilter = GrokLiteralPrefilter.build(grokPattern);
     }
 
     /**
@@ -230,7 +232,8 @@ public final class Grok {
     }
 
     /**
-     * Checks whether a specific text matches the defined grok expression.
+     * Checks whether a specific text matches the defined grok expression. Unlike {@link #captures(String)} this always runs the
+     * regular expression, so that the warnings of the regular expression engine are reported to the log callback.
      *
      * @param text the string to match
      * @return true if grok expression matches text or there is a timeout, false otherwise.
@@ -263,7 +266,8 @@ public final class Grok {
     }
 
     /**
-     * Matches and collects any named captures.
+     * Matches and collects any named captures. Text that does not contain any of the literals that a match of the grok expression
+     * requires is rejected without running the regular expression.
      * @param utf8Bytes array containing the text to match against encoded in utf-8
      * @param offset offset {@code utf8Bytes} of the start of the text
      * @param length length of the text to match
@@ -272,6 +276,9 @@ public final class Grok {
      * @throws RuntimeException if there was a timeout
      */
     public boolean match(byte[] utf8Bytes, int offset, int length, GrokCaptureExtracter extracter) {
+        if (prefilter != null && prefilter.mayMatch(utf8Bytes, offset, length) == false) {
+            return false;
+        }
         Matcher matcher = compiledExpression.matcher(utf8Bytes, offset, offset + length);
         int result;
         try {
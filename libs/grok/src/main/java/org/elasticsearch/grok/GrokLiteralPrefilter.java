@@ -0,0 +1,494 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.grok;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rejects text that cannot match a grok expression without running the regular expression. The literals that every match of the
+ * expression must contain are taken from the grok expression itself, before the pattern references are expanded: for every top level
+ * alternative of the expression the longest literal that it requires is picked, and text that contains none of these literals is
+ * rejected. The literals are searched for in a single pass over the UTF-8 bytes of the text with an Aho-Corasick automaton.
+ */
+final class GrokLiteralPrefilter {
+
+    /**
+     * Literals that are shorter than this are found in almost any text, expressions that require such a literal are not prefiltered.
+     */
+    static final int MIN_LITERAL_LENGTH = 2;
+
+    /**
+     * The number of bytes of a literal that are searched for. A prefix of a required literal is required as well, so longer literals
+     * are cut to keep the automaton small.
+     */
+    static final int MAX_LITERAL_LENGTH = 16;
+
+    private final Set<String> literals;
+    private final int[] byteClasses;
+    private final int alphabetSize;
+    private final int[] transitions;
+    private final boolean[] accepting;
+
+    private GrokLiteralPrefilter(Set<String> literals) {
+        this.literals = literals;
+        final List<byte[]> keys = new ArrayList<>(literals.size());
+        for (String literal : literals) {
+            final byte[] bytes = literal.getBytes(StandardCharsets.UTF_8);
+            keys.add(Arrays.copyOf(bytes, Math.min(bytes.length, MAX_LITERAL_LENGTH)));
+        }
+
+        // only the bytes that occur in the literals need a column in the transition table, all others share class 0
+        this.byteClasses = new int[256];
+        int classes = 1;
+        for (byte[] key : keys) {
+            for (byte b : key) {
+                if (byteClasses[b & 0xff] == 0) {
+                    byteClasses[b & 0xff] = classes++;
+                }
+            }
+        }
+        this.alphabetSize = classes;
+
+        // build the trie of the literals
+        final List<int[]> children = new ArrayList<>();
+        final List<Boolean> terminal = new ArrayList<>();
+        children.add(newNode());
+        terminal.add(false);
+        for (byte[] key : keys) {
+            int node = 0;
+            for (byte b : key) {
+                final int c = byteClasses[b & 0xff];
+                if (children.get(node)[c] == -1) {
+                    children.get(node)[c] = children.size();
+                    children.add(newNode());
+                    terminal.add(false);
+                }
+                node = children.get(node)[c];
+            }
+            terminal.set(node, true);
+        }
+
+        // complete the trie to a deterministic automaton by following the failure links in breadth first order
+        final int nodes = children.size();
+        this.transitions = new int[nodes * alphabetSize];
+        this.accepting = new boolean[nodes];
+        final int[] failure = new int[nodes];
+        final ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while (queue.isEmpty() == false) {
+            final int node = queue.poll();
+            accepting[node] = terminal.get(node) || accepting[failure[node]];
+            for (int c = 0; c < alphabetSize; c++) {
+                final int child = children.get(node)[c];
+                if (child == -1) {
+                    transitions[node * alphabetSize + c] = node == 0 ? 0 : transitions[failure[node] * alphabetSize + c];
+                } else {
+                    failure[child] = node == 0 ? 0 : transitions[failure[node] * alphabetSize + c];
+                    transitions[node * alphabetSize + c] = child;
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    private int[] newNode() {
+        final int[] node = new int[alphabetSize];
+        Arrays.fill(node, -1);
+        return node;
+    }
+
+    /**
+     * Builds the prefilter of a grok expression, or returns {@code null} if there is no set of literals that every match requires.
+     */
+    static GrokLiteralPrefilter build(String grokPattern) {
+        final Set<String> literals = requiredLiterals(grokPattern);
+        return literals == null ? null : new GrokLiteralPrefilter(literals);
+    }
+
+    /**
+     * Returns literals of which every match of the grok expression contains at least one, or {@code null} if there are none.
+     */
+    static Set<String> requiredLiterals(String grokPattern) {
+        if (hasOptions(grokPattern)) {
+            // options such as case insensitive or extended matching change the meaning of the literals
+            return null;
+        }
+        final Set<String> literals = alternation(grokPattern, 0, grokPattern.length());
+        if (literals == null || literals.isEmpty()) {
+            return null;
+        }
+        for (String literal : literals) {
+            if (literal.getBytes(StandardCharsets.UTF_8).length < MIN_LITERAL_LENGTH) {
+                return null;
+            }
+        }
+        return Set.copyOf(literals);
+    }
+
+    /**
+     * The literals of which text must contain at least one to match.
+     */
+    Set<String> literals() {
+        return literals;
+    }
+
+    /**
+     * Returns whether the given UTF-8 encoded text contains at least one of the required literals and may thus match.
+     */
+    boolean mayMatch(byte[] utf8Bytes, int offset, int length) {
+        int state = 0;
+        for (int i = offset; i < offset + length; i++) {
+            state = transitions[state * alphabetSize + byteClasses[utf8Bytes[i] & 0xff]];
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasOptions(String pattern) {
+        for (int i = pattern.indexOf("(?"); i >= 0; i = pattern.indexOf("(?", i + 1)) {
+            if (i + 2 < pattern.length()) {
+                final char c = pattern.charAt(i + 2);
+                if (Character.isLetter(c) || c == '-') {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the literals required by the alternatives between {@code from} and {@code to}, or {@code null} if one of the alternatives
+     * does not require a literal.
+     */
+    private static Set<String> alternation(String pattern, int from, int to) {
+        final Set<String> literals = new HashSet<>();
+        int start = from;
+        int i = from;
+        while (i <= to) {
+            if (i == to || pattern.charAt(i) == '|') {
+                final Set<String> alternative = sequence(pattern, start, i);
+                if (alternative == null) {
+                    return null;
+                }
+                literals.addAll(alternative);
+                start = i + 1;
+                i++;
+            } else {
+                i = skipAtom(pattern, i, to);
+            }
+        }
+        return literals;
+    }
+
+    /**
+     * Returns the most selective set of literals required by the sequence of atoms between {@code from} and {@code to}, or
+     * {@code null} if it does not require any.
+     */
+    private static Set<String> sequence(String pattern, int from, int to) {
+        Set<String> best = null;
+        final StringBuilder run = new StringBuilder();
+        int i = from;
+        while (i < to) {
+            final char c = pattern.charAt(i);
+            String literal = null;
+            Set<String> group = null;
+            int next;
+            if (c == '\\') {
+                next = endOfEscape(pattern, i, to);
+                if (i + 1 < to && Character.isLetterOrDigit(pattern.codePointAt(i + 1)) == false) {
+                    literal = pattern.substring(i + 1, next);
+                }
+                // escapes of letters and digits are character classes, anchors, back references or characters given by their code,
+                // which are not taken as literals
+            } else if (c == '(') {
+                final int close = endOfGroup(pattern, i, to);
+                group = group(pattern, i + 1, close);
+                next = Math.min(close + 1, to);
+            } else if (c == '%' && i + 1 < to && pattern.charAt(i + 1) == '{') {
+                next = endOfReference(pattern, i, to);
+            } else if (c == '[') {
+                next = endOfClass(pattern, i, to);
+            } else if (".^$?*+{|)".indexOf(c) >= 0) {
+                next = i + 1;
+            } else {
+                final int codePoint = pattern.codePointAt(i);
+                literal = new String(Character.toChars(codePoint));
+                next = i + Character.charCount(codePoint);
+            }
+
+            boolean optional = false;
+            boolean repeated = false;
+            int end = next;
+            if (end < to) {
+                final char quantifier = pattern.charAt(end);
+                if (quantifier == '?' || quantifier == '*') {
+                    optional = true;
+                    end++;
+                } else if (quantifier == '+') {
+                    repeated = true;
+                    end++;
+                } else if (quantifier == '{') {
+                    final int endOfInterval = endOfInterval(pattern, end, to);
+                    if (endOfInterval > 0) {
+                        optional = true;
+                        end = endOfInterval;
+                    }
+                }
+                if (end > next && end < to && (pattern.charAt(end) == '?' || pattern.charAt(end) == '+')) {
+                    // reluctant or possessive quantifier
+                    end++;
+                }
+            }
+
+            if (literal != null && optional == false) {
+                run.append(literal);
+                if (repeated) {
+                    best = moreSelective(best, run);
+                    run.setLength(0);
+                }
+            } else {
+                best = moreSelective(best, run);
+                run.setLength(0);
+                if (group != null && optional == false) {
+                    best = moreSelective(best, group);
+                }
+            }
+            i = end;
+        }
+        return moreSelective(best, run);
+    }
+
+    /**
+     * Returns the literals required by the content of a group, or {@code null} if the group does not consume a required literal.
+     */
+    private static Set<String> group(String pattern, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        if (pattern.charAt(from) != '?') {
+            return alternation(pattern, from, to);
+        }
+        if (from + 1 >= to) {
+            return null;
+        }
+        final char kind = pattern.charAt(from + 1);
+        if (kind == ':' || kind == '>') {
+            return alternation(pattern, from + 2, to);
+        }
+        if ((kind == '<' || kind == '\'') && from + 2 < to && pattern.charAt(from + 2) != '=' && pattern.charAt(from + 2) != '!') {
+            final int endOfName = pattern.indexOf(kind == '<' ? '>' : '\'', from + 2);
+            if (endOfName < 0 || endOfName >= to) {
+                return null;
+            }
+            return alternation(pattern, endOfName + 1, to);
+        }
+        // look arounds, comments and conditions
+        return null;
+    }
+
+    private static Set<String> moreSelective(Set<String> current, StringBuilder run) {
+        return run.length() == 0 ? current : moreSelective(current, Set.of(run.toString()));
+    }
+
+    /**
+     * Picks the set of literals whose shortest literal is the longest, or the smaller set if that is the same.
+     */
+    private static Set<String> moreSelective(Set<String> current, Set<String> candidate) {
+        if (current == null) {
+            return candidate;
+        }
+        final int currentLength = shortestLength(current);
+        final int candidateLength = shortestLength(candidate);
+        if (candidateLength > currentLength || (candidateLength == currentLength && candidate.size() < current.size())) {
+            return candidate;
+        }
+        return current;
+    }
+
+    private static int shortestLength(Set<String> literals) {
+        int shortest = Integer.MAX_VALUE;
+        for (String literal : literals) {
+            shortest = Math.min(shortest, Math.min(literal.getBytes(StandardCharsets.UTF_8).length, MAX_LITERAL_LENGTH));
+        }
+        return shortest;
+    }
+
+    private static int skipAtom(String pattern, int i, int to) {
+        final char c = pattern.charAt(i);
+        if (c == '\\') {
+            return endOfEscape(pattern, i, to);
+        } else if (c == '[') {
+            return endOfClass(pattern, i, to);
+        } else if (c == '(') {
+            return Math.min(endOfGroup(pattern, i, to) + 1, to);
+        } else if (c == '%' && i + 1 < to && pattern.charAt(i + 1) == '{') {
+            return endOfReference(pattern, i, to);
+        }
+        return i + 1;
+    }
+
+    /**
+     * Returns the index after the escape sequence that starts with the backslash at {@code i}. Escapes of letters and digits may span
+     * several characters, like <code>\x{263a}</code>, <code>\p{Alpha}</code>, <code>\k&lt;name&gt;</code> or <code>\Q...\E</code>,
+     * and must be skipped as a whole so that their remaining characters are not taken as literals.
+     */
+    private static int endOfEscape(String pattern, int i, int to) {
+        if (i + 1 >= to) {
+            return to;
+        }
+        final char c = pattern.charAt(i + 1);
+        final int j = i + 2;
+        switch (c) {
+            case 'x':
+                return j < to && pattern.charAt(j) == '{' ? endOfDelimited(pattern, j, '}', to) : skipHexDigits(pattern, j, to, 2);
+            case 'u':
+                return skipHexDigits(pattern, j, to, 4);
+            case 'o':
+            case 'p':
+            case 'P':
+                return j < to && pattern.charAt(j) == '{' ? endOfDelimited(pattern, j, '}', to) : j;
+            case 'k':
+            case 'g':
+                if (j < to) {
+                    final char open = pattern.charAt(j);
+                    if (open == '<') {
+                        return endOfDelimited(pattern, j, '>', to);
+                    } else if (open == '\'') {
+                        return endOfDelimited(pattern, j, '\'', to);
+                    } else if (open == '{') {
+                        return endOfDelimited(pattern, j, '}', to);
+                    }
+                }
+                return j;
+            case 'Q':
+                final int quoteEnd = pattern.indexOf("\\E", j);
+                return quoteEnd < 0 || quoteEnd + 2 > to ? to : quoteEnd + 2;
+            case 'c':
+                // the control character of the next character
+                return j < to && pattern.charAt(j) == '\\' ? endOfEscape(pattern, j, to) : Math.min(j + 1, to);
+            case 'C':
+            case 'M':
+                // control and meta characters like \C-x and \M-x
+                if (j < to && pattern.charAt(j) == '-') {
+                    return j + 1 < to && pattern.charAt(j + 1) == '\\' ? endOfEscape(pattern, j + 1, to) : Math.min(j + 2, to);
+                }
+                return j;
+            default:
+                if (c >= '0' && c <= '9') {
+                    // octal codes and back references
+                    int k = j;
+                    while (k < to && pattern.charAt(k) >= '0' && pattern.charAt(k) <= '9') {
+                        k++;
+                    }
+                    return k;
+                }
+                return i + 1 + Character.charCount(pattern.codePointAt(i + 1));
+        }
+    }
+
+    private static int skipHexDigits(String pattern, int i, int to, int maxDigits) {
+        int j = i;
+        while (j < to && j < i + maxDigits && Character.digit(pattern.charAt(j), 16) >= 0) {
+            j++;
+        }
+        return j;
+    }
+
+    /**
+     * Returns the index after the first {@code closer} after {@code i}, or {@code to} if there is none.
+     */
+    private static int endOfDelimited(String pattern, int i, char closer, int to) {
+        final int close = pattern.indexOf(closer, i + 1);
+        return close < 0 || close >= to ? to : close + 1;
+    }
+
+    /**
+     * Returns the index after the pattern reference that starts at {@code i}.
+     */
+    private static int endOfReference(String pattern, int i, int to) {
+        final int close = pattern.indexOf('}', i);
+        return close < 0 || close >= to ? to : close + 1;
+    }
+
+    /**
+     * Returns the index after the character class that starts at {@code i}.
+     */
+    private static int endOfClass(String pattern, int i, int to) {
+        int j = i + 1;
+        if (j < to && pattern.charAt(j) == '^') {
+            j++;
+        }
+        if (j < to && pattern.charAt(j) == ']') {
+            // a closing bracket at the start of a class is a literal
+            j++;
+        }
+        int depth = 1;
+        while (j < to) {
+            final char c = pattern.charAt(j);
+            if (c == '\\') {
+                j = endOfEscape(pattern, j, to);
+            } else if (c == '[') {
+                depth++;
+                j++;
+            } else if (c == ']') {
+                j++;
+                if (--depth == 0) {
+                    return j;
+                }
+            } else {
+                j++;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Returns the index of the parenthesis that closes the group that starts at {@code i}.
+     */
+    private static int endOfGroup(String pattern, int i, int to) {
+        int depth = 0;
+        int j = i;
+        while (j < to) {
+            final char c = pattern.charAt(j);
+            if (c == '\\') {
+                j = endOfEscape(pattern, j, to);
+            } else if (c == '[') {
+                j = endOfClass(pattern, j, to);
+            } else {
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth == 0) {
+                    return j;
+                }
+                j++;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Returns the index after the interval quantifier such as <code>{2,3}</code> that starts at {@code i}, or {@code -1} if the brace
+     * does not start an interval.
+     */
+    private static int endOfInterval(String pattern, int i, int to) {
+        int j = i + 1;
+        while (j < to && (Character.isDigit(pattern.charAt(j)) || pattern.charAt(j) == ',')) {
+            j++;
+        }
+        return j < to && j > i + 1 && pattern.charAt(j) == '}' ? j + 1 : -1;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.grok;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class GrokLiteralPrefilterTests extends ESTestCase {
+
+    public void testRequiredLiterals() {
+        assertThat(GrokLiteralPrefilter.requiredLiterals("value"), equalTo(Set.of("value")));
+        assertThat(GrokLiteralPrefilter.requiredLiterals("%{IP:client} - %{USER:user} [%{HTTPDATE:timestamp}]"), equalTo(Set.of(" - ")));
+        assertThat(GrokLiteralPrefilter.requiredLiterals("%{WORD:a} took %{NUMBER:b}ms"), equalTo(Set.of(" took ")));
+        assertThat(GrokLiteralPrefilter.requiredLiterals("\\[%{WORD:level}\\] connection refused"),
+            equalTo(Set.of("] connection refused")));
+        // optional characters end a literal
+        assertThat(GrokLiteralPrefilter.requiredLiterals("https?://%{HOSTNAME:host}"), equalTo(Set.of("http")));
+        assertThat(GrokLiteralPrefilter.requiredLiterals("abc(?:def)?ghij"), equalTo(Set.of("ghij")));
+        assertThat(GrokLiteralPrefilter.requiredLiterals("ab{2}cd"), equalTo(Set.of("cd")));
+        assertThat(GrokLiteralPrefilter.requiredLiterals("(?:GET|POST) /%{NOTSPACE:path}"), equalTo(Set.of("GET", "POST")));
+        // every alternative has to require a literal
+        assertThat(GrokLiteralPrefilter.requiredLiterals("(?:error: %{GREEDYDATA:msg})|(?:warning: %{GREEDYDATA:msg})"),
+            equalTo(Set.of("error: ", "warning: ")));
+        final String traced = "(?<_ingest._grok_match_index.0>%{WORD} login)|(?<_ingest._grok_match_index.1>";
+        assertThat(GrokLiteralPrefilter.requiredLiterals(traced + "ok)"), equalTo(Set.of(" login", "ok")));
+        assertThat(GrokLiteralPrefilter.requiredLiterals(traced + "%{IP})"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals("error|%{GREEDYDATA}"), nullValue());
+        // literals that are too short are not worth prefiltering
+        assertThat(GrokLiteralPrefilter.requiredLiterals("%{IP:a} %{IP:b}"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals("[abc]+\\d+.*"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals(""), nullValue());
+        // options change the meaning of literals
+        assertThat(GrokLiteralPrefilter.requiredLiterals("(?i)error"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals("(?x) e r r o r"), nullValue());
+        // look arounds do not consume their literals
+        assertThat(GrokLiteralPrefilter.requiredLiterals("(?=error)%{WORD}"), nullValue());
+    }
+
+    public void testEscapesAreSkippedAsAWhole() {
+        // the characters of an escape are no literals, even if it spans more than one character after the backslash
+        assertThat(GrokLiteralPrefilter.requiredLiterals("%{WORD:a}\\x20%{WORD:b}"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals("%{WORD:a}\\x{263a}%{WORD:b}"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals("\\u00e9t%{WORD:w}"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals("%{WORD:a}\\p{L}+"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals("%{WORD:a}\\P{^Alpha}"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals("%{WORD:a}\\k<a>"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals("%{WORD:a}\\k'a'"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals("(?<a>x)\\g<a>"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals("(x)\\g{1}"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals("%{WORD:a}\\0123"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals("%{WORD:a}\\cAB"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals("%{WORD:a}\\C-ab"), nullValue());
+        assertThat(GrokLiteralPrefilter.requiredLiterals("\\Qab|cd\\E%{WORD:a}"), nullValue());
+        // the literals around an escape are still required
+        assertThat(GrokLiteralPrefilter.requiredLiterals("%{WORD:a}\\x{263a}took %{NUMBER:b}"), equalTo(Set.of("took ")));
+        assertThat(GrokLiteralPrefilter.requiredLiterals("\\p{Digit}+ms elapsed"), equalTo(Set.of("ms elapsed")));
+        assertThat(GrokLiteralPrefilter.requiredLiterals("(?<a>%{WORD}) again \\k<a>"), equalTo(Set.of(" again ")));
+        assertThat(GrokLiteralPrefilter.requiredLiterals("\\Qa|b\\Eerror: %{GREEDYDATA:msg}"), equalTo(Set.of("error: ")));
+        assertThat(GrokLiteralPrefilter.requiredLiterals("[\\x{5d}\\p{L}]error: %{GREEDYDATA:msg}"), equalTo(Set.of("error: ")));
+        assertThat(GrokLiteralPrefilter.requiredLiterals("\\012error: %{GREEDYDATA:msg}"), equalTo(Set.of("error: ")));
+        // escaped punctuation is a literal
+        assertThat(GrokLiteralPrefilter.requiredLiterals("\\{\\}%{WORD:a}"), equalTo(Set.of("{}")));
+    }
+
+    public void testEscapesDoNotRejectMatchingText() {
+        final Map<String, String> patternsAndLines = Map.of(
+            "%{WORD:a}\\x20%{WORD:b}", "hello world",
+            "%{WORD:a} \\p{L}+", "hello wörld",
+            "%{WORD:a} \\k<WORD:a>", "hey hey",
+            "\\u00e9t %{WORD:w}", "ét hello",
+            "%{WORD:a}\\012error: %{GREEDYDATA:msg}", "disk\nerror: full"
+        );
+        for (Map.Entry<String, String> entry : patternsAndLines.entrySet()) {
+            final Grok grok = new Grok(Grok.getBuiltinPatterns(false), entry.getKey(), logger::warn);
+            final byte[] utf8 = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            assertTrue(entry.getKey(), grok.match(entry.getValue()));
+            assertTrue(entry.getKey(), grok.match(utf8, 0, utf8.length, new GrokCaptureExtracter.MapExtracter(grok.captureConfig())));
+        }
+    }
+
+    public void testMayMatch() {
+        final GrokLiteralPrefilter prefilter = prefilter("(?:abcd|bce|%{WORD}xyz)");
+        assertThat(prefilter.literals(), equalTo(Set.of("abcd", "bce", "xyz")));
+        assertTrue(mayMatch(prefilter, "abcd"));
+        // the automaton has to fall back from the partial match of abcd to bce
+        assertTrue(mayMatch(prefilter, "abce"));
+        assertTrue(mayMatch(prefilter, "ababcabcd"));
+        assertTrue(mayMatch(prefilter, "---xyz"));
+        assertFalse(mayMatch(prefilter, "abc bc xy"));
+        assertFalse(mayMatch(prefilter, ""));
+
+        final byte[] utf8 = "xyz abc".getBytes(StandardCharsets.UTF_8);
+        assertTrue(prefilter.mayMatch(utf8, 0, 3));
+        assertFalse(prefilter.mayMatch(utf8, 1, utf8.length - 1));
+    }
+
+    public void testLongAndNonAsciiLiterals() {
+        final GrokLiteralPrefilter prefilter = prefilter("Übertragung abgeschlossen nach %{NUMBER} Sekunden");
+        assertTrue(mayMatch(prefilter, "Übertragung abgeschlossen nach 3 Sekunden"));
+        assertFalse(mayMatch(prefilter, "Ubertragung abgeschlossen nach 3 Sekunden"));
+    }
+
+    public void testPrefilterAgreesWithRegex() {
+        final List<String> patterns = List.of(
+            "%{COMBINEDAPACHELOG}",
+            "%{SYSLOGTIMESTAMP:ts} %{SYSLOGHOST:host} sshd(?:\\[%{POSINT:pid}\\])?: Failed password for %{USERNAME:user}",
+            "(?:%{WORD:verb} /api/%{NOTSPACE:path})|(?:%{LOGLEVEL:level}: %{GREEDYDATA:message})",
+            "\\[%{WORD:level}\\] %{GREEDYDATA:message} after %{NUMBER:took}ms"
+        );
+        final List<String> lines = List.of(
+            "127.0.0.1 - frank [10/Oct/2000:13:55:36 -0700] \"GET /apache_pb.gif HTTP/1.0\" 200 2326 \"http://example.com/\" \"Mozilla\"",
+            "Oct 11 22:14:15 server sshd[4242]: Failed password for root from 10.0.0.1 port 22",
+            "Oct 11 22:14:15 server sshd: Failed password for admin",
+            "PUT /api/orders/12",
+            "ERROR: disk full",
+            "[WARN] request completed after 231ms",
+            "[WARN] request completed after ms",
+            "GET /index.html",
+            "INFO - nothing to see here"
+        );
+        for (String pattern : patterns) {
+            final Grok grok = new Grok(Grok.getBuiltinPatterns(false), pattern, logger::warn);
+            for (String line : lines) {
+                // match(String) always runs the regular expression while captures(String) is prefiltered
+                assertThat(pattern + " on " + line, grok.captures(line) != null, equalTo(grok.match(line)));
+            }
+        }
+        assertThat(GrokLiteralPrefilter.requiredLiterals(patterns.get(1)), equalTo(Set.of(": Failed password for ")));
+        assertThat(GrokLiteralPrefilter.requiredLiterals(patterns.get(2)), equalTo(Set.of(" /api/", ": ")));
+    }
+
+    private static boolean mayMatch(GrokLiteralPrefilter prefilter, String text) {
+        final byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        return prefilter.mayMatch(utf8, 0, utf8.length);
+    }
+
+    private static GrokLiteralPrefilter prefilter(String grokPattern) {
+        final GrokLiteralPrefilter prefilter = GrokLiteralPrefilter.build(grokPattern);
+        assertThat(prefilter, notNullValue());
+        return prefilter;
+    }
+}
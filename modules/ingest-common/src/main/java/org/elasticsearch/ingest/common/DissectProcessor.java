@@ -43,7 +43,8 @@ public final class DissectProcessor extends AbstractProcessor {
         } else if (input == null) {
             throw new IllegalArgumentException("field [" + field + "] is null, cannot process it.");
         }
-        dissectParser.forceParse(input).forEach(ingestDocument::setFieldValue);
+        dissectParser.forceParse(input,
+            (key, value, offset, length) -> ingestDocument.setFieldValue(key, value.substring(offset, offset + length)));
         return ingestDocument;
     }
 
@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -82,6 +83,8 @@ public final class KeyValueProcessor extends AbstractProcessor {
 
         final Function<String, String[]> fieldSplitter = buildSplitter(fieldSplit, true);
         Function<String, String[]> valueSplitter = buildSplitter(valueSplit, false);
+        final String fieldSeparator = literalSeparator(fieldSplit);
+        final String valueSeparator = literalSeparator(valueSplit);
         final Function<String, String> keyTrimmer = buildTrimmer(trimKey);
         final Function<String, String> bracketStrip;
         if (stripBrackets) {
@@ -124,19 +127,78 @@ public final class KeyValueProcessor extends AbstractProcessor {
                 }
                 throw new IllegalArgumentException("field [" + path + "] is null, cannot extract key-value pairs.");
             }
+            final BiConsumer<String, String> keyValueConsumer = (rawKey, rawValue) -> {
+                String key = keyTrimmer.apply(rawKey);
+                if (keyFilter.test(key)) {
+                    append(document, keyPrefixer.apply(key), valueTrimmer.apply(bracketStrip.apply(rawValue)));
+                }
+            };
+            if (fieldSeparator != null && valueSeparator != null) {
+                if (splitLiterally(value, fieldSeparator, valueSeparator, keyValueConsumer) == false) {
+                    throw new IllegalArgumentException("field [" + path + "] does not contain value_split [" + valueSplit + "]");
+                }
+                return;
+            }
             for (String part : fieldSplitter.apply(value)) {
                 String[] kv = valueSplitter.apply(part);
                 if (kv.length != 2) {
                     throw new IllegalArgumentException("field [" + path + "] does not contain value_split [" + valueSplit + "]");
                 }
-                String key = keyTrimmer.apply(kv[0]);
-                if (keyFilter.test(key)) {
-                    append(document, keyPrefixer.apply(key), valueTrimmer.apply(bracketStrip.apply(kv[1])));
-                }
+                keyValueConsumer.accept(kv[0], kv[1]);
             }
         };
     }
 
+    /**
+     * Returns the string that a split pattern matches if it matches a single character, the way {@link String#split(String)} treats
+     * such patterns, or {@code null} if the pattern is a regular expression.
+     */
+    static String literalSeparator(String split) {
+        if (split.length() == 1 && ".$|()[{^?*+\\".indexOf(split.charAt(0)) == -1 && Character.isSurrogate(split.charAt(0)) == false) {
+            return split;
+        }
+        if (split.length() == 2 && split.charAt(0) == '\\' && Character.isLetterOrDigit(split.charAt(1)) == false
+            && Character.isSurrogate(split.charAt(1)) == false) {
+            return split.substring(1);
+        }
+        return null;
+    }
+
+    /**
+     * Splits the value into its key value pairs without creating arrays of the parts, with the same result as splitting the value
+     * with {@link String#split(String)} into its fields and each of these with a limit of two into its key and value.
+     *
+     * @return false if one of the fields does not contain the value separator
+     */
+    static boolean splitLiterally(String value, String fieldSeparator, String valueSeparator, BiConsumer<String, String> consumer) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        // empty fields are dropped when they are at the end of the value
+        boolean emptyField = false;
+        int start = 0;
+        while (start < value.length()) {
+            int end = value.indexOf(fieldSeparator, start);
+            if (end == -1) {
+                end = value.length();
+            }
+            if (end == start) {
+                emptyField = true;
+            } else {
+                if (emptyField) {
+                    return false;
+                }
+                int separator = value.indexOf(valueSeparator, start);
+                if (separator == -1 || separator + valueSeparator.length() > end) {
+                    return false;
+                }
+                consumer.accept(value.substring(start, separator), value.substring(separator + valueSeparator.length(), end));
+            }
+            start = end + fieldSeparator.length();
+        }
+        return true;
+    }
+
     private static Function<String, String> buildTrimmer(String trim) {
         if (trim == null) {
             return val -> val;
@@ -130,6 +130,40 @@ public class KeyValueProcessorTests extends ESTestCase {
         assertThat(exception.getMessage(), equalTo("field [foo] does not contain value_split [=]"));
     }
 
+    public void testLiteralSeparators() {
+        assertThat(KeyValueProcessor.literalSeparator("&"), equalTo("&"));
+        assertThat(KeyValueProcessor.literalSeparator(" "), equalTo(" "));
+        assertThat(KeyValueProcessor.literalSeparator("\\|"), equalTo("|"));
+        assertNull(KeyValueProcessor.literalSeparator("|"));
+        assertNull(KeyValueProcessor.literalSeparator("\\s"));
+        assertNull(KeyValueProcessor.literalSeparator("&&"));
+    }
+
+    public void testSplitLiterallyMatchesSplit() {
+        final char[] alphabet = new char[] { 'a', 'b', '=', '&' };
+        for (int i = 0; i < 1000; i++) {
+            final char[] chars = new char[between(0, 10)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet[between(0, alphabet.length - 1)];
+            }
+            final String value = new String(chars);
+            final List<String> expected = new ArrayList<>();
+            for (String part : value.split("&")) {
+                final String[] kv = part.split("=", 2);
+                if (kv.length != 2) {
+                    expected.add("failure");
+                    break;
+                }
+                expected.add(kv[0] + "=>" + kv[1]);
+            }
+            final List<String> actual = new ArrayList<>();
+            if (KeyValueProcessor.splitLiterally(value, "&", "=", (key, val) -> actual.add(key + "=>" + val)) == false) {
+                actual.add("failure");
+            }
+            assertThat(value, actual, equalTo(expected));
+        }
+    }
+
     public void testTrimKeyAndValue() throws Exception {
         IngestDocument ingestDocument = RandomDocumentPicks.randomIngestDocument(random());
         String fieldName = RandomDocumentPicks.addRandomField(random(), ingestDocument, "first= hello &second=world& second =universe");
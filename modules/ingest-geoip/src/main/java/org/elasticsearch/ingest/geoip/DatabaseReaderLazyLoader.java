@@ -181,16 +181,21 @@ class DatabaseReaderLazyLoader implements Closeable {
     private <T extends AbstractResponse> T getResponse(InetAddress ipAddress,
                                                        CheckedBiFunction<DatabaseReader, InetAddress, T, Exception> responseProvider) {
         SpecialPermission.check();
-        return AccessController.doPrivileged((PrivilegedAction<T>) () ->
+        T response = AccessController.doPrivileged((PrivilegedAction<T>) () ->
             cache.putIfAbsent(ipAddress, databasePath.toString(), ip -> {
                 try {
                     return responseProvider.apply(get(), ipAddress);
                 } catch (AddressNotFoundException e) {
-                    throw new GeoIpProcessor.AddressNotFoundRuntimeException(e);
+                    // cached as well, so that the database is not searched for this address again
+                    return null;
                 } catch (Exception e) {
                     throw new RuntimeException(e);
                 }
             }));
+        if (response == null) {
+            throw GeoIpProcessor.AddressNotFoundRuntimeException.INSTANCE;
+        }
+        return response;
     }
 
     DatabaseReader get() throws IOException {
@@ -9,11 +9,12 @@ package org.elasticsearch.ingest.geoip;
 
 import com.maxmind.db.NodeCache;
 import com.maxmind.geoip2.model.AbstractResponse;
-import org.elasticsearch.common.cache.Cache;
-import org.elasticsearch.common.cache.CacheBuilder;
 
 import java.net.InetAddress;
 import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -22,18 +23,37 @@ import java.util.function.Function;
  * This cache differs from the maxmind's {@link NodeCache} such that this cache stores the deserialized Json objects to avoid the
  * cost of deserialization for each lookup (cached or not). This comes at slight expense of higher memory usage, but significant
  * reduction of CPU usage.
+ *
+ * Every ingest thread reads from this cache for every document, so the entries are spread over independent stripes that each evict
+ * their least recently used entries, instead of being kept in a single {@link org.elasticsearch.common.cache.Cache} whose reads all
+ * update one shared LRU list under a lock. Addresses that are not in a database are cached as well, so that they are not looked up
+ * again either.
  */
 final class GeoIpCache {
-    private final Cache<CacheKey, AbstractResponse> cache;
+
+    // caches that are smaller than this per stripe are not striped, so that small caches still evict the least recently used entry
+    private static final long MIN_STRIPE_SIZE = 64;
+    private static final int MAX_STRIPES = 64;
+    private static final Object NO_RESULT = new Object();
+
+    private final Stripe[] stripes;
 
     //package private for testing
     GeoIpCache(long maxSize) {
         if (maxSize < 0) {
             throw new IllegalArgumentException("geoip max cache size must be 0 or greater");
         }
-        this.cache = CacheBuilder.<CacheKey, AbstractResponse>builder().setMaximumWeight(maxSize).build();
+        final int numStripes = Integer.highestOneBit((int) Math.max(1, Math.min(MAX_STRIPES, maxSize / MIN_STRIPE_SIZE)));
+        this.stripes = new Stripe[numStripes];
+        for (int i = 0; i < numStripes; i++) {
+            stripes[i] = new Stripe(maxSize / numStripes + (i < maxSize % numStripes ? 1 : 0));
+        }
     }
 
+    /**
+     * Returns the cached response for the address, or retrieves and caches it. The retrieve function returns {@code null} if the
+     * address is not in the database, in which case {@code null} is returned.
+     */
     @SuppressWarnings("unchecked")
     <T extends AbstractResponse> T putIfAbsent(InetAddress ip,
                                                String databasePath,
@@ -41,35 +61,83 @@ final class GeoIpCache {
 
         //can't use cache.computeIfAbsent due to the elevated permissions for the jackson (run via the cache loader)
         CacheKey cacheKey = new CacheKey(ip, databasePath);
+        Stripe stripe = stripe(cacheKey);
         //intentionally non-locking for simplicity...it's OK if we re-put the same key/value in the cache during a race condition.
-        AbstractResponse response = cache.get(cacheKey);
+        Object response;
+        synchronized (stripe) {
+            response = stripe.get(cacheKey);
+        }
         if (response == null) {
-            response = retrieveFunction.apply(ip);
-            cache.put(cacheKey, response);
+            AbstractResponse retrieved = retrieveFunction.apply(ip);
+            response = retrieved == null ? NO_RESULT : retrieved;
+            synchronized (stripe) {
+                stripe.put(cacheKey, response);
+            }
         }
-        return (T) response;
+        return response == NO_RESULT ? null : (T) response;
     }
 
     //only useful for testing
     AbstractResponse get(InetAddress ip, String databasePath) {
         CacheKey cacheKey = new CacheKey(ip, databasePath);
-        return cache.get(cacheKey);
+        Stripe stripe = stripe(cacheKey);
+        Object response;
+        synchronized (stripe) {
+            response = stripe.get(cacheKey);
+        }
+        return response instanceof AbstractResponse ? (AbstractResponse) response : null;
     }
 
     public int purgeCacheEntriesForDatabase(Path databaseFile) {
         String databasePath = databaseFile.toString();
         int counter = 0;
-        for (CacheKey key : cache.keys()) {
-            if (key.databasePath.equals(databasePath)) {
-                cache.invalidate(key);
-                counter++;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<CacheKey> keys = stripe.keySet().iterator();
+                while (keys.hasNext()) {
+                    if (keys.next().databasePath.equals(databasePath)) {
+                        keys.remove();
+                        counter++;
+                    }
+                }
             }
         }
         return counter;
     }
 
     public int count() {
-        return cache.count();
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.size();
+            }
+        }
+        return count;
+    }
+
+    private Stripe stripe(CacheKey cacheKey) {
+        // spread the bits of the hash code, the stripes are selected by the lowest bits
+        int hash = cacheKey.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * A part of the cache that evicts its least recently used entry when it grows larger than its maximum size. Access to a stripe
+     * has to be synchronized on the stripe because reads update the order of the entries too.
+     */
+    private static final class Stripe extends LinkedHashMap<CacheKey, Object> {
+
+        private final long maxSize;
+
+        private Stripe(long maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, Object> eldest) {
+            return size() > maxSize;
+        }
     }
 
     /**
@@ -484,11 +484,14 @@ public final class GeoIpProcessor extends AbstractProcessor {
     // Geoip2's AddressNotFoundException is checked and due to the fact that we need run their code
     // inside a PrivilegedAction code block, we are forced to catch any checked exception and rethrow
     // it with an unchecked exception.
+    // Addresses that are not found are common and the exception is always caught, so a single instance without a stack trace is used.
     //package private for testing
     static final class AddressNotFoundRuntimeException extends RuntimeException {
 
-        AddressNotFoundRuntimeException(Throwable cause) {
-            super(cause);
+        static final AddressNotFoundRuntimeException INSTANCE = new AddressNotFoundRuntimeException();
+
+        private AddressNotFoundRuntimeException() {
+            super("address not found", null, false, false);
         }
     }
 
@@ -10,8 +10,13 @@ package org.elasticsearch.ingest.geoip;
 
 import com.maxmind.geoip2.model.AbstractResponse;
 import org.elasticsearch.common.network.InetAddresses;
+import org.elasticsearch.core.PathUtils;
 import org.elasticsearch.test.ESTestCase;
 
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.mockito.Mockito.mock;
 
 public class GeoIpCacheTests extends ESTestCase {
@@ -47,6 +52,38 @@ public class GeoIpCacheTests extends ESTestCase {
         assertSame(response2, cache.get(InetAddresses.forString("127.0.0.1"), "path/to/db2"));
     }
 
+    public void testCachesMissingAddresses() {
+        GeoIpCache cache = new GeoIpCache(1);
+        AtomicInteger lookups = new AtomicInteger();
+        assertNull(cache.putIfAbsent(InetAddresses.forString("127.0.0.1"), "path/to/db", ip -> {
+            lookups.incrementAndGet();
+            return null;
+        }));
+        assertNull(cache.putIfAbsent(InetAddresses.forString("127.0.0.1"), "path/to/db", ip -> {
+            lookups.incrementAndGet();
+            return null;
+        }));
+        assertEquals(1, lookups.get());
+        assertEquals(1, cache.count());
+        assertNull(cache.get(InetAddresses.forString("127.0.0.1"), "path/to/db"));
+    }
+
+    public void testEvictsFromStripes() {
+        int maxSize = randomIntBetween(0, 10_000);
+        GeoIpCache cache = new GeoIpCache(maxSize);
+        AbstractResponse response = mock(AbstractResponse.class);
+        Path databasePath = PathUtils.get("path", "to", "db");
+        // the addresses are spread over the stripes, so all of them fill up after a couple of times the size of the cache
+        for (int i = 0; i < maxSize * 4; i++) {
+            String address = "10." + ((i >> 16) & 0xFF) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF);
+            assertSame(response, cache.putIfAbsent(InetAddresses.forString(address), databasePath.toString(), ip -> response));
+            assertThat(cache.count(), lessThanOrEqualTo(maxSize));
+        }
+        assertEquals(maxSize, cache.count());
+        assertEquals(maxSize, cache.purgeCacheEntriesForDatabase(databasePath));
+        assertEquals(0, cache.count());
+    }
+
     public void testThrowsFunctionsException() {
         GeoIpCache cache = new GeoIpCache(1);
         IllegalArgumentException ex = expectThrows(IllegalArgumentException.class,
@@ -0,0 +1,110 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.elasticsearch.rest.RestRequest;
+
+import java.util.function.BiPredicate;
+
+/**
+ * Aggregates the body of http requests like {@link HttpObjectAggregator}, except for requests whose handler consumes the body as it
+ * arrives. The body of these requests is passed on with a {@link Netty4HttpRequestBodyStream} instead, which only reads from the
+ * channel as fast as the handler consumes the body. Only bodies with a content length of at most the maximum content length are
+ * streamed, so that requests that exceed it are rejected exactly as before.
+ */
+class Netty4HttpAggregator extends HttpObjectAggregator {
+
+    private final BiPredicate<RestRequest.Method, String> streamContent;
+    private Netty4HttpRequestBodyStream currentStream;
+
+    Netty4HttpAggregator(int maxContentLength, BiPredicate<RestRequest.Method, String> streamContent) {
+        super(maxContentLength);
+        this.streamContent = streamContent;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (currentStream != null && msg instanceof HttpContent) {
+            final Netty4HttpRequestBodyStream stream = currentStream;
+            if (msg instanceof LastHttpContent) {
+                currentStream = null;
+            }
+            stream.handleNettyContent((HttpContent) msg);
+        } else if (msg instanceof HttpRequest && msg instanceof FullHttpRequest == false && shouldStream((HttpRequest) msg)) {
+            final HttpRequest request = (HttpRequest) msg;
+            if (HttpUtil.is100ContinueExpected(request)) {
+                ctx.writeAndFlush(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.CONTINUE, Unpooled.EMPTY_BUFFER));
+                HttpUtil.set100ContinueExpected(request, false);
+            }
+            currentStream = new Netty4HttpRequestBodyStream(ctx.channel());
+            // passed on as a netty request so that the content compressor records the accepted encodings of the request
+            ctx.fireChannelRead(new StreamedHttpRequest(request, currentStream));
+        } else {
+            super.channelRead(ctx, msg);
+        }
+    }
+
+    private boolean shouldStream(HttpRequest request) {
+        if (request.decoderResult().isSuccess() == false) {
+            return false;
+        }
+        final String expect = request.headers().get(HttpHeaderNames.EXPECT);
+        if (expect != null && HttpHeaderValues.CONTINUE.contentEqualsIgnoreCase(expect) == false) {
+            // the aggregator rejects unsupported expectations
+            return false;
+        }
+        final long contentLength;
+        try {
+            contentLength = HttpUtil.getContentLength(request, -1L);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (contentLength <= 0 || contentLength > maxContentLength() || HttpUtil.isTransferEncodingChunked(request)) {
+            return false;
+        }
+        final RestRequest.Method method;
+        try {
+            method = Netty4HttpRequest.translateRequestMethod(request.method());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return streamContent.test(method, request.uri());
+    }
+
+    /**
+     * The head of a request whose body is streamed, which {@link Netty4HttpRequestCreator} turns into a {@link Netty4HttpRequest}.
+     */
+    static final class StreamedHttpRequest extends DefaultHttpRequest {
+
+        private final Netty4HttpRequestBodyStream contentStream;
+
+        StreamedHttpRequest(HttpRequest head, Netty4HttpRequestBodyStream contentStream) {
+            super(head.protocolVersion(), head.method(), head.uri(), head.headers());
+            this.contentStream = contentStream;
+        }
+
+        Netty4HttpRequestBodyStream contentStream() {
+            return contentStream;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.EmptyHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaders;
@@ -19,7 +20,9 @@ import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.handler.codec.http.cookie.ServerCookieDecoder;
 import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.http.HttpContentStream;
 import org.elasticsearch.http.HttpRequest;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestStatus;
@@ -42,6 +45,7 @@ public class Netty4HttpRequest implements HttpRequest {
     private final AtomicBoolean released;
     private final Exception inboundException;
     private final boolean pooled;
+    private final Netty4HttpRequestBodyStream contentStream;
 
     Netty4HttpRequest(FullHttpRequest request) {
         this(request, new HttpHeadersMap(request.headers()), new AtomicBoolean(false), true,
@@ -53,6 +57,19 @@ public class Netty4HttpRequest implements HttpRequest {
             Netty4Utils.toBytesReference(request.content()), inboundException);
     }
 
+    /**
+     * Creates a request whose body is not aggregated but passed on in chunks by the given stream.
+     */
+    Netty4HttpRequest(io.netty.handler.codec.http.HttpRequest head, Netty4HttpRequestBodyStream contentStream) {
+        this(new DefaultFullHttpRequest(head.protocolVersion(), head.method(), head.uri(), Unpooled.EMPTY_BUFFER, head.headers(),
+                EmptyHttpHeaders.INSTANCE), new AtomicBoolean(false), BytesArray.EMPTY, contentStream);
+    }
+
+    private Netty4HttpRequest(FullHttpRequest request, AtomicBoolean released, BytesReference content,
+                              Netty4HttpRequestBodyStream contentStream) {
+        this(request, new HttpHeadersMap(request.headers()), released, false, content, null, contentStream);
+    }
+
     private Netty4HttpRequest(FullHttpRequest request, HttpHeadersMap headers, AtomicBoolean released, boolean pooled,
                               BytesReference content) {
         this(request, headers, released, pooled, content, null);
@@ -60,17 +77,26 @@ public class Netty4HttpRequest implements HttpRequest {
 
     private Netty4HttpRequest(FullHttpRequest request, HttpHeadersMap headers, AtomicBoolean released, boolean pooled,
                               BytesReference content, Exception inboundException) {
+        this(request, headers, released, pooled, content, inboundException, null);
+    }
+
+    private Netty4HttpRequest(FullHttpRequest request, HttpHeadersMap headers, AtomicBoolean released, boolean pooled,
+                              BytesReference content, Exception inboundException, Netty4HttpRequestBodyStream contentStream) {
         this.request = request;
         this.headers = headers;
         this.content = content;
         this.pooled = pooled;
         this.released = released;
         this.inboundException = inboundException;
+        this.contentStream = contentStream;
     }
 
     @Override
     public RestRequest.Method method() {
-        HttpMethod httpMethod = request.method();
+        return translateRequestMethod(request.method());
+    }
+
+    static RestRequest.Method translateRequestMethod(HttpMethod httpMethod) {
         if (httpMethod == HttpMethod.GET)
             return RestRequest.Method.GET;
 
@@ -117,9 +143,18 @@ public class Netty4HttpRequest implements HttpRequest {
         return content;
     }
 
+    @Override
+    public HttpContentStream contentStream() {
+        return contentStream;
+    }
+
     @Override
     public void release() {
-        if (pooled && released.compareAndSet(false, true)) {
+        if (contentStream != null) {
+            if (released.compareAndSet(false, true)) {
+                contentStream.close();
+            }
+        } else if (pooled && released.compareAndSet(false, true)) {
             request.release();
         }
     }
@@ -128,6 +163,7 @@ public class Netty4HttpRequest implements HttpRequest {
     public HttpRequest releaseAndCopy() {
         assert released.get() == false;
         if (pooled == false) {
+            // the chunks of a streamed body are released by their consumer
             return this;
         }
         try {
@@ -180,7 +216,7 @@ public class Netty4HttpRequest implements HttpRequest {
         FullHttpRequest requestWithoutHeader = new DefaultFullHttpRequest(request.protocolVersion(), request.method(), request.uri(),
             request.content(), headersWithoutContentTypeHeader, trailingHeaders);
         return new Netty4HttpRequest(requestWithoutHeader, new HttpHeadersMap(requestWithoutHeader.headers()), released,
-            pooled, content);
+            pooled, content, null, contentStream);
     }
 
     @Override
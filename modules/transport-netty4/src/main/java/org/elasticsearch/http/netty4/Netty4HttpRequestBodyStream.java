@@ -0,0 +1,134 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.http.HttpContentStream;
+import org.elasticsearch.transport.netty4.Netty4Utils;
+
+import java.util.ArrayDeque;
+
+/**
+ * The body of a request that {@link Netty4HttpAggregator} passes on in chunks rather than aggregating it. Reading from the channel is
+ * paused while the stream is open, and the stream only reads from the channel once the consumer requested the next chunk and no chunk
+ * decoded from a previous read is left. All state of the stream is accessed on the event loop of the channel only.
+ */
+class Netty4HttpRequestBodyStream implements HttpContentStream {
+
+    private final Channel channel;
+    private final ChannelFutureListener closeListener = future -> channelClosed();
+    private final ArrayDeque<HttpContent> chunks = new ArrayDeque<>();
+    private volatile ChunkHandler handler;
+    private boolean requested;
+    private boolean lastReceived;
+    private boolean lastDelivered;
+    private boolean closed;
+    private boolean handlerClosed;
+
+    Netty4HttpRequestBodyStream(Channel channel) {
+        assert channel.eventLoop().inEventLoop();
+        this.channel = channel;
+        channel.config().setAutoRead(false);
+        channel.closeFuture().addListener(closeListener);
+    }
+
+    @Override
+    public void setHandler(ChunkHandler handler) {
+        assert this.handler == null : "the handler of the stream is already set";
+        this.handler = handler;
+    }
+
+    @Override
+    public void next() {
+        assert handler != null : "the handler of the stream must be set before requesting chunks";
+        // always hop to the event loop, even when already on it, so that chunks are not handed to the handler recursively
+        channel.eventLoop().execute(this::doNext);
+    }
+
+    private void doNext() {
+        if (closed) {
+            // the handler may only have been set after the channel was closed
+            closeHandler();
+            return;
+        }
+        assert requested == false : "requested the next chunk before the previous chunk was received";
+        assert lastDelivered == false : "requested a chunk after the last chunk was received";
+        final HttpContent chunk = chunks.poll();
+        if (chunk != null) {
+            deliver(chunk);
+        } else {
+            requested = true;
+            channel.read();
+        }
+    }
+
+    void handleNettyContent(HttpContent content) {
+        assert channel.eventLoop().inEventLoop();
+        if (content instanceof LastHttpContent) {
+            lastReceived = true;
+            // the body was read completely, resume reading the following requests of the connection
+            channel.config().setAutoRead(true);
+        }
+        if (closed) {
+            content.release();
+        } else if (requested) {
+            requested = false;
+            deliver(content);
+        } else {
+            // a single read from the channel may decode several chunks
+            chunks.add(content);
+        }
+    }
+
+    private void deliver(HttpContent content) {
+        final boolean isLast = content instanceof LastHttpContent;
+        lastDelivered = isLast;
+        handler.onNext(new ReleasableBytesReference(Netty4Utils.toBytesReference(content.content()), content::release), isLast);
+    }
+
+    private void channelClosed() {
+        assert channel.eventLoop().inEventLoop();
+        doClose();
+        closeHandler();
+    }
+
+    private void closeHandler() {
+        if (lastDelivered == false && handlerClosed == false && handler != null) {
+            handlerClosed = true;
+            handler.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (channel.eventLoop().inEventLoop()) {
+            doClose();
+        } else {
+            channel.eventLoop().execute(this::doClose);
+        }
+    }
+
+    private void doClose() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        channel.closeFuture().removeListener(closeListener);
+        chunks.forEach(HttpContent::release);
+        chunks.clear();
+        if (lastReceived == false) {
+            // the remaining chunks of the body are discarded as they arrive
+            channel.config().setAutoRead(true);
+        }
+    }
+}
@@ -12,15 +12,26 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
 import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpRequest;
 import org.elasticsearch.ExceptionsHelper;
 
 import java.util.List;
 
 @ChannelHandler.Sharable
-class Netty4HttpRequestCreator extends MessageToMessageDecoder<FullHttpRequest> {
+class Netty4HttpRequestCreator extends MessageToMessageDecoder<HttpRequest> {
 
     @Override
-    protected void decode(ChannelHandlerContext ctx, FullHttpRequest msg, List<Object> out) {
+    public boolean acceptInboundMessage(Object msg) {
+        return msg instanceof FullHttpRequest || msg instanceof Netty4HttpAggregator.StreamedHttpRequest;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, HttpRequest request, List<Object> out) {
+        if (request instanceof Netty4HttpAggregator.StreamedHttpRequest) {
+            out.add(new Netty4HttpRequest(request, ((Netty4HttpAggregator.StreamedHttpRequest) request).contentStream()));
+            return;
+        }
+        final FullHttpRequest msg = (FullHttpRequest) request;
         if (msg.decoderResult().isFailure()) {
             final Throwable cause = msg.decoderResult().cause();
             final Exception nonError;
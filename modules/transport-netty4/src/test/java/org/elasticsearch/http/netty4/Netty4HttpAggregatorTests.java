@@ -0,0 +1,253 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContentCompressor;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.ReferenceCountUtil;
+import org.elasticsearch.http.HttpContentStream;
+import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.test.ESTestCase;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class Netty4HttpAggregatorTests extends ESTestCase {
+
+    private static final int MAX_CONTENT_LENGTH = 1024;
+
+    public void testStreamsBodyInChunks() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new Netty4HttpAggregator(MAX_CONTENT_LENGTH, (method, uri) -> true),
+            new Netty4HttpRequestCreator());
+        final List<String> chunks = randomChunks();
+        writeRequest(channel, "/_bulk", null, chunks);
+
+        final Netty4HttpRequest request = channel.readInbound();
+        assertThat(request.contentStream(), notNullValue());
+        assertThat(request.method(), equalTo(RestRequest.Method.POST));
+        assertThat(request.uri(), equalTo("/_bulk"));
+        assertThat(request.content().length(), equalTo(0));
+        // reading stops until the consumer requested the chunks
+        assertFalse(channel.config().isAutoRead());
+
+        assertThat(consume(channel, request.contentStream()), equalTo(chunks));
+        assertTrue(channel.config().isAutoRead());
+        assertThat(channel.readInbound(), nullValue());
+        request.release();
+    }
+
+    public void testAggregatesRequestsThatAreNotStreamed() {
+        final EmbeddedChannel channel = new EmbeddedChannel(
+            new Netty4HttpAggregator(MAX_CONTENT_LENGTH, (method, uri) -> uri.equals("/_bulk")), new Netty4HttpRequestCreator());
+
+        // not supported by the handler
+        writeRequest(channel, "/_search", null, List.of("{}"));
+        assertAggregated(channel.readInbound(), "{}");
+
+        // exceeds the maximum content length, which is rejected by the aggregator
+        final HttpRequest tooLarge = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/_bulk");
+        HttpUtil.setContentLength(tooLarge, MAX_CONTENT_LENGTH + 1);
+        channel.writeInbound(tooLarge);
+        assertThat(channel.readInbound(), nullValue());
+        final FullHttpResponse response = channel.readOutbound();
+        assertThat(response.status(), equalTo(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE));
+        response.release();
+    }
+
+    public void testChunkedTransferEncodingIsAggregated() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new Netty4HttpAggregator(MAX_CONTENT_LENGTH, (method, uri) -> true),
+            new Netty4HttpRequestCreator());
+        final HttpRequest head = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/_bulk");
+        HttpUtil.setTransferEncodingChunked(head, true);
+        channel.writeInbound(head, new DefaultLastHttpContent(Unpooled.copiedBuffer("{}", StandardCharsets.UTF_8)));
+        assertAggregated(channel.readInbound(), "{}");
+    }
+
+    public void testPipelinedRequestsAfterStreamedBody() {
+        final EmbeddedChannel channel = new EmbeddedChannel(
+            new Netty4HttpAggregator(MAX_CONTENT_LENGTH, (method, uri) -> uri.equals("/_bulk")), new Netty4HttpRequestCreator());
+        final List<String> first = randomChunks();
+        final List<String> second = randomChunks();
+        writeRequest(channel, "/_bulk", null, first);
+        writeRequest(channel, "/_search", null, List.of("{}"));
+        writeRequest(channel, "/_bulk", null, second);
+
+        final Netty4HttpRequest firstRequest = channel.readInbound();
+        final Netty4HttpRequest aggregated = channel.readInbound();
+        final Netty4HttpRequest secondRequest = channel.readInbound();
+        // the body of the first request does not leak into the following requests
+        assertThat(consume(channel, firstRequest.contentStream()), equalTo(first));
+        assertAggregated(aggregated, "{}");
+        assertThat(consume(channel, secondRequest.contentStream()), equalTo(second));
+        firstRequest.release();
+        secondRequest.release();
+    }
+
+    public void testEarlyReleaseDiscardsRemainingBody() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new Netty4HttpAggregator(MAX_CONTENT_LENGTH, (method, uri) -> true),
+            new Netty4HttpRequestCreator());
+        final HttpRequest head = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/_bulk");
+        HttpUtil.setContentLength(head, 6);
+        channel.writeInbound(head);
+        final Netty4HttpRequest request = channel.readInbound();
+        request.contentStream().setHandler(new Netty4HttpRequestBodyStreamTests.RecordingHandler());
+
+        // the request is released before its body was consumed, for instance because it failed
+        request.release();
+        assertTrue(channel.config().isAutoRead());
+        final DefaultHttpContent chunk = new DefaultHttpContent(Unpooled.copiedBuffer("abc", StandardCharsets.UTF_8));
+        final DefaultLastHttpContent last = new DefaultLastHttpContent(Unpooled.copiedBuffer("def", StandardCharsets.UTF_8));
+        channel.writeInbound(chunk, last);
+        assertThat(chunk.refCnt(), equalTo(0));
+        assertThat(last.refCnt(), equalTo(0));
+
+        // the next request of the connection is handled as usual
+        final List<String> chunks = randomChunks();
+        writeRequest(channel, "/_bulk", null, chunks);
+        final Netty4HttpRequest next = channel.readInbound();
+        assertThat(consume(channel, next.contentStream()), equalTo(chunks));
+        next.release();
+    }
+
+    public void testConnectionResetClosesStream() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new Netty4HttpAggregator(MAX_CONTENT_LENGTH, (method, uri) -> true),
+            new Netty4HttpRequestCreator());
+        final HttpRequest head = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/_bulk");
+        HttpUtil.setContentLength(head, 6);
+        final DefaultHttpContent chunk = new DefaultHttpContent(Unpooled.copiedBuffer("abc", StandardCharsets.UTF_8));
+        channel.writeInbound(head, chunk);
+        final Netty4HttpRequest request = channel.readInbound();
+        final Netty4HttpRequestBodyStreamTests.RecordingHandler handler = new Netty4HttpRequestBodyStreamTests.RecordingHandler();
+        request.contentStream().setHandler(handler);
+
+        channel.close();
+        channel.runPendingTasks();
+        assertTrue(handler.closed);
+        assertThat(handler.chunks.size(), equalTo(0));
+        assertThat(chunk.refCnt(), equalTo(0));
+        request.release();
+    }
+
+    public void testContinueIsSentForStreamedRequests() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new Netty4HttpAggregator(MAX_CONTENT_LENGTH, (method, uri) -> true),
+            new Netty4HttpRequestCreator());
+        final HttpRequest head = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/_bulk");
+        HttpUtil.setContentLength(head, 2);
+        HttpUtil.set100ContinueExpected(head, true);
+        channel.writeInbound(head);
+
+        final FullHttpResponse response = channel.readOutbound();
+        assertThat(response.status(), equalTo(HttpResponseStatus.CONTINUE));
+        response.release();
+        final Netty4HttpRequest request = channel.readInbound();
+        assertThat(request.contentStream(), notNullValue());
+        assertFalse(request.getHeaders().containsKey(HttpHeaderNames.EXPECT.toString()));
+        request.release();
+    }
+
+    public void testResponsesToStreamedRequestsAreCompressed() {
+        final EmbeddedChannel channel = new EmbeddedChannel(
+            new Netty4HttpAggregator(MAX_CONTENT_LENGTH, (method, uri) -> uri.equals("/_bulk")), new HttpContentCompressor(),
+            new Netty4HttpRequestCreator());
+        // pipelined requests which accept different encodings
+        writeRequest(channel, "/_bulk", "gzip", randomChunks());
+        writeRequest(channel, "/_search", null, List.of("{}"));
+        writeRequest(channel, "/_bulk", null, randomChunks());
+        writeRequest(channel, "/_bulk", "gzip", randomChunks());
+        final List<Netty4HttpRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final Netty4HttpRequest request = channel.readInbound();
+            if (request.contentStream() != null) {
+                consume(channel, request.contentStream());
+            }
+            requests.add(request);
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            channel.writeOutbound(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                Unpooled.copiedBuffer(randomAlphaOfLength(128), StandardCharsets.UTF_8)));
+        }
+        final List<String> encodings = new ArrayList<>();
+        Object message;
+        while ((message = channel.readOutbound()) != null) {
+            if (message instanceof HttpResponse) {
+                encodings.add(((HttpResponse) message).headers().get(HttpHeaderNames.CONTENT_ENCODING));
+            }
+            ReferenceCountUtil.release(message);
+        }
+        final String gzip = HttpHeaderValues.GZIP.toString();
+        assertThat(encodings, equalTo(Arrays.asList(gzip, null, null, gzip)));
+        requests.forEach(Netty4HttpRequest::release);
+    }
+
+    private static List<String> randomChunks() {
+        final int numberOfChunks = randomIntBetween(1, 8);
+        final List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < numberOfChunks; i++) {
+            chunks.add(randomAlphaOfLengthBetween(1, MAX_CONTENT_LENGTH / 8));
+        }
+        return chunks;
+    }
+
+    private static void writeRequest(EmbeddedChannel channel, String uri, String acceptEncoding, List<String> chunks) {
+        final HttpRequest head = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, uri);
+        HttpUtil.setContentLength(head, chunks.stream().mapToInt(String::length).sum());
+        if (acceptEncoding != null) {
+            head.headers().set(HttpHeaderNames.ACCEPT_ENCODING, acceptEncoding);
+        }
+        channel.writeInbound(head);
+        for (int i = 0; i < chunks.size(); i++) {
+            final String chunk = chunks.get(i);
+            channel.writeInbound(i == chunks.size() - 1
+                ? new DefaultLastHttpContent(Unpooled.copiedBuffer(chunk, StandardCharsets.UTF_8))
+                : new DefaultHttpContent(Unpooled.copiedBuffer(chunk, StandardCharsets.UTF_8)));
+        }
+    }
+
+    private static List<String> consume(EmbeddedChannel channel, HttpContentStream stream) {
+        final Netty4HttpRequestBodyStreamTests.RecordingHandler handler = new Netty4HttpRequestBodyStreamTests.RecordingHandler();
+        stream.setHandler(handler);
+        while (handler.lastFlags.isEmpty() || handler.lastFlags.get(handler.lastFlags.size() - 1) == false) {
+            final int received = handler.chunks.size();
+            stream.next();
+            channel.runPendingTasks();
+            assertThat("a requested chunk was not delivered", handler.chunks.size(), equalTo(received + 1));
+        }
+        return handler.chunks;
+    }
+
+    private static void assertAggregated(Object message, String content) {
+        assertThat(message, instanceOf(Netty4HttpRequest.class));
+        final Netty4HttpRequest request = (Netty4HttpRequest) message;
+        assertThat(request.contentStream(), nullValue());
+        assertThat(request.content().utf8ToString(), equalTo(content));
+        request.release();
+    }
+}
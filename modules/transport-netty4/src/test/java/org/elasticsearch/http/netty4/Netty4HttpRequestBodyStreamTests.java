@@ -0,0 +1,148 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.http.HttpContentStream;
+import org.elasticsearch.test.ESTestCase;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class Netty4HttpRequestBodyStreamTests extends ESTestCase {
+
+    public void testDeliversChunksInOrderOnlyWhenRequested() {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final Netty4HttpRequestBodyStream stream = new Netty4HttpRequestBodyStream(channel);
+        assertFalse(channel.config().isAutoRead());
+        final RecordingHandler handler = new RecordingHandler();
+        stream.setHandler(handler);
+
+        final int numberOfChunks = randomIntBetween(1, 16);
+        final List<HttpContent> contents = new ArrayList<>();
+        for (int i = 0; i < numberOfChunks; i++) {
+            contents.add(content("chunk-" + i, i == numberOfChunks - 1));
+        }
+        // a single read may decode several chunks, which are held back until the handler requests them
+        final int received = randomIntBetween(0, numberOfChunks);
+        for (int i = 0; i < received; i++) {
+            stream.handleNettyContent(contents.get(i));
+        }
+        assertThat(handler.chunks.size(), equalTo(0));
+
+        for (int i = 0; i < numberOfChunks; i++) {
+            stream.next();
+            assertThat("chunks are only handed over on the event loop", handler.chunks.size(), equalTo(i));
+            channel.runPendingTasks();
+            if (i >= received) {
+                // the chunk was not received yet, it is handed over as soon as it arrives
+                assertThat(handler.chunks.size(), equalTo(i));
+                stream.handleNettyContent(contents.get(i));
+            }
+            assertThat(handler.chunks.size(), equalTo(i + 1));
+            assertThat(handler.chunks.get(i), equalTo("chunk-" + i));
+            assertThat(handler.lastFlags.get(i), equalTo(i == numberOfChunks - 1));
+        }
+        assertTrue(channel.config().isAutoRead());
+        for (HttpContent content : contents) {
+            assertThat(content.refCnt(), equalTo(0));
+        }
+
+        channel.close();
+        channel.runPendingTasks();
+        assertFalse("the handler is not closed once the last chunk was delivered", handler.closed);
+    }
+
+    public void testCloseReleasesQueuedChunks() {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final Netty4HttpRequestBodyStream stream = new Netty4HttpRequestBodyStream(channel);
+        final RecordingHandler handler = new RecordingHandler();
+        stream.setHandler(handler);
+
+        final HttpContent queued = content("queued", false);
+        stream.handleNettyContent(queued);
+        stream.close();
+        assertThat(queued.refCnt(), equalTo(0));
+        // the rest of the body is read and discarded
+        assertTrue(channel.config().isAutoRead());
+
+        final HttpContent late = content("late", true);
+        stream.handleNettyContent(late);
+        assertThat(late.refCnt(), equalTo(0));
+        assertThat(handler.chunks.size(), equalTo(0));
+    }
+
+    public void testChannelCloseClosesHandler() {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final Netty4HttpRequestBodyStream stream = new Netty4HttpRequestBodyStream(channel);
+        final RecordingHandler handler = new RecordingHandler();
+        stream.setHandler(handler);
+
+        final HttpContent first = content("first", false);
+        final HttpContent second = content("second", false);
+        stream.handleNettyContent(first);
+        stream.next();
+        channel.runPendingTasks();
+        stream.handleNettyContent(second);
+
+        channel.close();
+        channel.runPendingTasks();
+        assertTrue(handler.closed);
+        assertThat(handler.chunks, equalTo(List.of("first")));
+        assertThat(second.refCnt(), equalTo(0));
+    }
+
+    public void testHandlerSetAfterChannelCloseIsClosedOnNext() {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final Netty4HttpRequestBodyStream stream = new Netty4HttpRequestBodyStream(channel);
+        channel.close();
+        channel.runPendingTasks();
+
+        final RecordingHandler handler = new RecordingHandler();
+        stream.setHandler(handler);
+        stream.next();
+        channel.runPendingTasks();
+        assertTrue(handler.closed);
+        assertThat(handler.chunks.size(), equalTo(0));
+    }
+
+    private static HttpContent content(String content, boolean isLast) {
+        return isLast
+            ? new DefaultLastHttpContent(Unpooled.copiedBuffer(content, StandardCharsets.UTF_8))
+            : new DefaultHttpContent(Unpooled.copiedBuffer(content, StandardCharsets.UTF_8));
+    }
+
+    static final class RecordingHandler implements HttpContentStream.ChunkHandler {
+
+        final List<String> chunks = new ArrayList<>();
+        final List<Boolean> lastFlags = new ArrayList<>();
+        boolean closed;
+
+        @Override
+        public void onNext(ReleasableBytesReference chunk, boolean isLast) {
+            try (chunk) {
+                chunks.add(chunk.utf8ToString());
+                lastFlags.add(isLast);
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
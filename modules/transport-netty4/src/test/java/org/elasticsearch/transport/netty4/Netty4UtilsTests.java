@@ -12,11 +12,13 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.bytes.AbstractBytesReferenceTestCase;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.PageCacheRecycler;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
@@ -24,6 +26,8 @@ import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
 
+import static org.hamcrest.Matchers.greaterThan;
+
 public class Netty4UtilsTests extends ESTestCase {
 
     private static final int PAGE_SIZE = PageCacheRecycler.BYTE_PAGE_SIZE;
@@ -64,6 +68,34 @@ public class Netty4UtilsTests extends ESTestCase {
         assertArrayEquals(BytesReference.toBytes(ref), BytesReference.toBytes(bytesReference));
     }
 
+    public void testToChannelBufferWithOffHeapPages() throws IOException {
+        final BigArrays offHeapArrays = new BigArrays(
+            new PageCacheRecycler(Settings.builder().put(PageCacheRecycler.OFF_HEAP_SETTING.getKey(), true).build()),
+            new NoneCircuitBreakerService(),
+            CircuitBreaker.REQUEST
+        );
+        final byte[] bytes = randomByteArrayOfLength(randomIntBetween(2 * PAGE_SIZE + 1, 5 * PAGE_SIZE));
+        try (ReleasableBytesStreamOutput out = new ReleasableBytesStreamOutput(bytes.length, offHeapArrays)) {
+            out.writeBytes(bytes);
+            final BytesReference ref = out.bytes();
+            assertThat(AbstractBytesReferenceTestCase.getNumPages(ref), greaterThan(2));
+
+            // every page of the iteration must refer to its own bytes, as they are wrapped rather than copied
+            final BytesRefIterator iterator = ref.iterator();
+            int offset = 0;
+            BytesRef page;
+            while ((page = iterator.next()) != null) {
+                assertEquals(new BytesRef(bytes, offset, page.length), page);
+                offset += page.length;
+            }
+            assertEquals(bytes.length, offset);
+
+            final ByteBuf buffer = Netty4Utils.toByteBuf(ref);
+            assertTrue(buffer instanceof CompositeByteBuf);
+            assertArrayEquals(bytes, BytesReference.toBytes(Netty4Utils.toBytesReference(buffer)));
+        }
+    }
+
     private BytesReference getRandomizedBytesReference(int length) throws IOException {
         // we know bytes stream output always creates a paged bytes reference, we use it to create randomized content
         ReleasableBytesStreamOutput out = new ReleasableBytesStreamOutput(length, bigarrays);
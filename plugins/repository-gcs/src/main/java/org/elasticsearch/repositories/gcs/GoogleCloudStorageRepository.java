@@ -103,6 +103,12 @@ class GoogleCloudStorageRepository extends MeteredBlobStoreRepository {
         return chunkSize;
     }
 
+    @Override
+    protected int deletionBatchSize() {
+        // GCS batch requests are limited to 100 operations each
+        return 100;
+    }
+
     /**
      * Get a given setting from the repository settings, throwing a {@link RepositoryException} if the setting does not exist or is empty.
      */
@@ -151,6 +151,14 @@ public class NodesStatsRequestBuilder
         return this;
     }
 
+    /**
+     * Should page cache recycler statistics be returned
+     */
+    public NodesStatsRequestBuilder setPageCacheRecycler(boolean pageCacheRecycler) {
+        addOrRemoveMetric(pageCacheRecycler, NodesStatsRequest.Metric.PAGE_CACHE_RECYCLER);
+        return this;
+    }
+
     /**
      * Helper method for adding metrics to a request
      */
@@ -74,13 +74,13 @@ public final class BulkRequestParser {
         this.restApiVersion = restApiVersion;
     }
 
-    private static int findNextMarker(byte marker, int from, BytesReference data) {
+    private static int findNextMarker(byte marker, int from, BytesReference data, boolean lastData) {
         final int res = data.indexOf(marker, from);
         if (res != -1) {
             assert res >= 0;
             return res;
         }
-        if (from != data.length()) {
+        if (lastData && from != data.length()) {
             throw new IllegalArgumentException("The bulk request must be terminated by a newline [\\n]");
         }
         return res;
@@ -114,22 +114,50 @@ public final class BulkRequestParser {
             BiConsumer<IndexRequest, String> indexRequestConsumer,
             Consumer<UpdateRequest> updateRequestConsumer,
             Consumer<DeleteRequest> deleteRequestConsumer) throws IOException {
+        parse(data, defaultIndex, defaultRouting, defaultFetchSourceContext, defaultPipeline, defaultRequireAlias, allowExplicitIndex,
+            xContentType, indexRequestConsumer, updateRequestConsumer, deleteRequestConsumer, true, new ParseState());
+    }
+
+    /**
+     * Creates a parser for a bulk request whose data arrives in chunks, assuming the provided default values. The requests are passed
+     * to the consumers as in {@link #parse}.
+     */
+    public IncrementalParser incrementalParser(
+            @Nullable String defaultIndex, @Nullable String defaultRouting, @Nullable FetchSourceContext defaultFetchSourceContext,
+            @Nullable String defaultPipeline, @Nullable Boolean defaultRequireAlias, boolean allowExplicitIndex,
+            XContentType xContentType,
+            BiConsumer<IndexRequest, String> indexRequestConsumer,
+            Consumer<UpdateRequest> updateRequestConsumer,
+            Consumer<DeleteRequest> deleteRequestConsumer) {
+        return new IncrementalParser(defaultIndex, defaultRouting, defaultFetchSourceContext, defaultPipeline, defaultRequireAlias,
+            allowExplicitIndex, xContentType, indexRequestConsumer, updateRequestConsumer, deleteRequestConsumer);
+    }
+
+    /**
+     * Parses the given data and returns the number of bytes it parsed. Unless this is the last data of the request, parsing stops
+     * before the first incomplete request, which is parsed again once more data is available.
+     */
+    private int parse(
+            BytesReference data, @Nullable String defaultIndex,
+            @Nullable String defaultRouting, @Nullable FetchSourceContext defaultFetchSourceContext,
+            @Nullable String defaultPipeline, @Nullable Boolean defaultRequireAlias, boolean allowExplicitIndex,
+            XContentType xContentType,
+            BiConsumer<IndexRequest, String> indexRequestConsumer,
+            Consumer<UpdateRequest> updateRequestConsumer,
+            Consumer<DeleteRequest> deleteRequestConsumer,
+            boolean lastData, ParseState state) throws IOException {
         XContent xContent = xContentType.xContent();
-        int line = 0;
         int from = 0;
         byte marker = xContent.streamSeparator();
-        // Bulk requests can contain a lot of repeated strings for the index, pipeline and routing parameters. This map is used to
-        // deduplicate duplicate strings parsed for these parameters. While it does not prevent instantiating the duplicate strings, it
-        // reduces their lifetime to the lifetime of this parse call instead of the lifetime of the full bulk request.
-        final Map<String, String> stringDeduplicator = new HashMap<>();
-        boolean typesDeprecationLogged = false;
+        final Map<String, String> stringDeduplicator = state.stringDeduplicator;
 
         while (true) {
-            int nextMarker = findNextMarker(marker, from, data);
+            int nextMarker = findNextMarker(marker, from, data, lastData);
             if (nextMarker == -1) {
                 break;
             }
-            line++;
+            final int actionFrom = from;
+            final int line = ++state.line;
 
             // now parse the action
             try (XContentParser parser = createParser(data, xContent, from, nextMarker, restApiVersion)) {
@@ -186,10 +214,10 @@ public final class BulkRequestParser {
                             } else if (TYPE.match(currentFieldName, parser.getDeprecationHandler())) {
                                 if (parser.getRestApiVersion().matches(RestApiVersion.equalTo(RestApiVersion.V_7))) {
                                     // for bigger bulks, deprecation throttling might not be enough
-                                    if (deprecateOrErrorOnType && typesDeprecationLogged == false) {
+                                    if (deprecateOrErrorOnType && state.typesDeprecationLogged == false) {
                                         deprecationLogger.compatibleCritical("bulk_with_types",
                                             RestBulkAction.TYPES_DEPRECATION_MESSAGE);
-                                        typesDeprecationLogged = true;
+                                        state.typesDeprecationLogged = true;
                                     }
                                 } else if (parser.getRestApiVersion().matches(RestApiVersion.onOrAfter(RestApiVersion.V_8))
                                     && deprecateOrErrorOnType) {
@@ -250,11 +278,16 @@ public final class BulkRequestParser {
                     deleteRequestConsumer.accept(new DeleteRequest(index).id(id).routing(routing)
                             .version(version).versionType(versionType).setIfSeqNo(ifSeqNo).setIfPrimaryTerm(ifPrimaryTerm));
                 } else {
-                    nextMarker = findNextMarker(marker, from, data);
+                    nextMarker = findNextMarker(marker, from, data, lastData);
                     if (nextMarker == -1) {
+                        if (lastData == false) {
+                            // the source is not complete yet, parse the action again once it is
+                            from = actionFrom;
+                            state.line--;
+                        }
                         break;
                     }
-                    line++;
+                    final int sourceLine = ++state.line;
 
                     // we use internalAdd so we don't fork here, this allows us not to copy over the big byte array to small chunks
                     // of index request.
@@ -289,7 +322,7 @@ public final class BulkRequestParser {
                         // TODO: support dynamic_templates in update requests
                         if (dynamicTemplates.isEmpty() == false) {
                             throw new IllegalArgumentException(
-                                "Update request in line [" + line + "] does not accept " + DYNAMIC_TEMPLATES.getPreferredName());
+                                "Update request in line [" + sourceLine + "] does not accept " + DYNAMIC_TEMPLATES.getPreferredName());
                         }
                         UpdateRequest updateRequest = new UpdateRequest().index(index).id(id).routing(routing)
                                 .retryOnConflict(retryOnConflict)
@@ -315,6 +348,7 @@ public final class BulkRequestParser {
                 }
             }
         }
+        return from;
     }
 
     private static XContentParser createParser(BytesReference data, XContent xContent, RestApiVersion restApiVersion) throws IOException {
@@ -353,4 +387,65 @@ public final class BulkRequestParser {
         return xContent.createParserForCompatibility(NamedXContentRegistry.EMPTY, LoggingDeprecationHandler.INSTANCE, array.array(),
                 offset + from, nextMarker - from, restApiVersion);
     }
+
+    /**
+     * The state of parsing a single bulk request that is kept between the chunks of an incrementally parsed request.
+     */
+    private static final class ParseState {
+        int line;
+        // Bulk requests can contain a lot of repeated strings for the index, pipeline and routing parameters. This map is used to
+        // deduplicate duplicate strings parsed for these parameters. While it does not prevent instantiating the duplicate strings, it
+        // reduces their lifetime to the lifetime of parsing the request instead of the lifetime of the full bulk request.
+        final Map<String, String> stringDeduplicator = new HashMap<>();
+        boolean typesDeprecationLogged;
+    }
+
+    /**
+     * Parses a bulk request whose data arrives in chunks. The data that was not parsed by a call to {@link #parse(BytesReference, boolean)}
+     * must be passed to the next call again, followed by the next chunk of data.
+     */
+    public final class IncrementalParser {
+
+        private final String defaultIndex;
+        private final String defaultRouting;
+        private final FetchSourceContext defaultFetchSourceContext;
+        private final String defaultPipeline;
+        private final Boolean defaultRequireAlias;
+        private final boolean allowExplicitIndex;
+        private final XContentType xContentType;
+        private final BiConsumer<IndexRequest, String> indexRequestConsumer;
+        private final Consumer<UpdateRequest> updateRequestConsumer;
+        private final Consumer<DeleteRequest> deleteRequestConsumer;
+        private final ParseState state = new ParseState();
+
+        private IncrementalParser(@Nullable String defaultIndex, @Nullable String defaultRouting,
+                                  @Nullable FetchSourceContext defaultFetchSourceContext, @Nullable String defaultPipeline,
+                                  @Nullable Boolean defaultRequireAlias, boolean allowExplicitIndex, XContentType xContentType,
+                                  BiConsumer<IndexRequest, String> indexRequestConsumer, Consumer<UpdateRequest> updateRequestConsumer,
+                                  Consumer<DeleteRequest> deleteRequestConsumer) {
+            this.defaultIndex = defaultIndex;
+            this.defaultRouting = defaultRouting;
+            this.defaultFetchSourceContext = defaultFetchSourceContext;
+            this.defaultPipeline = defaultPipeline;
+            this.defaultRequireAlias = defaultRequireAlias;
+            this.allowExplicitIndex = allowExplicitIndex;
+            this.xContentType = xContentType;
+            this.indexRequestConsumer = indexRequestConsumer;
+            this.updateRequestConsumer = updateRequestConsumer;
+            this.deleteRequestConsumer = deleteRequestConsumer;
+        }
+
+        /**
+         * Parses the complete requests at the start of the given data.
+         *
+         * @param data     the data that was not parsed yet
+         * @param lastData whether the given data is the end of the bulk request
+         * @return the number of bytes that were parsed
+         */
+        public int parse(BytesReference data, boolean lastData) throws IOException {
+            return BulkRequestParser.this.parse(data, defaultIndex, defaultRouting, defaultFetchSourceContext, defaultPipeline,
+                defaultRequireAlias, allowExplicitIndex, xContentType, indexRequestConsumer, updateRequestConsumer, deleteRequestConsumer,
+                lastData, state);
+        }
+    }
 }
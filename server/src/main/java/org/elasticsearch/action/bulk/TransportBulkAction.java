@@ -65,6 +65,7 @@ import org.elasticsearch.threadpool.ThreadPool.Names;
 import org.elasticsearch.transport.TransportService;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -795,6 +796,8 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
                     response -> new BulkResponse(response.getItems(), response.getTook().getMillis(), ingestTookInMillis));
             } else {
                 return actionListener.map(response -> {
+                    // the items of a bulk request may fail or be dropped out of order if their pipelines ran on several threads
+                    itemResponses.sort(Comparator.comparingInt(BulkItemResponse::getItemId));
                     BulkItemResponse[] items = response.getItems();
                     for (int i = 0; i < items.length; i++) {
                         itemResponses.add(originalSlots.get(i), response.getItems()[i]);
@@ -8,12 +8,23 @@
 
 package org.elasticsearch.action.search;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.VersionedNamedWriteable;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.search.fetch.ShardFetchSearchRequest;
 import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.tasks.CancellableTask;
+import org.elasticsearch.tasks.Task;
 import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.xcontent.XContentBuilder;
 
+import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Task storing information about a currently running search shard request.
@@ -21,6 +32,8 @@ import java.util.Map;
  */
 public class SearchShardTask extends CancellableTask {
 
+    private final AtomicLong queueWaitNanos = new AtomicLong();
+
     public SearchShardTask(long id, String type, String action, String description, TaskId parentTaskId, Map<String, String> headers) {
         super(id, type, action, description, parentTaskId, headers);
     }
@@ -29,4 +42,84 @@ public class SearchShardTask extends CancellableTask {
     public boolean shouldCancelChildrenOnCancellation() {
         return false;
     }
+
+    /**
+     * Adds the time that a phase of the task waited in the queue of the search thread pool before it started to execute.
+     */
+    public void addQueueWaitTime(long nanos) {
+        queueWaitNanos.addAndGet(Math.max(0L, nanos));
+    }
+
+    /**
+     * The total time that the phases of the task waited in the queue of the search thread pool.
+     */
+    public long getQueueWaitTimeNanos() {
+        return queueWaitNanos.get();
+    }
+
+    @Override
+    public Status getStatus() {
+        return new Status(queueWaitNanos.get());
+    }
+
+    public static class Status implements Task.Status, VersionedNamedWriteable {
+        public static final String NAME = "search_shard";
+
+        private final long queueWaitNanos;
+
+        public Status(long queueWaitNanos) {
+            this.queueWaitNanos = queueWaitNanos;
+        }
+
+        public Status(StreamInput in) throws IOException {
+            queueWaitNanos = in.readVLong();
+        }
+
+        public long getQueueWaitNanos() {
+            return queueWaitNanos;
+        }
+
+        @Override
+        public String getWriteableName() {
+            return NAME;
+        }
+
+        @Override
+        public Version getMinimalSupportedVersion() {
+            return Version.V_8_0_0;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.humanReadableField("queue_wait_time_in_nanos", "queue_wait_time", new TimeValue(queueWaitNanos, TimeUnit.NANOSECONDS));
+            builder.endObject();
+            return builder;
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(queueWaitNanos);
+        }
+
+        @Override
+        public String toString() {
+            return Strings.toString(this);
+        }
+
+        // Implements equals and hashcode for testing
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == null || obj.getClass() != SearchShardTask.Status.class) {
+                return false;
+            }
+            SearchShardTask.Status other = (Status) obj;
+            return queueWaitNanos == other.queueWaitNanos;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(queueWaitNanos);
+        }
+    }
 }
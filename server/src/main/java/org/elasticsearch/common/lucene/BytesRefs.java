@@ -10,6 +10,7 @@ package org.elasticsearch.common.lucene;
 
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.UnicodeUtil;
 
 public class BytesRefs {
 
@@ -50,4 +51,38 @@ public class BytesRefs {
         spare.copyChars(value.toString());
         return spare.get();
     }
+
+    /**
+     * Encodes the given characters as UTF-8 into a {@link BytesRef} whose array has exactly the length of the encoded value. Unlike
+     * {@link BytesRef#BytesRef(CharSequence)} this neither requires a {@link String} nor allocates an array for the worst case length.
+     */
+    public static BytesRef toBytesRef(char[] chars, int offset, int length) {
+        final byte[] bytes = new byte[utf8Length(chars, offset, length)];
+        final int encoded = UnicodeUtil.UTF16toUTF8(chars, offset, length, bytes);
+        assert encoded == bytes.length : "expected [" + bytes.length + "] bytes but encoded [" + encoded + "]";
+        return new BytesRef(bytes);
+    }
+
+    /**
+     * The number of bytes of the UTF-8 encoding of the given characters as produced by {@link UnicodeUtil#UTF16toUTF8}, which
+     * replaces unpaired surrogates with the three bytes of the replacement character.
+     */
+    static int utf8Length(char[] chars, int offset, int length) {
+        final int end = offset + length;
+        int utf8Length = 0;
+        for (int i = offset; i < end; i++) {
+            final char c = chars[i];
+            if (c < 0x80) {
+                utf8Length += 1;
+            } else if (c < 0x800) {
+                utf8Length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars[i + 1])) {
+                utf8Length += 4;
+                i++;
+            } else {
+                utf8Length += 3;
+            }
+        }
+        return utf8Length;
+    }
 }
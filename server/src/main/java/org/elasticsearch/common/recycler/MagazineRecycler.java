@@ -0,0 +1,210 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.recycler;
+
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free {@link Recycler} that caches entries in per-thread magazines, backed by a global depot of batches of entries. Entries are
+ * obtained from and released to the magazine of the calling thread without any synchronization. Only when a magazine is empty on obtain
+ * or full on release, half a magazine worth of entries is exchanged with the depot, which is a lock-free queue.
+ * <p>
+ * The total number of cached entries is bounded by {@code maxSize}: each magazine reserves its capacity up-front and each batch in the
+ * depot reserves its size. Threads that can't reserve a magazine anymore exchange single entries with the depot. The reservations of
+ * magazines of terminated threads are reclaimed once the recycler runs out of capacity.
+ */
+public class MagazineRecycler<T> extends AbstractRecycler<T> {
+
+    /** Number of failed reservations after which we look for magazines of terminated threads to reclaim. */
+    private static final int RECLAIM_INTERVAL = 1024;
+
+    private final int magazineSize;
+    private final AtomicInteger available;
+    private final Queue<Object[]> depot = ConcurrentCollections.newQueue();
+    private final Queue<Magazine> magazines = ConcurrentCollections.newQueue();
+    private final ThreadLocal<Magazine> localMagazine = ThreadLocal.withInitial(this::newMagazine);
+    private final AtomicInteger failedReservations = new AtomicInteger();
+    private final LongAdder steals = new LongAdder();
+
+    /**
+     * @param c            the factory of entries
+     * @param maxSize      the maximum number of entries to cache
+     * @param magazineSize the number of entries each thread caches locally, must be even
+     */
+    public MagazineRecycler(C<T> c, int maxSize, int magazineSize) {
+        super(c);
+        if (magazineSize < 2 || (magazineSize & 1) != 0) {
+            throw new IllegalArgumentException("magazineSize must be an even number >= 2 but was [" + magazineSize + "]");
+        }
+        this.magazineSize = magazineSize;
+        this.available = new AtomicInteger(maxSize);
+    }
+
+    @Override
+    public V<T> obtain() {
+        final Magazine magazine = localMagazine.get();
+        if (magazine.count == 0) {
+            final Object[] batch = depot.poll();
+            if (batch == null) {
+                return new MV(c.newInstance(), false);
+            }
+            steals.increment();
+            if (batch.length <= magazine.entries.length) {
+                // the reservation of the batch is handed over to the magazine
+                available.addAndGet(batch.length);
+                System.arraycopy(batch, 0, magazine.entries, 0, batch.length);
+                magazine.count = batch.length;
+            } else {
+                // this thread has no magazine, take a single entry and keep the rest of the batch in the depot
+                available.incrementAndGet();
+                if (batch.length > 1) {
+                    depot.add(Arrays.copyOf(batch, batch.length - 1));
+                }
+                @SuppressWarnings("unchecked")
+                final T value = (T) batch[batch.length - 1];
+                return new MV(value, true);
+            }
+        }
+        final int index = --magazine.count;
+        @SuppressWarnings("unchecked")
+        final T value = (T) magazine.entries[index];
+        magazine.entries[index] = null;
+        return new MV(value, true);
+    }
+
+    /**
+     * @return the number of times an entry was obtained from the global depot rather than from the magazine of the calling thread
+     */
+    public long steals() {
+        return steals.sum();
+    }
+
+    private void release(T value) {
+        final Magazine magazine = localMagazine.get();
+        final Object[] entries = magazine.entries;
+        if (entries.length == 0) {
+            // no magazine, release the entry to the depot directly
+            if (tryReserve(1)) {
+                c.recycle(value);
+                depot.add(new Object[] { value });
+            } else {
+                c.destroy(value);
+            }
+            return;
+        }
+        if (magazine.count == entries.length) {
+            final int half = entries.length / 2;
+            if (tryReserve(half)) {
+                depot.add(Arrays.copyOfRange(entries, half, entries.length));
+                Arrays.fill(entries, half, entries.length, null);
+                magazine.count = half;
+            } else {
+                c.destroy(value);
+                return;
+            }
+        }
+        c.recycle(value);
+        entries[magazine.count++] = value;
+    }
+
+    private Magazine newMagazine() {
+        final Magazine magazine = new Magazine(tryReserve(magazineSize) ? magazineSize : 0);
+        if (magazine.entries.length > 0) {
+            magazines.add(magazine);
+        }
+        return magazine;
+    }
+
+    private boolean tryReserve(int count) {
+        if (tryReserveOnce(count)) {
+            return true;
+        }
+        if (failedReservations.incrementAndGet() % RECLAIM_INTERVAL == 1) {
+            reclaimTerminatedMagazines();
+            return tryReserveOnce(count);
+        }
+        return false;
+    }
+
+    private boolean tryReserveOnce(int count) {
+        int current;
+        do {
+            current = available.get();
+            if (current < count) {
+                return false;
+            }
+        } while (available.compareAndSet(current, current - count) == false);
+        return true;
+    }
+
+    /**
+     * Moves the entries of the magazines of terminated threads to the depot and releases the reservations of these magazines.
+     */
+    private void reclaimTerminatedMagazines() {
+        for (Iterator<Magazine> iterator = magazines.iterator(); iterator.hasNext(); ) {
+            final Magazine magazine = iterator.next();
+            if (magazine.owner.isAlive() == false && magazines.remove(magazine)) {
+                // the owner terminated so it won't access the magazine anymore
+                final int count = magazine.count;
+                if (count > 0) {
+                    depot.add(Arrays.copyOf(magazine.entries, count));
+                }
+                available.addAndGet(magazine.entries.length - count);
+            }
+        }
+    }
+
+    private static final class Magazine {
+
+        final Thread owner = Thread.currentThread();
+        final Object[] entries;
+        int count;
+
+        Magazine(int size) {
+            this.entries = new Object[size];
+        }
+    }
+
+    private final class MV implements Recycler.V<T> {
+
+        T value;
+        final boolean recycled;
+
+        MV(T value, boolean recycled) {
+            this.value = value;
+            this.recycled = recycled;
+        }
+
+        @Override
+        public T v() {
+            return value;
+        }
+
+        @Override
+        public boolean isRecycled() {
+            return recycled;
+        }
+
+        @Override
+        public void close() {
+            if (value == null) {
+                throw new IllegalStateException("recycler entry already released...");
+            }
+            final T v = value;
+            value = null;
+            release(v);
+        }
+    }
+}
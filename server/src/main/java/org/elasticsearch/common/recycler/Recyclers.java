@@ -43,6 +43,13 @@ public enum Recyclers {
         return () -> deque(c, limit);
     }
 
+    /**
+     * Return a lock-free recycler that caches entries in per-thread magazines, see {@link MagazineRecycler}.
+     */
+    public static <T> Recycler<T> magazine(Recycler.C<T> c, int limit, int magazineSize) {
+        return new MagazineRecycler<>(c, limit, magazineSize);
+    }
+
     /**
      * Wrap the provided recycler so that calls to {@link Recycler#obtain()} and {@link Recycler.V#close()} are protected by
      * a lock.
@@ -0,0 +1,134 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util;
+
+import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of direct {@link ByteBuffer} pages of {@link PageCacheRecycler#PAGE_SIZE_IN_BYTES} bytes each. Pages are sliced from slabs of
+ * {@link #PAGES_PER_SLAB} pages so that the number of direct buffers the JVM needs to track stays small. Up to {@code maxPooledPages}
+ * pages are sliced from slabs and returned to the pool when they are released. No other direct memory is allocated, so once all of them
+ * are in use the pool is exhausted until pages are released.
+ * <p>
+ * All pages use the native byte order.
+ */
+final class DirectPagePool {
+
+    /** Number of pages per slab: 1MB */
+    static final int PAGES_PER_SLAB = 64;
+
+    private static final ByteBuffer ZEROS = ByteBuffer.allocateDirect(PageCacheRecycler.PAGE_SIZE_IN_BYTES).asReadOnlyBuffer();
+
+    private final int maxPooledPages;
+    private final Queue<ByteBuffer> freePages = ConcurrentCollections.newQueue();
+    private final AtomicLong pagesInUse = new AtomicLong();
+
+    private ByteBuffer slab; // guarded by this
+    private int slabPages; // guarded by this
+    private int slicedPages; // guarded by this
+
+    DirectPagePool(long maxPooledBytes) {
+        this.maxPooledPages = (int) Math.min(Integer.MAX_VALUE, maxPooledBytes / PageCacheRecycler.PAGE_SIZE_IN_BYTES);
+    }
+
+    /**
+     * Obtains a page, which must be released by closing the returned {@link Recycler.V} exactly once.
+     *
+     * @param clear whether the page must be zeroed, pages that were never used before are always zeroed
+     * @return the page or {@code null} if all pages of the pool are in use
+     */
+    @Nullable
+    Recycler.V<ByteBuffer> obtain(boolean clear) {
+        ByteBuffer page = freePages.poll();
+        final boolean recycled = page != null;
+        if (page == null) {
+            page = sliceFromSlab();
+            if (page == null) {
+                return null;
+            }
+        } else if (clear) {
+            clear(page);
+        }
+        pagesInUse.incrementAndGet();
+        return new DirectPage(page, recycled);
+    }
+
+    /**
+     * @return the number of pages that were obtained and not released yet
+     */
+    long pagesInUse() {
+        return pagesInUse.get();
+    }
+
+    /**
+     * @return the number of pages sliced from slabs so far, which is bounded by the configured size of the pool
+     */
+    synchronized int pooledPages() {
+        return slicedPages;
+    }
+
+    private synchronized ByteBuffer sliceFromSlab() {
+        if (slab == null || slab.hasRemaining() == false) {
+            final int newPages = Math.min(PAGES_PER_SLAB, maxPooledPages - slabPages);
+            if (newPages <= 0) {
+                return null;
+            }
+            slab = ByteBuffer.allocateDirect(newPages * PageCacheRecycler.PAGE_SIZE_IN_BYTES);
+            slabPages += newPages;
+        }
+        final ByteBuffer page = slab.slice();
+        page.limit(PageCacheRecycler.PAGE_SIZE_IN_BYTES);
+        slab.position(slab.position() + PageCacheRecycler.PAGE_SIZE_IN_BYTES);
+        slicedPages++;
+        return page.slice().order(ByteOrder.nativeOrder());
+    }
+
+    private static void clear(ByteBuffer page) {
+        page.duplicate().clear().put(ZEROS.duplicate());
+    }
+
+    private final class DirectPage implements Recycler.V<ByteBuffer> {
+
+        private final ByteBuffer page;
+        private final boolean recycled;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        DirectPage(ByteBuffer page, boolean recycled) {
+            this.page = page;
+            this.recycled = recycled;
+        }
+
+        @Override
+        public ByteBuffer v() {
+            return page;
+        }
+
+        @Override
+        public boolean isRecycled() {
+            return recycled;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true) == false) {
+                throw new IllegalStateException("recycler entry already released...");
+            }
+            pagesInUse.decrementAndGet();
+            freePages.add(page);
+        }
+    }
+}
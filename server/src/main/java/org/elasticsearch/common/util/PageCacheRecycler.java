@@ -10,19 +10,28 @@ package org.elasticsearch.common.util;
 
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.recycler.AbstractRecyclerC;
+import org.elasticsearch.common.recycler.MagazineRecycler;
 import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.core.Nullable;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 import static org.elasticsearch.common.recycler.Recyclers.concurrent;
 import static org.elasticsearch.common.recycler.Recyclers.concurrentDeque;
 import static org.elasticsearch.common.recycler.Recyclers.dequeFactory;
+import static org.elasticsearch.common.recycler.Recyclers.magazine;
 import static org.elasticsearch.common.recycler.Recyclers.none;
 
 /** A recycler of fixed-size pages. */
@@ -41,6 +50,11 @@ public class PageCacheRecycler {
     // object pages are less useful to us so we give them a lower weight by default
     public static final Setting<Double> WEIGHT_OBJECTS_SETTING  =
         Setting.doubleSetting("cache.recycler.page.weight.objects", 0.1d, 0d, Property.NodeScope);
+    // when enabled, the pages of big long and double arrays are allocated off-heap
+    public static final Setting<Boolean> OFF_HEAP_SETTING =
+        Setting.boolSetting("cache.recycler.page.off_heap", false, Property.NodeScope);
+    public static final Setting<ByteSizeValue> LIMIT_OFF_HEAP_SETTING =
+        Setting.byteSizeSetting("cache.recycler.page.limit.off_heap", new ByteSizeValue(256, ByteSizeUnit.MB), Property.NodeScope);
 
     /** Page size in bytes: 16KB */
     public static final int PAGE_SIZE_IN_BYTES = 1 << 14;
@@ -53,6 +67,13 @@ public class PageCacheRecycler {
     private final Recycler<int[]> intPage;
     private final Recycler<long[]> longPage;
     private final Recycler<Object[]> objectPage;
+    private final DirectPagePool directPages;
+    private final Type type;
+    private final PageCounter bytePageCounter = new PageCounter();
+    private final PageCounter intPageCounter = new PageCounter();
+    private final PageCounter longPageCounter = new PageCounter();
+    private final PageCounter objectPageCounter = new PageCounter();
+    private final PageCounter directPageCounter = new PageCounter();
 
     public static final PageCacheRecycler NON_RECYCLING_INSTANCE;
 
@@ -61,7 +82,7 @@ public class PageCacheRecycler {
     }
 
     public PageCacheRecycler(Settings settings) {
-        final Type type = TYPE_SETTING.get(settings);
+        this.type = TYPE_SETTING.get(settings);
         final long limit = LIMIT_HEAP_SETTING.get(settings).getBytes();
         final int allocatedProcessors = EsExecutors.allocatedProcessors(settings);
 
@@ -135,10 +156,57 @@ public class PageCacheRecycler {
         });
 
         assert PAGE_SIZE_IN_BYTES * (maxBytePageCount + maxIntPageCount + maxLongPageCount + maxObjectPageCount) <= limit;
+
+        directPages = OFF_HEAP_SETTING.get(settings) ? new DirectPagePool(LIMIT_OFF_HEAP_SETTING.get(settings).getBytes()) : null;
+    }
+
+    /**
+     * Whether the pages of big long and double arrays are allocated off-heap using {@link #directPage(boolean)}.
+     */
+    public boolean isOffHeap() {
+        return directPages != null;
+    }
+
+    /**
+     * Obtains a direct page of {@link #PAGE_SIZE_IN_BYTES} bytes in native byte order. Must only be called if {@link #isOffHeap()}.
+     * Once all pages of the off-heap pool are in use, this falls back to wrapping a heap page of {@link #bytePage(boolean)}, so that the
+     * off-heap memory never exceeds the configured limit.
+     */
+    public Recycler.V<ByteBuffer> directPage(boolean clear) {
+        assert directPages != null : "off-heap pages are disabled";
+        final Recycler.V<ByteBuffer> page = directPages.obtain(clear);
+        if (page != null) {
+            return directPageCounter.onObtain(page);
+        }
+        final Recycler.V<byte[]> heapPage = bytePage(clear);
+        final ByteBuffer buffer = ByteBuffer.wrap(heapPage.v()).order(ByteOrder.nativeOrder());
+        return new Recycler.V<>() {
+            @Override
+            public ByteBuffer v() {
+                return buffer;
+            }
+
+            @Override
+            public boolean isRecycled() {
+                return heapPage.isRecycled();
+            }
+
+            @Override
+            public void close() {
+                heapPage.close();
+            }
+        };
+    }
+
+    /**
+     * @return the number of off-heap pages that are currently in use
+     */
+    public long directPagesInUse() {
+        return directPages == null ? 0L : directPages.pagesInUse();
     }
 
     public Recycler.V<byte[]> bytePage(boolean clear) {
-        final Recycler.V<byte[]> v = bytePage.obtain();
+        final Recycler.V<byte[]> v = bytePageCounter.onObtain(bytePage.obtain());
         if (v.isRecycled() && clear) {
             Arrays.fill(v.v(), (byte) 0);
         }
@@ -146,7 +214,7 @@ public class PageCacheRecycler {
     }
 
     public Recycler.V<int[]> intPage(boolean clear) {
-        final Recycler.V<int[]> v = intPage.obtain();
+        final Recycler.V<int[]> v = intPageCounter.onObtain(intPage.obtain());
         if (v.isRecycled() && clear) {
             Arrays.fill(v.v(), 0);
         }
@@ -154,7 +222,7 @@ public class PageCacheRecycler {
     }
 
     public Recycler.V<long[]> longPage(boolean clear) {
-        final Recycler.V<long[]> v = longPage.obtain();
+        final Recycler.V<long[]> v = longPageCounter.onObtain(longPage.obtain());
         if (v.isRecycled() && clear) {
             Arrays.fill(v.v(), 0L);
         }
@@ -163,7 +231,22 @@ public class PageCacheRecycler {
 
     public Recycler.V<Object[]> objectPage() {
         // object pages are cleared on release anyway
-        return objectPage.obtain();
+        return objectPageCounter.onObtain(objectPage.obtain());
+    }
+
+    /**
+     * @return statistics about the pages obtained from this recycler so far
+     */
+    public PageCacheRecyclerStats stats() {
+        final Map<String, PageCacheRecyclerStats.PageStats> pages = new HashMap<>();
+        pages.put("bytes", bytePageCounter.stats(bytePage));
+        pages.put("ints", intPageCounter.stats(intPage));
+        pages.put("longs", longPageCounter.stats(longPage));
+        pages.put("objects", objectPageCounter.stats(objectPage));
+        if (directPages != null) {
+            pages.put("direct", directPageCounter.stats(null));
+        }
+        return new PageCacheRecyclerStats(type.name().toLowerCase(Locale.ROOT), pages);
     }
 
     private static <T> Recycler<T> build(Type type, int limit, int availableProcessors, Recycler.C<T> c) {
@@ -194,8 +277,18 @@ public class PageCacheRecycler {
             <T> Recycler<T> build(Recycler.C<T> c, int limit, int availableProcessors) {
                 return none(c);
             }
+        },
+        MAGAZINE {
+            @Override
+            <T> Recycler<T> build(Recycler.C<T> c, int limit, int availableProcessors) {
+                // each thread caches a small share of the limit locally, the rest is shared through the depot
+                final int magazineSize = Math.max(2, Math.min(MAX_MAGAZINE_SIZE, limit / (4 * availableProcessors)) & ~1);
+                return magazine(c, limit, magazineSize);
+            }
         };
 
+        private static final int MAX_MAGAZINE_SIZE = 32;
+
         public static Type parse(String type) {
             try {
                 return Type.valueOf(type.toUpperCase(Locale.ROOT));
@@ -206,4 +299,24 @@ public class PageCacheRecycler {
 
         abstract <T> Recycler<T> build(Recycler.C<T> c, int limit, int availableProcessors);
     }
+
+    private static final class PageCounter {
+
+        private final LongAdder recycled = new LongAdder();
+        private final LongAdder allocated = new LongAdder();
+
+        <T> Recycler.V<T> onObtain(Recycler.V<T> v) {
+            if (v.isRecycled()) {
+                recycled.increment();
+            } else {
+                allocated.increment();
+            }
+            return v;
+        }
+
+        PageCacheRecyclerStats.PageStats stats(@Nullable Recycler<?> recycler) {
+            final long steals = recycler instanceof MagazineRecycler ? ((MagazineRecycler<?>) recycler).steals() : 0L;
+            return new PageCacheRecyclerStats.PageStats(Math.max(0L, recycled.sum() - steals), allocated.sum(), steals);
+        }
+    }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.xcontent.ToXContentFragment;
+import org.elasticsearch.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Statistics about the pages obtained from the {@link PageCacheRecycler}, per type of page.
+ */
+public class PageCacheRecyclerStats implements Writeable, ToXContentFragment {
+
+    private final String type;
+    private final Map<String, PageStats> pages;
+
+    public PageCacheRecyclerStats(String type, Map<String, PageStats> pages) {
+        this.type = Objects.requireNonNull(type);
+        this.pages = Collections.unmodifiableMap(new TreeMap<>(pages));
+    }
+
+    public PageCacheRecyclerStats(StreamInput in) throws IOException {
+        type = in.readString();
+        pages = Collections.unmodifiableMap(in.readMap(StreamInput::readString, PageStats::new));
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeString(type);
+        out.writeMap(pages, StreamOutput::writeString, (o, stats) -> stats.writeTo(o));
+    }
+
+    /**
+     * @return the type of recycler, see {@link PageCacheRecycler#TYPE_SETTING}
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return the statistics per type of page, keyed by the name of the page type
+     */
+    public Map<String, PageStats> getPages() {
+        return pages;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("page_cache_recycler");
+        builder.field("type", type);
+        builder.startObject("pages");
+        for (Map.Entry<String, PageStats> entry : pages.entrySet()) {
+            builder.startObject(entry.getKey());
+            entry.getValue().toXContent(builder, params);
+            builder.endObject();
+        }
+        builder.endObject();
+        builder.endObject();
+        return builder;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PageCacheRecyclerStats that = (PageCacheRecyclerStats) o;
+        return type.equals(that.type) && pages.equals(that.pages);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, pages);
+    }
+
+    /**
+     * Statistics about the pages of a single type.
+     */
+    public static class PageStats implements Writeable, ToXContentFragment {
+
+        private final long hits;
+        private final long misses;
+        private final long steals;
+
+        public PageStats(long hits, long misses, long steals) {
+            this.hits = hits;
+            this.misses = misses;
+            this.steals = steals;
+        }
+
+        public PageStats(StreamInput in) throws IOException {
+            hits = in.readVLong();
+            misses = in.readVLong();
+            steals = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(hits);
+            out.writeVLong(misses);
+            out.writeVLong(steals);
+        }
+
+        /**
+         * @return the number of pages that were recycled from the cache of the obtaining thread, or from the shared cache if the recycler
+         *         has no per-thread caches
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return the number of pages that were newly allocated because there was no page to recycle
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return the number of pages that were recycled from the shared depot because the cache of the obtaining thread was empty
+         */
+        public long getSteals() {
+            return steals;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field("hits", hits);
+            builder.field("misses", misses);
+            builder.field("steals", steals);
+            return builder;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            PageStats that = (PageStats) o;
+            return hits == that.hits && misses == that.misses && steals == that.steals;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hits, misses, steals);
+        }
+    }
+}
@@ -84,11 +84,24 @@ public class EsExecutors {
 
     public static EsThreadPoolExecutor newFixed(String name, int size, int queueCapacity,
                                                 ThreadFactory threadFactory, ThreadContext contextHolder, boolean trackEWMA) {
+        return newFixed(name, size, queueCapacity, threadFactory, contextHolder, trackEWMA, false);
+    }
+
+    /**
+     * Creates a fixed executor. If {@code roundRobin} is set, the queued tasks are taken from a {@link RoundRobinBlockingQueue} that
+     * alternates between the groups of tasks that return the same {@link RoundRobinBlockingQueue.KeyedTask#roundRobinKey()}, rather
+     * than in the order in which they were submitted.
+     */
+    public static EsThreadPoolExecutor newFixed(String name, int size, int queueCapacity, ThreadFactory threadFactory,
+                                                ThreadContext contextHolder, boolean trackEWMA, boolean roundRobin) {
+        final BlockingQueue<Runnable> backingQueue = roundRobin
+            ? new RoundRobinBlockingQueue<>(RoundRobinBlockingQueue::roundRobinKey)
+            : ConcurrentCollections.newBlockingQueue();
         BlockingQueue<Runnable> queue;
         if (queueCapacity < 0) {
-            queue = ConcurrentCollections.newBlockingQueue();
+            queue = backingQueue;
         } else {
-            queue = new SizeBlockingQueue<>(ConcurrentCollections.<Runnable>newBlockingQueue(), queueCapacity);
+            queue = new SizeBlockingQueue<>(backingQueue, queueCapacity);
         }
         if (trackEWMA) {
             return new EWMATrackingEsThreadPoolExecutor(name, size, size, 0, TimeUnit.MILLISECONDS,
@@ -237,6 +250,64 @@ public class EsExecutors {
 
     }
 
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = newVirtualThreadFactory();
+
+    private static ThreadFactory newVirtualThreadFactory() {
+        // virtual threads are only available through reflection as long as the minimum runtime is older than JDK 21
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            // the JDK has no virtual threads, or they are a preview feature that is not enabled
+            return null;
+        }
+    }
+
+    /**
+     * Whether tasks can run on virtual threads, which requires a JDK that supports them and that no security manager is installed.
+     * Virtual threads have no permissions under a security manager, so that tasks that run privileged actions would fail on them.
+     */
+    public static boolean virtualThreadsSupported() {
+        return VIRTUAL_THREAD_FACTORY != null && System.getSecurityManager() == null;
+    }
+
+    /**
+     * Returns a factory for virtual threads that are named like the threads of {@link #daemonThreadFactory(String)}. Virtual threads
+     * are cheap to create and do not hold on to a platform thread while they block on I/O, so that an executor whose tasks mostly
+     * block needs far fewer platform threads and thread stacks. Virtual threads are always daemon threads.
+     *
+     * @throws IllegalStateException if virtual threads are not supported, see {@link #virtualThreadsSupported()}
+     */
+    public static ThreadFactory virtualThreadFactory(String namePrefix) {
+        if (VIRTUAL_THREAD_FACTORY == null) {
+            throw new IllegalStateException("virtual threads are not supported by JDK [" + Runtime.version() + "]");
+        }
+        if (System.getSecurityManager() != null) {
+            throw new IllegalStateException("virtual threads are not supported while a security manager is installed");
+        }
+        return new EsVirtualThreadFactory(VIRTUAL_THREAD_FACTORY, namePrefix);
+    }
+
+    static class EsVirtualThreadFactory implements ThreadFactory {
+
+        final ThreadFactory delegate;
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        final String namePrefix;
+
+        EsVirtualThreadFactory(ThreadFactory delegate, String namePrefix) {
+            this.delegate = delegate;
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread t = delegate.newThread(r);
+            t.setName(namePrefix + "[V#" + threadNumber.getAndIncrement() + "]");
+            return t;
+        }
+
+    }
+
     /**
      * Cannot instantiate.
      */
@@ -0,0 +1,291 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * An unbounded blocking queue that groups its elements by a key and takes elements from the groups in turn, so that a group that
+ * enqueued many elements at once does not delay the elements of the groups that were enqueued after them. Elements of the same group
+ * are taken in the order they were added. Elements without a key form a group of their own. Wrap the queue in a
+ * {@link SizeBlockingQueue} to bound it.
+ */
+public class RoundRobinBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    /**
+     * A task that is queued with the other tasks that return the same key from {@link #roundRobinKey()}.
+     */
+    public interface KeyedTask {
+
+        /**
+         * The key of the group of the task, or {@code null} if the task does not belong to a group.
+         */
+        Object roundRobinKey();
+    }
+
+    private static final Object NO_KEY = new Object();
+
+    private final Function<? super E, ?> keyFunction;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Map<Object, ArrayDeque<E>> groups = new HashMap<>();
+    // the keys of the groups with queued elements, in the order in which they are served
+    private final ArrayDeque<Object> keys = new ArrayDeque<>();
+    private volatile int size;
+
+    public RoundRobinBlockingQueue(Function<? super E, ?> keyFunction) {
+        this.keyFunction = Objects.requireNonNull(keyFunction);
+    }
+
+    /**
+     * Returns the key of the first {@link KeyedTask} found by unwrapping the given runnable, or {@code null} if there is none.
+     */
+    public static Object roundRobinKey(Runnable runnable) {
+        Runnable current = runnable;
+        while (true) {
+            if (current instanceof KeyedTask) {
+                return ((KeyedTask) current).roundRobinKey();
+            } else if (current instanceof WrappedRunnable) {
+                current = ((WrappedRunnable) current).unwrap();
+            } else {
+                return null;
+            }
+        }
+    }
+
+    private Object key(Object e) {
+        @SuppressWarnings("unchecked")
+        final Object key = keyFunction.apply((E) e);
+        return key == null ? NO_KEY : key;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+        final Object key = key(e);
+        lock.lock();
+        try {
+            ArrayDeque<E> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayDeque<>();
+                groups.put(key, group);
+                keys.addLast(key);
+            }
+            group.addLast(e);
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(E e) {
+        offer(e);
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) {
+        return offer(e);
+    }
+
+    private E dequeue() {
+        assert lock.isHeldByCurrentThread();
+        assert size > 0;
+        final Object key = keys.pollFirst();
+        final ArrayDeque<E> group = groups.get(key);
+        final E e = group.pollFirst();
+        if (group.isEmpty()) {
+            groups.remove(key);
+        } else {
+            keys.addLast(key);
+        }
+        size--;
+        return e;
+    }
+
+    @Override
+    public E poll() {
+        lock.lock();
+        try {
+            return size == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (nanos <= 0L) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E peek() {
+        lock.lock();
+        try {
+            return size == 0 ? null : groups.get(keys.peekFirst()).peekFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        final Object key;
+        try {
+            key = key(o);
+        } catch (ClassCastException e) {
+            return false;
+        }
+        lock.lock();
+        try {
+            final ArrayDeque<E> group = groups.get(key);
+            if (group == null || group.remove(o) == false) {
+                return false;
+            }
+            if (group.isEmpty()) {
+                groups.remove(key);
+                keys.remove(key);
+            }
+            size--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this) {
+            throw new IllegalArgumentException("cannot drain a queue into itself");
+        }
+        lock.lock();
+        try {
+            int drained = 0;
+            while (drained < maxElements && size > 0) {
+                c.add(dequeue());
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the elements of the queue, grouped by key.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        final List<E> snapshot;
+        lock.lock();
+        try {
+            snapshot = new ArrayList<>(size);
+            for (Object key : keys) {
+                snapshot.addAll(groups.get(key));
+            }
+        } finally {
+            lock.unlock();
+        }
+        final Iterator<E> delegate = snapshot.iterator();
+        return new Iterator<>() {
+            private E last;
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public E next() {
+                last = delegate.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                RoundRobinBlockingQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    /**
+     * The number of groups with queued elements.
+     */
+    public int groupCount() {
+        lock.lock();
+        try {
+            return keys.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -11,7 +11,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.action.support.ContextPreservingActionListener;
 import org.elasticsearch.client.OriginSettingClient;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.collect.CopyOnWriteHashMap;
 import org.elasticsearch.core.Tuple;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -82,6 +85,17 @@ public final class ThreadContext implements Writeable {
 
     private static final Logger logger = LogManager.getLogger(ThreadContext.class);
     private static final ThreadContextStruct DEFAULT_CONTEXT = new ThreadContextStruct();
+
+    // the names of the headers read from the network repeat on every message, so they are deduplicated up to a limit to share a
+    // single instance, and its cached hash code, per name
+    private static final int MAX_INTERNED_HEADER_NAMES = 1024;
+    private static final Map<String, String> INTERNED_HEADER_NAMES = ConcurrentCollections.newConcurrentMap();
+
+    static {
+        for (String name : List.of(Task.X_OPAQUE_ID, Task.TRACE_ID)) {
+            INTERNED_HEADER_NAMES.put(name, name);
+        }
+    }
     private final Map<String, String> defaultHeader;
     private final ThreadLocal<ThreadContextStruct> threadLocal;
     private final int maxWarningHeaderCount;
@@ -111,15 +125,16 @@ public final class ThreadContext implements Writeable {
          * Otherwise when context is stash, it should be empty.
          */
 
-        if (context.requestHeaders.containsKey(Task.X_OPAQUE_ID) || context.requestHeaders.containsKey(Task.TRACE_ID)) {
-            Map<String, String> map = new HashMap<>(2, 1);
-            if (context.requestHeaders.containsKey(Task.X_OPAQUE_ID)) {
-                map.put(Task.X_OPAQUE_ID, context.requestHeaders.get(Task.X_OPAQUE_ID));
+        final String opaqueId = context.requestHeaders.get(Task.X_OPAQUE_ID);
+        final String traceId = context.requestHeaders.get(Task.TRACE_ID);
+        if (opaqueId != null || traceId != null) {
+            ThreadContextStruct threadContextStruct = DEFAULT_CONTEXT;
+            if (opaqueId != null) {
+                threadContextStruct = threadContextStruct.putRequest(Task.X_OPAQUE_ID, opaqueId);
             }
-            if (context.requestHeaders.containsKey(Task.TRACE_ID)) {
-                map.put(Task.TRACE_ID, context.requestHeaders.get(Task.TRACE_ID));
+            if (traceId != null) {
+                threadContextStruct = threadContextStruct.putRequest(Task.TRACE_ID, traceId);
             }
-            ThreadContextStruct threadContextStruct = DEFAULT_CONTEXT.putHeaders(map);
             threadLocal.set(threadContextStruct);
         }
         else {
@@ -197,13 +212,13 @@ public final class ThreadContext implements Writeable {
     public StoredContext newStoredContext(boolean preserveResponseHeaders, Collection<String> transientHeadersToClear) {
         final ThreadContextStruct originalContext = threadLocal.get();
         // clear specific transient headers from the current context
-        Map<String, Object> newTransientHeaders = null;
+        CopyOnWriteHashMap<String, Object> newTransientHeaders = null;
         for (String transientHeaderToClear : transientHeadersToClear) {
             if (originalContext.transientHeaders.containsKey(transientHeaderToClear)) {
                 if (newTransientHeaders == null) {
-                    newTransientHeaders = new HashMap<>(originalContext.transientHeaders);
+                    newTransientHeaders = CopyOnWriteHashMap.copyOf(originalContext.transientHeaders);
                 }
-                newTransientHeaders.remove(transientHeaderToClear);
+                newTransientHeaders = newTransientHeaders.copyAndRemove(transientHeaderToClear);
             }
         }
         if (newTransientHeaders != null) {
@@ -285,8 +300,8 @@ public final class ThreadContext implements Writeable {
     }
 
     public static Tuple<Map<String, String>, Map<String, Set<String>>> readHeadersFromStream(StreamInput in) throws IOException {
-        final Map<String, String> requestHeaders = in.readMap(StreamInput::readString, StreamInput::readString);
-        final Map<String, Set<String>> responseHeaders = in.readMap(StreamInput::readString, input -> {
+        final Map<String, String> requestHeaders = in.readMap(ThreadContext::readHeaderName, StreamInput::readString);
+        final Map<String, Set<String>> responseHeaders = in.readMap(ThreadContext::readHeaderName, input -> {
             final int size = input.readVInt();
             if (size == 0) {
                 return Collections.emptySet();
@@ -306,6 +321,19 @@ public final class ThreadContext implements Writeable {
         return new Tuple<>(requestHeaders, responseHeaders);
     }
 
+    private static String readHeaderName(StreamInput in) throws IOException {
+        final String name = in.readString();
+        final String interned = INTERNED_HEADER_NAMES.get(name);
+        if (interned != null) {
+            return interned;
+        }
+        if (INTERNED_HEADER_NAMES.size() >= MAX_INTERNED_HEADER_NAMES) {
+            return name;
+        }
+        final String previous = INTERNED_HEADER_NAMES.putIfAbsent(name, name);
+        return previous == null ? name : previous;
+    }
+
     /**
      * Returns the header for the given key or <code>null</code> if not present
      */
@@ -485,6 +513,11 @@ public final class ThreadContext implements Writeable {
         }
     }
 
+    /**
+     * The immutable state of a context. The maps of the headers are persistent maps that share their structure with the maps of the
+     * context they were derived from, so that deriving a context with an additional header does not copy all the other headers, and
+     * the serialized form of the headers is computed once per context no matter how many messages it is sent with.
+     */
     private static final class ThreadContextStruct {
 
         private static final ThreadContextStruct EMPTY =
@@ -496,6 +529,8 @@ public final class ThreadContext implements Writeable {
         private final boolean isSystemContext;
         //saving current warning headers' size not to recalculate the size with every new warning header
         private final long warningHeadersSize;
+        // the serialized headers, computed on the first call to writeTo
+        private volatile SerializedHeaders serializedHeaders;
 
         private ThreadContextStruct setSystemContext() {
             if (isSystemContext) {
@@ -533,24 +568,25 @@ public final class ThreadContext implements Writeable {
         }
 
         private ThreadContextStruct putRequest(String key, String value) {
-            Map<String, String> newRequestHeaders = new HashMap<>(this.requestHeaders);
-            putSingleHeader(key, value, newRequestHeaders);
+            final CopyOnWriteHashMap<String, String> newRequestHeaders =
+                putSingleHeader(key, value, CopyOnWriteHashMap.copyOf(this.requestHeaders));
             return new ThreadContextStruct(newRequestHeaders, responseHeaders, transientHeaders, isSystemContext);
         }
 
-        private static <T> void putSingleHeader(String key, T value, Map<String, T> newHeaders) {
-            if (newHeaders.putIfAbsent(key, value) != null) {
+        private static <T> CopyOnWriteHashMap<String, T> putSingleHeader(String key, T value, CopyOnWriteHashMap<String, T> headers) {
+            if (headers.containsKey(key)) {
                 throw new IllegalArgumentException("value for key [" + key + "] already present");
             }
+            return headers.copyAndPut(key, value);
         }
 
         private ThreadContextStruct putHeaders(Map<String, String> headers) {
             if (headers.isEmpty()) {
                 return this;
             } else {
-                final Map<String, String> newHeaders = new HashMap<>(this.requestHeaders);
+                CopyOnWriteHashMap<String, String> newHeaders = CopyOnWriteHashMap.copyOf(this.requestHeaders);
                 for (Map.Entry<String, String> entry : headers.entrySet()) {
-                    putSingleHeader(entry.getKey(), entry.getValue(), newHeaders);
+                    newHeaders = putSingleHeader(entry.getKey(), entry.getValue(), newHeaders);
                 }
                 return new ThreadContextStruct(newHeaders, responseHeaders, transientHeaders, isSystemContext);
             }
@@ -561,16 +597,16 @@ public final class ThreadContext implements Writeable {
             if (headers.isEmpty()) {
                 return this;
             }
-            final Map<String, Set<String>> newResponseHeaders = new HashMap<>(this.responseHeaders);
+            CopyOnWriteHashMap<String, Set<String>> newResponseHeaders = CopyOnWriteHashMap.copyOf(this.responseHeaders);
             for (Map.Entry<String, Set<String>> entry : headers.entrySet()) {
                 String key = entry.getKey();
                 final Set<String> existingValues = newResponseHeaders.get(key);
                 if (existingValues != null) {
                     final Set<String> newValues =
                             Stream.concat(entry.getValue().stream(), existingValues.stream()).collect(LINKED_HASH_SET_COLLECTOR);
-                    newResponseHeaders.put(key, Collections.unmodifiableSet(newValues));
+                    newResponseHeaders = newResponseHeaders.copyAndPut(key, Collections.unmodifiableSet(newValues));
                 } else {
-                    newResponseHeaders.put(key, entry.getValue());
+                    newResponseHeaders = newResponseHeaders.copyAndPut(key, entry.getValue());
                 }
             }
             return new ThreadContextStruct(requestHeaders, newResponseHeaders, transientHeaders, isSystemContext);
@@ -606,11 +642,9 @@ public final class ThreadContext implements Writeable {
                 }
                 // preserve insertion order
                 final Set<String> newValues = Stream.concat(existingValues.stream(), Stream.of(value)).collect(LINKED_HASH_SET_COLLECTOR);
-                newResponseHeaders = new HashMap<>(responseHeaders);
-                newResponseHeaders.put(key, Collections.unmodifiableSet(newValues));
+                newResponseHeaders = CopyOnWriteHashMap.copyOf(responseHeaders).copyAndPut(key, Collections.unmodifiableSet(newValues));
             } else {
-                newResponseHeaders = new HashMap<>(responseHeaders);
-                newResponseHeaders.put(key, Collections.singleton(value));
+                newResponseHeaders = CopyOnWriteHashMap.copyOf(responseHeaders).copyAndPut(key, Collections.singleton(value));
             }
 
             //check if we can add another warning header - if max count within limits
@@ -627,8 +661,8 @@ public final class ThreadContext implements Writeable {
         }
 
         private ThreadContextStruct putTransient(String key, Object value) {
-            Map<String, Object> newTransient = new HashMap<>(this.transientHeaders);
-            putSingleHeader(key, value, newTransient);
+            final CopyOnWriteHashMap<String, Object> newTransient =
+                putSingleHeader(key, value, CopyOnWriteHashMap.copyOf(this.transientHeaders));
             return new ThreadContextStruct(requestHeaders, responseHeaders, newTransient, isSystemContext);
         }
 
@@ -641,6 +675,18 @@ public final class ThreadContext implements Writeable {
         }
 
         private void writeTo(StreamOutput out, Map<String, String> defaultHeaders) throws IOException {
+            SerializedHeaders serialized = this.serializedHeaders;
+            if (serialized == null || serialized.defaultHeaders != defaultHeaders) {
+                // the same context is usually sent with many messages, for instance with a request to every shard of a search
+                final BytesStreamOutput bytes = new BytesStreamOutput();
+                doWriteTo(bytes, defaultHeaders);
+                serialized = new SerializedHeaders(defaultHeaders, bytes.copyBytes());
+                this.serializedHeaders = serialized;
+            }
+            serialized.bytes.writeTo(out);
+        }
+
+        private void doWriteTo(StreamOutput out, Map<String, String> defaultHeaders) throws IOException {
             final Map<String, String> requestHeaders;
             if (defaultHeaders.isEmpty()) {
                 requestHeaders = this.requestHeaders;
@@ -659,6 +705,20 @@ public final class ThreadContext implements Writeable {
         }
     }
 
+    /**
+     * The serialized headers of a context, together with the default headers they include.
+     */
+    private static final class SerializedHeaders {
+
+        private final Map<String, String> defaultHeaders;
+        private final BytesReference bytes;
+
+        private SerializedHeaders(Map<String, String> defaultHeaders, BytesReference bytes) {
+            this.defaultHeaders = defaultHeaders;
+            this.bytes = bytes;
+        }
+    }
+
     /**
      * Wraps a Runnable to preserve the thread context.
      */
@@ -58,6 +58,7 @@ import static org.elasticsearch.http.HttpTransportSettings.SETTING_HTTP_MAX_CONT
 import static org.elasticsearch.http.HttpTransportSettings.SETTING_HTTP_PORT;
 import static org.elasticsearch.http.HttpTransportSettings.SETTING_HTTP_PUBLISH_HOST;
 import static org.elasticsearch.http.HttpTransportSettings.SETTING_HTTP_PUBLISH_PORT;
+import static org.elasticsearch.http.HttpTransportSettings.SETTING_HTTP_STREAM_CONTENT;
 
 public abstract class AbstractHttpServerTransport extends AbstractLifecycleComponent implements HttpServerTransport {
     private static final Logger logger = LogManager.getLogger(AbstractHttpServerTransport.class);
@@ -74,6 +75,7 @@ public abstract class AbstractHttpServerTransport extends AbstractLifecycleCompo
 
     protected final PortsRange port;
     protected final ByteSizeValue maxContentLength;
+    private final boolean streamContent;
     private final String[] bindHosts;
     private final String[] publishHosts;
 
@@ -112,6 +114,7 @@ public abstract class AbstractHttpServerTransport extends AbstractLifecycleCompo
         this.port = SETTING_HTTP_PORT.get(settings);
 
         this.maxContentLength = SETTING_HTTP_MAX_CONTENT_LENGTH.get(settings);
+        this.streamContent = SETTING_HTTP_STREAM_CONTENT.get(settings);
         this.tracer = new HttpTracer(settings, clusterSettings);
         clusterSettings.addSettingsUpdateConsumer(TransportSettings.SLOW_OPERATION_THRESHOLD_SETTING,
                 slowLogThreshold -> this.slowLogThresholdMs = slowLogThreshold.getMillis());
@@ -119,6 +122,14 @@ public abstract class AbstractHttpServerTransport extends AbstractLifecycleCompo
         httpClientStatsTracker = new HttpClientStatsTracker(settings, clusterSettings, threadPool);
     }
 
+    /**
+     * Returns whether the body of a request to the given method and uri should be passed on in chunks as it arrives rather than once it
+     * was received completely, which is the case if streaming is enabled and the handler of the request supports it.
+     */
+    protected boolean shouldStreamContent(RestRequest.Method method, String uri) {
+        return streamContent && dispatcher.supportsIncrementalContent(method, uri);
+    }
+
     @Override
     public BoundTransportAddress boundAddress() {
         return this.boundAddress;
@@ -0,0 +1,56 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http;
+
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.core.Releasable;
+
+/**
+ * The body of an http request that is passed on in chunks as it arrives. The consumer of the body pulls one chunk at a time by calling
+ * {@link #next()}, and the http module stops reading from the connection until the next chunk is requested, so that a slow consumer
+ * applies back-pressure to the client instead of buffering the body.
+ */
+public interface HttpContentStream extends Releasable {
+
+    /**
+     * Sets the handler that receives the chunks of the body. Must be called once, before the first call to {@link #next()}.
+     */
+    void setHandler(ChunkHandler handler);
+
+    /**
+     * Requests the next chunk of the body, which is passed to the handler once it arrived. May be called from any thread, but must
+     * not be called again before the previously requested chunk was received.
+     */
+    void next();
+
+    /**
+     * Discards the remaining chunks of the body. The handler is not called anymore after the stream was closed.
+     */
+    @Override
+    void close();
+
+    /**
+     * Receives the chunks of the body of a request, on the network thread of the connection the request was received on.
+     */
+    interface ChunkHandler {
+
+        /**
+         * Receives the next chunk of the body. The handler must release the chunk once it does not need it anymore.
+         *
+         * @param chunk  the chunk, which may be empty
+         * @param isLast whether this is the last chunk of the body
+         */
+        void onNext(ReleasableBytesReference chunk, boolean isLast);
+
+        /**
+         * Called if the stream is closed before the last chunk was received, for instance because the connection was closed.
+         */
+        default void close() {}
+    }
+}
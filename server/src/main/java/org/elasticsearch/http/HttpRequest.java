@@ -43,6 +43,15 @@ public interface HttpRequest {
 
     BytesReference content();
 
+    /**
+     * Returns the stream of the chunks of the body of this request if the body is passed on as it arrives rather than after it was
+     * received completely, in which case {@link #content()} is empty.
+     */
+    @Nullable
+    default HttpContentStream contentStream() {
+        return null;
+    }
+
     /**
      * Get all of the headers and values associated with the headers. Modifications of this map are not supported.
      */
@@ -51,5 +51,13 @@ public interface HttpServerTransport extends LifecycleComponent, ReportingServic
          */
         void dispatchBadRequest(RestChannel channel, ThreadContext threadContext, Throwable cause);
 
+        /**
+         * Returns whether the handler of requests with the given method and uri consumes the body of the request as it arrives, see
+         * {@link org.elasticsearch.rest.RestHandler#supportsIncrementalContent()}.
+         */
+        default boolean supportsIncrementalContent(RestRequest.Method method, String uri) {
+            return false;
+        }
+
     }
 }
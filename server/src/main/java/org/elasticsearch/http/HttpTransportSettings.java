@@ -67,6 +67,8 @@ public final class HttpTransportSettings {
                 new ByteSizeValue(0, ByteSizeUnit.BYTES),
                 new ByteSizeValue(Integer.MAX_VALUE, ByteSizeUnit.BYTES),
                 Property.NodeScope);
+    public static final Setting<Boolean> SETTING_HTTP_STREAM_CONTENT =
+        Setting.boolSetting("http.stream_content.enabled", false, Property.NodeScope);
     public static final Setting<ByteSizeValue> SETTING_HTTP_MAX_CHUNK_SIZE =
         Setting.byteSizeSetting("http.max_chunk_size", new ByteSizeValue(8, ByteSizeUnit.KB), Property.NodeScope);
     public static final Setting<ByteSizeValue> SETTING_HTTP_MAX_HEADER_SIZE =
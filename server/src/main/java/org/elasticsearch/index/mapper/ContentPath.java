@@ -55,6 +55,10 @@ public final class ContentPath {
     }
 
     public String pathAsText(String name) {
+        if (index <= offset) {
+            // fields at the top level are named after their own name, which saves building a copy of the name for every field
+            return name;
+        }
         sb.setLength(0);
         for (int i = offset; i < index; i++) {
             sb.append(path[i]).append(DELIMITER);
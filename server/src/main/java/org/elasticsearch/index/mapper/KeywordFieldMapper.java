@@ -29,6 +29,7 @@ import org.apache.lucene.util.automaton.CompiledAutomaton;
 import org.apache.lucene.util.automaton.CompiledAutomaton.AUTOMATON_TYPE;
 import org.apache.lucene.util.automaton.MinimizationOperations;
 import org.apache.lucene.util.automaton.Operations;
+import org.elasticsearch.common.lucene.BytesRefs;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.search.AutomatonQueries;
 import org.elasticsearch.xcontent.XContentParser;
@@ -489,6 +490,18 @@ public final class KeywordFieldMapper extends FieldMapper {
     protected void parseCreateField(DocumentParserContext context) throws IOException {
         String value;
         XContentParser parser = context.parser();
+        if (parser.currentToken() == XContentParser.Token.VALUE_STRING
+            && fieldType().normalizer() == Lucene.KEYWORD_ANALYZER
+            && parser.hasTextCharacters()) {
+            // without a normalizer the value is indexed as is, so encode it straight from the buffer of the parser
+            final int length = parser.textLength();
+            if (length > ignoreAbove) {
+                context.addIgnoredField(name());
+                return;
+            }
+            indexValue(context, BytesRefs.toBytesRef(parser.textCharacters(), parser.textOffset(), length));
+            return;
+        }
         if (parser.currentToken() == XContentParser.Token.VALUE_NULL) {
             value = nullValue;
         } else {
@@ -518,7 +531,10 @@ public final class KeywordFieldMapper extends FieldMapper {
         value = normalizeValue(fieldType().normalizer(), name(), value);
 
         // convert to utf8 only once before feeding postings/dv/stored fields
-        final BytesRef binaryValue = new BytesRef(value);
+        indexValue(context, new BytesRef(value));
+    }
+
+    private void indexValue(DocumentParserContext context, BytesRef binaryValue) {
         if (dimension && binaryValue.length > DIMENSION_MAX_BYTES) {
             throw new IllegalArgumentException(
                 "Dimension field [" + fieldType().name() + "] cannot be more than [" + DIMENSION_MAX_BYTES + "] bytes long."
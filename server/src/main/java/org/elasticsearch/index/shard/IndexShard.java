@@ -398,6 +398,10 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return this.threadPool;
     }
 
+    public BigArrays getBigArrays() {
+        return translogConfig.getBigArrays();
+    }
+
     public Store store() {
         return this.store;
     }
@@ -19,15 +19,18 @@ import org.elasticsearch.common.xcontent.XContentParserUtils;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.xcontent.ParseField;
 import org.elasticsearch.xcontent.ToXContentFragment;
+import org.elasticsearch.xcontent.ToXContentObject;
 import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xcontent.XContentParser;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.IntStream;
 
 import static org.elasticsearch.index.store.StoreFileMetadata.UNAVAILABLE_WRITER_UUID;
+import static org.elasticsearch.snapshots.SnapshotsService.CONTENT_DEFINED_CHUNKS_IN_SHARD_DATA_VERSION;
 
 /**
  * Shard snapshot metadata
@@ -45,6 +48,7 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
         private final long partBytes;
         private final int numberOfParts;
         private final StoreFileMetadata metadata;
+        private final List<Chunk> chunks;
 
         /**
          * Constructs a new instance of file info
@@ -54,15 +58,44 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
          * @param partSize     size of the single chunk
          */
         public FileInfo(String name, StoreFileMetadata metadata, ByteSizeValue partSize) {
+            this(name, metadata, partSize, List.of());
+        }
+
+        /**
+         * Constructs a new instance of file info for a file that is stored as a sequence of content defined chunks which may be shared
+         * with other files
+         *
+         * @param name      file name as stored in the blob store
+         * @param metadata  the files meta data
+         * @param chunks    the chunks the file consists of, in order
+         */
+        public FileInfo(String name, StoreFileMetadata metadata, List<Chunk> chunks) {
+            this(name, metadata, null, chunks);
+            if (chunks.isEmpty()) {
+                throw new IllegalArgumentException("file [" + metadata + "] must consist of at least one chunk");
+            }
+        }
+
+        private FileInfo(String name, StoreFileMetadata metadata, ByteSizeValue partSize, List<Chunk> chunks) {
             this.name = Objects.requireNonNull(name);
             this.metadata = metadata;
+            this.chunks = List.copyOf(chunks);
 
             long partBytes = Long.MAX_VALUE;
             if (partSize != null && partSize.getBytes() > 0) {
                 partBytes = partSize.getBytes();
             }
 
-            if (metadata.length() == 0) {
+            if (this.chunks.isEmpty() == false) {
+                if (partSize != null) {
+                    throw new IllegalArgumentException("file [" + metadata + "] cannot have both a part size and chunks");
+                }
+                final long chunkBytes = this.chunks.stream().mapToLong(Chunk::length).sum();
+                if (chunkBytes != metadata.length()) {
+                    throw new IllegalArgumentException("chunks of [" + chunkBytes + "] bytes do not match file [" + metadata + "]");
+                }
+                numberOfParts = this.chunks.size();
+            } else if (metadata.length() == 0) {
                 numberOfParts = 1;
             } else {
                 long longNumberOfParts = 1L + (metadata.length() - 1L) / partBytes; // ceil(len/partBytes), but beware of long overflow
@@ -78,7 +111,12 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
         }
 
         public FileInfo(StreamInput in) throws IOException {
-            this(in.readString(), new StoreFileMetadata(in), in.readOptionalWriteable(ByteSizeValue::new));
+            this(
+                in.readString(),
+                new StoreFileMetadata(in),
+                in.readOptionalWriteable(ByteSizeValue::new),
+                in.getVersion().onOrAfter(CONTENT_DEFINED_CHUNKS_IN_SHARD_DATA_VERSION) ? in.readList(Chunk::new) : List.of()
+            );
         }
 
         @Override
@@ -86,6 +124,13 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             out.writeString(name);
             metadata.writeTo(out);
             out.writeOptionalWriteable(partSize);
+            if (out.getVersion().onOrAfter(CONTENT_DEFINED_CHUNKS_IN_SHARD_DATA_VERSION)) {
+                out.writeList(chunks);
+            } else if (chunks.isEmpty() == false) {
+                throw new IllegalStateException(
+                    "cannot send file [" + name + "] stored as content defined chunks to a node of version [" + out.getVersion() + "]"
+                );
+            }
         }
 
         /**
@@ -104,7 +149,9 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
          * @return part name
          */
         public String partName(int part) {
-            if (numberOfParts > 1) {
+            if (chunks.isEmpty() == false) {
+                return chunks.get(part).name();
+            } else if (numberOfParts > 1) {
                 return name + ".part" + part;
             } else {
                 return name;
@@ -158,6 +205,9 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
          */
         public long partBytes(int part) {
             assert 0 <= part && part < numberOfParts : part + " vs " + numberOfParts;
+            if (chunks.isEmpty() == false) {
+                return chunks.get(part).length();
+            }
             if (numberOfParts == 1) {
                 return length();
             }
@@ -180,6 +230,23 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             return numberOfParts;
         }
 
+        /**
+         * Returns the content defined chunks this file is stored as, which are its parts in order, or an empty list if the file is stored
+         * as parts of {@link #partSize()} bytes.
+         *
+         * @return the chunks of this file
+         */
+        public List<Chunk> chunks() {
+            return chunks;
+        }
+
+        /**
+         * @return true if this file is stored as content defined chunks
+         */
+        public boolean hasContentDefinedChunks() {
+            return chunks.isEmpty() == false;
+        }
+
         /**
          * Returns file md5 checksum provided by {@link org.elasticsearch.index.store.Store}
          *
@@ -222,6 +289,9 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             if (name.equals(fileInfo.name) == false) {
                 return false;
             }
+            if (chunks.equals(fileInfo.chunks) == false) {
+                return false;
+            }
             if (partSize != null) {
                 if (partSize.equals(fileInfo.partSize) == false) {
                     return false;
@@ -242,6 +312,7 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
         static final String WRITTEN_BY = "written_by";
         static final String META_HASH = "meta_hash";
         static final String WRITER_UUID = "writer_uuid";
+        static final String CHUNKS = "chunks";
 
         /**
          * Serializes file info into JSON
@@ -276,6 +347,14 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
                 builder.field(WRITER_UUID, writerUuid.bytes, writerUuid.offset, writerUuid.length);
             }
 
+            if (file.chunks.isEmpty() == false) {
+                builder.startArray(CHUNKS);
+                for (Chunk chunk : file.chunks) {
+                    chunk.toXContent(builder, params);
+                }
+                builder.endArray();
+            }
+
             builder.endObject();
         }
 
@@ -295,6 +374,7 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             String writtenBy = null;
             BytesRef metaHash = new BytesRef();
             BytesRef writerUuid = UNAVAILABLE_WRITER_UUID;
+            final List<Chunk> chunks = new ArrayList<>();
             XContentParserUtils.ensureExpectedToken(token, XContentParser.Token.START_OBJECT, parser);
             while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
                 if (token == XContentParser.Token.FIELD_NAME) {
@@ -323,6 +403,10 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
                         } else {
                             XContentParserUtils.throwUnknownField(currentFieldName, parser.getTokenLocation());
                         }
+                    } else if (token == XContentParser.Token.START_ARRAY && CHUNKS.equals(currentFieldName)) {
+                        while (parser.nextToken() != XContentParser.Token.END_ARRAY) {
+                            chunks.add(Chunk.fromXContent(parser));
+                        }
                     } else {
                         XContentParserUtils.throwUnknownToken(token, parser.getTokenLocation());
                     }
@@ -342,8 +426,14 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
                 throw new ElasticsearchParseException("missing or invalid written_by [" + writtenBy + "]");
             } else if (checksum == null) {
                 throw new ElasticsearchParseException("missing checksum for name [" + name + "]");
+            } else if (chunks.isEmpty() == false && partSize != null) {
+                throw new ElasticsearchParseException("file [" + name + "] cannot have both a part size and chunks");
             }
-            return new FileInfo(name, new StoreFileMetadata(physicalName, length, checksum, writtenBy, metaHash, writerUuid), partSize);
+            final StoreFileMetadata metadata = new StoreFileMetadata(physicalName, length, checksum, writtenBy, metaHash, writerUuid);
+            if (chunks.isEmpty() == false) {
+                return new FileInfo(name, metadata, chunks);
+            }
+            return new FileInfo(name, metadata, partSize);
         }
 
         @Override
@@ -356,10 +446,109 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
                 + partSize
                 + ", partBytes: "
                 + partBytes
+                + ", chunks: "
+                + chunks.size()
                 + ", metadata: "
                 + metadata
                 + "]";
         }
+
+        /**
+         * A content defined chunk of a file. Chunks are named after a hash of their contents so that identical chunks of different files
+         * are only stored once.
+         */
+        public static final class Chunk implements Writeable, ToXContentObject {
+
+            private final String name;
+            private final long length;
+
+            public Chunk(String name, long length) {
+                if (length <= 0) {
+                    throw new IllegalArgumentException("chunk [" + name + "] must not be empty but had length [" + length + "]");
+                }
+                this.name = Objects.requireNonNull(name);
+                this.length = length;
+            }
+
+            public Chunk(StreamInput in) throws IOException {
+                this(in.readString(), in.readVLong());
+            }
+
+            @Override
+            public void writeTo(StreamOutput out) throws IOException {
+                out.writeString(name);
+                out.writeVLong(length);
+            }
+
+            /**
+             * @return the name of the blob the chunk is stored in
+             */
+            public String name() {
+                return name;
+            }
+
+            /**
+             * @return the length of the chunk in bytes
+             */
+            public long length() {
+                return length;
+            }
+
+            @Override
+            public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+                builder.startObject();
+                builder.field(NAME, name);
+                builder.field(LENGTH, length);
+                return builder.endObject();
+            }
+
+            static Chunk fromXContent(XContentParser parser) throws IOException {
+                XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.currentToken(), parser);
+                String name = null;
+                long length = -1;
+                XContentParser.Token token;
+                while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+                    XContentParserUtils.ensureExpectedToken(XContentParser.Token.FIELD_NAME, token, parser);
+                    final String currentFieldName = parser.currentName();
+                    token = parser.nextToken();
+                    if (NAME.equals(currentFieldName) && token.isValue()) {
+                        name = parser.text();
+                    } else if (LENGTH.equals(currentFieldName) && token.isValue()) {
+                        length = parser.longValue();
+                    } else {
+                        XContentParserUtils.throwUnknownField(currentFieldName, parser.getTokenLocation());
+                    }
+                }
+                if (name == null || Strings.validFileName(name) == false) {
+                    throw new ElasticsearchParseException("missing or invalid chunk name [" + name + "]");
+                } else if (length <= 0) {
+                    throw new ElasticsearchParseException("missing or invalid chunk length");
+                }
+                return new Chunk(name, length);
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                if (this == o) {
+                    return true;
+                }
+                if (o == null || getClass() != o.getClass()) {
+                    return false;
+                }
+                final Chunk chunk = (Chunk) o;
+                return length == chunk.length && name.equals(chunk.name);
+            }
+
+            @Override
+            public int hashCode() {
+                return Objects.hash(name, length);
+            }
+
+            @Override
+            public String toString() {
+                return "[name: " + name + ", length: " + length + "]";
+            }
+        }
     }
 
     /**
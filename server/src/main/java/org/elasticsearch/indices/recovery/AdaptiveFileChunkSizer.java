@@ -0,0 +1,170 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Tunes the size of the file chunks and the number of concurrent file chunk requests of a single peer recovery based on the throughput and
+ * round-trip times of the chunks that were already acknowledged by the recovery target.
+ * <p>
+ * Acknowledged chunks are sampled in windows of {@link #SAMPLE_WINDOW_CHUNKS} chunks. After each window the sizer compares the observed
+ * throughput with the one of the previous window and climbs towards higher throughput: as long as throughput improves it alternately
+ * doubles the chunk size and adds one more concurrent chunk request, and it reverts the last step if throughput drops. If throughput
+ * stays flat while the round-trip time per byte keeps growing then the additional bytes in flight are only queueing up somewhere between
+ * the two nodes, so the last step is reverted as well. The initial chunk size and concurrency act as a floor, so adaptive recoveries never
+ * use smaller chunks or fewer concurrent requests than non-adaptive ones.
+ * <p>
+ * Concurrent file chunk requests are sent over the {@code recovery} channels of the connection to the target node in a round-robin fashion,
+ * so a higher concurrency also spreads a recovery over multiple connections if {@code transport.connections_per_node.recovery} allows it.
+ */
+final class AdaptiveFileChunkSizer {
+
+    static final int SAMPLE_WINDOW_CHUNKS = 16;
+    static final int MAX_CHUNK_SIZE_IN_BYTES = Math.toIntExact(new ByteSizeValue(8, ByteSizeUnit.MB).getBytes());
+    static final double THROUGHPUT_CHANGE_THRESHOLD = 0.1;
+    static final double ROUND_TRIP_INFLATION_THRESHOLD = 2.0;
+
+    private enum Step {
+        NONE,
+        CHUNK_SIZE,
+        CONCURRENCY
+    }
+
+    private final int minChunkSizeInBytes;
+    private final int maxChunkSizeInBytes;
+    private final int minConcurrentChunks;
+    private final int maxConcurrentChunks;
+    private final LongSupplier relativeTimeInNanosSupplier;
+
+    private volatile int chunkSizeInBytes;
+    private volatile int concurrentChunks;
+
+    // the fields below are guarded by this
+    private long windowStartNanos;
+    private long windowBytes;
+    private long windowRoundTripNanos;
+    private int windowChunks;
+    private double previousThroughput = -1.0;
+    private double minRoundTripNanosPerByte = Double.MAX_VALUE;
+    private boolean growChunkSizeNext = true;
+    private Step lastStep = Step.NONE;
+
+    AdaptiveFileChunkSizer(int initialChunkSizeInBytes, int initialConcurrentChunks, int maxConcurrentChunks,
+                           LongSupplier relativeTimeInNanosSupplier) {
+        if (initialChunkSizeInBytes <= 0) {
+            throw new IllegalArgumentException("initial chunk size must be positive but was [" + initialChunkSizeInBytes + "]");
+        }
+        if (initialConcurrentChunks <= 0 || initialConcurrentChunks > maxConcurrentChunks) {
+            throw new IllegalArgumentException("initial concurrent chunks must be in [1, " + maxConcurrentChunks + "] but was ["
+                + initialConcurrentChunks + "]");
+        }
+        this.minChunkSizeInBytes = initialChunkSizeInBytes;
+        this.maxChunkSizeInBytes = Math.max(initialChunkSizeInBytes, MAX_CHUNK_SIZE_IN_BYTES);
+        this.minConcurrentChunks = initialConcurrentChunks;
+        this.maxConcurrentChunks = maxConcurrentChunks;
+        this.relativeTimeInNanosSupplier = relativeTimeInNanosSupplier;
+        this.chunkSizeInBytes = initialChunkSizeInBytes;
+        this.concurrentChunks = initialConcurrentChunks;
+        this.windowStartNanos = relativeTimeInNanosSupplier.getAsLong();
+    }
+
+    /**
+     * @return the number of bytes to read for the next file chunk
+     */
+    int chunkSizeInBytes() {
+        return chunkSizeInBytes;
+    }
+
+    /**
+     * @return the number of file chunk requests that may be in flight at the same time
+     */
+    int concurrentChunks() {
+        return concurrentChunks;
+    }
+
+    /**
+     * @return the largest chunk size this sizer may ever return from {@link #chunkSizeInBytes()}
+     */
+    int maxChunkSizeInBytes() {
+        return maxChunkSizeInBytes;
+    }
+
+    /**
+     * Records that a file chunk was acknowledged by the recovery target.
+     *
+     * @param bytes                 the length of the chunk
+     * @param roundTripTimeInNanos  the time between sending the chunk and receiving its acknowledgement
+     */
+    synchronized void onChunkAcknowledged(long bytes, long roundTripTimeInNanos) {
+        windowBytes += bytes;
+        windowRoundTripNanos += roundTripTimeInNanos;
+        windowChunks++;
+        if (windowChunks < SAMPLE_WINDOW_CHUNKS) {
+            return;
+        }
+
+        final long nowNanos = relativeTimeInNanosSupplier.getAsLong();
+        final double throughput = windowBytes / (double) Math.max(1L, nowNanos - windowStartNanos);
+        final double roundTripNanosPerByte = windowRoundTripNanos / (double) Math.max(1L, windowBytes);
+        minRoundTripNanosPerByte = Math.min(minRoundTripNanosPerByte, roundTripNanosPerByte);
+
+        if (previousThroughput < 0 || throughput > previousThroughput * (1 + THROUGHPUT_CHANGE_THRESHOLD)) {
+            grow();
+        } else if (throughput < previousThroughput * (1 - THROUGHPUT_CHANGE_THRESHOLD)
+            || roundTripNanosPerByte > minRoundTripNanosPerByte * ROUND_TRIP_INFLATION_THRESHOLD) {
+            revertLastStep();
+        }
+
+        previousThroughput = throughput;
+        windowStartNanos = nowNanos;
+        windowBytes = 0;
+        windowRoundTripNanos = 0;
+        windowChunks = 0;
+    }
+
+    private void grow() {
+        final boolean canGrowChunkSize = chunkSizeInBytes < maxChunkSizeInBytes;
+        final boolean canGrowConcurrency = concurrentChunks < maxConcurrentChunks;
+        if (canGrowChunkSize && (growChunkSizeNext || canGrowConcurrency == false)) {
+            chunkSizeInBytes = (int) Math.min(maxChunkSizeInBytes, 2L * chunkSizeInBytes);
+            lastStep = Step.CHUNK_SIZE;
+        } else if (canGrowConcurrency) {
+            concurrentChunks = concurrentChunks + 1;
+            lastStep = Step.CONCURRENCY;
+        } else {
+            lastStep = Step.NONE;
+        }
+        growChunkSizeNext = growChunkSizeNext == false;
+    }
+
+    private void revertLastStep() {
+        switch (lastStep) {
+            case CHUNK_SIZE:
+                chunkSizeInBytes = Math.max(minChunkSizeInBytes, chunkSizeInBytes / 2);
+                break;
+            case CONCURRENCY:
+                concurrentChunks = Math.max(minConcurrentChunks, concurrentChunks - 1);
+                break;
+            case NONE:
+                break;
+            default:
+                throw new AssertionError("unknown step [" + lastStep + "]");
+        }
+        lastStep = Step.NONE;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveFileChunkSizer{chunkSizeInBytes=" + chunkSizeInBytes + ", concurrentChunks=" + concurrentChunks + '}';
+    }
+}
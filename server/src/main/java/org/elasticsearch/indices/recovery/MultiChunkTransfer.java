@@ -44,6 +44,10 @@ import static org.elasticsearch.index.seqno.SequenceNumbers.UNASSIGNED_SEQ_NO;
  * greater than {@code maxConcurrentFileChunks}), the sending/requesting thread will abort its execution. That process will be resumed by
  * one of the networking threads which receive/handle the responses of the current pending file chunk requests. This process will continue
  * until all chunk requests are sent/responded.
+ * <p>
+ * Subclasses may lower the number of concurrent chunk requests at runtime by overriding {@link #concurrentChunksLimit()}. The time spent
+ * with the maximum number of chunk requests in flight (i.e. waiting for a response before the next chunk can be sent) is reported to
+ * {@link #onTransferStalled(long)}.
  */
 public abstract class MultiChunkTransfer<Source, Request extends MultiChunkTransfer.ChunkRequest> implements Closeable {
     private Status status = Status.PROCESSING;
@@ -55,6 +59,7 @@ public abstract class MultiChunkTransfer<Source, Request extends MultiChunkTrans
     private Source currentSource = null;
     private final Iterator<Source> remainingSources;
     private Tuple<Source, Request> readAheadRequest = null;
+    private long stalledSinceNanos = -1L;
 
     protected MultiChunkTransfer(Logger logger, ThreadContext threadContext, ActionListener<Void> listener,
                                  int maxConcurrentChunks, List<Source> sources) {
@@ -98,7 +103,13 @@ public abstract class MultiChunkTransfer<Source, Request extends MultiChunkTrans
                     throw resp.failure;
                 }
             }
-            while (requestSeqIdTracker.getMaxSeqNo() - requestSeqIdTracker.getProcessedCheckpoint() < maxConcurrentChunks) {
+            final int concurrentChunksLimit = Math.max(1, Math.min(maxConcurrentChunks, concurrentChunksLimit()));
+            if (stalledSinceNanos != -1L
+                && requestSeqIdTracker.getMaxSeqNo() - requestSeqIdTracker.getProcessedCheckpoint() < concurrentChunksLimit) {
+                onTransferStalled(System.nanoTime() - stalledSinceNanos);
+                stalledSinceNanos = -1L;
+            }
+            while (requestSeqIdTracker.getMaxSeqNo() - requestSeqIdTracker.getProcessedCheckpoint() < concurrentChunksLimit) {
                 final Tuple<Source, Request> request = readAheadRequest != null ? readAheadRequest : getNextRequest();
                 readAheadRequest = null;
                 if (request == null) {
@@ -113,6 +124,9 @@ public abstract class MultiChunkTransfer<Source, Request extends MultiChunkTrans
                     r -> addItem(requestSeqId, request.v1(), null),
                     e -> addItem(requestSeqId, request.v1(), e)));
             }
+            if (stalledSinceNanos == -1L) {
+                stalledSinceNanos = System.nanoTime();
+            }
             // While we are waiting for the responses, we can prepare the next request in advance
             // so we can send it immediately when the responses arrive to reduce the transfer time.
             if (readAheadRequest == null) {
@@ -172,6 +186,25 @@ public abstract class MultiChunkTransfer<Source, Request extends MultiChunkTrans
 
     }
 
+    /**
+     * Returns the number of chunk requests that may currently be in flight. This is consulted every time a response is received so
+     * subclasses can adapt it while the transfer is running. Values above the {@code maxConcurrentChunks} given to the constructor are
+     * ignored.
+     */
+    protected int concurrentChunksLimit() {
+        return maxConcurrentChunks;
+    }
+
+    /**
+     * Called when the transfer resumes sending chunk requests after it had to wait for responses because the maximum number of chunk
+     * requests were in flight.
+     *
+     * @param stallTimeInNanos the time spent waiting for a response
+     */
+    protected void onTransferStalled(long stallTimeInNanos) {
+
+    }
+
     protected abstract Request nextChunkRequest(Source resource) throws IOException;
 
     protected abstract void executeChunkRequest(Request request, ActionListener<Void> listener);
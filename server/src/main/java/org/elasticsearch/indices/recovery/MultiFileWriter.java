@@ -20,6 +20,7 @@ import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.core.AbstractRefCounted;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
+import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.transport.Transports;
@@ -60,11 +61,50 @@ public class MultiFileWriter extends AbstractRefCounted implements Releasable {
 
     public void writeFileChunk(StoreFileMetadata fileMetadata, long position, ReleasableBytesReference content, boolean lastChunk)
         throws IOException {
+        writeFileChunk(fileMetadata, position, content, lastChunk, false);
+    }
+
+    /**
+     * Writes a chunk of a file that was downloaded from a snapshot repository. Like {@link #writeFileChunk} chunks may arrive out of
+     * order, but the recovered bytes are accounted as recovered from a snapshot.
+     */
+    public void writeSnapshotFileChunk(StoreFileMetadata fileMetadata, long position, ReleasableBytesReference content, boolean lastChunk)
+        throws IOException {
+        writeFileChunk(fileMetadata, position, content, lastChunk, true);
+    }
+
+    private void writeFileChunk(StoreFileMetadata fileMetadata, long position, ReleasableBytesReference content, boolean lastChunk,
+                                boolean fromSnapshot) throws IOException {
         assert Transports.assertNotTransportThread("multi_file_writer");
         final FileChunkWriter writer = fileChunkWriters.computeIfAbsent(fileMetadata.name(), name -> new FileChunkWriter());
         incRef();
         try {
-            writer.writeChunk(new FileChunk(fileMetadata, content, position, lastChunk));
+            writer.writeChunk(new FileChunk(fileMetadata, content, position, lastChunk, fromSnapshot));
+        } finally {
+            decRef();
+        }
+    }
+
+    /**
+     * Discards all chunks of the given file that were written or buffered so far and deletes its temporary file, so that the file can be
+     * written again from scratch. Must only be called once no more chunks of this file are being written.
+     */
+    public void discardFile(StoreFileMetadata fileMetadata) {
+        final String fileName = fileMetadata.name();
+        incRef();
+        try {
+            final FileChunkWriter writer = fileChunkWriters.remove(fileName);
+            if (writer != null) {
+                writer.close();
+            }
+            final IndexOutput indexOutput = openIndexOutputs.remove(fileName);
+            if (indexOutput != null) {
+                IOUtils.closeWhileHandlingException(indexOutput);
+            }
+            final String tempFileName = getTempNameForFile(fileName);
+            tempFileNames.remove(tempFileName);
+            store.deleteQuiet(tempFileName);
+            indexState.resetRecoveredBytesOfFile(fileName);
         } finally {
             decRef();
         }
@@ -161,7 +201,7 @@ public class MultiFileWriter extends AbstractRefCounted implements Releasable {
     }
 
     private void innerWriteFileChunk(StoreFileMetadata fileMetadata, long position,
-                                     BytesReference content, boolean lastChunk) throws IOException {
+                                     BytesReference content, boolean lastChunk, boolean fromSnapshot) throws IOException {
         final String name = fileMetadata.name();
         IndexOutput indexOutput;
         if (position == 0) {
@@ -175,7 +215,11 @@ public class MultiFileWriter extends AbstractRefCounted implements Releasable {
         while((scratch = iterator.next()) != null) { // we iterate over all pages - this is a 0-copy for all core impls
             indexOutput.writeBytes(scratch.bytes, scratch.offset, scratch.length);
         }
-        indexState.addRecoveredBytesToFile(name, content.length());
+        if (fromSnapshot) {
+            indexState.addRecoveredFromSnapshotBytesToFile(name, content.length());
+        } else {
+            indexState.addRecoveredBytesToFile(name, content.length());
+        }
         if (indexOutput.getFilePointer() >= fileMetadata.length() || lastChunk) {
             try {
                 Store.verify(indexOutput);
@@ -235,11 +279,13 @@ public class MultiFileWriter extends AbstractRefCounted implements Releasable {
         final ReleasableBytesReference content;
         final long position;
         final boolean lastChunk;
-        FileChunk(StoreFileMetadata md, ReleasableBytesReference content, long position, boolean lastChunk) {
+        final boolean fromSnapshot;
+        FileChunk(StoreFileMetadata md, ReleasableBytesReference content, long position, boolean lastChunk, boolean fromSnapshot) {
             this.md = md;
             this.content = content.retain();
             this.position = position;
             this.lastChunk = lastChunk;
+            this.fromSnapshot = fromSnapshot;
         }
 
         @Override
@@ -267,7 +313,7 @@ public class MultiFileWriter extends AbstractRefCounted implements Releasable {
                     pendingChunks.remove();
                 }
                 try (chunk) {
-                    innerWriteFileChunk(chunk.md, chunk.position, chunk.content, chunk.lastChunk);
+                    innerWriteFileChunk(chunk.md, chunk.position, chunk.content, chunk.lastChunk, chunk.fromSnapshot);
                     synchronized (this) {
                         assert lastPosition == chunk.position : "last_position " + lastPosition + " != chunk_position " + chunk.position;
                         lastPosition += chunk.content.length();
@@ -461,6 +461,9 @@ public class PeerRecoveryTargetService implements IndexEventListener {
                 if (request.sourceThrottleTimeInNanos() != RecoveryState.Index.UNKNOWN) {
                     indexState.addSourceThrottling(request.sourceThrottleTimeInNanos());
                 }
+                if (request.sourceStallTimeInNanos() > 0L) {
+                    indexState.addSourceStallTime(request.sourceStallTimeInNanos());
+                }
 
                 RateLimiter rateLimiter = recoverySettings.rateLimiter();
                 if (rateLimiter != null) {
@@ -490,7 +493,14 @@ public class PeerRecoveryTargetService implements IndexEventListener {
                     return;
                 }
 
-                recoveryTarget.restoreFileFromSnapshot(request.getRepository(), request.getIndexId(), request.getFileInfo(), listener);
+                recoveryTarget.restoreFileFromSnapshot(
+                    request.getRepository(),
+                    request.getIndexId(),
+                    request.getFileInfo(),
+                    Math.toIntExact(recoverySettings.getSnapshotFileChunkSize().getBytes()),
+                    recoverySettings.getMaxConcurrentSnapshotFileChunkDownloads(),
+                    listener
+                );
             }
         }
     }
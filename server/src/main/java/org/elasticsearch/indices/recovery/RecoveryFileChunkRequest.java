@@ -8,6 +8,7 @@
 
 package org.elasticsearch.indices.recovery;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -25,6 +26,7 @@ public final class RecoveryFileChunkRequest extends RecoveryTransportRequest imp
     private final ReleasableBytesReference content;
     private final StoreFileMetadata metadata;
     private final long sourceThrottleTimeInNanos;
+    private final long sourceStallTimeInNanos;
 
     private final int totalTranslogOps;
 
@@ -42,11 +44,22 @@ public final class RecoveryFileChunkRequest extends RecoveryTransportRequest imp
         lastChunk = in.readBoolean();
         totalTranslogOps = in.readVInt();
         sourceThrottleTimeInNanos = in.readLong();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            sourceStallTimeInNanos = in.readLong();
+        } else {
+            sourceStallTimeInNanos = 0L;
+        }
     }
 
     public RecoveryFileChunkRequest(long recoveryId, final long requestSeqNo, ShardId shardId, StoreFileMetadata metadata, long position,
                                     ReleasableBytesReference content, boolean lastChunk, int totalTranslogOps,
                                     long sourceThrottleTimeInNanos) {
+        this(recoveryId, requestSeqNo, shardId, metadata, position, content, lastChunk, totalTranslogOps, sourceThrottleTimeInNanos, 0L);
+    }
+
+    public RecoveryFileChunkRequest(long recoveryId, final long requestSeqNo, ShardId shardId, StoreFileMetadata metadata, long position,
+                                    ReleasableBytesReference content, boolean lastChunk, int totalTranslogOps,
+                                    long sourceThrottleTimeInNanos, long sourceStallTimeInNanos) {
         super(requestSeqNo);
         this.recoveryId = recoveryId;
         this.shardId = shardId;
@@ -56,6 +69,7 @@ public final class RecoveryFileChunkRequest extends RecoveryTransportRequest imp
         this.lastChunk = lastChunk;
         this.totalTranslogOps = totalTranslogOps;
         this.sourceThrottleTimeInNanos = sourceThrottleTimeInNanos;
+        this.sourceStallTimeInNanos = sourceStallTimeInNanos;
     }
 
     public long recoveryId() {
@@ -90,6 +104,13 @@ public final class RecoveryFileChunkRequest extends RecoveryTransportRequest imp
         return sourceThrottleTimeInNanos;
     }
 
+    /**
+     * @return the time the source spent waiting for acknowledgements of earlier file chunks since it sent the previous file chunk
+     */
+    public long sourceStallTimeInNanos() {
+        return sourceStallTimeInNanos;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
@@ -104,6 +125,9 @@ public final class RecoveryFileChunkRequest extends RecoveryTransportRequest imp
         out.writeBoolean(lastChunk);
         out.writeVInt(totalTranslogOps);
         out.writeLong(sourceThrottleTimeInNanos);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeLong(sourceStallTimeInNanos);
+        }
     }
 
     @Override
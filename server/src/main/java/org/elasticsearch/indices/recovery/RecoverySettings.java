@@ -85,6 +85,13 @@ public class RecoverySettings {
     public static final Setting<Integer> INDICES_RECOVERY_MAX_CONCURRENT_FILE_CHUNKS_SETTING =
         Setting.intSetting("indices.recovery.max_concurrent_file_chunks", 2, 1, 8, Property.Dynamic, Property.NodeScope);
 
+    /**
+     * Controls whether the size of file chunks and the number of concurrent file chunk requests are tuned while files are sent, based on
+     * the observed throughput and round-trip times. The configured chunk size and {@code max_concurrent_file_chunks} act as lower bounds.
+     */
+    public static final Setting<Boolean> INDICES_RECOVERY_ADAPTIVE_FILE_CHUNKS_SETTING =
+        Setting.boolSetting("indices.recovery.adaptive_file_chunks", false, Property.Dynamic, Property.NodeScope);
+
     /**
      * Controls the maximum number of operation chunk requests that can be sent concurrently from the source node to the target node.
      */
@@ -148,10 +155,32 @@ public class RecoverySettings {
             Property.NodeScope
         );
 
+    /**
+     * Controls the number of byte ranges of a single snapshot file that the recovery target downloads concurrently. With the default of
+     * {@code 1} each snapshot file is downloaded as a single sequential stream.
+     */
+    public static final Setting<Integer> INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_CHUNK_DOWNLOADS =
+        Setting.intSetting("indices.recovery.max_concurrent_snapshot_file_chunk_downloads", 1, 1, 16,
+            Property.Dynamic, Property.NodeScope);
+
+    /**
+     * The size of the byte ranges of a snapshot file that are downloaded concurrently if
+     * {@link #INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_CHUNK_DOWNLOADS} is greater than {@code 1}.
+     */
+    public static final Setting<ByteSizeValue> INDICES_RECOVERY_SNAPSHOT_FILE_CHUNK_SIZE =
+        Setting.byteSizeSetting("indices.recovery.snapshot_file_chunk_size",
+            new ByteSizeValue(8, ByteSizeUnit.MB),
+            new ByteSizeValue(64, ByteSizeUnit.KB),
+            new ByteSizeValue(256, ByteSizeUnit.MB),
+            Property.Dynamic,
+            Property.NodeScope
+        );
+
     public static final ByteSizeValue DEFAULT_CHUNK_SIZE = new ByteSizeValue(512, ByteSizeUnit.KB);
 
     private volatile ByteSizeValue maxBytesPerSec;
     private volatile int maxConcurrentFileChunks;
+    private volatile boolean adaptiveFileChunks;
     private volatile int maxConcurrentOperations;
     private volatile SimpleRateLimiter rateLimiter;
     private volatile TimeValue retryDelayStateSync;
@@ -162,12 +191,15 @@ public class RecoverySettings {
     private volatile TimeValue internalActionLongTimeout;
     private volatile boolean useSnapshotsDuringRecovery;
     private volatile int maxConcurrentSnapshotFileDownloads;
+    private volatile int maxConcurrentSnapshotFileChunkDownloads;
+    private volatile ByteSizeValue snapshotFileChunkSize;
 
     private volatile ByteSizeValue chunkSize = DEFAULT_CHUNK_SIZE;
 
     public RecoverySettings(Settings settings, ClusterSettings clusterSettings) {
         this.retryDelayStateSync = INDICES_RECOVERY_RETRY_DELAY_STATE_SYNC_SETTING.get(settings);
         this.maxConcurrentFileChunks = INDICES_RECOVERY_MAX_CONCURRENT_FILE_CHUNKS_SETTING.get(settings);
+        this.adaptiveFileChunks = INDICES_RECOVERY_ADAPTIVE_FILE_CHUNKS_SETTING.get(settings);
         this.maxConcurrentOperations = INDICES_RECOVERY_MAX_CONCURRENT_OPERATIONS_SETTING.get(settings);
         // doesn't have to be fast as nodes are reconnected every 10s by default (see InternalClusterService.ReconnectToNodes)
         // and we want to give the master time to remove a faulty node
@@ -186,11 +218,14 @@ public class RecoverySettings {
         }
         this.useSnapshotsDuringRecovery = INDICES_RECOVERY_USE_SNAPSHOTS_SETTING.get(settings);
         this.maxConcurrentSnapshotFileDownloads = INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_DOWNLOADS.get(settings);
+        this.maxConcurrentSnapshotFileChunkDownloads = INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_CHUNK_DOWNLOADS.get(settings);
+        this.snapshotFileChunkSize = INDICES_RECOVERY_SNAPSHOT_FILE_CHUNK_SIZE.get(settings);
 
         logger.debug("using max_bytes_per_sec[{}]", maxBytesPerSec);
 
         clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_MAX_BYTES_PER_SEC_SETTING, this::setMaxBytesPerSec);
         clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_MAX_CONCURRENT_FILE_CHUNKS_SETTING, this::setMaxConcurrentFileChunks);
+        clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_ADAPTIVE_FILE_CHUNKS_SETTING, this::setAdaptiveFileChunks);
         clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_MAX_CONCURRENT_OPERATIONS_SETTING,
             this::setMaxConcurrentOperations);
         clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_RETRY_DELAY_STATE_SYNC_SETTING, this::setRetryDelayStateSync);
@@ -202,6 +237,9 @@ public class RecoverySettings {
         clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_USE_SNAPSHOTS_SETTING, this::setUseSnapshotsDuringRecovery);
         clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_DOWNLOADS,
             this::setMaxConcurrentSnapshotFileDownloads);
+        clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_CHUNK_DOWNLOADS,
+            this::setMaxConcurrentSnapshotFileChunkDownloads);
+        clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_SNAPSHOT_FILE_CHUNK_SIZE, this::setSnapshotFileChunkSize);
     }
 
     public RateLimiter rateLimiter() {
@@ -280,6 +318,14 @@ public class RecoverySettings {
         this.maxConcurrentFileChunks = maxConcurrentFileChunks;
     }
 
+    public boolean getAdaptiveFileChunks() {
+        return adaptiveFileChunks;
+    }
+
+    private void setAdaptiveFileChunks(boolean adaptiveFileChunks) {
+        this.adaptiveFileChunks = adaptiveFileChunks;
+    }
+
     public int getMaxConcurrentOperations() {
         return maxConcurrentOperations;
     }
@@ -303,4 +349,20 @@ public class RecoverySettings {
     public void setMaxConcurrentSnapshotFileDownloads(int maxConcurrentSnapshotFileDownloads) {
         this.maxConcurrentSnapshotFileDownloads = maxConcurrentSnapshotFileDownloads;
     }
+
+    public int getMaxConcurrentSnapshotFileChunkDownloads() {
+        return maxConcurrentSnapshotFileChunkDownloads;
+    }
+
+    private void setMaxConcurrentSnapshotFileChunkDownloads(int maxConcurrentSnapshotFileChunkDownloads) {
+        this.maxConcurrentSnapshotFileChunkDownloads = maxConcurrentSnapshotFileChunkDownloads;
+    }
+
+    public ByteSizeValue getSnapshotFileChunkSize() {
+        return snapshotFileChunkSize;
+    }
+
+    private void setSnapshotFileChunkSize(ByteSizeValue snapshotFileChunkSize) {
+        this.snapshotFileChunkSize = snapshotFileChunkSize;
+    }
 }
@@ -107,6 +107,12 @@ import static org.elasticsearch.common.util.CollectionUtils.concatLists;
  */
 public class RecoverySourceHandler {
 
+    /**
+     * Upper bound of the number of concurrent file chunk requests if the chunk size and concurrency are tuned adaptively, matching the
+     * maximum value of {@link RecoverySettings#INDICES_RECOVERY_MAX_CONCURRENT_FILE_CHUNKS_SETTING}.
+     */
+    static final int MAX_ADAPTIVE_CONCURRENT_FILE_CHUNKS = 8;
+
     protected final Logger logger;
     // Shard that is going to be recovered (the "source")
     private final IndexShard shard;
@@ -116,6 +122,7 @@ public class RecoverySourceHandler {
     private final int chunkSizeInBytes;
     private final RecoveryTargetHandler recoveryTarget;
     private final int maxConcurrentFileChunks;
+    private final boolean adaptiveFileChunks;
     private final int maxConcurrentOperations;
     private final int maxConcurrentSnapshotFileDownloads;
     private final boolean useSnapshots;
@@ -129,6 +136,14 @@ public class RecoverySourceHandler {
                                  StartRecoveryRequest request, int fileChunkSizeInBytes, int maxConcurrentFileChunks,
                                  int maxConcurrentOperations, int maxConcurrentSnapshotFileDownloads, boolean useSnapshots,
                                  RecoveryPlannerService recoveryPlannerService) {
+        this(shard, recoveryTarget, threadPool, request, fileChunkSizeInBytes, maxConcurrentFileChunks, false, maxConcurrentOperations,
+            maxConcurrentSnapshotFileDownloads, useSnapshots, recoveryPlannerService);
+    }
+
+    public RecoverySourceHandler(IndexShard shard, RecoveryTargetHandler recoveryTarget, ThreadPool threadPool,
+                                 StartRecoveryRequest request, int fileChunkSizeInBytes, int maxConcurrentFileChunks,
+                                 boolean adaptiveFileChunks, int maxConcurrentOperations, int maxConcurrentSnapshotFileDownloads,
+                                 boolean useSnapshots, RecoveryPlannerService recoveryPlannerService) {
         this.shard = shard;
         this.recoveryTarget = recoveryTarget;
         this.threadPool = threadPool;
@@ -138,6 +153,7 @@ public class RecoverySourceHandler {
         this.logger = Loggers.getLogger(getClass(), request.shardId(), "recover to " + request.targetNode().getName());
         this.chunkSizeInBytes = fileChunkSizeInBytes;
         this.maxConcurrentFileChunks = maxConcurrentFileChunks;
+        this.adaptiveFileChunks = adaptiveFileChunks;
         this.maxConcurrentOperations = maxConcurrentOperations;
         this.maxConcurrentSnapshotFileDownloads = maxConcurrentSnapshotFileDownloads;
         this.useSnapshots = useSnapshots;
@@ -1156,15 +1172,28 @@ public class RecoverySourceHandler {
         }
     }
 
+    /**
+     * The clock that the throughput and round-trip times of file chunks are measured with if file chunks are sized adaptively.
+     */
+    long relativeTimeInNanos() {
+        return System.nanoTime();
+    }
+
     void sendFiles(Store store, StoreFileMetadata[] files, IntSupplier translogOps, ActionListener<Void> listener) {
         ArrayUtil.timSort(files, Comparator.comparingLong(StoreFileMetadata::length)); // send smallest first
+        final AdaptiveFileChunkSizer chunkSizer = adaptiveFileChunks
+            ? new AdaptiveFileChunkSizer(chunkSizeInBytes, maxConcurrentFileChunks, MAX_ADAPTIVE_CONCURRENT_FILE_CHUNKS,
+                this::relativeTimeInNanos)
+            : null;
+        final int maxConcurrentChunks = chunkSizer == null ? maxConcurrentFileChunks : MAX_ADAPTIVE_CONCURRENT_FILE_CHUNKS;
+        final int maxChunkSizeInBytes = chunkSizer == null ? chunkSizeInBytes : chunkSizer.maxChunkSizeInBytes();
         // use a smaller buffer than the configured chunk size if we only have files smaller than the chunk size
-        final int bufferSize = files.length == 0 ? 0 : (int) Math.min(chunkSizeInBytes, files[files.length - 1].length());
+        final int maxBufferSize = files.length == 0 ? 0 : (int) Math.min(maxChunkSizeInBytes, files[files.length - 1].length());
         Releasable temporaryStoreRef = acquireStore(store);
         try {
             final Releasable storeRef = temporaryStoreRef;
             final MultiChunkTransfer<StoreFileMetadata, FileChunk> multiFileSender =
-                new MultiChunkTransfer<>(logger, threadPool.getThreadContext(), listener, maxConcurrentFileChunks, Arrays.asList(files)) {
+                new MultiChunkTransfer<>(logger, threadPool.getThreadContext(), listener, maxConcurrentChunks, Arrays.asList(files)) {
 
                     final Deque<byte[]> buffers = new ConcurrentLinkedDeque<>();
                     final AtomicInteger liveBufferCount = new AtomicInteger(); // only used in assertions to verify proper recycling
@@ -1192,15 +1221,21 @@ public class RecoverySourceHandler {
                             assert md.hashEqualsContents();
                             return new FileChunk(md, new BytesArray(md.hash()), 0, true, () -> {});
                         }
-                        final byte[] buffer = Objects.requireNonNullElseGet(buffers.pollFirst(), () -> new byte[bufferSize]);
+                        final int bufferSize = chunkSizer == null ? maxBufferSize : Math.min(maxBufferSize, chunkSizer.chunkSizeInBytes());
+                        byte[] buffer = buffers.pollFirst();
+                        if (buffer == null || buffer.length < bufferSize) {
+                            // the adaptive chunk size may have grown since this buffer was allocated, let it be garbage collected
+                            buffer = new byte[bufferSize];
+                        }
                         assert liveBufferCount.incrementAndGet() > 0;
-                        final int toRead = Math.toIntExact(Math.min(md.length() - offset, buffer.length));
+                        final int toRead = Math.toIntExact(Math.min(md.length() - offset, bufferSize));
                         currentInput.readBytes(buffer, 0, toRead, false);
                         final boolean lastChunk = offset + toRead == md.length();
+                        final byte[] chunkBuffer = buffer;
                         final FileChunk chunk = new FileChunk(md, new BytesArray(buffer, 0, toRead), offset, lastChunk,
                             () -> {
                                 assert liveBufferCount.decrementAndGet() >= 0;
-                                buffers.addFirst(buffer);
+                                buffers.addFirst(chunkBuffer);
                             });
                         offset += toRead;
                         return chunk;
@@ -1210,9 +1245,28 @@ public class RecoverySourceHandler {
                     protected void executeChunkRequest(FileChunk request, ActionListener<Void> listener) {
                         cancellableThreads.checkForCancel();
                         final ReleasableBytesReference content = new ReleasableBytesReference(request.content, request);
+                        final ActionListener<Void> chunkListener;
+                        if (chunkSizer == null) {
+                            chunkListener = listener;
+                        } else {
+                            final long chunkLength = request.content.length();
+                            final long startTimeInNanos = relativeTimeInNanos();
+                            chunkListener = ActionListener.runBefore(listener,
+                                () -> chunkSizer.onChunkAcknowledged(chunkLength, relativeTimeInNanos() - startTimeInNanos));
+                        }
                         recoveryTarget.writeFileChunk(
                             request.md, request.position, content, request.lastChunk,
-                                translogOps.getAsInt(), ActionListener.runBefore(listener, content::close));
+                                translogOps.getAsInt(), ActionListener.runBefore(chunkListener, content::close));
+                    }
+
+                    @Override
+                    protected int concurrentChunksLimit() {
+                        return chunkSizer == null ? maxConcurrentFileChunks : chunkSizer.concurrentChunks();
+                    }
+
+                    @Override
+                    protected void onTransferStalled(long stallTimeInNanos) {
+                        recoveryTarget.addFileChunkStallTime(stallTimeInNanos);
                     }
 
                     @Override
@@ -1222,6 +1276,9 @@ public class RecoverySourceHandler {
 
                     @Override
                     public void close() throws IOException {
+                        if (chunkSizer != null) {
+                            logger.trace("finished sending files with {}", chunkSizer);
+                        }
                         IOUtils.close(currentInput, storeRef);
                     }
 
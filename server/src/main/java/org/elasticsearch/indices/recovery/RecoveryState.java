@@ -8,6 +8,7 @@
 
 package org.elasticsearch.indices.recovery;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.RecoverySource;
 import org.elasticsearch.cluster.routing.ShardRouting;
@@ -361,6 +362,10 @@ public class RecoveryState implements ToXContentFragment, Writeable {
         static final String SOURCE_THROTTLE_TIME_IN_MILLIS = "source_throttle_time_in_millis";
         static final String TARGET_THROTTLE_TIME = "target_throttle_time";
         static final String TARGET_THROTTLE_TIME_IN_MILLIS = "target_throttle_time_in_millis";
+        static final String SOURCE_STALL_TIME = "source_stall_time";
+        static final String SOURCE_STALL_TIME_IN_MILLIS = "source_stall_time_in_millis";
+        static final String THROUGHPUT = "throughput";
+        static final String THROUGHPUT_IN_BYTES_PER_SEC = "throughput_in_bytes_per_sec";
     }
 
     public static class Timer implements Writeable {
@@ -847,6 +852,7 @@ public class RecoveryState implements ToXContentFragment, Writeable {
 
         private long sourceThrottlingInNanos = UNKNOWN;
         private long targetThrottleTimeInNanos = UNKNOWN;
+        private long sourceStallTimeInNanos = 0L;
 
         public Index() {
             this(new RecoveryFilesDetails());
@@ -861,6 +867,9 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             fileDetails = new RecoveryFilesDetails(in);
             sourceThrottlingInNanos = in.readLong();
             targetThrottleTimeInNanos = in.readLong();
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                sourceStallTimeInNanos = in.readLong();
+            }
         }
 
         @Override
@@ -869,6 +878,9 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             fileDetails.writeTo(out);
             out.writeLong(sourceThrottlingInNanos);
             out.writeLong(targetThrottleTimeInNanos);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeLong(sourceStallTimeInNanos);
+            }
         }
 
         public synchronized List<FileDetail> fileDetails() {
@@ -880,6 +892,7 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             fileDetails.clear();
             sourceThrottlingInNanos = UNKNOWN;
             targetThrottleTimeInNanos = UNKNOWN;
+            sourceStallTimeInNanos = 0L;
         }
 
         public synchronized void addFileDetail(String name, long length, boolean reused) {
@@ -918,6 +931,17 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             }
         }
 
+        public synchronized void addSourceStallTime(long timeInNanos) {
+            sourceStallTimeInNanos += timeInNanos;
+        }
+
+        /**
+         * time the source spent waiting for the acknowledgement of file chunks before it could send more file chunks
+         */
+        public synchronized TimeValue sourceStallTime() {
+            return TimeValue.timeValueNanos(sourceStallTimeInNanos);
+        }
+
         public synchronized TimeValue sourceThrottling() {
             return TimeValue.timeValueNanos(sourceThrottlingInNanos);
         }
@@ -1087,6 +1111,23 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             return reused;
         }
 
+        /**
+         * average number of bytes recovered per second during the index stage, excluding reused files
+         */
+        public synchronized long recoveredBytesPerSec() {
+            final long timeInMillis = time();
+            if (timeInMillis <= 0) {
+                return 0L;
+            }
+            long recovered = 0;
+            for (FileDetail file : fileDetails.values()) {
+                if (file.reused() == false) {
+                    recovered += file.recovered();
+                }
+            }
+            return recovered * 1000L / timeInMillis;
+        }
+
         @Override
         public synchronized XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
             // stream size first, as it matters more and the files section can be long
@@ -1110,6 +1151,12 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             builder.humanReadableField(Fields.TOTAL_TIME_IN_MILLIS, Fields.TOTAL_TIME, new TimeValue(time()));
             builder.humanReadableField(Fields.SOURCE_THROTTLE_TIME_IN_MILLIS, Fields.SOURCE_THROTTLE_TIME, sourceThrottling());
             builder.humanReadableField(Fields.TARGET_THROTTLE_TIME_IN_MILLIS, Fields.TARGET_THROTTLE_TIME, targetThrottling());
+            builder.humanReadableField(Fields.SOURCE_STALL_TIME_IN_MILLIS, Fields.SOURCE_STALL_TIME, sourceStallTime());
+            final long recoveredBytesPerSec = recoveredBytesPerSec();
+            if (builder.humanReadable()) {
+                builder.field(Fields.THROUGHPUT, new ByteSizeValue(recoveredBytesPerSec) + "/s");
+            }
+            builder.field(Fields.THROUGHPUT_IN_BYTES_PER_SEC, recoveredBytesPerSec);
             return builder;
         }
 
@@ -17,16 +17,20 @@ import org.elasticsearch.Assertions;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRunnable;
 import org.elasticsearch.action.admin.indices.flush.FlushRequest;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.CancellableThreads;
 import org.elasticsearch.core.AbstractRefCounted;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.internal.io.Streams;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.mapper.MapperException;
 import org.elasticsearch.index.seqno.ReplicationTracker;
@@ -41,7 +45,9 @@ import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.threadpool.ThreadPool;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
@@ -49,6 +55,7 @@ import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Represents a recovery where the current node is the target node of the recovery. To track recoveries in a central place, instances of
@@ -520,6 +527,134 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
         }
     }
 
+    /**
+     * Restores a snapshot file in the target store like {@link #restoreFileFromSnapshot(String, IndexId,
+     * BlobStoreIndexShardSnapshot.FileInfo, ActionListener)} but downloads up to {@code maxConcurrentChunks} byte ranges of at most
+     * {@code chunkSizeInBytes} bytes of the file concurrently. The ranges are written to the store in order and the checksum of the file
+     * is verified incrementally while they are written.
+     */
+    public void restoreFileFromSnapshot(String repository,
+                                        IndexId indexId,
+                                        BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                        int chunkSizeInBytes,
+                                        int maxConcurrentChunks,
+                                        ActionListener<Void> listener) {
+        final StoreFileMetadata metadata = fileInfo.metadata();
+        if (maxConcurrentChunks <= 1 || metadata.hashEqualsContents() || metadata.length() <= chunkSizeInBytes) {
+            restoreFileFromSnapshot(repository, indexId, fileInfo, listener);
+            return;
+        }
+
+        final ThreadPool threadPool = indexShard.getThreadPool();
+        final BigArrays bigArrays = indexShard.getBigArrays().withCircuitBreaking();
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        // released once the transfer completed and all in-flight downloads returned, so that a failed file is only discarded once
+        // nothing writes to it anymore
+        incRef();
+        final AbstractRefCounted pendingDownloads = AbstractRefCounted.of(() -> {
+            try {
+                final Exception e = failure.get();
+                if (e == null) {
+                    listener.onResponse(null);
+                } else {
+                    logger.debug(
+                        new ParameterizedMessage("Unable to recover snapshot file {} from repository {}", fileInfo, repository), e
+                    );
+                    try {
+                        multiFileWriter.discardFile(metadata);
+                    } catch (Exception inner) {
+                        e.addSuppressed(inner);
+                    }
+                    listener.onFailure(e);
+                }
+            } finally {
+                decRef();
+            }
+        });
+        final ActionListener<Void> transferListener =
+            ActionListener.runAfter(ActionListener.wrap(r -> {}, e -> failure.compareAndSet(null, e)), pendingDownloads::decRef);
+
+        new MultiChunkTransfer<BlobStoreIndexShardSnapshot.FileInfo, SnapshotFileChunk>(
+            logger, threadPool.getThreadContext(), transferListener, maxConcurrentChunks, List.of(fileInfo)) {
+
+            long position = 0;
+            int part = 0;
+            long positionInPart = 0;
+
+            @Override
+            protected SnapshotFileChunk nextChunkRequest(BlobStoreIndexShardSnapshot.FileInfo resource) {
+                // parts may have different sizes if the file is stored as content defined chunks
+                final long length = Math.min(chunkSizeInBytes, resource.partBytes(part) - positionInPart);
+                final SnapshotFileChunk chunk =
+                    new SnapshotFileChunk(part, positionInPart, position, length, position + length == resource.length());
+                position += length;
+                positionInPart += length;
+                if (positionInPart == resource.partBytes(part) && part < resource.numberOfParts() - 1) {
+                    part++;
+                    positionInPart = 0;
+                }
+                return chunk;
+            }
+
+            @Override
+            protected void executeChunkRequest(SnapshotFileChunk chunk, ActionListener<Void> chunkListener) {
+                pendingDownloads.incRef();
+                threadPool.generic().execute(ActionRunnable.wrap(ActionListener.runAfter(chunkListener, pendingDownloads::decRef), l -> {
+                    cancellableThreads.checkForCancel();
+                    // a range may have to wait for earlier ranges of the file before it is written, so it is buffered in recycled pages
+                    // that are accounted to the circuit breaker while it waits
+                    final ReleasableBytesStreamOutput buffer = new ReleasableBytesStreamOutput(Math.toIntExact(chunk.length), bigArrays);
+                    try (InputStream inputStream = snapshotFilesProvider.getInputStreamForSnapshotFilePart(repository, indexId, shardId,
+                        fileInfo, chunk.part, chunk.positionInPart, chunk.length, RecoveryTarget.this::registerThrottleTime)) {
+                        final long read = Streams.copy(inputStream, buffer, false);
+                        if (read < chunk.length) {
+                            throw new EOFException("Expected to read [" + chunk.length + "] bytes of part [" + chunk.part + "] of file ["
+                                + fileInfo.physicalName() + "] at position [" + chunk.positionInPart + "] but only read [" + read + "]");
+                        }
+                    } catch (Exception e) {
+                        buffer.close();
+                        throw e;
+                    }
+                    // the writer retains the bytes for as long as it buffers them
+                    try (ReleasableBytesReference content = new ReleasableBytesReference(buffer.bytes(), buffer)) {
+                        multiFileWriter.writeSnapshotFileChunk(metadata, chunk.positionInFile, content, chunk.lastChunk);
+                    }
+                    l.onResponse(null);
+                }));
+            }
+
+            @Override
+            protected void handleError(BlobStoreIndexShardSnapshot.FileInfo resource, Exception e) {
+                // the partially written file is discarded once all in-flight downloads completed
+            }
+
+            @Override
+            public void close() {
+            }
+        }.start();
+    }
+
+    private static final class SnapshotFileChunk implements MultiChunkTransfer.ChunkRequest {
+        final int part;
+        final long positionInPart;
+        final long positionInFile;
+        final long length;
+        final boolean lastChunk;
+
+        SnapshotFileChunk(int part, long positionInPart, long positionInFile, long length, boolean lastChunk) {
+            this.part = part;
+            this.positionInPart = positionInPart;
+            this.positionInFile = positionInFile;
+            this.length = length;
+            this.lastChunk = lastChunk;
+        }
+
+        @Override
+        public boolean lastChunk() {
+            return lastChunk;
+        }
+    }
+
     private void registerThrottleTime(long throttleTimeInNanos) {
         state().getIndex().addTargetThrottling(throttleTimeInNanos);
         indexShard.recoveryStats().addThrottleTime(throttleTimeInNanos);
@@ -109,5 +109,11 @@ public interface RecoveryTargetHandler {
     void writeFileChunk(StoreFileMetadata fileMetadata, long position, ReleasableBytesReference content,
                         boolean lastChunk, int totalTranslogOps, ActionListener<Void> listener);
 
+    /**
+     * Records that the source could not send any file chunks for the given time because it was waiting for the acknowledgement of
+     * earlier chunks.
+     */
+    default void addFileChunkStallTime(long stallTimeInNanos) {}
+
     default void cancel() {}
 }
@@ -66,6 +66,7 @@ public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
     private final TransportRequestOptions standardTimeoutRequestOptions;
 
     private final AtomicLong bytesSinceLastPause = new AtomicLong();
+    private final AtomicLong stallTimeSinceLastChunkInNanos = new AtomicLong();
     private final AtomicLong requestSeqNoGenerator = new AtomicLong(0);
 
     private final Consumer<Long> onSourceThrottle;
@@ -222,7 +223,8 @@ public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
          * would be in to restart file copy again (new deltas) if we have too many translog ops are piling up.
          */
         final RecoveryFileChunkRequest request = new RecoveryFileChunkRequest(
-            recoveryId, requestSeqNo, shardId, fileMetadata, position, content, lastChunk, totalTranslogOps, throttleTimeInNanos);
+            recoveryId, requestSeqNo, shardId, fileMetadata, position, content, lastChunk, totalTranslogOps, throttleTimeInNanos,
+            stallTimeSinceLastChunkInNanos.getAndSet(0L));
         final Writeable.Reader<TransportResponse.Empty> reader = in -> TransportResponse.Empty.INSTANCE;
 
         // Fork the actual sending onto a separate thread so we can send them concurrently even if CPU-bound (e.g. using compression).
@@ -237,6 +239,12 @@ public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
                 reader)));
     }
 
+    @Override
+    public void addFileChunkStallTime(long stallTimeInNanos) {
+        // reported to the target with the next file chunk
+        stallTimeSinceLastChunkInNanos.addAndGet(stallTimeInNanos);
+    }
+
     @Override
     public void cancel() {
         isCancelled = true;
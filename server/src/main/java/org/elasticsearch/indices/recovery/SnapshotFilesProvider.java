@@ -54,6 +54,26 @@ public class SnapshotFilesProvider {
         return blobStoreRepository.maybeRateLimitRestores(inputStream, rateLimiterListener::accept);
     }
 
+    /**
+     * Returns an input stream over {@code length} bytes of the given part of a snapshot file, starting at {@code position} within that
+     * part. The stream is rate limited by the same limiters as the one returned by {@link #getInputStreamForSnapshotFile}.
+     */
+    public InputStream getInputStreamForSnapshotFilePart(String repositoryName,
+                                                         IndexId indexId,
+                                                         ShardId shardId,
+                                                         BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                                         int part,
+                                                         long position,
+                                                         long length,
+                                                         LongConsumer rateLimiterListener) throws IOException {
+        assert fileInfo.metadata().hashEqualsContents() == false : "file [" + fileInfo + "] is not stored in the repository";
+        assert position + length <= fileInfo.partBytes(part) : "range [" + position + "+" + length + "] exceeds part [" + part + "]";
+        BlobStoreRepository blobStoreRepository = (BlobStoreRepository) repositoriesService.repository(repositoryName);
+        BlobContainer container = blobStoreRepository.shardContainer(indexId, shardId.id());
+        return blobStoreRepository.maybeRateLimitRestores(container.readBlob(fileInfo.partName(part), position, length),
+            rateLimiterListener::accept);
+    }
+
     public int getReadSnapshotFileBufferSizeForRepo(String repository) {
         BlobStoreRepository blobStoreRepository = (BlobStoreRepository) repositoriesService.repository(repository);
         return blobStoreRepository.getReadBufferSizeInBytes();
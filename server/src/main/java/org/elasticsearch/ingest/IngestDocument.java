@@ -55,8 +55,13 @@ public final class IngestDocument {
 
     public IngestDocument(String index, String id, String routing,
                           Long version, VersionType versionType, Map<String, Object> source) {
-        this.sourceAndMetadata = new HashMap<>();
-        this.sourceAndMetadata.putAll(source);
+        if (source instanceof LazySourceMap) {
+            // copying the source would parse all of its values
+            this.sourceAndMetadata = source;
+        } else {
+            this.sourceAndMetadata = new HashMap<>();
+            this.sourceAndMetadata.putAll(source);
+        }
         this.sourceAndMetadata.put(Metadata.INDEX.getFieldName(), index);
         this.sourceAndMetadata.put(Metadata.ID.getFieldName(), id);
         if (routing != null) {
@@ -205,6 +210,9 @@ public final class IngestDocument {
      * @throws IllegalArgumentException if the path is null, empty or invalid.
      */
     public boolean hasField(String path, boolean failOutOfRange) {
+        if (isTopLevelField(path)) {
+            return sourceAndMetadata.containsKey(path);
+        }
         FieldPath fieldPath = new FieldPath(path);
         Object context = fieldPath.initialContext;
         for (int i = 0; i < fieldPath.pathElements.length - 1; i++) {
@@ -509,6 +517,10 @@ public final class IngestDocument {
     }
 
     private void setFieldValue(String path, Object value, boolean append, boolean allowDuplicates) {
+        if (append == false && isTopLevelField(path)) {
+            sourceAndMetadata.put(path, value);
+            return;
+        }
         FieldPath fieldPath = new FieldPath(path);
         Object context = fieldPath.initialContext;
         for (int i = 0; i < fieldPath.pathElements.length - 1; i++) {
@@ -843,6 +855,13 @@ public final class IngestDocument {
         }
     }
 
+    /**
+     * Whether the path refers to a field at the root of the source, which can be accessed without splitting the path into its elements.
+     */
+    private static boolean isTopLevelField(String path) {
+        return path != null && path.isEmpty() == false && path.indexOf('.') == -1;
+    }
+
     private class FieldPath {
 
         private final String[] pathElements;
@@ -13,6 +13,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.logging.log4j.util.Strings;
+import org.elasticsearch.ElasticsearchGenerationException;
 import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.ResourceNotFoundException;
@@ -40,6 +41,7 @@ import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.regex.Regex;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.xcontent.XContentHelper;
@@ -54,7 +56,11 @@ import org.elasticsearch.node.ReportingService;
 import org.elasticsearch.plugins.IngestPlugin;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.xcontent.XContentBuilder;
+import org.elasticsearch.xcontent.XContentFactory;
+import org.elasticsearch.xcontent.XContentType;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -84,6 +90,15 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
 
     public static final String INGEST_ORIGIN = "ingest";
 
+    /**
+     * The maximum number of slices that the documents of a bulk request are split into to run their pipelines on several threads of
+     * the write thread pool at the same time. A slice holds at least {@link #MIN_BULK_SLICE_SIZE} documents.
+     */
+    public static final Setting<Integer> BULK_SLICES_SETTING =
+        Setting.intSetting("ingest.bulk.slices", 1, 1, 64, Setting.Property.NodeScope, Setting.Property.Dynamic);
+
+    static final int MIN_BULK_SLICE_SIZE = 64;
+
     private static final Logger logger = LogManager.getLogger(IngestService.class);
     private static final IndexNameExpressionResolver.DateMathExpressionResolver DATE_MATH_EXPRESSION_RESOLVER =
         new IndexNameExpressionResolver.DateMathExpressionResolver();
@@ -100,6 +115,7 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
     private final IngestMetric totalMetrics = new IngestMetric();
     private final List<Consumer<ClusterState>> ingestClusterStateListeners = new CopyOnWriteArrayList<>();
     private volatile ClusterState state;
+    private volatile int bulkSlices = BULK_SLICES_SETTING.getDefault(Settings.EMPTY);
 
     public IngestService(ClusterService clusterService, ThreadPool threadPool,
                          Environment env, ScriptService scriptService, AnalysisRegistry analysisRegistry,
@@ -546,6 +562,11 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
             protected void doRun() {
                 final Thread originalThread = Thread.currentThread();
                 final AtomicInteger counter = new AtomicInteger(numberOfActionRequests);
+                final int sliceSize = bulkSliceSize(numberOfActionRequests, bulkSlices);
+                // a request that is not split runs its pipelines on this thread as the documents are iterated
+                final boolean sliced = sliceSize < numberOfActionRequests;
+                List<Runnable> slice = sliced ? new ArrayList<>(sliceSize) : null;
+                List<Integer> sliceSlots = sliced ? new ArrayList<>(sliceSize) : null;
                 int i = 0;
                 for (DocWriteRequest<?> actionRequest : actionRequests) {
                     IndexRequest indexRequest = TransportBulkAction.getIndexWriteRequest(actionRequest);
@@ -581,15 +602,89 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
                         continue;
                     }
 
-                    executePipelines(i, pipelines.iterator(), hasFinalPipeline, indexRequest, onDropped, onFailure, counter,
-                                     onCompletion, originalThread);
+                    if (sliced == false) {
+                        executePipelines(i, pipelines.iterator(), hasFinalPipeline, indexRequest, onDropped, onFailure, counter,
+                                         onCompletion, originalThread);
+                        i++;
+                        continue;
+                    }
+
+                    final int slot = i;
+                    final boolean finalHasFinalPipeline = hasFinalPipeline;
+                    slice.add(() -> executePipelines(slot, pipelines.iterator(), finalHasFinalPipeline, indexRequest, onDropped,
+                        onFailure, counter, onCompletion, originalThread));
+                    sliceSlots.add(slot);
+                    if (slice.size() == sliceSize) {
+                        // the slice is full, run it on another write thread while the remaining documents are sliced
+                        forkSlice(executorName, slice, sliceSlots, onFailure, counter, onCompletion, originalThread);
+                        slice = new ArrayList<>(sliceSize);
+                        sliceSlots = new ArrayList<>(sliceSize);
+                    }
 
                     i++;
                 }
+                if (sliced) {
+                    // the last slice runs on this thread
+                    slice.forEach(Runnable::run);
+                }
+            }
+        });
+    }
+
+    /**
+     * The number of documents per slice when the pipelines of a bulk request with the given number of requests run on up to the given
+     * number of threads. Requests that are too small to split run in a single slice.
+     */
+    static int bulkSliceSize(int numberOfActionRequests, int slices) {
+        if (slices <= 1 || numberOfActionRequests < 2 * MIN_BULK_SLICE_SIZE) {
+            return Integer.MAX_VALUE;
+        }
+        final int sliceSize = (numberOfActionRequests + slices - 1) / slices;
+        return Math.max(sliceSize, MIN_BULK_SLICE_SIZE);
+    }
+
+    private void forkSlice(
+        final String executorName,
+        final List<Runnable> slice,
+        final List<Integer> slots,
+        final BiConsumer<Integer, Exception> onFailure,
+        final AtomicInteger counter,
+        final BiConsumer<Thread, Exception> onCompletion,
+        final Thread originalThread
+    ) {
+        threadPool.executor(executorName).execute(new AbstractRunnable() {
+            @Override
+            protected void doRun() {
+                slice.forEach(Runnable::run);
+            }
+
+            @Override
+            public boolean isForceExecution() {
+                // the bulk request was already admitted, rejecting part of it now would only waste the work done for the rest
+                return true;
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                // only happens if the slice could not be started at all, e.g. because the node shuts down
+                for (int slot : slots) {
+                    onFailure.accept(slot, e);
+                    if (counter.decrementAndGet() == 0) {
+                        onCompletion.accept(originalThread, null);
+                    }
+                    assert counter.get() >= 0;
+                }
             }
         });
     }
 
+    /**
+     * Sets the maximum number of slices that the documents of a bulk request are split into, see {@link #BULK_SLICES_SETTING}.
+     */
+    public void setBulkSlices(int bulkSlices) {
+        this.bulkSlices = bulkSlices;
+    }
+
     private void executePipelines(
         final int slot,
         final Iterator<String> it,
@@ -726,7 +821,7 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
         String routing = indexRequest.routing();
         Long version = indexRequest.version();
         VersionType versionType = indexRequest.versionType();
-        Map<String, Object> sourceAsMap = indexRequest.sourceAsMap();
+        Map<String, Object> sourceAsMap = sourceAsMap(indexRequest);
         IngestDocument ingestDocument = new IngestDocument(index, id, routing, version, versionType, sourceAsMap);
         ingestDocument.executePipeline(pipeline, (result, e) -> {
             long ingestTimeInNanos = System.nanoTime() - startTimeInNanos;
@@ -756,7 +851,7 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
                 if (metadataMap.get(IngestDocument.Metadata.IF_PRIMARY_TERM) != null) {
                     indexRequest.setIfPrimaryTerm(((Number) metadataMap.get(IngestDocument.Metadata.IF_PRIMARY_TERM)).longValue());
                 }
-                indexRequest.source(ingestDocument.getSourceAndMetadata(), indexRequest.getContentType());
+                setSource(indexRequest, ingestDocument.getSourceAndMetadata());
                 if (metadataMap.get(IngestDocument.Metadata.DYNAMIC_TEMPLATES) != null) {
                     Map<String, String> mergedDynamicTemplates = new HashMap<>(indexRequest.getDynamicTemplates());
                     @SuppressWarnings("unchecked")
@@ -769,6 +864,35 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
         });
     }
 
+    /**
+     * Returns the source of the request as a map. JSON sources are only scanned, the values of their fields are parsed when a
+     * processor reads them.
+     */
+    private static Map<String, Object> sourceAsMap(IndexRequest indexRequest) {
+        if (indexRequest.getContentType() != null && indexRequest.getContentType().canonical() == XContentType.JSON) {
+            LazySourceMap source = LazySourceMap.parse(indexRequest.source());
+            if (source != null) {
+                return source;
+            }
+        }
+        return indexRequest.sourceAsMap();
+    }
+
+    private static void setSource(IndexRequest indexRequest, Map<String, Object> source) {
+        if (source instanceof LazySourceMap) {
+            // the fields that no processor has read are copied from the original source
+            try {
+                XContentBuilder builder = XContentFactory.contentBuilder(indexRequest.getContentType());
+                ((LazySourceMap) source).toXContent(builder);
+                indexRequest.source(builder);
+            } catch (IOException e) {
+                throw new ElasticsearchGenerationException("Failed to generate [" + source + "]", e);
+            }
+        } else {
+            indexRequest.source(source, indexRequest.getContentType());
+        }
+    }
+
     @Override
     public void applyClusterState(final ClusterChangedEvent event) {
         state = event.state();
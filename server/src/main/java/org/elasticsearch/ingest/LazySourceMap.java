@@ -0,0 +1,493 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.ingest;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.xcontent.DeprecationHandler;
+import org.elasticsearch.xcontent.NamedXContentRegistry;
+import org.elasticsearch.xcontent.XContentBuilder;
+import org.elasticsearch.xcontent.XContentParser;
+import org.elasticsearch.xcontent.XContentType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The top level fields of a JSON source that are only parsed when they are read. The source is scanned once to find where the value
+ * of each top level field starts and ends, without creating any objects for the values. A value is parsed the first time it is read,
+ * and from then on it behaves like the value of an ordinary map. Values that have never been read are copied as they are from the
+ * original source when the map is written with {@link #toXContent(XContentBuilder)}, so that a pipeline that only touches a few
+ * fields of a document does not pay for parsing and serializing all of it.
+ */
+final class LazySourceMap extends AbstractMap<String, Object> {
+
+    // objects and arrays that are nested deeper than this are left to the regular parser
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * The bytes of a value that has not been read yet.
+     */
+    private static final class RawValue {
+        private final BytesReference bytes;
+
+        private RawValue(BytesReference bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    // the values of the fields in the order of the source, values that have not been read yet are raw values
+    private final Map<String, Object> values;
+    private EntrySet entrySet;
+
+    private LazySourceMap(Map<String, Object> values) {
+        this.values = values;
+    }
+
+    /**
+     * Scans the given JSON source, or returns {@code null} if the source is not a JSON object that can be read lazily, for instance
+     * because it is not valid or because it uses one of the extensions of JSON that the parser accepts. Such sources have to be parsed
+     * as a whole, which also reports the errors in them.
+     */
+    static LazySourceMap parse(BytesReference source) {
+        final BytesRef bytesRef = source.toBytesRef();
+        final Scanner scanner = new Scanner(bytesRef.bytes, bytesRef.offset, bytesRef.offset + bytesRef.length);
+        final Map<String, Object> values = new LinkedHashMap<>();
+        scanner.skipWhitespace();
+        if (scanner.consume('{') == false) {
+            return null;
+        }
+        scanner.skipWhitespace();
+        if (scanner.consume('}') == false) {
+            do {
+                scanner.skipWhitespace();
+                final String key = scanner.key();
+                if (key == null) {
+                    return null;
+                }
+                scanner.skipWhitespace();
+                if (scanner.consume(':') == false) {
+                    return null;
+                }
+                scanner.skipWhitespace();
+                final int start = scanner.pos;
+                if (scanner.value(0) == false) {
+                    return null;
+                }
+                final RawValue value = new RawValue(source.slice(start - bytesRef.offset, scanner.pos - start));
+                if (values.put(key, value) != null) {
+                    // duplicate keys are rejected by the parser
+                    return null;
+                }
+                scanner.skipWhitespace();
+            } while (scanner.consume(','));
+            if (scanner.consume('}') == false) {
+                return null;
+            }
+        }
+        scanner.skipWhitespace();
+        return scanner.pos == scanner.end ? new LazySourceMap(values) : null;
+    }
+
+    private static Object parseValue(RawValue rawValue) {
+        try (XContentParser parser = XContentHelper.createParser(NamedXContentRegistry.EMPTY,
+            DeprecationHandler.THROW_UNSUPPORTED_OPERATION, rawValue.bytes, XContentType.JSON)) {
+            final XContentParser.Token token = parser.nextToken();
+            switch (token) {
+                case START_OBJECT:
+                    return parser.map();
+                case START_ARRAY:
+                    return parser.list();
+                case VALUE_STRING:
+                    return parser.text();
+                case VALUE_NUMBER:
+                    return parser.numberValue();
+                case VALUE_BOOLEAN:
+                    return parser.booleanValue();
+                case VALUE_NULL:
+                    return null;
+                default:
+                    throw new ElasticsearchParseException("unexpected token [" + token + "] in source");
+            }
+        } catch (IOException e) {
+            throw new ElasticsearchParseException("failed to parse source", e);
+        }
+    }
+
+    private static Object read(Object value) {
+        return value instanceof RawValue ? parseValue((RawValue) value) : value;
+    }
+
+    /**
+     * Writes the fields as an object, the fields that have not been read are copied from the source without parsing them.
+     */
+    void toXContent(XContentBuilder builder) throws IOException {
+        builder.startObject();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (entry.getValue() instanceof RawValue) {
+                try (InputStream stream = ((RawValue) entry.getValue()).bytes.streamInput()) {
+                    builder.rawField(entry.getKey(), stream, XContentType.JSON);
+                }
+            } else {
+                builder.field(entry.getKey(), entry.getValue());
+            }
+        }
+        builder.endObject();
+    }
+
+    /**
+     * Whether the value of the field has not been read yet, for testing.
+     */
+    boolean isRaw(String key) {
+        return values.get(key) instanceof RawValue;
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return values.containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        final Object value = values.get(key);
+        if (value instanceof RawValue) {
+            final Object parsed = parseValue((RawValue) value);
+            values.put((String) key, parsed);
+            return parsed;
+        }
+        return value;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return read(values.put(key, value));
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return read(values.remove(key));
+    }
+
+    @Override
+    public void clear() {
+        values.clear();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+
+        @Override
+        public void clear() {
+            values.clear();
+        }
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            final Iterator<Entry<String, Object>> iterator = values.entrySet().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Entry<String, Object> next() {
+                    final Entry<String, Object> entry = iterator.next();
+                    return new Entry<>() {
+                        @Override
+                        public String getKey() {
+                            return entry.getKey();
+                        }
+
+                        @Override
+                        public Object getValue() {
+                            final Object value = entry.getValue();
+                            if (value instanceof RawValue) {
+                                final Object parsed = parseValue((RawValue) value);
+                                entry.setValue(parsed);
+                                return parsed;
+                            }
+                            return value;
+                        }
+
+                        @Override
+                        public Object setValue(Object value) {
+                            return read(entry.setValue(value));
+                        }
+
+                        @Override
+                        public boolean equals(Object o) {
+                            if (o instanceof Entry == false) {
+                                return false;
+                            }
+                            final Entry<?, ?> other = (Entry<?, ?>) o;
+                            return getKey().equals(other.getKey()) && Objects.equals(getValue(), other.getValue());
+                        }
+
+                        @Override
+                        public int hashCode() {
+                            return getKey().hashCode() ^ Objects.hashCode(getValue());
+                        }
+
+                        @Override
+                        public String toString() {
+                            return getKey() + "=" + getValue();
+                        }
+                    };
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                }
+            };
+        }
+    }
+
+    /**
+     * Checks the structure of JSON without creating any objects for the values.
+     */
+    private static final class Scanner {
+        private final byte[] bytes;
+        private final int end;
+        private int pos;
+
+        private Scanner(byte[] bytes, int pos, int end) {
+            this.bytes = bytes;
+            this.pos = pos;
+            this.end = end;
+        }
+
+        private void skipWhitespace() {
+            while (pos < end && (bytes[pos] == ' ' || bytes[pos] == '\n' || bytes[pos] == '\r' || bytes[pos] == '\t')) {
+                pos++;
+            }
+        }
+
+        private boolean consume(char c) {
+            if (pos < end && bytes[pos] == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Reads a key, or returns {@code null} if the key is not a string or if it uses escapes or characters outside of ASCII, which
+         * are left to the parser.
+         */
+        private String key() {
+            if (consume('"') == false) {
+                return null;
+            }
+            final int start = pos;
+            while (pos < end && bytes[pos] != '"') {
+                if (bytes[pos] == '\\' || bytes[pos] < 0x20) {
+                    // escapes, control characters and bytes of multi-byte characters, which are negative
+                    return null;
+                }
+                pos++;
+            }
+            if (pos == end) {
+                return null;
+            }
+            return new String(bytes, start, pos++ - start, StandardCharsets.US_ASCII);
+        }
+
+        private boolean value(int depth) {
+            if (pos == end) {
+                return false;
+            }
+            switch (bytes[pos]) {
+                case '{':
+                    return object(depth + 1);
+                case '[':
+                    return array(depth + 1);
+                case '"':
+                    return string();
+                case 't':
+                    return literal("true");
+                case 'f':
+                    return literal("false");
+                case 'n':
+                    return literal("null");
+                default:
+                    return number();
+            }
+        }
+
+        private boolean object(int depth) {
+            if (depth > MAX_DEPTH) {
+                return false;
+            }
+            pos++;
+            skipWhitespace();
+            if (consume('}')) {
+                return true;
+            }
+            do {
+                skipWhitespace();
+                if (string() == false) {
+                    return false;
+                }
+                skipWhitespace();
+                if (consume(':') == false) {
+                    return false;
+                }
+                skipWhitespace();
+                if (value(depth) == false) {
+                    return false;
+                }
+                skipWhitespace();
+            } while (consume(','));
+            return consume('}');
+        }
+
+        private boolean array(int depth) {
+            if (depth > MAX_DEPTH) {
+                return false;
+            }
+            pos++;
+            skipWhitespace();
+            if (consume(']')) {
+                return true;
+            }
+            do {
+                skipWhitespace();
+                if (value(depth) == false) {
+                    return false;
+                }
+                skipWhitespace();
+            } while (consume(','));
+            return consume(']');
+        }
+
+        private boolean string() {
+            if (consume('"') == false) {
+                return false;
+            }
+            while (pos < end) {
+                final int b = bytes[pos] & 0xff;
+                if (b == '"') {
+                    pos++;
+                    return true;
+                } else if (b == '\\') {
+                    if (escape() == false) {
+                        return false;
+                    }
+                } else if (b < 0x20) {
+                    return false;
+                } else if (b < 0x80) {
+                    pos++;
+                } else if (multiByteCharacter(b) == false) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private boolean escape() {
+            pos++;
+            if (pos == end) {
+                return false;
+            }
+            final byte b = bytes[pos++];
+            if (b == 'u') {
+                for (int i = 0; i < 4; i++) {
+                    if (pos == end || Character.digit(bytes[pos++], 16) == -1) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return b == '"' || b == '\\' || b == '/' || b == 'b' || b == 'f' || b == 'n' || b == 'r' || b == 't';
+        }
+
+        private boolean multiByteCharacter(int lead) {
+            final int continuations;
+            if ((lead & 0xE0) == 0xC0 && lead >= 0xC2) {
+                continuations = 1;
+            } else if ((lead & 0xF0) == 0xE0) {
+                continuations = 2;
+            } else if ((lead & 0xF8) == 0xF0 && lead <= 0xF4) {
+                continuations = 3;
+            } else {
+                return false;
+            }
+            pos++;
+            for (int i = 0; i < continuations; i++) {
+                if (pos == end || (bytes[pos++] & 0xC0) != 0x80) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean literal(String literal) {
+            for (int i = 0; i < literal.length(); i++) {
+                if (pos == end || bytes[pos++] != literal.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean number() {
+            consume('-');
+            if (consume('0') == false && digits() == false) {
+                return false;
+            }
+            if (consume('.') && digits() == false) {
+                return false;
+            }
+            if (consume('e') || consume('E')) {
+                if (consume('+') == false) {
+                    consume('-');
+                }
+                return digits();
+            }
+            return true;
+        }
+
+        private boolean digits() {
+            final int start = pos;
+            while (pos < end && bytes[pos] >= '0' && bytes[pos] <= '9') {
+                pos++;
+            }
+            return pos > start;
+        }
+    }
+}
@@ -16,6 +16,7 @@ import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.util.CollectionUtils;
 import org.elasticsearch.common.xcontent.XContentParserUtils;
+import org.elasticsearch.core.CheckedFunction;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.snapshots.SnapshotId;
 import org.elasticsearch.snapshots.SnapshotInfo;
@@ -639,6 +640,10 @@ public final class RepositoryData {
     private static final String MIN_VERSION = "min_version";
     private static final String START_TIME_MILLIS = "start_time_millis";
     private static final String END_TIME_MILLIS = "end_time_millis";
+    private static final String SEGMENTS = "segments";
+    private static final String REMOVED_SNAPSHOTS = "removed_snapshots";
+    private static final String REMOVED_INDICES = "removed_indices";
+    private static final String REMOVED_INDEX_METADATA_IDENTIFIERS = "removed_index_metadata_identifiers";
 
     /**
      * Writes the snapshots metadata and the related indices metadata to x-content.
@@ -697,65 +702,168 @@ public final class RepositoryData {
 
         builder.startArray(SNAPSHOTS);
         for (final SnapshotId snapshot : getSnapshotIds()) {
-            builder.startObject();
-            builder.field(NAME, snapshot.getName());
-            final String snapshotUUID = snapshot.getUUID();
-            builder.field(UUID, snapshotUUID);
-            final SnapshotDetails snapshotDetails = snapshotsDetails.getOrDefault(snapshotUUID, SnapshotDetails.EMPTY);
-            final SnapshotState state = snapshotDetails.getSnapshotState();
-            if (state != null) {
-                builder.field(STATE, state.value());
-            }
-            if (shouldWriteIndexGens) {
-                builder.startObject(INDEX_METADATA_LOOKUP);
-                for (Map.Entry<IndexId, String> entry : indexMetaDataGenerations.lookup.getOrDefault(snapshot, Collections.emptyMap())
-                    .entrySet()) {
-                    builder.field(entry.getKey().getId(), entry.getValue());
-                }
-                builder.endObject();
-            }
-            final Version version = snapshotDetails.getVersion();
-            if (version != null) {
-                builder.field(VERSION, version.toString());
-            }
+            snapshotToXContent(builder, snapshot, shouldWriteIndexGens);
+        }
+        builder.endArray();
 
-            if (snapshotDetails.getStartTimeMillis() != -1) {
-                builder.field(START_TIME_MILLIS, snapshotDetails.getStartTimeMillis());
+        // write the indices map
+        builder.startObject(INDICES);
+        for (final IndexId indexId : getIndices().values()) {
+            indexToXContent(builder, indexId, shouldWriteShardGens);
+        }
+        builder.endObject();
+
+        if (shouldWriteIndexGens) {
+            builder.field(INDEX_METADATA_IDENTIFIERS, indexMetaDataGenerations.identifiers);
+        }
+
+        builder.endObject();
+
+        return builder;
+    }
+
+    /**
+     * Writes the header of the segmented repository data format to x-content. Instead of the snapshots and indices metadata, the header
+     * lists the blobs holding the segments (see {@link #segmentToXContent}) that make up this repository data. Must only be used if
+     * {@link SnapshotsService#useSegmentedRepositoryData} holds for the repository metadata version.
+     *
+     * @param segments names of the segment blobs in the order in which they must be applied
+     */
+    public XContentBuilder segmentedSnapshotsToXContent(final XContentBuilder builder, final List<String> segments) throws IOException {
+        assert segments.isEmpty() == false : "repository data must consist of at least one segment";
+        builder.startObject();
+        // Add min version field to make it impossible for older ES versions to deserialize this object
+        builder.field(MIN_VERSION, SnapshotsService.SEGMENTED_REPO_DATA_VERSION.toString());
+        if (uuid.equals(MISSING_UUID) == false) {
+            builder.field(UUID, uuid);
+        }
+        if (clusterUUID.equals(MISSING_UUID) == false) {
+            builder.field(CLUSTER_UUID, clusterUUID);
+        }
+        builder.stringListField(SEGMENTS, segments);
+        builder.endObject();
+        return builder;
+    }
+
+    /**
+     * Writes the changes from {@code previous} to this instance as a segment of the segmented repository data format to x-content.
+     * A segment contains the full entries of all snapshots, indices and index metadata identifiers that were added or changed and the
+     * keys of those that were removed, so its size is proportional to the size of the change rather than to the size of the repository.
+     * Applying the segment on top of the segments that make up {@code previous} yields this instance. Writing a segment on top of
+     * {@link #EMPTY} yields a compacted segment that holds the complete repository data.
+     *
+     * @param previous repository data that the segment is applied on top of
+     */
+    public XContentBuilder segmentToXContent(final XContentBuilder builder, final RepositoryData previous) throws IOException {
+        builder.startObject();
+
+        // snapshots have to be written before the indices that reference them
+        builder.startArray(REMOVED_SNAPSHOTS);
+        for (final String snapshotUUID : previous.snapshotIds.keySet()) {
+            if (snapshotIds.containsKey(snapshotUUID) == false) {
+                builder.value(snapshotUUID);
             }
-            if (snapshotDetails.getEndTimeMillis() != -1) {
-                builder.field(END_TIME_MILLIS, snapshotDetails.getEndTimeMillis());
+        }
+        builder.endArray();
+        builder.startArray(SNAPSHOTS);
+        for (final SnapshotId snapshotId : getSnapshotIds()) {
+            final String snapshotUUID = snapshotId.getUUID();
+            if (previous.snapshotIds.containsKey(snapshotUUID) == false
+                || Objects.equals(snapshotsDetails.get(snapshotUUID), previous.snapshotsDetails.get(snapshotUUID)) == false
+                || Objects.equals(
+                    indexMetaDataGenerations.lookup.get(snapshotId),
+                    previous.indexMetaDataGenerations.lookup.get(snapshotId)
+                ) == false) {
+                snapshotToXContent(builder, snapshotId, true);
             }
-
-            builder.endObject();
         }
         builder.endArray();
 
-        // write the indices map
+        final Set<String> indexUUIDs = indices.values().stream().map(IndexId::getId).collect(Collectors.toSet());
+        builder.startArray(REMOVED_INDICES);
+        for (final IndexId indexId : previous.indices.values()) {
+            if (indexUUIDs.contains(indexId.getId()) == false) {
+                builder.value(indexId.getId());
+            }
+        }
+        builder.endArray();
         builder.startObject(INDICES);
-        for (final IndexId indexId : getIndices().values()) {
-            builder.startObject(indexId.getName());
-            builder.field(INDEX_ID, indexId.getId());
-            builder.startArray(SNAPSHOTS);
-            List<SnapshotId> snapshotIds = indexSnapshots.get(indexId);
-            assert snapshotIds != null;
-            for (final SnapshotId snapshotId : snapshotIds) {
-                builder.value(snapshotId.getUUID());
+        for (final IndexId indexId : indices.values()) {
+            if (indexSnapshots.get(indexId).equals(previous.indexSnapshots.get(indexId)) == false
+                || shardGenerations.getGens(indexId).equals(previous.shardGenerations.getGens(indexId)) == false) {
+                indexToXContent(builder, indexId, true);
+            }
+        }
+        builder.endObject();
+
+        final Map<String, String> identifiers = indexMetaDataGenerations.identifiers;
+        final Map<String, String> previousIdentifiers = previous.indexMetaDataGenerations.identifiers;
+        builder.startArray(REMOVED_INDEX_METADATA_IDENTIFIERS);
+        for (final String identifier : previousIdentifiers.keySet()) {
+            if (identifiers.containsKey(identifier) == false) {
+                builder.value(identifier);
             }
-            builder.endArray();
-            if (shouldWriteShardGens) {
-                builder.xContentList(SHARD_GENERATIONS, shardGenerations.getGens(indexId));
+        }
+        builder.endArray();
+        builder.startObject(INDEX_METADATA_IDENTIFIERS);
+        for (final Map.Entry<String, String> entry : identifiers.entrySet()) {
+            if (entry.getValue().equals(previousIdentifiers.get(entry.getKey())) == false) {
+                builder.field(entry.getKey(), entry.getValue());
             }
-            builder.endObject();
         }
         builder.endObject();
 
+        builder.endObject();
+        return builder;
+    }
+
+    private void snapshotToXContent(XContentBuilder builder, SnapshotId snapshot, boolean shouldWriteIndexGens) throws IOException {
+        builder.startObject();
+        builder.field(NAME, snapshot.getName());
+        final String snapshotUUID = snapshot.getUUID();
+        builder.field(UUID, snapshotUUID);
+        final SnapshotDetails snapshotDetails = snapshotsDetails.getOrDefault(snapshotUUID, SnapshotDetails.EMPTY);
+        final SnapshotState state = snapshotDetails.getSnapshotState();
+        if (state != null) {
+            builder.field(STATE, state.value());
+        }
         if (shouldWriteIndexGens) {
-            builder.field(INDEX_METADATA_IDENTIFIERS, indexMetaDataGenerations.identifiers);
+            builder.startObject(INDEX_METADATA_LOOKUP);
+            for (Map.Entry<IndexId, String> entry : indexMetaDataGenerations.lookup.getOrDefault(snapshot, Collections.emptyMap())
+                .entrySet()) {
+                builder.field(entry.getKey().getId(), entry.getValue());
+            }
+            builder.endObject();
+        }
+        final Version version = snapshotDetails.getVersion();
+        if (version != null) {
+            builder.field(VERSION, version.toString());
+        }
+
+        if (snapshotDetails.getStartTimeMillis() != -1) {
+            builder.field(START_TIME_MILLIS, snapshotDetails.getStartTimeMillis());
+        }
+        if (snapshotDetails.getEndTimeMillis() != -1) {
+            builder.field(END_TIME_MILLIS, snapshotDetails.getEndTimeMillis());
         }
 
         builder.endObject();
+    }
 
-        return builder;
+    private void indexToXContent(XContentBuilder builder, IndexId indexId, boolean shouldWriteShardGens) throws IOException {
+        builder.startObject(indexId.getName());
+        builder.field(INDEX_ID, indexId.getId());
+        builder.startArray(SNAPSHOTS);
+        List<SnapshotId> snapshotIds = indexSnapshots.get(indexId);
+        assert snapshotIds != null;
+        for (final SnapshotId snapshotId : snapshotIds) {
+            builder.value(snapshotId.getUUID());
+        }
+        builder.endArray();
+        if (shouldWriteShardGens) {
+            builder.xContentList(SHARD_GENERATIONS, shardGenerations.getGens(indexId));
+        }
+        builder.endObject();
     }
 
     public IndexMetaDataGenerations indexMetaDataGenerations() {
@@ -770,6 +878,24 @@ public final class RepositoryData {
      *                           from cached bytes that we trust to not contain broken generations.
      */
     public static RepositoryData snapshotsFromXContent(XContentParser parser, long genId, boolean fixBrokenShardGens) throws IOException {
+        return snapshotsFromXContent(parser, genId, fixBrokenShardGens, segment -> {
+            throw new IllegalArgumentException("cannot read segment [" + segment + "] of segmented repository data");
+        });
+    }
+
+    /**
+     * Reads an instance of {@link RepositoryData} from x-content, loading the snapshots and indices metadata either from the x-content
+     * itself or, if it holds the header of the segmented repository data format, from the segments listed in the header.
+     *
+     * @param fixBrokenShardGens see {@link #snapshotsFromXContent(XContentParser, long, boolean)}
+     * @param segmentParser      creates a parser for the segment blob of the given name
+     */
+    public static RepositoryData snapshotsFromXContent(
+        XContentParser parser,
+        long genId,
+        boolean fixBrokenShardGens,
+        CheckedFunction<String, XContentParser, IOException> segmentParser
+    ) throws IOException {
         XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.nextToken(), parser);
 
         final Map<String, SnapshotId> snapshots = new HashMap<>();
@@ -779,11 +905,15 @@ public final class RepositoryData {
         final ShardGenerations.Builder shardGenerations = ShardGenerations.builder();
         final Map<SnapshotId, Map<String, String>> indexMetaLookup = new HashMap<>();
         Map<String, String> indexMetaIdentifiers = null;
+        List<String> segments = null;
         String uuid = MISSING_UUID;
         String clusterUUID = MISSING_UUID;
         while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
             final String field = parser.currentName();
             switch (field) {
+                case SEGMENTS:
+                    segments = parseStrings(parser);
+                    break;
                 case SNAPSHOTS:
                     parseSnapshots(parser, snapshots, snapshotsDetails, indexMetaLookup);
                     break;
@@ -822,6 +952,11 @@ public final class RepositoryData {
         // ensure we drained the stream completely
         XContentParserUtils.ensureExpectedToken(null, parser.nextToken(), parser);
 
+        if (segments != null) {
+            assert snapshots.isEmpty() && indexLookup.isEmpty() : "segmented repository data must not contain snapshots or indices";
+            return snapshotsFromSegments(uuid, clusterUUID, genId, segments, fixBrokenShardGens, segmentParser);
+        }
+
         return new RepositoryData(
             uuid,
             genId,
@@ -834,6 +969,123 @@ public final class RepositoryData {
         );
     }
 
+    /**
+     * Reads an instance of {@link RepositoryData} by applying the given segments, written by {@link #segmentToXContent}, in order.
+     */
+    private static RepositoryData snapshotsFromSegments(
+        String uuid,
+        String clusterUUID,
+        long genId,
+        List<String> segments,
+        boolean fixBrokenShardGens,
+        CheckedFunction<String, XContentParser, IOException> segmentParser
+    ) throws IOException {
+        final Map<String, SnapshotId> snapshots = new HashMap<>();
+        final Map<String, SnapshotDetails> snapshotsDetails = new HashMap<>();
+        final Map<IndexId, List<SnapshotId>> indexSnapshots = new HashMap<>();
+        final Map<String, IndexId> indexLookup = new HashMap<>();
+        final Map<IndexId, List<ShardGeneration>> shardGenerations = new HashMap<>();
+        final Map<SnapshotId, Map<String, String>> indexMetaLookup = new HashMap<>();
+        final Map<String, String> indexMetaIdentifiers = new HashMap<>();
+        for (String segment : segments) {
+            try (XContentParser parser = segmentParser.apply(segment)) {
+                XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.nextToken(), parser);
+                while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+                    final String field = parser.currentName();
+                    switch (field) {
+                        case REMOVED_SNAPSHOTS:
+                            for (String snapshotUUID : parseStrings(parser)) {
+                                final SnapshotId removed = snapshots.remove(snapshotUUID);
+                                snapshotsDetails.remove(snapshotUUID);
+                                indexMetaLookup.remove(removed);
+                            }
+                            break;
+                        case SNAPSHOTS:
+                            final Map<String, SnapshotId> updatedSnapshots = new HashMap<>();
+                            final Map<String, SnapshotDetails> updatedSnapshotsDetails = new HashMap<>();
+                            final Map<SnapshotId, Map<String, String>> updatedIndexMetaLookup = new HashMap<>();
+                            parseSnapshots(parser, updatedSnapshots, updatedSnapshotsDetails, updatedIndexMetaLookup);
+                            // segments contain the complete entry of each updated snapshot so drop whatever we read for it before
+                            for (SnapshotId snapshotId : updatedSnapshots.values()) {
+                                snapshots.put(snapshotId.getUUID(), snapshotId);
+                                snapshotsDetails.remove(snapshotId.getUUID());
+                                indexMetaLookup.remove(snapshotId);
+                            }
+                            snapshotsDetails.putAll(updatedSnapshotsDetails);
+                            indexMetaLookup.putAll(updatedIndexMetaLookup);
+                            break;
+                        case REMOVED_INDICES:
+                            for (String indexUUID : parseStrings(parser)) {
+                                final IndexId removed = indexLookup.remove(indexUUID);
+                                if (removed != null) {
+                                    indexSnapshots.remove(removed);
+                                    shardGenerations.remove(removed);
+                                }
+                            }
+                            break;
+                        case INDICES:
+                            final Map<IndexId, List<SnapshotId>> updatedIndexSnapshots = new HashMap<>();
+                            final ShardGenerations.Builder updatedShardGenerations = ShardGenerations.builder();
+                            parseIndices(
+                                parser,
+                                fixBrokenShardGens,
+                                snapshots,
+                                updatedIndexSnapshots,
+                                indexLookup,
+                                updatedShardGenerations
+                            );
+                            final ShardGenerations updatedGenerations = updatedShardGenerations.build();
+                            for (Map.Entry<IndexId, List<SnapshotId>> entry : updatedIndexSnapshots.entrySet()) {
+                                indexSnapshots.put(entry.getKey(), entry.getValue());
+                                shardGenerations.put(entry.getKey(), updatedGenerations.getGens(entry.getKey()));
+                            }
+                            break;
+                        case REMOVED_INDEX_METADATA_IDENTIFIERS:
+                            indexMetaIdentifiers.keySet().removeAll(parseStrings(parser));
+                            break;
+                        case INDEX_METADATA_IDENTIFIERS:
+                            XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.nextToken(), parser);
+                            indexMetaIdentifiers.putAll(parser.mapStrings());
+                            break;
+                        default:
+                            XContentParserUtils.throwUnknownField(field, parser.getTokenLocation());
+                    }
+                }
+                // ensure we drained the stream completely
+                XContentParserUtils.ensureExpectedToken(null, parser.nextToken(), parser);
+            }
+        }
+
+        final ShardGenerations.Builder shardGenerationsBuilder = ShardGenerations.builder();
+        for (Map.Entry<IndexId, List<ShardGeneration>> entry : shardGenerations.entrySet()) {
+            final List<ShardGeneration> gens = entry.getValue();
+            for (int i = 0; i < gens.size(); i++) {
+                if (gens.get(i) != null) {
+                    shardGenerationsBuilder.put(entry.getKey(), i, gens.get(i));
+                }
+            }
+        }
+        return new RepositoryData(
+            uuid,
+            genId,
+            snapshots,
+            snapshotsDetails,
+            indexSnapshots,
+            shardGenerationsBuilder.build(),
+            buildIndexMetaGenerations(indexMetaLookup, indexLookup, indexMetaIdentifiers),
+            clusterUUID
+        );
+    }
+
+    private static List<String> parseStrings(XContentParser parser) throws IOException {
+        XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_ARRAY, parser.nextToken(), parser);
+        final List<String> strings = new ArrayList<>();
+        while (parser.nextToken() != XContentParser.Token.END_ARRAY) {
+            strings.add(parser.text());
+        }
+        return strings;
+    }
+
     /**
      * Builds {@link IndexMetaDataGenerations} instance from the information parsed previously.
      *
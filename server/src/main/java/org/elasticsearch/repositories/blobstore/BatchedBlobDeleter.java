@@ -0,0 +1,144 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.GroupedActionListener;
+import org.elasticsearch.common.blobstore.BlobContainer;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Deletes blobs from a {@link BlobContainer} in batches that are sent concurrently. Each batch is deleted with a single call to
+ * {@link BlobContainer#deleteBlobsIgnoringIfNotExists} so the batch size should match the number of blobs the container implementation
+ * deletes per request. The names of the blobs are pulled from the given iterator one batch at a time, so they don't need to be
+ * materialized up front.
+ * <p>
+ * A failure to delete a batch does not stop the deletion of the other batches, since every blob that is not deleted is left for a
+ * later cleanup anyway. The listener is failed with the first failure once all batches were attempted.
+ */
+final class BatchedBlobDeleter {
+
+    private static final Logger logger = LogManager.getLogger(BatchedBlobDeleter.class);
+
+    private final BlobContainer container;
+    private final Iterator<String> blobs; // guarded by this
+    private final int batchSize;
+    private final AtomicLong deletedBlobs = new AtomicLong();
+    private final AtomicLong failedBlobs = new AtomicLong();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    /**
+     * @param container the container to delete the blobs from
+     * @param blobs     the names of the blobs to delete, relative to the container
+     * @param batchSize the maximum number of blobs to delete per call to {@link BlobContainer#deleteBlobsIgnoringIfNotExists}
+     */
+    BatchedBlobDeleter(BlobContainer container, Iterator<String> blobs, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batch size must be positive but was [" + batchSize + "]");
+        }
+        this.container = container;
+        this.blobs = blobs;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Deletes all blobs, running up to {@code maxConcurrentBatches} batches concurrently on the given executor.
+     *
+     * @param listener listener that is completed with the number of deleted blobs once all batches were attempted
+     */
+    void run(Executor executor, int maxConcurrentBatches, ActionListener<Long> listener) {
+        final ActionListener<Void> workersListener = new GroupedActionListener<>(ActionListener.wrap(ignored -> {
+            final Exception e = failure.get();
+            if (e == null) {
+                listener.onResponse(deletedBlobs.get());
+            } else {
+                listener.onFailure(e);
+            }
+        }, listener::onFailure), maxConcurrentBatches);
+        for (int i = 0; i < maxConcurrentBatches; i++) {
+            deleteNextBatch(executor, workersListener);
+        }
+    }
+
+    /**
+     * @return the number of blobs that were deleted so far
+     */
+    long deletedBlobs() {
+        return deletedBlobs.get();
+    }
+
+    /**
+     * @return the number of blobs in batches that failed to be deleted so far
+     */
+    long failedBlobs() {
+        return failedBlobs.get();
+    }
+
+    private synchronized List<String> nextBatch() {
+        final List<String> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize && blobs.hasNext()) {
+            batch.add(blobs.next());
+        }
+        return batch;
+    }
+
+    private void deleteNextBatch(Executor executor, ActionListener<Void> workerListener) {
+        executor.execute(new AbstractRunnable() {
+            @Override
+            protected void doRun() throws Exception {
+                final List<String> batch = nextBatch();
+                if (batch.isEmpty()) {
+                    workerListener.onResponse(null);
+                    return;
+                }
+                try {
+                    container.deleteBlobsIgnoringIfNotExists(batch.iterator());
+                    final long deleted = deletedBlobs.addAndGet(batch.size());
+                    logger.trace(
+                        "deleted batch of [{}] blobs from [{}], [{}] blobs deleted so far",
+                        batch.size(),
+                        container.path(),
+                        deleted
+                    );
+                } catch (Exception e) {
+                    logger.debug(
+                        () -> new ParameterizedMessage("failed to delete batch of [{}] blobs from [{}]", batch.size(), container.path()),
+                        e
+                    );
+                    failedBlobs.addAndGet(batch.size());
+                    onBatchFailure(e);
+                }
+                deleteNextBatch(executor, workerListener);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                // the task was rejected or reading the next batch failed, stop this worker
+                onBatchFailure(e);
+                workerListener.onResponse(null);
+            }
+        });
+    }
+
+    private void onBatchFailure(Exception e) {
+        if (failure.compareAndSet(null, e) == false) {
+            failure.get().addSuppressed(e);
+        }
+    }
+}
@@ -186,6 +186,12 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
 
     public static final String UPLOADED_DATA_BLOB_PREFIX = "__";
 
+    /**
+     * Prefix of the names of the root level blobs holding the segments of segmented repository data, see
+     * {@link #SEGMENTED_REPOSITORY_DATA_SETTING}. The prefix is followed by the repository generation the segment was written for.
+     */
+    public static final String REPOSITORY_DATA_SEGMENT_PREFIX = "repository-data-";
+
     // Expose a copy of URLRepository#TYPE here too, for a better error message until https://github.com/elastic/elasticsearch/issues/68918
     // is resolved.
     public static final String URL_REPOSITORY_TYPE = "url";
@@ -252,12 +258,76 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
      */
     public static final Setting<Boolean> USE_FOR_PEER_RECOVERY_SETTING = Setting.boolSetting("use_for_peer_recovery", false);
 
+    /**
+     * Setting that defines if new files of shard snapshots are split into content defined chunks that are only uploaded if no other
+     * snapshot of the shard references a chunk with the same contents already, instead of being uploaded as a whole.
+     */
+    public static final Setting<Boolean> CONTENT_DEFINED_CHUNKING_SETTING = Setting.boolSetting(
+        "content_defined_chunking",
+        false,
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * Setting that defines the targeted average size of content defined chunks.
+     */
+    public static final Setting<ByteSizeValue> CONTENT_DEFINED_CHUNK_SIZE_SETTING = Setting.byteSizeSetting(
+        "content_defined_chunk_size",
+        new ByteSizeValue(1, ByteSizeUnit.MB),
+        new ByteSizeValue(64, ByteSizeUnit.BYTES),
+        new ByteSizeValue(64, ByteSizeUnit.MB),
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * Setting that defines how many content defined chunks of a shard snapshot may be uploaded concurrently, in addition to the chunks
+     * uploaded by the threads that read the files of the shard.
+     */
+    public static final Setting<Integer> MAX_CONCURRENT_CHUNK_UPLOADS_SETTING = Setting.intSetting(
+        "max_concurrent_chunk_uploads",
+        4,
+        1,
+        64,
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * Setting that defines if the repository data is written as a list of segments that each hold the changes of one repository
+     * generation, instead of writing the complete repository data on every change.
+     */
+    public static final Setting<Boolean> SEGMENTED_REPOSITORY_DATA_SETTING = Setting.boolSetting(
+        "segmented_repository_data",
+        false,
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * Setting that defines the number of segments at which the segmented repository data is compacted into a single segment.
+     */
+    public static final Setting<Integer> MAX_REPOSITORY_DATA_SEGMENTS_SETTING = Setting.intSetting(
+        "max_repository_data_segments",
+        32,
+        1,
+        1024,
+        Setting.Property.NodeScope
+    );
+
     protected final boolean supportURLRepo;
 
     private final boolean compress;
 
     private final boolean cacheRepositoryData;
 
+    private final boolean contentDefinedChunking;
+
+    private final int contentDefinedChunkSize;
+
+    private final int maxConcurrentChunkUploads;
+
+    private final boolean segmentedRepositoryData;
+
+    private final int maxRepositoryDataSegments;
+
     private volatile RateLimiter snapshotRateLimiter;
 
     private volatile RateLimiter restoreRateLimiter;
@@ -397,6 +467,11 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         restoreRateLimiter = getRateLimiter(metadata.settings(), MAX_RESTORE_BYTES_PER_SEC);
         readOnly = metadata.settings().getAsBoolean(READONLY_SETTING_KEY, false);
         cacheRepositoryData = CACHE_REPOSITORY_DATA.get(metadata.settings());
+        contentDefinedChunking = CONTENT_DEFINED_CHUNKING_SETTING.get(metadata.settings());
+        contentDefinedChunkSize = Math.toIntExact(CONTENT_DEFINED_CHUNK_SIZE_SETTING.get(metadata.settings()).getBytes());
+        maxConcurrentChunkUploads = MAX_CONCURRENT_CHUNK_UPLOADS_SETTING.get(metadata.settings());
+        segmentedRepositoryData = SEGMENTED_REPOSITORY_DATA_SETTING.get(metadata.settings());
+        maxRepositoryDataSegments = MAX_REPOSITORY_DATA_SEGMENTS_SETTING.get(metadata.settings());
         bufferSize = Math.toIntExact(BUFFER_SIZE_SETTING.get(metadata.settings()).getBytes());
         this.namedXContentRegistry = namedXContentRegistry;
         this.basePath = basePath;
@@ -983,18 +1058,51 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             listener.onResponse(null);
             return;
         }
-        threadPool.executor(ThreadPool.Names.SNAPSHOT).execute(ActionRunnable.wrap(listener, l -> {
-            try {
-                deleteFromContainer(blobContainer(), filesToDelete);
-                l.onResponse(null);
-            } catch (Exception e) {
-                logger.warn(() -> new ParameterizedMessage("{} Failed to delete some blobs during snapshot delete", snapshotIds), e);
-                throw e;
-            }
-        }));
+        // delete the blobs in batches of the size the blob store deletes per request and send these batches concurrently, the blob
+        // names are resolved lazily so that we don't need to hold the names of all blobs to delete in memory at once
+        final long startTimeNanos = threadPool.relativeTimeInNanos();
+        final BatchedBlobDeleter deleter = new BatchedBlobDeleter(blobContainer(), filesToDelete, deletionBatchSize());
+        deleter.run(
+            threadPool.executor(ThreadPool.Names.SNAPSHOT),
+            threadPool.info(ThreadPool.Names.SNAPSHOT).getMax(),
+            ActionListener.wrap(deletedBlobs -> {
+                final long tookMillis = TimeUnit.NANOSECONDS.toMillis(threadPool.relativeTimeInNanos() - startTimeNanos);
+                logger.debug(
+                    "[{}] deleted [{}] unreferenced shard level blobs of snapshots {} in [{}ms]",
+                    metadata.name(),
+                    deletedBlobs,
+                    snapshotIds,
+                    tookMillis
+                );
+                listener.onResponse(null);
+            }, e -> {
+                logger.warn(
+                    () -> new ParameterizedMessage(
+                        "{} Failed to delete [{}] blobs during snapshot delete, deleted [{}] blobs",
+                        snapshotIds,
+                        deleter.failedBlobs(),
+                        deleter.deletedBlobs()
+                    ),
+                    e
+                );
+                listener.onFailure(e);
+            })
+        );
+    }
+
+    /**
+     * The maximum number of blobs to pass to a single call to {@link BlobContainer#deleteBlobsIgnoringIfNotExists} when deleting the
+     * unreferenced blobs of deleted snapshots. Batches are deleted concurrently, so this should be no larger than the number of blobs
+     * the blob store deletes with a single request.
+     */
+    protected int deletionBatchSize() {
+        return 1000;
     }
 
     // updates the shard state metadata for shards of a snapshot that is to be deleted. Also computes the files to be cleaned up.
+    // The results of all shards are collected before any blob is deleted: with shard generations the new RepositoryData that references
+    // the updated shard metadata must be written before the blobs it no longer references may be deleted, so the deletes can't start
+    // while the shard folders are still being listed.
     private void writeUpdatedShardMetaDataAndComputeDeletes(
         Collection<SnapshotId> snapshotIds,
         RepositoryData oldRepositoryData,
@@ -1170,7 +1278,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }, listener::onFailure), 2);
 
         final Executor executor = threadPool.executor(ThreadPool.Names.SNAPSHOT);
-        final List<String> staleRootBlobs = staleRootBlobs(newRepoData, rootBlobs.keySet());
+        final List<String> staleRootBlobs = staleRootBlobs(newRepoData, repositoryDataSegments(newRepoData), rootBlobs.keySet());
         if (staleRootBlobs.isEmpty()) {
             groupedListener.onResponse(DeleteResult.ZERO);
         } else {
@@ -1184,7 +1292,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         if (foundIndices.keySet().equals(survivingIndexIds)) {
             groupedListener.onResponse(DeleteResult.ZERO);
         } else {
-            executor.execute(ActionRunnable.supply(groupedListener, () -> cleanupStaleIndices(foundIndices, survivingIndexIds)));
+            cleanupStaleIndices(foundIndices, survivingIndexIds, groupedListener);
         }
     }
 
@@ -1214,7 +1322,11 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 .stream()
                 .map(IndexId::getId)
                 .collect(Collectors.toSet());
-            final List<String> staleRootBlobs = staleRootBlobs(repositoryData, rootBlobs.keySet());
+            final List<String> staleRootBlobs = staleRootBlobs(
+                repositoryData,
+                repositoryDataSegments(repositoryData),
+                rootBlobs.keySet()
+            );
             if (survivingIndexIds.equals(foundIndices.keySet()) && staleRootBlobs.isEmpty()) {
                 // Nothing to clean up we return
                 listener.onResponse(new RepositoryCleanupResult(DeleteResult.ZERO));
@@ -1243,7 +1355,11 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
     }
 
     // Finds all blobs directly under the repository root path that are not referenced by the current RepositoryData
-    private static List<String> staleRootBlobs(RepositoryData repositoryData, Set<String> rootBlobNames) {
+    private static List<String> staleRootBlobs(
+        RepositoryData repositoryData,
+        @Nullable List<String> repositoryDataSegments,
+        Set<String> rootBlobNames
+    ) {
         final Set<String> allSnapshotIds = repositoryData.getSnapshotIds().stream().map(SnapshotId::getUUID).collect(Collectors.toSet());
         return rootBlobNames.stream().filter(blob -> {
             if (FsBlobContainer.isTempBlobName(blob)) {
@@ -1264,6 +1380,12 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             } else if (blob.startsWith(INDEX_FILE_PREFIX)) {
                 // TODO: Include the current generation here once we remove keeping index-(N-1) around from #writeIndexGen
                 return repositoryData.getGenId() > Long.parseLong(blob.substring(INDEX_FILE_PREFIX.length()));
+            } else if (blob.startsWith(REPOSITORY_DATA_SEGMENT_PREFIX)) {
+                // only delete segments if we know the segments of the current generation and never delete the segments of
+                // a concurrent write of a newer generation
+                return repositoryDataSegments != null
+                    && repositoryDataSegments.contains(blob) == false
+                    && repositoryData.getGenId() >= repositoryDataSegmentGeneration(blob);
             }
             return false;
         }).collect(Collectors.toList());
@@ -1313,16 +1435,60 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         return Collections.emptyList();
     }
 
-    private DeleteResult cleanupStaleIndices(Map<String, BlobContainer> foundIndices, Set<String> survivingIndexIds) {
-        DeleteResult deleteResult = DeleteResult.ZERO;
+    /**
+     * Deletes the containers of all indices in {@code foundIndices} that are not contained in {@code survivingIndexIds}. Containers are
+     * deleted concurrently but like {@link #getSnapshotInfo} only use as many threads as the snapshot pool has, so other snapshot
+     * operations are not queued behind the deletes of all stale indices.
+     */
+    private void cleanupStaleIndices(
+        Map<String, BlobContainer> foundIndices,
+        Set<String> survivingIndexIds,
+        ActionListener<DeleteResult> listener
+    ) {
+        final BlockingQueue<Map.Entry<String, BlobContainer>> staleIndices = new LinkedBlockingQueue<>();
         for (Map.Entry<String, BlobContainer> indexEntry : foundIndices.entrySet()) {
+            if (survivingIndexIds.contains(indexEntry.getKey()) == false) {
+                staleIndices.add(indexEntry);
+            }
+        }
+        if (staleIndices.isEmpty()) {
+            listener.onResponse(DeleteResult.ZERO);
+            return;
+        }
+        final int workers = Math.min(threadPool.info(ThreadPool.Names.SNAPSHOT).getMax(), staleIndices.size());
+        final GroupedActionListener<DeleteResult> workersListener = new GroupedActionListener<>(listener.map(deleteResults -> {
+            DeleteResult deleteResult = DeleteResult.ZERO;
+            for (DeleteResult result : deleteResults) {
+                deleteResult = deleteResult.add(result);
+            }
+            return deleteResult;
+        }), workers);
+        for (int i = 0; i < workers; i++) {
+            cleanupOneStaleIndex(staleIndices, DeleteResult.ZERO, workersListener);
+        }
+    }
+
+    /**
+     * Tries to poll a stale index from the given {@code queue} and delete its container, completing the listener with the sum of all
+     * deletes this worker ran once the queue is empty.
+     */
+    private void cleanupOneStaleIndex(
+        BlockingQueue<Map.Entry<String, BlobContainer>> queue,
+        DeleteResult deletedSoFar,
+        ActionListener<DeleteResult> listener
+    ) {
+        final Map.Entry<String, BlobContainer> indexEntry = queue.poll();
+        if (indexEntry == null) {
+            listener.onResponse(deletedSoFar);
+            return;
+        }
+        threadPool.executor(ThreadPool.Names.SNAPSHOT).execute(ActionRunnable.wrap(listener, l -> {
             final String indexSnId = indexEntry.getKey();
+            DeleteResult deleteResult = deletedSoFar;
             try {
-                if (survivingIndexIds.contains(indexSnId) == false) {
-                    logger.debug("[{}] Found stale index [{}]. Cleaning it up", metadata.name(), indexSnId);
-                    deleteResult = deleteResult.add(indexEntry.getValue().delete());
-                    logger.debug("[{}] Cleaned up stale index [{}]", metadata.name(), indexSnId);
-                }
+                logger.debug("[{}] Found stale index [{}]. Cleaning it up", metadata.name(), indexSnId);
+                deleteResult = deleteResult.add(indexEntry.getValue().delete());
+                logger.debug("[{}] Cleaned up stale index [{}]", metadata.name(), indexSnId);
             } catch (Exception e) {
                 logger.warn(
                     () -> new ParameterizedMessage(
@@ -1333,8 +1499,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                     e
                 );
             }
-        }
-        return deleteResult;
+            cleanupOneStaleIndex(queue, deleteResult, l);
+        }));
     }
 
     @Override
@@ -1678,6 +1844,9 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
     // Best effort cache of the latest known repository data
     private final AtomicReference<RepositoryData> latestKnownRepositoryData = new AtomicReference<>(RepositoryData.EMPTY);
 
+    // Segments of the repository data that was last read from or written to the repository, see #SEGMENTED_REPOSITORY_DATA_SETTING
+    private final AtomicReference<RepositoryDataSegments> latestRepositoryDataSegments = new AtomicReference<>();
+
     @Override
     public void getRepositoryData(ActionListener<RepositoryData> listener) {
         // RepositoryData is the responsibility of the elected master: we shouldn't be loading it on other nodes as we don't have good
@@ -2094,7 +2263,14 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 XContentParser parser = XContentType.JSON.xContent()
                     .createParser(NamedXContentRegistry.EMPTY, LoggingDeprecationHandler.INSTANCE, blob)
             ) {
-                return RepositoryData.snapshotsFromXContent(parser, indexGen, true);
+                final List<String> segments = new ArrayList<>();
+                final RepositoryData repositoryData = RepositoryData.snapshotsFromXContent(parser, indexGen, true, segment -> {
+                    segments.add(segment);
+                    return XContentType.JSON.xContent()
+                        .createParser(NamedXContentRegistry.EMPTY, LoggingDeprecationHandler.INSTANCE, blobContainer().readBlob(segment));
+                });
+                updateRepositoryDataSegments(repositoryData, segments);
+                return repositoryData;
             }
         } catch (IOException ioe) {
             if (bestEffortConsistency) {
@@ -2295,11 +2471,52 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             if (ensureSafeGenerationExists(expectedGen, listener::onFailure) == false) {
                 return;
             }
+            final List<String> segments;
+            final List<String> obsoleteSegments;
+            if (segmentedRepositoryData && SnapshotsService.useSegmentedRepositoryData(version)) {
+                final RepositoryDataSegments previousSegments = latestRepositoryDataSegments.get();
+                final RepositoryData base;
+                if (previousSegments != null
+                    && previousSegments.repositoryData.getGenId() == expectedGen
+                    && previousSegments.segments.isEmpty() == false
+                    && previousSegments.segments.size() < maxRepositoryDataSegments) {
+                    base = previousSegments.repositoryData;
+                    segments = new ArrayList<>(previousSegments.segments);
+                    obsoleteSegments = List.of();
+                } else {
+                    // compact the repository data into a single segment
+                    base = RepositoryData.EMPTY;
+                    segments = new ArrayList<>(1);
+                    obsoleteSegments = previousSegments == null || previousSegments.repositoryData.getGenId() != expectedGen
+                        ? List.of()
+                        : previousSegments.segments;
+                }
+                final String segmentBlob = REPOSITORY_DATA_SEGMENT_PREFIX + newGen + "-" + UUIDs.randomBase64UUID();
+                logger.debug(
+                    "Repository [{}] writing repository data segment [{}] on top of [{}] existing segments",
+                    metadata.name(),
+                    segmentBlob,
+                    segments.size()
+                );
+                writeAtomic(blobContainer(), segmentBlob, out -> {
+                    try (XContentBuilder xContentBuilder = XContentFactory.jsonBuilder(Streams.noCloseStream(out))) {
+                        newRepositoryData.segmentToXContent(xContentBuilder, base);
+                    }
+                }, true);
+                segments.add(segmentBlob);
+            } else {
+                segments = List.of();
+                obsoleteSegments = List.of();
+            }
             final String indexBlob = INDEX_FILE_PREFIX + Long.toString(newGen);
             logger.debug("Repository [{}] writing new index generational blob [{}]", metadata.name(), indexBlob);
             writeAtomic(blobContainer(), indexBlob, out -> {
                 try (XContentBuilder xContentBuilder = XContentFactory.jsonBuilder(Streams.noCloseStream(out))) {
-                    newRepositoryData.snapshotsToXContent(xContentBuilder, version);
+                    if (segments.isEmpty()) {
+                        newRepositoryData.snapshotsToXContent(xContentBuilder, version);
+                    } else {
+                        newRepositoryData.segmentedSnapshotsToXContent(xContentBuilder, segments);
+                    }
                 }
             }, true);
             maybeWriteIndexLatest(newGen);
@@ -2349,17 +2566,21 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                     public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
                         logger.trace("[{}] successfully set safe repository generation to [{}]", metadata.name(), newGen);
                         cacheRepositoryData(newRepositoryData, version);
+                        updateRepositoryDataSegments(newRepositoryData, segments);
                         threadPool.executor(ThreadPool.Names.SNAPSHOT).execute(ActionRunnable.supply(listener, () -> {
                             // Delete all now outdated index files up to 1000 blobs back from the new generation.
                             // If there are more than 1000 dangling index-N cleanup functionality on repo delete will take care of them.
                             // Deleting one older than the current expectedGen is done for BwC reasons as older versions used to keep
                             // two index-N blobs around.
+                            // Segments that were compacted into the new segment are deleted along with them.
                             try {
                                 deleteFromContainer(
                                     blobContainer(),
-                                    LongStream.range(Math.max(Math.max(expectedGen - 1, 0), newGen - 1000), newGen)
-                                        .mapToObj(gen -> INDEX_FILE_PREFIX + gen)
-                                        .iterator()
+                                    Stream.concat(
+                                        LongStream.range(Math.max(Math.max(expectedGen - 1, 0), newGen - 1000), newGen)
+                                            .mapToObj(gen -> INDEX_FILE_PREFIX + gen),
+                                        obsoleteSegments.stream()
+                                    ).iterator()
                                 );
                             } catch (IOException e) {
                                 logger.warn(
@@ -2385,6 +2606,60 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         return repositoryData.withGenId(newGen);
     }
 
+    /**
+     * Tracks the segments of the given repository data that was just read from or written to the repository, so that the next write can
+     * add a segment holding only its changes on top of them.
+     *
+     * @param segments the segments of the repository data or an empty list if it was not stored as segmented repository data
+     */
+    private void updateRepositoryDataSegments(RepositoryData repositoryData, List<String> segments) {
+        final RepositoryDataSegments update = new RepositoryDataSegments(repositoryData, List.copyOf(segments));
+        latestRepositoryDataSegments.updateAndGet(known -> {
+            if (known != null && known.repositoryData.getGenId() > repositoryData.getGenId()) {
+                return known;
+            }
+            return update;
+        });
+    }
+
+    /**
+     * @return the names of the segment blobs of the given repository data or {@code null} if they are not known
+     */
+    @Nullable
+    private List<String> repositoryDataSegments(RepositoryData repositoryData) {
+        final RepositoryDataSegments known = latestRepositoryDataSegments.get();
+        if (known == null || known.repositoryData.getGenId() != repositoryData.getGenId()) {
+            return null;
+        }
+        return known.segments;
+    }
+
+    private static long repositoryDataSegmentGeneration(String blobName) {
+        assert blobName.startsWith(REPOSITORY_DATA_SEGMENT_PREFIX) : blobName;
+        final int end = blobName.indexOf('-', REPOSITORY_DATA_SEGMENT_PREFIX.length());
+        try {
+            return Long.parseLong(blobName.substring(REPOSITORY_DATA_SEGMENT_PREFIX.length(), end));
+        } catch (RuntimeException e) {
+            // not a segment written by us, never treat it as stale
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * The repository data of a repository generation along with the names of the segment blobs it is stored in.
+     */
+    private static final class RepositoryDataSegments {
+
+        private final RepositoryData repositoryData;
+
+        private final List<String> segments;
+
+        RepositoryDataSegments(RepositoryData repositoryData, List<String> segments) {
+            this.repositoryData = repositoryData;
+            this.segments = segments;
+        }
+    }
+
     /**
      * Write {@code index.latest} blob to support using this repository as the basis of a url repository.
      *
@@ -2733,46 +3008,73 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 indexTotalFileSize
             );
 
+            final ContentDefinedChunkUploader chunkUploader;
+            if (contentDefinedChunking
+                && SnapshotsService.useContentDefinedChunks(context.getRepositoryMetaVersion())
+                && filesToSnapshot.isEmpty() == false) {
+                chunkUploader = new ContentDefinedChunkUploader(
+                    shardContainer,
+                    contentDefinedChunkSize,
+                    maxConcurrentChunkUploads,
+                    threadPool.executor(ThreadPool.Names.SNAPSHOT),
+                    snapshots.chunkNames(),
+                    this::maybeRateLimitSnapshots
+                );
+            } else {
+                chunkUploader = null;
+            }
+
             final ShardGeneration indexGeneration;
             final boolean writeShardGens = SnapshotsService.useShardGenerations(context.getRepositoryMetaVersion());
             final boolean writeFileInfoWriterUUID = SnapshotsService.includeFileInfoWriterUUID(context.getRepositoryMetaVersion());
             // build a new BlobStoreIndexShardSnapshot, that includes this one and all the saved ones
-            List<SnapshotFiles> newSnapshotsList = new ArrayList<>();
-            newSnapshotsList.add(new SnapshotFiles(snapshotId.getName(), indexCommitPointFiles, context.stateIdentifier()));
-            for (SnapshotFiles point : snapshots) {
-                newSnapshotsList.add(point);
-            }
-            final BlobStoreIndexShardSnapshots updatedBlobStoreIndexShardSnapshots = new BlobStoreIndexShardSnapshots(newSnapshotsList);
+            final Supplier<BlobStoreIndexShardSnapshots> updatedBlobStoreIndexShardSnapshots = () -> {
+                List<SnapshotFiles> newSnapshotsList = new ArrayList<>();
+                newSnapshotsList.add(new SnapshotFiles(snapshotId.getName(), indexCommitPointFiles, context.stateIdentifier()));
+                for (SnapshotFiles point : snapshots) {
+                    newSnapshotsList.add(point);
+                }
+                return new BlobStoreIndexShardSnapshots(newSnapshotsList);
+            };
             final Runnable afterWriteSnapBlob;
             if (writeShardGens) {
-                // When using shard generations we can safely write the index-${uuid} blob before writing out any of the actual data
-                // for this shard since the uuid named blob will simply not be referenced in case of error and thus we will never
-                // reference a generation that has not had all its files fully upload.
                 indexGeneration = ShardGeneration.newGeneration();
-                try {
-                    final Map<String, String> serializationParams = Collections.singletonMap(
-                        BlobStoreIndexShardSnapshot.FileInfo.SERIALIZE_WRITER_UUID,
-                        Boolean.toString(writeFileInfoWriterUUID)
-                    );
-                    INDEX_SHARD_SNAPSHOTS_FORMAT.write(
-                        updatedBlobStoreIndexShardSnapshots,
-                        shardContainer,
-                        indexGeneration.toBlobNamePart(),
-                        compress,
-                        serializationParams
-                    );
-                } catch (IOException e) {
-                    throw new IndexShardSnapshotFailedException(
-                        shardId,
-                        "Failed to write shard level snapshot metadata for ["
-                            + snapshotId
-                            + "] to ["
-                            + INDEX_SHARD_SNAPSHOTS_FORMAT.blobName(indexGeneration.toBlobNamePart())
-                            + "]",
-                        e
-                    );
+                final Runnable writeShardGeneration = () -> {
+                    try {
+                        final Map<String, String> serializationParams = Collections.singletonMap(
+                            BlobStoreIndexShardSnapshot.FileInfo.SERIALIZE_WRITER_UUID,
+                            Boolean.toString(writeFileInfoWriterUUID)
+                        );
+                        INDEX_SHARD_SNAPSHOTS_FORMAT.write(
+                            updatedBlobStoreIndexShardSnapshots.get(),
+                            shardContainer,
+                            indexGeneration.toBlobNamePart(),
+                            compress,
+                            serializationParams
+                        );
+                    } catch (IOException e) {
+                        throw new IndexShardSnapshotFailedException(
+                            shardId,
+                            "Failed to write shard level snapshot metadata for ["
+                                + snapshotId
+                                + "] to ["
+                                + INDEX_SHARD_SNAPSHOTS_FORMAT.blobName(indexGeneration.toBlobNamePart())
+                                + "]",
+                            e
+                        );
+                    }
+                };
+                if (chunkUploader == null) {
+                    // When using shard generations we can safely write the index-${uuid} blob before writing out any of the actual data
+                    // for this shard since the uuid named blob will simply not be referenced in case of error and thus we will never
+                    // reference a generation that has not had all its files fully upload.
+                    writeShardGeneration.run();
+                    afterWriteSnapBlob = () -> {};
+                } else {
+                    // The chunks of the new files are only known once the files were read, so the index-${uuid} blob is written last. It
+                    // is not referenced before the snapshot is finalized either way.
+                    afterWriteSnapBlob = writeShardGeneration;
                 }
-                afterWriteSnapBlob = () -> {};
             } else {
                 // When not using shard generations we can only write the index-${N} blob after all other work for this shard has
                 // completed.
@@ -2797,7 +3099,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                             BlobStoreIndexShardSnapshot.FileInfo.SERIALIZE_WRITER_UUID,
                             Boolean.toString(writeFileInfoWriterUUID)
                         );
-                        writeShardIndexBlobAtomic(shardContainer, newGen, updatedBlobStoreIndexShardSnapshots, serializationParams);
+                        writeShardIndexBlobAtomic(shardContainer, newGen, updatedBlobStoreIndexShardSnapshots.get(), serializationParams);
                     } catch (IOException e) {
                         throw new IndexShardSnapshotFailedException(
                             shardId,
@@ -2826,6 +3128,9 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
 
             final StepListener<Collection<Void>> allFilesUploadedListener = new StepListener<>();
             allFilesUploadedListener.whenComplete(v -> {
+                if (chunkUploader != null) {
+                    indexCommitPointFiles.replaceAll(chunkUploader::chunkedFileInfo);
+                }
                 final IndexShardSnapshotStatus.Copy lastSnapshotStatus = snapshotStatus.moveToFinalize(snapshotIndexCommit.getGeneration());
 
                 // now create and write the commit point
@@ -2868,12 +3173,31 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 allFilesUploadedListener.onResponse(Collections.emptyList());
                 return;
             }
+            final ActionListener<Collection<Void>> allFilesReadListener;
+            if (chunkUploader == null) {
+                allFilesReadListener = allFilesUploadedListener;
+            } else {
+                // chunks may still be uploading once all files were read
+                allFilesReadListener = ActionListener.wrap(
+                    r -> chunkUploader.finish(allFilesUploadedListener.map(ignored -> r)),
+                    allFilesUploadedListener::onFailure
+                );
+            }
             final Executor executor = threadPool.executor(ThreadPool.Names.SNAPSHOT);
             // Start as many workers as fit into the snapshot pool at once at the most
             final int workers = Math.min(threadPool.info(ThreadPool.Names.SNAPSHOT).getMax(), indexIncrementalFileCount);
-            final ActionListener<Void> filesListener = fileQueueListener(filesToSnapshot, workers, allFilesUploadedListener);
+            final ActionListener<Void> filesListener = fileQueueListener(filesToSnapshot, workers, allFilesReadListener);
             for (int i = 0; i < workers; ++i) {
-                executeOneFileSnapshot(store, snapshotId, context.indexId(), snapshotStatus, filesToSnapshot, executor, filesListener);
+                executeOneFileSnapshot(
+                    store,
+                    snapshotId,
+                    context.indexId(),
+                    snapshotStatus,
+                    filesToSnapshot,
+                    chunkUploader,
+                    executor,
+                    filesListener
+                );
             }
         } catch (Exception e) {
             context.onFailure(e);
@@ -2886,6 +3210,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         IndexId indexId,
         IndexShardSnapshotStatus snapshotStatus,
         BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> filesToSnapshot,
+        @Nullable ContentDefinedChunkUploader chunkUploader,
         Executor executor,
         ActionListener<Void> listener
     ) throws InterruptedException {
@@ -2896,8 +3221,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         } else {
             executor.execute(ActionRunnable.wrap(listener, l -> {
                 try (Releasable ignored = incrementStoreRef(store, snapshotStatus, shardId)) {
-                    snapshotFile(snapshotFileInfo, indexId, shardId, snapshotId, snapshotStatus, store);
-                    executeOneFileSnapshot(store, snapshotId, indexId, snapshotStatus, filesToSnapshot, executor, l);
+                    snapshotFile(snapshotFileInfo, indexId, shardId, snapshotId, snapshotStatus, store, chunkUploader);
+                    executeOneFileSnapshot(store, snapshotId, indexId, snapshotStatus, filesToSnapshot, chunkUploader, executor, l);
                 }
             }));
         }
@@ -3314,7 +3639,9 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                         && survivingSnapshotUUIDs.contains(
                             blob.substring(SNAPSHOT_PREFIX.length(), blob.length() - ".dat".length())
                         ) == false)
-                    || (blob.startsWith(UPLOADED_DATA_BLOB_PREFIX) && updatedSnapshots.findNameFile(canonicalName(blob)) == null)
+                    || (blob.startsWith(UPLOADED_DATA_BLOB_PREFIX)
+                        && updatedSnapshots.findNameFile(canonicalName(blob)) == null
+                        && updatedSnapshots.chunkNames().contains(blob) == false)
                     || FsBlobContainer.isTempBlobName(blob)
             )
             .collect(Collectors.toList());
@@ -3411,6 +3738,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
     /**
      * Snapshot individual file
      * @param fileInfo file to be snapshotted
+     * @param chunkUploader uploader to upload the file as content defined chunks with or {@code null} to upload it in parts
      */
     private void snapshotFile(
         BlobStoreIndexShardSnapshot.FileInfo fileInfo,
@@ -3418,40 +3746,40 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         ShardId shardId,
         SnapshotId snapshotId,
         IndexShardSnapshotStatus snapshotStatus,
-        Store store
+        Store store,
+        @Nullable ContentDefinedChunkUploader chunkUploader
     ) throws IOException {
         final BlobContainer shardContainer = shardContainer(indexId, shardId);
         final String file = fileInfo.physicalName();
         try (IndexInput indexInput = store.openVerifyingInput(file, IOContext.READONCE, fileInfo.metadata())) {
-            for (int i = 0; i < fileInfo.numberOfParts(); i++) {
-                final long partBytes = fileInfo.partBytes(i);
-
-                // Make reads abortable by mutating the snapshotStatus object
-                final InputStream inputStream = new FilterInputStream(
-                    maybeRateLimitSnapshots(new InputStreamIndexInput(indexInput, partBytes))
-                ) {
-                    @Override
-                    public int read() throws IOException {
-                        checkAborted();
-                        return super.read();
-                    }
-
-                    @Override
-                    public int read(byte[] b, int off, int len) throws IOException {
-                        checkAborted();
-                        return super.read(b, off, len);
-                    }
+            if (chunkUploader != null && fileInfo.length() > 0) {
+                // the uploader rate limits the chunks it uploads, chunks that are already stored in the repository are not throttled
+                final InputStream inputStream = abortableInputStream(
+                    new InputStreamIndexInput(indexInput, fileInfo.length()),
+                    fileInfo,
+                    shardId,
+                    snapshotId,
+                    snapshotStatus
+                );
+                chunkUploader.upload(fileInfo, inputStream);
+            } else {
+                for (int i = 0; i < fileInfo.numberOfParts(); i++) {
+                    final long partBytes = fileInfo.partBytes(i);
 
-                    private void checkAborted() {
-                        if (snapshotStatus.isAborted()) {
-                            logger.debug("[{}] [{}] Aborted on the file [{}], exiting", shardId, snapshotId, fileInfo.physicalName());
-                            throw new AbortedSnapshotException();
-                        }
-                    }
-                };
-                final String partName = fileInfo.partName(i);
-                logger.trace(() -> new ParameterizedMessage("[{}] Writing [{}] to [{}]", metadata.name(), partName, shardContainer.path()));
-                shardContainer.writeBlob(partName, inputStream, partBytes, false);
+                    // Make reads abortable by mutating the snapshotStatus object
+                    final InputStream inputStream = abortableInputStream(
+                        maybeRateLimitSnapshots(new InputStreamIndexInput(indexInput, partBytes)),
+                        fileInfo,
+                        shardId,
+                        snapshotId,
+                        snapshotStatus
+                    );
+                    final String partName = fileInfo.partName(i);
+                    logger.trace(
+                        () -> new ParameterizedMessage("[{}] Writing [{}] to [{}]", metadata.name(), partName, shardContainer.path())
+                    );
+                    shardContainer.writeBlob(partName, inputStream, partBytes, false);
+                }
             }
             Store.verify(indexInput);
             snapshotStatus.addProcessedFile(fileInfo.length());
@@ -3462,6 +3790,35 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }
     }
 
+    private InputStream abortableInputStream(
+        InputStream stream,
+        BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+        ShardId shardId,
+        SnapshotId snapshotId,
+        IndexShardSnapshotStatus snapshotStatus
+    ) {
+        return new FilterInputStream(stream) {
+            @Override
+            public int read() throws IOException {
+                checkAborted();
+                return super.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                checkAborted();
+                return super.read(b, off, len);
+            }
+
+            private void checkAborted() {
+                if (snapshotStatus.isAborted()) {
+                    logger.debug("[{}] [{}] Aborted on the file [{}], exiting", shardId, snapshotId, fileInfo.physicalName());
+                    throw new AbortedSnapshotException();
+                }
+            }
+        };
+    }
+
     private static void failStoreIfCorrupted(Store store, Exception e) {
         if (Lucene.isCorruptionException(e)) {
             try {
@@ -0,0 +1,212 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.util.SetOnce;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.blobstore.BlobContainer;
+import org.elasticsearch.common.hash.MessageDigests;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.AbstractRefCounted;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Uploads the files of a single shard snapshot as content defined chunks (see {@link ContentDefinedChunker}). Each chunk is stored in a
+ * blob named after the SHA-256 hash of its contents in the shard container, so a chunk that is already referenced by another snapshot of
+ * the shard, or by another file of the same snapshot, is not uploaded again.
+ * <p>
+ * Files are read on the calling thread while up to {@code maxConcurrentUploads} chunks are uploaded concurrently on the given executor.
+ * Chunks that are found while all upload slots are taken are uploaded on the calling thread, which bounds the memory used for chunks in
+ * flight and never blocks a thread on uploads that may be queued behind it.
+ */
+final class ContentDefinedChunkUploader {
+
+    private static final Logger logger = LogManager.getLogger(ContentDefinedChunkUploader.class);
+
+    /**
+     * Prefix of the names of the blobs holding content defined chunks. Like all other data blobs they are deleted once they are no longer
+     * referenced by any snapshot of the shard.
+     */
+    static final String CHUNK_BLOB_PREFIX = BlobStoreRepository.UPLOADED_DATA_BLOB_PREFIX + "chunk-";
+
+    private final BlobContainer shardContainer;
+    private final ContentDefinedChunker chunker;
+    private final Executor executor;
+    private final Semaphore uploadPermits;
+    private final UnaryOperator<InputStream> rateLimiter;
+    private final Set<String> knownChunks = ConcurrentCollections.newConcurrentSet();
+    private final Map<String, FileInfo> chunkedFiles = ConcurrentCollections.newConcurrentMap();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+    private final AtomicLong deduplicatedBytes = new AtomicLong();
+    private final SetOnce<ActionListener<Void>> listener = new SetOnce<>();
+    private final AbstractRefCounted pendingUploads = AbstractRefCounted.of(this::onUploadsCompleted);
+
+    /**
+     * @param shardContainer         the container of the shard to upload the chunks to
+     * @param averageChunkSize       the targeted average size of the chunks in bytes
+     * @param maxConcurrentUploads   the maximum number of chunks to upload on the executor concurrently
+     * @param executor               the executor to upload chunks on
+     * @param existingChunks         the names of the chunk blobs that are referenced by existing snapshots of the shard
+     * @param rateLimiter            wraps the stream of each uploaded chunk to apply the repository's rate limit
+     */
+    ContentDefinedChunkUploader(
+        BlobContainer shardContainer,
+        int averageChunkSize,
+        int maxConcurrentUploads,
+        Executor executor,
+        Set<String> existingChunks,
+        UnaryOperator<InputStream> rateLimiter
+    ) {
+        this.shardContainer = shardContainer;
+        this.chunker = new ContentDefinedChunker(averageChunkSize);
+        this.executor = executor;
+        this.uploadPermits = new Semaphore(maxConcurrentUploads);
+        this.rateLimiter = rateLimiter;
+        this.knownChunks.addAll(existingChunks);
+    }
+
+    /**
+     * Splits the given file into chunks and uploads the chunks that are not yet stored in the repository. Uploads may still be in flight
+     * when this method returns, use {@link #finish(ActionListener)} to wait for them.
+     *
+     * @param fileInfo the file to upload, its parts are ignored
+     * @param input    the contents of the file
+     * @return the file info referencing the chunks of the file
+     */
+    FileInfo upload(FileInfo fileInfo, InputStream input) throws IOException {
+        final byte[] buffer = new byte[chunker.maxChunkSize()];
+        final List<FileInfo.Chunk> chunks = new ArrayList<>();
+        long remaining = fileInfo.length();
+        int buffered = 0;
+        while (remaining > 0 || buffered > 0) {
+            if (remaining > 0 && buffered < buffer.length) {
+                final int toRead = Math.toIntExact(Math.min(buffer.length - buffered, remaining));
+                final int read = Streams.readFully(input, buffer, buffered, toRead);
+                if (read < toRead) {
+                    throw new EOFException("unexpected end of file [" + fileInfo.physicalName() + "] with [" + remaining + "] bytes left");
+                }
+                buffered += read;
+                remaining -= read;
+            }
+            final int length = chunker.nextChunkLength(buffer, 0, buffered);
+            final MessageDigest digest = MessageDigests.sha256();
+            digest.update(buffer, 0, length);
+            final String chunkName = CHUNK_BLOB_PREFIX + MessageDigests.toHexString(digest.digest());
+            chunks.add(new FileInfo.Chunk(chunkName, length));
+            if (knownChunks.add(chunkName)) {
+                uploadChunk(chunkName, buffer, length);
+            } else {
+                deduplicatedBytes.addAndGet(length);
+            }
+            System.arraycopy(buffer, length, buffer, 0, buffered - length);
+            buffered -= length;
+        }
+        final FileInfo chunkedFileInfo = new FileInfo(fileInfo.name(), fileInfo.metadata(), chunks);
+        chunkedFiles.put(fileInfo.name(), chunkedFileInfo);
+        return chunkedFileInfo;
+    }
+
+    /**
+     * @return the file info returned by {@link #upload} for the given file or the given file info if it was not uploaded as chunks
+     */
+    FileInfo chunkedFileInfo(FileInfo fileInfo) {
+        return chunkedFiles.getOrDefault(fileInfo.name(), fileInfo);
+    }
+
+    /**
+     * Notifies the given listener once all chunk uploads completed. Must be called once, after the last call to {@link #upload}.
+     */
+    void finish(ActionListener<Void> listener) {
+        this.listener.set(listener);
+        pendingUploads.decRef();
+    }
+
+    private void uploadChunk(String chunkName, byte[] buffer, int length) throws IOException {
+        if (uploadPermits.tryAcquire() == false) {
+            writeChunk(chunkName, buffer, length);
+            return;
+        }
+        // only chunks that are uploaded on the executor are copied since the buffer is reused for the next chunks of the file
+        final byte[] chunk = Arrays.copyOf(buffer, length);
+        pendingUploads.incRef();
+        executor.execute(new AbstractRunnable() {
+            @Override
+            protected void doRun() throws Exception {
+                writeChunk(chunkName, chunk, length);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                logger.debug(() -> new ParameterizedMessage("failed to upload chunk [{}] to [{}]", chunkName, shardContainer.path()), e);
+                if (failure.compareAndSet(null, e) == false) {
+                    failure.get().addSuppressed(e);
+                }
+            }
+
+            @Override
+            public void onAfter() {
+                uploadPermits.release();
+                pendingUploads.decRef();
+            }
+        });
+    }
+
+    private void writeChunk(String chunkName, byte[] chunk, int length) throws IOException {
+        logger.trace(() -> new ParameterizedMessage("writing chunk [{}] to [{}]", chunkName, shardContainer.path()));
+        shardContainer.writeBlob(chunkName, rateLimiter.apply(new ByteArrayInputStream(chunk, 0, length)), length, false);
+        uploadedBytes.addAndGet(length);
+    }
+
+    private void onUploadsCompleted() {
+        final ActionListener<Void> listener = this.listener.get();
+        assert listener != null : "uploads must not complete before finish was called";
+        final Exception e = failure.get();
+        if (e == null) {
+            logger.debug(
+                "uploaded [{}] bytes of chunks to [{}] and skipped [{}] bytes of chunks that were already stored",
+                uploadedBytes.get(),
+                shardContainer.path(),
+                deduplicatedBytes.get()
+            );
+            listener.onResponse(null);
+        } else {
+            listener.onFailure(e);
+        }
+    }
+
+    long uploadedBytes() {
+        return uploadedBytes.get();
+    }
+
+    long deduplicatedBytes() {
+        return deduplicatedBytes.get();
+    }
+}
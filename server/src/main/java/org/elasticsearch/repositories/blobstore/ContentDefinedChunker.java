@@ -0,0 +1,95 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import java.util.Random;
+
+/**
+ * Splits data into chunks whose boundaries depend on the content of the data rather than on its offsets, using a gear-based rolling
+ * hash. Inserting or removing bytes only moves the boundaries of the chunks around the modified region, so data that was already
+ * chunked before is split into mostly the same chunks again even if it is stored at different offsets, e.g. after a merge copied it
+ * into a new segment file.
+ * <p>
+ * A boundary is placed after a byte once the hash of the (at most 64) preceding bytes has its top {@code log2(averageChunkSize)} bits
+ * unset. Boundaries are never placed within the first {@link #minChunkSize()} bytes of a chunk and a chunk ends after
+ * {@link #maxChunkSize()} bytes at the latest.
+ */
+final class ContentDefinedChunker {
+
+    /**
+     * Random values for each byte value. The seed must never change since chunk boundaries, and therefore deduplication across
+     * snapshots, depend on it.
+     */
+    private static final long[] GEAR = new long[256];
+
+    static {
+        final Random random = new Random(0x5CDC5EEDL);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final long mask;
+
+    /**
+     * @param averageChunkSize the targeted average chunk size in bytes, rounded down to a power of two
+     */
+    ContentDefinedChunker(int averageChunkSize) {
+        if (averageChunkSize < 64) {
+            throw new IllegalArgumentException("average chunk size must be at least [64] bytes but was [" + averageChunkSize + "]");
+        }
+        final int roundedChunkSize = Integer.highestOneBit(averageChunkSize);
+        if (roundedChunkSize > (1 << 28)) {
+            throw new IllegalArgumentException("average chunk size must be at most [" + (1 << 28) + "] but was [" + averageChunkSize + "]");
+        }
+        this.minChunkSize = roundedChunkSize / 4;
+        this.maxChunkSize = roundedChunkSize * 4;
+        this.mask = -1L << (Long.SIZE - Integer.numberOfTrailingZeros(roundedChunkSize));
+    }
+
+    /**
+     * @return the smallest size of any chunk but the last one of the data
+     */
+    int minChunkSize() {
+        return minChunkSize;
+    }
+
+    /**
+     * @return the largest size of any chunk
+     */
+    int maxChunkSize() {
+        return maxChunkSize;
+    }
+
+    /**
+     * Finds the end of the next chunk of the data. The returned length only depends on the content of the data as long as either
+     * {@code length >= maxChunkSize()} or the given bytes are the remainder of the data.
+     *
+     * @param buffer the buffer holding the data
+     * @param offset the offset of the start of the next chunk in the buffer
+     * @param length the number of bytes available in the buffer
+     * @return the length of the next chunk
+     */
+    int nextChunkLength(byte[] buffer, int offset, int length) {
+        if (length <= minChunkSize) {
+            return length;
+        }
+        final int end = offset + Math.min(length, maxChunkSize);
+        long hash = 0L;
+        for (int i = offset + minChunkSize; i < end; i++) {
+            hash = (hash << 1) + GEAR[buffer[i] & 0xFF];
+            if ((hash & mask) == 0L) {
+                return i - offset + 1;
+            }
+        }
+        return end - offset;
+    }
+}
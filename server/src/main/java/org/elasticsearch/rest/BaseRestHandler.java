@@ -11,11 +11,13 @@ package org.elasticsearch.rest;
 import org.apache.lucene.search.spell.LevenshteinDistance;
 import org.apache.lucene.util.CollectionUtil;
 import org.elasticsearch.client.node.NodeClient;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.core.CheckedConsumer;
 import org.elasticsearch.core.RestApiVersion;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.http.HttpContentStream;
 import org.elasticsearch.plugins.ActionPlugin;
 import org.elasticsearch.rest.action.admin.cluster.RestNodesUsageAction;
 
@@ -96,8 +98,27 @@ public abstract class BaseRestHandler implements RestHandler {
         }
 
         usageCount.increment();
-        // execute the action
-        action.accept(channel);
+        if (action instanceof RequestBodyChunkConsumer) {
+            final RequestBodyChunkConsumer chunkConsumer = (RequestBodyChunkConsumer) action;
+            final HttpContentStream stream = request.contentStream();
+            stream.setHandler(new HttpContentStream.ChunkHandler() {
+                @Override
+                public void onNext(ReleasableBytesReference chunk, boolean isLast) {
+                    chunkConsumer.handleChunk(channel, chunk, isLast);
+                }
+
+                @Override
+                public void close() {
+                    chunkConsumer.streamClose();
+                }
+            });
+            chunkConsumer.accept(channel);
+            // the consumer requests the following chunks itself
+            stream.next();
+        } else {
+            // execute the action
+            action.accept(channel);
+        }
     }
 
     protected final String unrecognized(
@@ -155,6 +176,28 @@ public abstract class BaseRestHandler implements RestHandler {
     protected interface RestChannelConsumer extends CheckedConsumer<RestChannel, Exception> {
     }
 
+    /**
+     * A {@link RestChannelConsumer} for requests whose body is streamed, see {@link RestRequest#isStreamedContent()}. The first chunk
+     * of the body is requested once the consumer accepted the channel, and the consumer requests each following chunk with
+     * {@link HttpContentStream#next()} once it is ready to handle it.
+     */
+    protected interface RequestBodyChunkConsumer extends RestChannelConsumer {
+
+        /**
+         * Handles the next chunk of the body of the request, on the network thread of the connection of the request.
+         *
+         * @param channel the channel to send the response to
+         * @param chunk   the chunk, which the consumer must release once it does not need it anymore
+         * @param isLast  whether this is the last chunk of the body
+         */
+        void handleChunk(RestChannel channel, ReleasableBytesReference chunk, boolean isLast);
+
+        /**
+         * Called if the stream of the body is closed before its last chunk was received, for instance because the client disconnected.
+         */
+        default void streamClose() {}
+    }
+
     /**
      * Prepare the request for execution. Implementations should consume all request params before
      * returning the runnable for actual execution. Unconsumed params will immediately terminate
@@ -237,6 +280,11 @@ public abstract class BaseRestHandler implements RestHandler {
             return delegate.supportsContentStream();
         }
 
+        @Override
+        public boolean supportsIncrementalContent() {
+            return delegate.supportsIncrementalContent();
+        }
+
         @Override
         public boolean allowsUnsafeBuffers() {
             return delegate.allowsUnsafeBuffers();
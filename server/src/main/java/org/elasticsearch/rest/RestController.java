@@ -252,8 +252,13 @@ public class RestController implements HttpServerTransport.Dispatcher {
     private void dispatchRequest(RestRequest request, RestChannel channel, RestHandler handler,
                                  ThreadContext threadContext)
         throws Exception {
+        if (request.isStreamedContent() && handler.supportsIncrementalContent() == false) {
+            channel.sendResponse(BytesRestResponse.createSimpleErrorResponse(channel, BAD_REQUEST,
+                "request [" + request.method() + " " + request.path() + "] does not support a streamed body"));
+            return;
+        }
         final int contentLength = request.contentLength();
-        if (contentLength > 0) {
+        if (contentLength > 0 || request.isStreamedContent()) {
             final XContentType xContentType = request.getXContentType();
             if (xContentType == null) {
                 sendContentTypeErrorMessage(request.getAllHeaderValues("Content-Type"), channel);
@@ -269,6 +274,7 @@ public class RestController implements HttpServerTransport.Dispatcher {
         }
         RestChannel responseChannel = channel;
         try {
+            // the chunks of a streamed body are not accounted for, the handler bounds the number of chunks it holds instead
             if (handler.canTripCircuitBreaker()) {
                 inFlightRequestsBreaker(circuitBreakerService).addEstimateBytesAndMaybeBreak(contentLength, "<http_request>");
             } else {
@@ -302,6 +308,24 @@ public class RestController implements HttpServerTransport.Dispatcher {
         }
     }
 
+    @Override
+    public boolean supportsIncrementalContent(RestRequest.Method method, String uri) {
+        final int pathEndPos = uri.indexOf('?');
+        final String rawPath = pathEndPos < 0 ? uri : uri.substring(0, pathEndPos);
+        // resolve the handler like tryAllHandlers does, which dispatches to the first handler found
+        Iterator<MethodHandlers> allHandlers = getAllHandlers(null, rawPath);
+        while (allHandlers.hasNext()) {
+            final MethodHandlers handlers = allHandlers.next();
+            if (handlers != null) {
+                final RestHandler handler = handlers.getHandler(method, RestApiVersion.current());
+                if (handler != null) {
+                    return handler.supportsIncrementalContent();
+                }
+            }
+        }
+        return false;
+    }
+
     private boolean handleNoHandlerFound(String rawPath, RestRequest.Method method, String uri, RestChannel channel) {
         // Get the map of matching handlers for a request, for the full set of HTTP methods.
         final Set<RestRequest.Method> validMethodSet = getValidHandlerMethodSet(rawPath);
@@ -47,6 +47,15 @@ public interface RestHandler {
         return false;
     }
 
+    /**
+     * Indicates if the RestHandler consumes the body of a request as it arrives rather than once it was received completely. If the
+     * handler returns true and streaming of request bodies is enabled with {@code http.stream_content.enabled}, the body of requests
+     * with a known content length is not aggregated but passed to the handler with {@link RestRequest#contentStream()}.
+     */
+    default boolean supportsIncrementalContent() {
+        return false;
+    }
+
     /**
      * Indicates if the RestHandler supports working with pooled buffers. If the request handler will not escape the return
      * {@link RestRequest#content()} or any buffers extracted from it then there is no need to make a copies of any pooled buffers in the
@@ -28,6 +28,7 @@ import org.elasticsearch.xcontent.XContent;
 import org.elasticsearch.xcontent.XContentParser;
 import org.elasticsearch.xcontent.XContentType;
 import org.elasticsearch.http.HttpChannel;
+import org.elasticsearch.http.HttpContentStream;
 import org.elasticsearch.http.HttpRequest;
 
 import java.io.IOException;
@@ -225,7 +226,23 @@ public class RestRequest implements ToXContent.Params {
     }
 
     public boolean hasContent() {
-        return contentLength() > 0;
+        return isStreamedContent() || contentLength() > 0;
+    }
+
+    /**
+     * @return whether the body of this request is passed on in chunks as it arrives, see {@link #contentStream()}
+     */
+    public boolean isStreamedContent() {
+        return httpRequest.contentStream() != null;
+    }
+
+    /**
+     * @return the stream of the chunks of the body of this request if the body is streamed, in which case {@link #content()} is empty
+     */
+    public HttpContentStream contentStream() {
+        assert isStreamedContent() : "the content of the request is not streamed";
+        this.contentConsumed = true;
+        return httpRequest.contentStream();
     }
 
     public int contentLength() {
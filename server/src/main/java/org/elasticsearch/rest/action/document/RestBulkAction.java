@@ -8,21 +8,39 @@
 
 package org.elasticsearch.rest.action.document;
 
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkRequestParser;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.bulk.BulkShardRequest;
 import org.elasticsearch.action.support.ActiveShardCount;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.client.node.NodeClient;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.RestApiVersion;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.http.HttpContentStream;
 import org.elasticsearch.rest.BaseRestHandler;
+import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.action.RestStatusToXContentListener;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.elasticsearch.rest.RestRequest.Method.POST;
 import static org.elasticsearch.rest.RestRequest.Method.PUT;
@@ -40,6 +58,11 @@ public class RestBulkAction extends BaseRestHandler {
     public static final String TYPES_DEPRECATION_MESSAGE = "[types removal]" +
         " Specifying types in bulk requests is deprecated.";
 
+    /**
+     * The size of the batches in which the items of a streamed bulk request are executed
+     */
+    static final ByteSizeValue STREAMED_BATCH_SIZE = new ByteSizeValue(5, ByteSizeUnit.MB);
+
     private final boolean allowExplicitIndex;
 
     public RestBulkAction(Settings settings) {
@@ -71,18 +94,30 @@ public class RestBulkAction extends BaseRestHandler {
         if (request.getRestApiVersion() == RestApiVersion.V_7 && request.hasParam("type") ) {
             request.param("type");
         }
-        BulkRequest bulkRequest = Requests.bulkRequest();
         String defaultIndex = request.param("index");
         String defaultRouting = request.param("routing");
         FetchSourceContext defaultFetchSourceContext = FetchSourceContext.parseFromRestRequest(request);
         String defaultPipeline = request.param("pipeline");
         String waitForActiveShards = request.param("wait_for_active_shards");
-        if (waitForActiveShards != null) {
-            bulkRequest.waitForActiveShards(ActiveShardCount.parseString(waitForActiveShards));
-        }
         Boolean defaultRequireAlias = request.paramAsBoolean(DocWriteRequest.REQUIRE_ALIAS, null);
-        bulkRequest.timeout(request.paramAsTime("timeout", BulkShardRequest.DEFAULT_TIMEOUT));
-        bulkRequest.setRefreshPolicy(request.param("refresh"));
+        TimeValue timeout = request.paramAsTime("timeout", BulkShardRequest.DEFAULT_TIMEOUT);
+        String refresh = request.param("refresh");
+        Supplier<BulkRequest> bulkRequestSupplier = () -> {
+            BulkRequest bulkRequest = Requests.bulkRequest();
+            if (waitForActiveShards != null) {
+                bulkRequest.waitForActiveShards(ActiveShardCount.parseString(waitForActiveShards));
+            }
+            bulkRequest.timeout(timeout);
+            bulkRequest.setRefreshPolicy(refresh);
+            return bulkRequest;
+        };
+        if (request.isStreamedContent()) {
+            return new StreamingBulkHandler(client, request.contentStream(), bulkRequestSupplier,
+                itemConsumer -> new BulkRequestParser(true, request.getRestApiVersion()).incrementalParser(defaultIndex, defaultRouting,
+                    defaultFetchSourceContext, defaultPipeline, defaultRequireAlias, allowExplicitIndex, request.getXContentType(),
+                    (indexRequest, type) -> itemConsumer.accept(indexRequest), itemConsumer::accept, itemConsumer::accept));
+        }
+        BulkRequest bulkRequest = bulkRequestSupplier.get();
         bulkRequest.add(request.requiredContent(), defaultIndex, defaultRouting,
             defaultFetchSourceContext, defaultPipeline, defaultRequireAlias, allowExplicitIndex, request.getXContentType(),
             request.getRestApiVersion());
@@ -99,4 +134,211 @@ public class RestBulkAction extends BaseRestHandler {
     public boolean allowsUnsafeBuffers() {
         return true;
     }
+
+    @Override
+    public boolean supportsIncrementalContent() {
+        return true;
+    }
+
+    /**
+     * Executes a bulk request whose body is streamed, see {@link RestRequest#isStreamedContent()}. The body is parsed as it arrives and
+     * the parsed items are executed in batches of about {@link #STREAMED_BATCH_SIZE} while the rest of the body is still being received.
+     * Batches are executed one after the other so that the items are executed in the order of the request, and the next chunk of the
+     * body is only requested while the batch that waits for the batch in flight is smaller than the batch size, which bounds the memory
+     * a request holds. The items of a batch reference the chunks they were parsed from, which are released once the batch completed.
+     * <p>
+     * Unlike a bulk request whose body was received completely, a streamed request whose body turns out to be malformed is rejected
+     * after the items of the batches before the malformed line may already have been executed.
+     */
+    static final class StreamingBulkHandler implements RequestBodyChunkConsumer {
+
+        private final NodeClient client;
+        private final HttpContentStream stream;
+        private final Supplier<BulkRequest> bulkRequestSupplier;
+        private final BulkRequestParser.IncrementalParser parser;
+        private final long startTimeNanos = System.nanoTime();
+
+        private RestChannel channel;
+        // the chunks that were not parsed completely, the first of which was parsed up to unparsedOffset
+        private final List<ReleasableBytesReference> unparsed = new ArrayList<>();
+        private int unparsedOffset;
+        private BulkRequest pending;
+        private List<Releasable> pendingChunks = new ArrayList<>();
+        private final List<BulkItemResponse> responses = new ArrayList<>();
+        private long ingestTookInMillis = BulkResponse.NO_INGEST_TOOK;
+        // the first chunk is requested once the channel was accepted
+        private boolean chunkRequested = true;
+        private boolean lastChunkReceived;
+        private boolean batchInFlight;
+        private int executedBatches;
+        private Exception failure;
+        private boolean done;
+
+        StreamingBulkHandler(NodeClient client, HttpContentStream stream, Supplier<BulkRequest> bulkRequestSupplier,
+                             Function<Consumer<DocWriteRequest<?>>, BulkRequestParser.IncrementalParser> parserFactory) {
+            this.client = client;
+            this.stream = stream;
+            this.bulkRequestSupplier = bulkRequestSupplier;
+            this.pending = bulkRequestSupplier.get();
+            this.parser = parserFactory.apply(request -> pending.add(request));
+        }
+
+        @Override
+        public synchronized void accept(RestChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void handleChunk(RestChannel channel, ReleasableBytesReference chunk, boolean isLast) {
+            synchronized (this) {
+                assert chunkRequested : "received a chunk that was not requested";
+                chunkRequested = false;
+                if (done) {
+                    chunk.close();
+                    return;
+                }
+                unparsed.add(chunk);
+                lastChunkReceived = isLast;
+                try {
+                    parse();
+                } catch (Exception e) {
+                    failure = e;
+                }
+            }
+            advance();
+        }
+
+        @Override
+        public synchronized void streamClose() {
+            if (done == false) {
+                done = true;
+                releaseChunks();
+            }
+        }
+
+        private void parse() throws IOException {
+            final BytesReference data = CompositeBytesReference.of(unparsed.toArray(new BytesReference[0]));
+            int parsed = unparsedOffset + parser.parse(data.slice(unparsedOffset, data.length() - unparsedOffset), lastChunkReceived);
+            // the items parsed from the chunks belong to the pending batch now, which releases the chunks once it completed
+            while (unparsed.isEmpty() == false && unparsed.get(0).length() <= parsed) {
+                final ReleasableBytesReference chunk = unparsed.remove(0);
+                parsed -= chunk.length();
+                pendingChunks.add(chunk);
+            }
+            if (parsed > 0) {
+                pendingChunks.add(unparsed.get(0).retain());
+            }
+            unparsedOffset = parsed;
+        }
+
+        /**
+         * Executes the pending batch, requests the next chunk or responds, depending on the state of the request.
+         */
+        private void advance() {
+            BulkRequest batch = null;
+            List<Releasable> batchChunks = null;
+            int firstItemId = 0;
+            boolean requestChunk = false;
+            Exception failureToSend = null;
+            BulkResponse responseToSend = null;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                if (batchInFlight == false) {
+                    if (failure != null) {
+                        done = true;
+                        failureToSend = failure;
+                        releaseChunks();
+                    } else if (lastChunkReceived
+                        // an empty request is executed like a request that was not streamed, which rejects it
+                        ? pending.numberOfActions() > 0 || executedBatches == 0
+                        : pending.estimatedSizeInBytes() >= STREAMED_BATCH_SIZE.getBytes()) {
+                        batch = pending;
+                        batchChunks = pendingChunks;
+                        firstItemId = responses.size();
+                        pending = bulkRequestSupplier.get();
+                        pendingChunks = new ArrayList<>();
+                        batchInFlight = true;
+                        executedBatches++;
+                    } else if (lastChunkReceived) {
+                        done = true;
+                        responseToSend = new BulkResponse(responses.toArray(new BulkItemResponse[0]),
+                            TimeValue.nsecToMSec(System.nanoTime() - startTimeNanos), ingestTookInMillis);
+                        releaseChunks();
+                    }
+                }
+                if (done == false && failure == null && lastChunkReceived == false && chunkRequested == false
+                    && pending.estimatedSizeInBytes() < STREAMED_BATCH_SIZE.getBytes()) {
+                    chunkRequested = true;
+                    requestChunk = true;
+                }
+            }
+            if (batch != null) {
+                executeBatch(batch, batchChunks, firstItemId);
+            }
+            if (requestChunk) {
+                stream.next();
+            }
+            if (failureToSend != null) {
+                new RestStatusToXContentListener<BulkResponse>(channel).onFailure(failureToSend);
+            } else if (responseToSend != null) {
+                new RestStatusToXContentListener<BulkResponse>(channel).onResponse(responseToSend);
+            }
+        }
+
+        private void executeBatch(BulkRequest batch, List<Releasable> batchChunks, int firstItemId) {
+            client.bulk(batch, new ActionListener<>() {
+                @Override
+                public void onResponse(BulkResponse response) {
+                    Releasables.close(batchChunks);
+                    onBatchResponse(response, firstItemId);
+                    advance();
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    Releasables.close(batchChunks);
+                    onBatchFailure(batch, e, firstItemId);
+                    advance();
+                }
+            });
+        }
+
+        private synchronized void onBatchResponse(BulkResponse response, int firstItemId) {
+            batchInFlight = false;
+            for (BulkItemResponse item : response.getItems()) {
+                final int itemId = firstItemId + item.getItemId();
+                responses.add(item.isFailed()
+                    ? BulkItemResponse.failure(itemId, item.getOpType(), item.getFailure())
+                    : BulkItemResponse.success(itemId, item.getOpType(), item.getResponse()));
+            }
+            if (response.getIngestTookInMillis() != BulkResponse.NO_INGEST_TOOK) {
+                ingestTookInMillis = Math.max(0L, ingestTookInMillis) + response.getIngestTookInMillis();
+            }
+        }
+
+        private synchronized void onBatchFailure(BulkRequest batch, Exception e, int firstItemId) {
+            batchInFlight = false;
+            if (firstItemId == 0 && lastChunkReceived && pending.numberOfActions() == 0) {
+                // the batch holds all items of the request, which fails like a request that was not streamed
+                failure = e;
+            } else {
+                final List<DocWriteRequest<?>> requests = batch.requests();
+                for (int i = 0; i < requests.size(); i++) {
+                    final DocWriteRequest<?> request = requests.get(i);
+                    responses.add(BulkItemResponse.failure(firstItemId + i, request.opType(),
+                        new BulkItemResponse.Failure(request.index(), request.id(), e)));
+                }
+            }
+        }
+
+        private void releaseChunks() {
+            assert Thread.holdsLock(this);
+            Releasables.close(unparsed);
+            unparsed.clear();
+            Releasables.close(pendingChunks);
+            pendingChunks.clear();
+        }
+    }
 }
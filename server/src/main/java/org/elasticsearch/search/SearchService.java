@@ -41,6 +41,7 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.CollectionUtils;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.RoundRobinBlockingQueue;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.TimeValue;
@@ -115,6 +116,7 @@ import org.elasticsearch.search.sort.SortBuilder;
 import org.elasticsearch.search.suggest.Suggest;
 import org.elasticsearch.search.suggest.completion.CompletionSuggestion;
 import org.elasticsearch.tasks.TaskCancelledException;
+import org.elasticsearch.tasks.TaskId;
 import org.elasticsearch.threadpool.Scheduler;
 import org.elasticsearch.threadpool.Scheduler.Cancellable;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -376,7 +378,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         final IndexShard shard = getShard(request);
         rewriteAndFetchShardRequest(shard, request, listener.delegateFailure((l, rewritten) -> {
             // fork the execution in the search thread pool
-            ensureAfterSeqNoRefreshed(shard, request, () -> executeDfsPhase(request, task), l);
+            ensureAfterSeqNoRefreshed(shard, request, task, () -> executeDfsPhase(request, task), l);
         }));
     }
 
@@ -427,12 +429,12 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                     return;
                 }
             }
-            ensureAfterSeqNoRefreshed(shard, orig, () -> executeQueryPhase(orig, task), l);
+            ensureAfterSeqNoRefreshed(shard, orig, task, () -> executeQueryPhase(orig, task), l);
         }));
     }
 
-    private <T> void ensureAfterSeqNoRefreshed(IndexShard shard, ShardSearchRequest request, CheckedSupplier<T, Exception> executable,
-                                               ActionListener<T> listener) {
+    private <T> void ensureAfterSeqNoRefreshed(IndexShard shard, ShardSearchRequest request, SearchShardTask task,
+                                               CheckedSupplier<T, Exception> executable, ActionListener<T> listener) {
         final ActionRunnable<T> runnable = new ActionRunnable<>(listener) {
             final Executor executor = getExecutor(shard);
             @Override
@@ -503,7 +505,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                                 if (localTimeoutTask != null) {
                                     localTimeoutTask.cancel();
                                 }
-                                runAsync(executor, executable, listener);
+                                runAsync(executor, task, executable, listener);
                             }
                         }
                     };
@@ -519,7 +521,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                     }
                     shard.addRefreshListener(waitForCheckpoint, readyListener);
                 } else {
-                    runAsync(executor, executable, listener);
+                    runAsync(executor, task, executable, listener);
                 }
             }
         };
@@ -539,8 +541,39 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         return indicesService.indexServiceSafe(request.shardId().getIndex()).getShard(request.shardId().id());
     }
 
-    private <T> void runAsync(Executor executor, CheckedSupplier<T, Exception> executable, ActionListener<T> listener) {
-        executor.execute(ActionRunnable.supply(listener, executable::get));
+    private <T> void runAsync(Executor executor, SearchShardTask task, CheckedSupplier<T, Exception> executable,
+                              ActionListener<T> listener) {
+        executor.execute(new ShardSearchRunnable<>(task, executable, listener));
+    }
+
+    /**
+     * Runs a phase of a shard-level search request. The runnables of the shard requests of the same search share their key, so that a
+     * search thread pool with fair scheduling takes turns between the search requests instead of running the shard requests of a search
+     * that targets many shards before those of the searches that arrived after it. The time the runnable waits in the queue of the
+     * thread pool is added to the task.
+     */
+    private static final class ShardSearchRunnable<T> extends ActionRunnable<T> implements RoundRobinBlockingQueue.KeyedTask {
+        private final SearchShardTask task;
+        private final CheckedSupplier<T, Exception> executable;
+        private final long createdNanos = System.nanoTime();
+
+        ShardSearchRunnable(SearchShardTask task, CheckedSupplier<T, Exception> executable, ActionListener<T> listener) {
+            super(listener);
+            this.task = task;
+            this.executable = executable;
+        }
+
+        @Override
+        public Object roundRobinKey() {
+            final TaskId parentTaskId = task.getParentTaskId();
+            return parentTaskId != null && parentTaskId.isSet() ? parentTaskId : null;
+        }
+
+        @Override
+        protected void doRun() throws Exception {
+            task.addQueueWaitTime(System.nanoTime() - createdNanos);
+            listener.onResponse(executable.get());
+        }
     }
 
     private SearchPhaseResult executeQueryPhase(ShardSearchRequest request, SearchShardTask task) throws Exception {
@@ -601,7 +634,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             freeReaderContext(readerContext.id());
             throw e;
         }
-        runAsync(getExecutor(readerContext.indexShard()), () -> {
+        runAsync(getExecutor(readerContext.indexShard()), task, () -> {
             final ShardSearchRequest shardSearchRequest = readerContext.getShardSearchRequest(null);
             try (SearchContext searchContext = createContext(readerContext, shardSearchRequest, task, false);
                  SearchOperationListenerExecutor executor = new SearchOperationListenerExecutor(searchContext)) {
@@ -623,7 +656,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         final ReaderContext readerContext = findReaderContext(request.contextId(), request.shardSearchRequest());
         final ShardSearchRequest shardSearchRequest = readerContext.getShardSearchRequest(request.shardSearchRequest());
         final Releasable markAsUsed = readerContext.markAsUsed(getKeepAlive(shardSearchRequest));
-        runAsync(getExecutor(readerContext.indexShard()), () -> {
+        runAsync(getExecutor(readerContext.indexShard()), task, () -> {
             readerContext.setAggregatedDfs(request.dfs());
             try (SearchContext searchContext = createContext(readerContext, shardSearchRequest, task, true);
                  SearchOperationListenerExecutor executor = new SearchOperationListenerExecutor(searchContext)) {
@@ -673,7 +706,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             freeReaderContext(readerContext.id());
             throw e;
         }
-        runAsync(getExecutor(readerContext.indexShard()), () -> {
+        runAsync(getExecutor(readerContext.indexShard()), task, () -> {
             final ShardSearchRequest shardSearchRequest = readerContext.getShardSearchRequest(null);
             try (SearchContext searchContext = createContext(readerContext, shardSearchRequest, task, false);
                  SearchOperationListenerExecutor executor = new SearchOperationListenerExecutor(searchContext)) {
@@ -697,7 +730,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         final ReaderContext readerContext = findReaderContext(request.contextId(), request);
         final ShardSearchRequest shardSearchRequest = readerContext.getShardSearchRequest(request.getShardSearchRequest());
         final Releasable markAsUsed = readerContext.markAsUsed(getKeepAlive(shardSearchRequest));
-        runAsync(getExecutor(readerContext.indexShard()), () -> {
+        runAsync(getExecutor(readerContext.indexShard()), task, () -> {
             try (SearchContext searchContext = createContext(readerContext, shardSearchRequest, task, false)) {
                 if (request.lastEmittedDoc() != null) {
                     searchContext.scrollContext().lastEmittedDoc = request.lastEmittedDoc();
@@ -130,6 +130,10 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
     // TODO: Update to 7.16 after backporting
     public static final Version FILE_INFO_WRITER_UUIDS_IN_SHARD_DATA_VERSION = Version.CURRENT;
 
+    public static final Version CONTENT_DEFINED_CHUNKS_IN_SHARD_DATA_VERSION = Version.V_8_0_0;
+
+    public static final Version SEGMENTED_REPO_DATA_VERSION = Version.V_8_0_0;
+
     public static final Version OLD_SNAPSHOT_FORMAT = Version.V_7_5_0;
 
     public static final String POLICY_ID_METADATA_FIELD = "policy";
@@ -2327,6 +2331,26 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
         return repositoryMetaVersion.onOrAfter(FILE_INFO_WRITER_UUIDS_IN_SHARD_DATA_VERSION);
     }
 
+    /**
+     * Checks whether the metadata version supports storing files of shard snapshots as content defined chunks.
+     *
+     * @param repositoryMetaVersion version to check
+     * @return true if all nodes that may read the shard level metadata understand content defined chunks
+     */
+    public static boolean useContentDefinedChunks(Version repositoryMetaVersion) {
+        return repositoryMetaVersion.onOrAfter(CONTENT_DEFINED_CHUNKS_IN_SHARD_DATA_VERSION);
+    }
+
+    /**
+     * Checks whether the metadata version supports writing the repository data as a list of incremental segments.
+     *
+     * @param repositoryMetaVersion version to check
+     * @return true if all nodes that may read the repository data understand segmented repository data
+     */
+    public static boolean useSegmentedRepositoryData(Version repositoryMetaVersion) {
+        return repositoryMetaVersion.onOrAfter(SEGMENTED_REPO_DATA_VERSION);
+    }
+
     /** Deletes snapshot from repository
      *
      * @param deleteEntry       delete entry in cluster state
@@ -13,6 +13,7 @@ import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.VersionedNamedWriteable;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.xcontent.ConstructingObjectParser;
@@ -115,7 +116,13 @@ public final class TaskInfo implements Writeable, ToXContentFragment {
         out.writeString(type);
         out.writeString(action);
         out.writeOptionalString(description);
-        out.writeOptionalNamedWriteable(status);
+        if (status instanceof VersionedNamedWriteable
+            && VersionedNamedWriteable.shouldSerialize(out, (VersionedNamedWriteable) status) == false) {
+            // the destination does not know how to read this status
+            out.writeOptionalNamedWriteable(null);
+        } else {
+            out.writeOptionalNamedWriteable(status);
+        }
         out.writeLong(startTime);
         out.writeLong(runningTimeNanos);
         out.writeBoolean(cancellable);
@@ -28,6 +28,7 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
 
     private final Setting<Integer> sizeSetting;
     private final Setting<Integer> queueSizeSetting;
+    private final Setting<Boolean> fairSchedulingSetting;
     private final boolean trackEWMA;
 
     /**
@@ -40,7 +41,25 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
      * @param trackEWMA whether to track the exponentially weighted moving average of the task execution time
      */
     FixedExecutorBuilder(final Settings settings, final String name, final int size, final int queueSize, final boolean trackEWMA) {
-        this(settings, name, size, queueSize, "thread_pool." + name, trackEWMA);
+        this(settings, name, size, queueSize, "thread_pool." + name, trackEWMA, false);
+    }
+
+    /**
+     * Construct a fixed executor builder whose tasks may optionally be scheduled fairly; the settings will have the key prefix
+     * "thread_pool." followed by the executor name. Fair scheduling is enabled with the setting "fair_scheduling" and takes the queued
+     * tasks of the executor from the groups of tasks that return the same
+     * {@link org.elasticsearch.common.util.concurrent.RoundRobinBlockingQueue.KeyedTask#roundRobinKey()} in turn.
+     *
+     * @param settings       the node-level settings
+     * @param name           the name of the executor
+     * @param size           the fixed number of threads
+     * @param queueSize      the size of the backing queue, -1 for unbounded
+     * @param trackEWMA      whether to track the exponentially weighted moving average of the task execution time
+     * @param fairScheduling whether to register the setting that enables fair scheduling
+     */
+    FixedExecutorBuilder(final Settings settings, final String name, final int size, final int queueSize, final boolean trackEWMA,
+                         final boolean fairScheduling) {
+        this(settings, name, size, queueSize, "thread_pool." + name, trackEWMA, fairScheduling);
     }
 
     /**
@@ -55,6 +74,11 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
      */
     public FixedExecutorBuilder(final Settings settings, final String name, final int size, final int queueSize, final String prefix,
                                 final boolean trackEWMA) {
+        this(settings, name, size, queueSize, prefix, trackEWMA, false);
+    }
+
+    private FixedExecutorBuilder(final Settings settings, final String name, final int size, final int queueSize, final String prefix,
+                                 final boolean trackEWMA, final boolean fairScheduling) {
         super(name);
         final String sizeKey = settingsKey(prefix, "size");
         this.sizeSetting =
@@ -65,12 +89,17 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
                         Setting.Property.NodeScope);
         final String queueSizeKey = settingsKey(prefix, "queue_size");
         this.queueSizeSetting = Setting.intSetting(queueSizeKey, queueSize, Setting.Property.NodeScope);
+        this.fairSchedulingSetting = fairScheduling
+            ? Setting.boolSetting(settingsKey(prefix, "fair_scheduling"), false, Setting.Property.NodeScope)
+            : null;
         this.trackEWMA = trackEWMA;
     }
 
     @Override
     public List<Setting<?>> getRegisteredSettings() {
-        return Arrays.asList(sizeSetting, queueSizeSetting);
+        return fairSchedulingSetting == null
+            ? Arrays.asList(sizeSetting, queueSizeSetting)
+            : Arrays.asList(sizeSetting, queueSizeSetting, fairSchedulingSetting);
     }
 
     @Override
@@ -78,7 +107,8 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
         final String nodeName = Node.NODE_NAME_SETTING.get(settings);
         final int size = sizeSetting.get(settings);
         final int queueSize = queueSizeSetting.get(settings);
-        return new FixedExecutorSettings(nodeName, size, queueSize);
+        final boolean fairScheduling = fairSchedulingSetting != null && fairSchedulingSetting.get(settings);
+        return new FixedExecutorSettings(nodeName, size, queueSize, fairScheduling);
     }
 
     @Override
@@ -86,8 +116,8 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
         int size = settings.size;
         int queueSize = settings.queueSize;
         final ThreadFactory threadFactory = EsExecutors.daemonThreadFactory(EsExecutors.threadName(settings.nodeName, name()));
-        final ExecutorService executor =
-                EsExecutors.newFixed(settings.nodeName + "/" + name(), size, queueSize, threadFactory, threadContext, trackEWMA);
+        final ExecutorService executor = EsExecutors.newFixed(settings.nodeName + "/" + name(), size, queueSize, threadFactory,
+            threadContext, trackEWMA, settings.fairScheduling);
         final ThreadPool.Info info =
             new ThreadPool.Info(name(), ThreadPool.ThreadPoolType.FIXED, size, size, null, queueSize < 0 ? null : new SizeValue(queueSize));
         return new ThreadPool.ExecutorHolder(executor, info);
@@ -107,11 +137,13 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
 
         private final int size;
         private final int queueSize;
+        private final boolean fairScheduling;
 
-        FixedExecutorSettings(final String nodeName, final int size, final int queueSize) {
+        FixedExecutorSettings(final String nodeName, final int size, final int queueSize, final boolean fairScheduling) {
             super(nodeName);
             this.size = size;
             this.queueSize = queueSize;
+            this.fairScheduling = fairScheduling;
         }
 
     }
@@ -8,6 +8,8 @@
 
 package org.elasticsearch.threadpool;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.core.TimeValue;
@@ -23,13 +25,17 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
- * A builder for scaling executors.
+ * A builder for scaling executors. The threads of a scaling executor may be virtual threads on JDKs that support them, which suits
+ * executors whose tasks mostly block on I/O; the maximum number of threads still limits how many tasks run concurrently.
  */
 public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecutorBuilder.ScalingExecutorSettings> {
 
+    private static final Logger logger = LogManager.getLogger(ScalingExecutorBuilder.class);
+
     private final Setting<Integer> coreSetting;
     private final Setting<Integer> maxSetting;
     private final Setting<TimeValue> keepAliveSetting;
+    private final Setting<Boolean> virtualThreadsSetting;
 
     /**
      * Construct a scaling executor builder; the settings will have the
@@ -63,11 +69,12 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
         this.maxSetting = Setting.intSetting(settingsKey(prefix, "max"), max, Setting.Property.NodeScope);
         this.keepAliveSetting =
             Setting.timeSetting(settingsKey(prefix, "keep_alive"), keepAlive, Setting.Property.NodeScope);
+        this.virtualThreadsSetting = Setting.boolSetting(settingsKey(prefix, "virtual_threads"), false, Setting.Property.NodeScope);
     }
 
     @Override
     public List<Setting<?>> getRegisteredSettings() {
-        return Arrays.asList(coreSetting, maxSetting, keepAliveSetting);
+        return Arrays.asList(coreSetting, maxSetting, keepAliveSetting, virtualThreadsSetting);
     }
 
     @Override
@@ -76,7 +83,8 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
         final int coreThreads = coreSetting.get(settings);
         final int maxThreads = maxSetting.get(settings);
         final TimeValue keepAlive = keepAliveSetting.get(settings);
-        return new ScalingExecutorSettings(nodeName, coreThreads, maxThreads, keepAlive);
+        final boolean virtualThreads = virtualThreadsSetting.get(settings);
+        return new ScalingExecutorSettings(nodeName, coreThreads, maxThreads, keepAlive, virtualThreads);
     }
 
     ThreadPool.ExecutorHolder build(final ScalingExecutorSettings settings, final ThreadContext threadContext) {
@@ -84,7 +92,20 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
         int core = settings.core;
         int max = settings.max;
         final ThreadPool.Info info = new ThreadPool.Info(name(), ThreadPool.ThreadPoolType.SCALING, core, max, keepAlive, null);
-        final ThreadFactory threadFactory = EsExecutors.daemonThreadFactory(EsExecutors.threadName(settings.nodeName, name()));
+        final String threadName = EsExecutors.threadName(settings.nodeName, name());
+        final ThreadFactory threadFactory;
+        if (settings.virtualThreads && EsExecutors.virtualThreadsSupported()) {
+            threadFactory = EsExecutors.virtualThreadFactory(threadName);
+        } else {
+            if (settings.virtualThreads) {
+                final String reason = System.getSecurityManager() != null
+                    ? "virtual threads have no permissions under the security manager"
+                    : "JDK [" + Runtime.version() + "] does not support virtual threads";
+                logger.warn("[{}] is enabled but {}, the thread pool [{}] uses platform threads",
+                    virtualThreadsSetting.getKey(), reason, name());
+            }
+            threadFactory = EsExecutors.daemonThreadFactory(threadName);
+        }
         final ExecutorService executor =
             EsExecutors.newScaling(
                     settings.nodeName + "/" + name(),
@@ -113,12 +134,15 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
         private final int core;
         private final int max;
         private final TimeValue keepAlive;
+        private final boolean virtualThreads;
 
-        ScalingExecutorSettings(final String nodeName, final int core, final int max, final TimeValue keepAlive) {
+        ScalingExecutorSettings(final String nodeName, final int core, final int max, final TimeValue keepAlive,
+                                final boolean virtualThreads) {
             super(nodeName);
             this.core = core;
             this.max = max;
             this.keepAlive = keepAlive;
+            this.virtualThreads = virtualThreads;
         }
     }
 
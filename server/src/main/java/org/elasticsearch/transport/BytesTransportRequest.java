@@ -45,15 +45,6 @@ public class BytesTransportRequest extends TransportRequest implements RefCounte
         return this.bytes;
     }
 
-    /**
-     * Writes the data in a "thin" manner, without the actual bytes, assumes
-     * the actual bytes will be appended right after this content.
-     */
-    public void writeThin(StreamOutput out) throws IOException {
-        super.writeTo(out);
-        out.writeVInt(bytes.length());
-    }
-
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
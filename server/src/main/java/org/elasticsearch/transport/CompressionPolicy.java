@@ -0,0 +1,112 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.common.regex.Regex;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Decides which transport messages to compress based on the action they belong to, independently of the compression settings of the
+ * connection. Each rule of the policy is configured with {@link TransportSettings#COMPRESSION_POLICY_ACTIONS} and
+ * {@link TransportSettings#COMPRESSION_POLICY_MIN_SIZE}. Requests and responses of the actions that match a rule are compressed with
+ * {@link TransportSettings#TRANSPORT_COMPRESSION_SCHEME} if their serialized size is at least the minimum size of the rule. The minimum
+ * size also applies to the messages of these actions that the connection compresses anyway. Since the size of a message is only known
+ * once it was serialized, such messages are compressed while they are serialized and serialized again without compression if they turn
+ * out to be too small, see {@link OutboundMessage#serialize(org.elasticsearch.common.io.stream.BytesStreamOutput, long)}. Rules are
+ * evaluated in the order of their names and the first matching rule applies.
+ */
+final class CompressionPolicy {
+
+    static final CompressionPolicy NONE = new CompressionPolicy(List.of(), Compression.Scheme.LZ4);
+
+    private static final Rule NO_RULE = new Rule("", new String[0], 0);
+
+    private final List<Rule> rules;
+    private final Compression.Scheme scheme;
+    private final Map<String, Rule> rulesByAction = ConcurrentCollections.newConcurrentMap();
+
+    CompressionPolicy(List<Rule> rules, Compression.Scheme scheme) {
+        this.rules = List.copyOf(rules);
+        this.scheme = scheme;
+    }
+
+    static CompressionPolicy fromSettings(Settings settings) {
+        final List<Rule> rules = new ArrayList<>();
+        for (String name : new TreeSet<>(TransportSettings.COMPRESSION_POLICY_ACTIONS.getNamespaces(settings))) {
+            final List<String> actions = TransportSettings.COMPRESSION_POLICY_ACTIONS.getConcreteSettingForNamespace(name).get(settings);
+            final ByteSizeValue minSize = TransportSettings.COMPRESSION_POLICY_MIN_SIZE.getConcreteSettingForNamespace(name).get(settings);
+            rules.add(new Rule(name, actions.toArray(new String[0]), minSize.getBytes()));
+        }
+        return new CompressionPolicy(rules, TransportSettings.TRANSPORT_COMPRESSION_SCHEME.get(settings));
+    }
+
+    /**
+     * Returns the scheme to compress a message with.
+     *
+     * @param action           the action the message belongs to
+     * @param connectionScheme the scheme the connection compresses the message with, or {@code null} if it does not compress it
+     * @return the scheme to compress the message with, or {@code null} if the message must not be compressed
+     */
+    @Nullable
+    Compression.Scheme scheme(String action, @Nullable Compression.Scheme connectionScheme) {
+        if (connectionScheme != null || rule(action) == NO_RULE) {
+            return connectionScheme;
+        }
+        return scheme;
+    }
+
+    /**
+     * @return the size in bytes that a message of the given action must at least have before compression to be sent compressed
+     */
+    long minCompressedSize(String action) {
+        return rule(action).minSize;
+    }
+
+    private Rule rule(String action) {
+        if (rules.isEmpty()) {
+            return NO_RULE;
+        }
+        return rulesByAction.computeIfAbsent(action, this::findRule);
+    }
+
+    private Rule findRule(String action) {
+        for (Rule rule : rules) {
+            if (Regex.simpleMatch(rule.actions, action)) {
+                return rule;
+            }
+        }
+        return NO_RULE;
+    }
+
+    static final class Rule {
+
+        private final String name;
+        private final String[] actions;
+        private final long minSize;
+
+        Rule(String name, String[] actions, long minSize) {
+            this.name = name;
+            this.actions = actions;
+            this.minSize = minSize;
+        }
+
+        @Override
+        public String toString() {
+            return "compression policy [" + name + "]";
+        }
+    }
+}
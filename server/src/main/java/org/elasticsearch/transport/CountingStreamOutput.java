@@ -0,0 +1,64 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+/**
+ * A {@link StreamOutput} that counts the bytes written to it and passes them on to another stream.
+ */
+final class CountingStreamOutput extends StreamOutput {
+
+    private final StreamOutput delegate;
+    private long size;
+
+    CountingStreamOutput(StreamOutput delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return the number of bytes written so far
+     */
+    long size() {
+        return size;
+    }
+
+    @Override
+    public void writeByte(byte b) throws IOException {
+        size++;
+        delegate.writeByte(b);
+    }
+
+    @Override
+    public void writeBytes(byte[] b, int offset, int length) throws IOException {
+        size += length;
+        delegate.writeBytes(b, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    /**
+     * Resets the underlying stream, which must support it, and the count of bytes written.
+     */
+    @Override
+    public void reset() throws IOException {
+        delegate.reset();
+        size = 0;
+    }
+}
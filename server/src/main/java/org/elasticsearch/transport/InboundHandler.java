@@ -42,6 +42,7 @@ public class InboundHandler {
     private final TransportKeepAlive keepAlive;
     private final Transport.ResponseHandlers responseHandlers;
     private final Transport.RequestHandlers requestHandlers;
+    private final StatsTracker statsTracker;
 
     private volatile TransportMessageListener messageListener = TransportMessageListener.NOOP_LISTENER;
 
@@ -49,7 +50,7 @@ public class InboundHandler {
 
     InboundHandler(ThreadPool threadPool, OutboundHandler outboundHandler, NamedWriteableRegistry namedWriteableRegistry,
                    TransportHandshaker handshaker, TransportKeepAlive keepAlive, Transport.RequestHandlers requestHandlers,
-                   Transport.ResponseHandlers responseHandlers) {
+                   Transport.ResponseHandlers responseHandlers, StatsTracker statsTracker) {
         this.threadPool = threadPool;
         this.outboundHandler = outboundHandler;
         this.namedWriteableRegistry = namedWriteableRegistry;
@@ -57,6 +58,7 @@ public class InboundHandler {
         this.keepAlive = keepAlive;
         this.requestHandlers = requestHandlers;
         this.responseHandlers = responseHandlers;
+        this.statsTracker = statsTracker;
     }
 
     void setMessageListener(TransportMessageListener listener) {
@@ -106,12 +108,16 @@ public class InboundHandler {
                 if (header.isHandshake()) {
                     handler = handshaker.removeHandlerForHandshake(requestId);
                 } else {
-                    TransportResponseHandler<? extends TransportResponse> theHandler =
-                        responseHandlers.onResponseReceived(requestId, messageListener);
-                    if (theHandler == null && header.isError()) {
+                    final Transport.ResponseContext<? extends TransportResponse> context =
+                        responseHandlers.onResponseContextReceived(requestId, messageListener);
+                    if (context == null && header.isError()) {
                         handler = handshaker.removeHandlerForHandshake(requestId);
+                    } else if (context == null) {
+                        handler = null;
                     } else {
-                        handler = theHandler;
+                        handler = context.handler();
+                        statsTracker.markResponseReceived(context.action(), System.nanoTime() - context.startTimeNanos());
+                        statsTracker.markActionMessageReceived(context.action(), networkMessageSize(header));
                     }
                 }
                 // ignore if its null, the service logs it
@@ -154,6 +160,7 @@ public class InboundHandler {
         final long requestId = header.getRequestId();
         final Version version = header.getVersion();
         if (header.isHandshake()) {
+            statsTracker.markActionMessageReceived(action, networkMessageSize(header));
             messageListener.onRequestReceived(requestId, action);
             // Cannot short circuit handshakes
             assert message.isShortCircuit() == false;
@@ -176,6 +183,11 @@ public class InboundHandler {
         } else {
             final TransportChannel transportChannel = new TcpTransportChannel(outboundHandler, channel, action, requestId, version,
                 header.getCompressionScheme(), header.isHandshake(), message.takeBreakerReleaseControl());
+            final RequestHandlerRegistry<T> reg = requestHandlers.getHandler(action);
+            if (reg != null) {
+                // requests for unknown actions are not tracked since they could add arbitrarily many actions to the stats
+                statsTracker.markActionMessageReceived(action, networkMessageSize(header));
+            }
             try {
                 messageListener.onRequestReceived(requestId, action);
                 if (message.isShortCircuit()) {
@@ -183,7 +195,6 @@ public class InboundHandler {
                 } else {
                     final StreamInput stream = namedWriteableStream(message.openOrGetStreamInput());
                     assertRemoteVersion(stream, header.getVersion());
-                    final RequestHandlerRegistry<T> reg = requestHandlers.getHandler(action);
                     assert reg != null;
                     final T request = reg.newRequest(stream);
                     try {
@@ -196,11 +207,14 @@ public class InboundHandler {
                                 + action + "], available [" + stream.available() + "]; resetting");
                         }
                         final String executor = reg.getExecutor();
+                        final long receivedNanos = System.nanoTime();
                         if (ThreadPool.Names.SAME.equals(executor)) {
                             try {
                                 reg.processMessageReceived(request, transportChannel);
                             } catch (Exception e) {
                                 sendErrorResponse(reg.getAction(), transportChannel, e);
+                            } finally {
+                                statsTracker.markRequestHandled(action, 0L, System.nanoTime() - receivedNanos);
                             }
                         } else {
                             boolean success = false;
@@ -209,7 +223,13 @@ public class InboundHandler {
                                 threadPool.executor(executor).execute(new AbstractRunnable() {
                                     @Override
                                     protected void doRun() throws Exception {
-                                        reg.processMessageReceived(request, transportChannel);
+                                        final long startNanos = System.nanoTime();
+                                        try {
+                                            reg.processMessageReceived(request, transportChannel);
+                                        } finally {
+                                            statsTracker.markRequestHandled(action, startNanos - receivedNanos,
+                                                System.nanoTime() - startNanos);
+                                        }
                                     }
 
                                     @Override
@@ -317,6 +337,10 @@ public class InboundHandler {
         });
     }
 
+    private static long networkMessageSize(Header header) {
+        return header.getNetworkMessageSize() + TcpHeader.BYTES_REQUIRED_FOR_MESSAGE_SIZE;
+    }
+
     private StreamInput namedWriteableStream(StreamInput delegate) {
         return new NamedWriteableAwareStreamInput(delegate, namedWriteableRegistry);
     }
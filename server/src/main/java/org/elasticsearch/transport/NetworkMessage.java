@@ -20,7 +20,7 @@ public abstract class NetworkMessage {
     protected final Version version;
     protected final Writeable threadContext;
     protected final long requestId;
-    protected final byte status;
+    protected byte status;
     protected final Compression.Scheme compressionScheme;
 
     NetworkMessage(ThreadContext threadContext, Version version, byte status, long requestId, Compression.Scheme compressionScheme) {
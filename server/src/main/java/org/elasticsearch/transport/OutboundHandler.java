@@ -16,8 +16,8 @@ import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.common.bytes.BytesReference;
-import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
 import org.elasticsearch.common.network.CloseableChannel;
 import org.elasticsearch.common.transport.NetworkExceptionHelper;
@@ -43,6 +43,8 @@ final class OutboundHandler {
 
     private volatile TransportMessageListener messageListener = TransportMessageListener.NOOP_LISTENER;
 
+    private volatile CompressionPolicy compressionPolicy = CompressionPolicy.NONE;
+
     OutboundHandler(String nodeName, Version version, StatsTracker statsTracker, ThreadPool threadPool, BigArrays bigArrays) {
         this.nodeName = nodeName;
         this.version = version;
@@ -55,6 +57,10 @@ final class OutboundHandler {
         this.slowLogThresholdMs = slowLogThreshold.getMillis();
     }
 
+    void setCompressionPolicy(CompressionPolicy compressionPolicy) {
+        this.compressionPolicy = compressionPolicy;
+    }
+
     void sendBytes(TcpChannel channel, BytesReference bytes, ActionListener<Void> listener) {
         internalSend(channel, bytes, null, listener);
     }
@@ -67,8 +73,10 @@ final class OutboundHandler {
                      final TransportRequest request, final TransportRequestOptions options, final Version channelVersion,
                      final Compression.Scheme compressionScheme, final boolean isHandshake) throws IOException, TransportException {
         Version version = Version.min(this.version, channelVersion);
+        final Compression.Scheme scheme = isHandshake ? compressionScheme
+            : compressionPolicy.scheme(action, compressionScheme);
         OutboundMessage.Request message =
-            new OutboundMessage.Request(threadPool.getThreadContext(), request, version, action, requestId, isHandshake, compressionScheme);
+            new OutboundMessage.Request(threadPool.getThreadContext(), request, version, action, requestId, isHandshake, scheme);
         if (request.tryIncRef() == false) {
             assert false : "request [" + request + "] has been released already";
             throw new AlreadyClosedException("request [" + request + "] has been released already");
@@ -80,7 +88,7 @@ final class OutboundHandler {
                 request.decRef();
             }
         });
-        sendMessage(channel, message, listener);
+        sendMessage(channel, action, message, listener);
     }
 
     /**
@@ -93,8 +101,10 @@ final class OutboundHandler {
                       final TransportResponse response, final Compression.Scheme compressionScheme, final boolean isHandshake)
         throws IOException {
         Version version = Version.min(this.version, nodeVersion);
+        final Compression.Scheme scheme = isHandshake ? compressionScheme
+            : compressionPolicy.scheme(action, compressionScheme);
         OutboundMessage.Response message = new OutboundMessage.Response(threadPool.getThreadContext(), response, version,
-            requestId, isHandshake, compressionScheme);
+            requestId, isHandshake, scheme);
         ActionListener<Void> listener = ActionListener.wrap(() -> {
                 try {
                     messageListener.onResponseSent(requestId, action, response);
@@ -102,7 +112,7 @@ final class OutboundHandler {
                     response.decRef();
                 }
         });
-        sendMessage(channel, message, listener);
+        sendMessage(channel, action, message, listener);
     }
 
     /**
@@ -116,20 +126,38 @@ final class OutboundHandler {
         OutboundMessage.Response message = new OutboundMessage.Response(threadPool.getThreadContext(), tx, version, requestId,
             false, null);
         ActionListener<Void> listener = ActionListener.wrap(() -> messageListener.onResponseSent(requestId, action, error));
-        sendMessage(channel, message, listener);
+        // errors for unknown actions are not tracked per action since they could add arbitrarily many actions to the stats
+        sendMessage(channel, error instanceof ActionNotFoundTransportException ? null : action, message, listener);
     }
 
-    private void sendMessage(TcpChannel channel, OutboundMessage networkMessage, ActionListener<Void> listener) throws IOException {
-        final BytesStreamOutput bytesStreamOutput = new ReleasableBytesStreamOutput(bigArrays);
-        final ActionListener<Void> wrappedListener = ActionListener.runBefore(listener, bytesStreamOutput::close);
+    /**
+     * @param action the action to track the message under in the stats, or {@code null} if the message must not be tracked per action
+     */
+    private void sendMessage(TcpChannel channel, @Nullable String action, OutboundMessage networkMessage, ActionListener<Void> listener)
+        throws IOException {
+        final ReleasableBytesStreamOutput bytesStreamOutput = new ReleasableBytesStreamOutput(bigArrays);
+        final ActionListener<Void> wrappedListener =
+            ActionListener.runBefore(listener, () -> Releasables.close(bytesStreamOutput, networkMessage::releaseReferencedBytes));
         final BytesReference message;
+        final long startNanos = System.nanoTime();
         try {
-            message = networkMessage.serialize(bytesStreamOutput);
+            final long minCompressedSize =
+                networkMessage.isHandshake() || action == null ? 0L : compressionPolicy.minCompressedSize(action);
+            message = networkMessage.serialize(bytesStreamOutput, minCompressedSize);
         } catch (Exception e) {
             logger.warn(() -> new ParameterizedMessage("failed to serialize outbound message [{}]", networkMessage), e);
             wrappedListener.onFailure(e);
             throw e;
         }
+        final long referencedBytes = networkMessage.referencedBytes();
+        statsTracker.markMessageSerialized(message.length() - referencedBytes, referencedBytes);
+        if (action != null) {
+            statsTracker.markActionMessageSent(action, message.length());
+            if (networkMessage.isCompress()) {
+                statsTracker.markMessageCompressed(action, networkMessage.uncompressedBytes(), networkMessage.compressedBytes(),
+                    System.nanoTime() - startNanos);
+            }
+        }
         internalSend(channel, message, networkMessage, wrappedListener);
     }
 
@@ -9,9 +9,7 @@ package org.elasticsearch.transport;
 
 import org.elasticsearch.Version;
 import org.elasticsearch.common.Strings;
-import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
-import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
@@ -25,6 +23,10 @@ import java.io.IOException;
 abstract class OutboundMessage extends NetworkMessage {
 
     protected final Writeable message;
+    private ScatterGatherStreamOutput scatterGatherStream;
+    private long referencedBytes;
+    private long uncompressedBytes;
+    private long compressedBytes;
 
     OutboundMessage(ThreadContext threadContext, Version version, byte status, long requestId, Compression.Scheme compressionScheme,
                     Writeable message) {
@@ -32,12 +34,26 @@ abstract class OutboundMessage extends NetworkMessage {
         this.message = message;
     }
 
+    /**
+     * Serializes this message into the given stream. Unless the message is compressed, large {@link BytesReference}s that are part of
+     * the message are not copied into the stream but referenced by the returned bytes, see {@link ScatterGatherStreamOutput}. The
+     * references are retained until {@link #releaseReferencedBytes()} is called.
+     */
     BytesReference serialize(BytesStreamOutput bytesStream) throws IOException {
+        return serialize(bytesStream, 0L);
+    }
+
+    /**
+     * Like {@link #serialize(BytesStreamOutput)} but sends a compressed message uncompressed if it is smaller than the given size before
+     * compression. The message is compressed while it is serialized and only serialized again, without compression, if it turns out to be
+     * too small, which is cheap since it is small.
+     */
+    BytesReference serialize(BytesStreamOutput bytesStream, long minCompressedSize) throws IOException {
         bytesStream.setVersion(version);
         bytesStream.skip(TcpHeader.headerSize(version));
 
         // The compressible bytes stream will not close the underlying bytes stream
-        BytesReference reference;
+        BytesReference reference = null;
         int variableHeaderLength = -1;
         final long preHeaderPosition = bytesStream.position();
 
@@ -46,37 +62,31 @@ abstract class OutboundMessage extends NetworkMessage {
             variableHeaderLength = Math.toIntExact(bytesStream.position() - preHeaderPosition);
         }
 
-        final boolean compress = TransportStatus.isCompress(status);
-        final StreamOutput stream = compress ? wrapCompressed(bytesStream) : bytesStream;
-        final BytesReference zeroCopyBuffer;
-        try {
-            stream.setVersion(version);
-            if (variableHeaderLength == -1) {
-                writeVariableHeader(stream);
+        final boolean writeVariableHeader = variableHeaderLength == -1;
+        final long preCompressionPosition = bytesStream.position();
+        if (isCompress()) {
+            final CountingStreamOutput compressedStream = new CountingStreamOutput(wrapCompressed(bytesStream));
+            try {
+                writeMessage(compressedStream, writeVariableHeader);
+            } finally {
+                // We have to close here before accessing the bytes when using compression to ensure that some marker bytes (EOS marker)
+                // are written.
+                compressedStream.close();
             }
-            if (message instanceof BytesTransportRequest) {
-                BytesTransportRequest bRequest = (BytesTransportRequest) message;
-                bRequest.writeThin(stream);
-                zeroCopyBuffer = bRequest.bytes;
-            } else if (message instanceof RemoteTransportException) {
-                stream.writeException((RemoteTransportException) message);
-                zeroCopyBuffer = BytesArray.EMPTY;
+            if (compressedStream.size() >= minCompressedSize) {
+                reference = bytesStream.bytes();
+                uncompressedBytes = compressedStream.size();
+                compressedBytes = bytesStream.position() - preCompressionPosition;
             } else {
-                message.writeTo(stream);
-                zeroCopyBuffer = BytesArray.EMPTY;
-            }
-        } finally {
-            // We have to close here before accessing the bytes when using compression to ensure that some marker bytes (EOS marker)
-            // are written.
-            if (compress) {
-                stream.close();
+                bytesStream.seek(preCompressionPosition);
+                status = TransportStatus.clearCompress(status);
             }
         }
-        final BytesReference message = bytesStream.bytes();
-        if (zeroCopyBuffer.length() == 0) {
-            reference = message;
-        } else {
-            reference = CompositeBytesReference.of(message, zeroCopyBuffer);
+        if (reference == null) {
+            scatterGatherStream = new ScatterGatherStreamOutput(bytesStream);
+            writeMessage(scatterGatherStream, writeVariableHeader);
+            reference = scatterGatherStream.bytes();
+            referencedBytes = scatterGatherStream.referencedBytes();
         }
 
         bytesStream.seek(0);
@@ -85,6 +95,49 @@ abstract class OutboundMessage extends NetworkMessage {
         return reference;
     }
 
+    private void writeMessage(StreamOutput stream, boolean writeVariableHeader) throws IOException {
+        stream.setVersion(version);
+        if (writeVariableHeader) {
+            writeVariableHeader(stream);
+        }
+        if (message instanceof RemoteTransportException) {
+            stream.writeException((RemoteTransportException) message);
+        } else {
+            message.writeTo(stream);
+        }
+    }
+
+    /**
+     * @return the number of bytes of the serialized message that were passed through by reference rather than copied
+     */
+    long referencedBytes() {
+        return referencedBytes;
+    }
+
+    /**
+     * Releases the references that were passed through by {@link #serialize}. Must be called once the serialized message was sent or
+     * failed to be sent, or if it failed to be serialized.
+     */
+    void releaseReferencedBytes() {
+        if (scatterGatherStream != null) {
+            scatterGatherStream.close();
+        }
+    }
+
+    /**
+     * @return the number of bytes of the serialized message that were compressed, or 0 if the message is not compressed
+     */
+    long uncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    /**
+     * @return the number of bytes the compressed part of the serialized message was compressed to, or 0 if the message is not compressed
+     */
+    long compressedBytes() {
+        return compressedBytes;
+    }
+
     // compressed stream wrapped bytes must be no-close wrapped since we need to close the compressed wrapper below to release
     // resources and write EOS marker bytes but must not yet release the bytes themselves
     private StreamOutput wrapCompressed(BytesStreamOutput bytesStream) throws IOException {
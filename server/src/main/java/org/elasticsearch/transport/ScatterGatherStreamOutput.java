@@ -0,0 +1,156 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasables;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link StreamOutput} that serializes an outbound message into a {@link BytesStreamOutput} except for large
+ * {@link ReleasableBytesReference}s, such as the file chunks of peer recoveries, which are not copied but passed through by reference. The
+ * serialized message returned by {@link #bytes()} is a composite of the slices of the underlying stream and the passed through
+ * references, which the network layer writes without copying them again.
+ * <p>
+ * Since passed through references are not copied, they must not change or be released until the message was sent. Therefore only
+ * {@link ReleasableBytesReference}s are passed through and they are retained until this stream is closed, which must happen once the
+ * message was sent or failed to be sent. All other references are copied since they may be backed by recycled pages or network buffers
+ * that their owner releases before the message was sent.
+ * <p>
+ * Notably the sources of {@code IndexRequest}s and {@code SearchHit}s are plain {@link BytesReference}s, slices of the bulk body and of
+ * the stored source that nothing keeps alive beyond the request or the fetch phase, so bulk shard requests and fetch results are still
+ * copied. Passing them through would require retaining their buffers from the REST or transport layer until they were serialized.
+ */
+final class ScatterGatherStreamOutput extends StreamOutput {
+
+    /**
+     * References of at least this size are passed through, smaller references are copied since adding them to the composite reference
+     * costs more than copying them.
+     */
+    static final int PASS_THROUGH_THRESHOLD = 4 * 1024;
+
+    private final BytesStreamOutput delegate;
+    private final long startPosition;
+    private final List<Long> positions = new ArrayList<>();
+    private final List<ReleasableBytesReference> references = new ArrayList<>();
+    private long referencedBytes;
+
+    ScatterGatherStreamOutput(BytesStreamOutput delegate) throws IOException {
+        this.delegate = delegate;
+        this.startPosition = delegate.position();
+    }
+
+    @Override
+    public void writeByte(byte b) {
+        delegate.writeByte(b);
+    }
+
+    @Override
+    public void writeBytes(byte[] b, int offset, int length) {
+        delegate.writeBytes(b, offset, length);
+    }
+
+    @Override
+    public void writeBytesReference(@Nullable BytesReference bytes) throws IOException {
+        if (canPassThrough(bytes) == false) {
+            super.writeBytesReference(bytes);
+        } else {
+            writeVInt(bytes.length());
+            passThrough(bytes);
+        }
+    }
+
+    @Override
+    public void writeOptionalBytesReference(@Nullable BytesReference bytes) throws IOException {
+        if (canPassThrough(bytes) == false) {
+            super.writeOptionalBytesReference(bytes);
+        } else {
+            writeVInt(bytes.length() + 1);
+            passThrough(bytes);
+        }
+    }
+
+    private static boolean canPassThrough(@Nullable BytesReference bytes) {
+        return bytes instanceof ReleasableBytesReference && bytes.length() >= PASS_THROUGH_THRESHOLD;
+    }
+
+    private void passThrough(BytesReference bytes) throws IOException {
+        positions.add(delegate.position());
+        references.add(((ReleasableBytesReference) bytes).retain());
+        referencedBytes += bytes.length();
+    }
+
+    @Override
+    public long position() throws IOException {
+        return delegate.position() - startPosition + referencedBytes;
+    }
+
+    /**
+     * @return the number of bytes that were passed through by reference rather than copied into the underlying stream
+     */
+    long referencedBytes() {
+        return referencedBytes;
+    }
+
+    /**
+     * Returns all bytes of the underlying stream with the passed through references spliced in at the positions they were written at.
+     */
+    BytesReference bytes() {
+        final BytesReference copied = delegate.bytes();
+        if (references.isEmpty()) {
+            return copied;
+        }
+        final BytesReference[] parts = new BytesReference[2 * references.size() + 1];
+        int from = 0;
+        for (int i = 0; i < references.size(); i++) {
+            final int to = Math.toIntExact(positions.get(i));
+            parts[2 * i] = copied.slice(from, to - from);
+            parts[2 * i + 1] = references.get(i);
+            from = to;
+        }
+        parts[parts.length - 1] = copied.slice(from, copied.length() - from);
+        return CompositeBytesReference.of(parts);
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    /**
+     * Releases the passed through references that were retained. The underlying stream holds the rest of the serialized message and is
+     * released separately.
+     */
+    @Override
+    public void close() {
+        Releasables.close(references);
+        references.clear();
+    }
+
+    /**
+     * Discards everything written to this stream, releasing the passed through references and truncating the underlying stream to the
+     * position it was at when this stream was created.
+     */
+    @Override
+    public void reset() {
+        Releasables.close(references);
+        references.clear();
+        positions.clear();
+        referencedBytes = 0;
+        delegate.seek(startPosition);
+    }
+}
@@ -8,8 +8,12 @@
 
 package org.elasticsearch.transport;
 
+import org.elasticsearch.common.metrics.HistogramMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.LongAdder;
 
 public class StatsTracker {
@@ -17,6 +21,10 @@ public class StatsTracker {
     private final LongAdder bytesRead = new LongAdder();
     private final LongAdder messagesReceived = new LongAdder();
     private final MeanMetric writeBytesMetric = new MeanMetric();
+    private final LongAdder bytesCopied = new LongAdder();
+    private final LongAdder bytesReferenced = new LongAdder();
+    private final Map<String, CompressionCounter> compressionCounters = ConcurrentCollections.newConcurrentMap();
+    private final Map<String, ActionHistograms> actionHistograms = ConcurrentCollections.newConcurrentMap();
 
     public void markBytesRead(long bytesReceived) {
         bytesRead.add(bytesReceived);
@@ -30,6 +38,82 @@ public class StatsTracker {
         writeBytesMetric.inc(bytesWritten);
     }
 
+    /**
+     * Marks an outbound message as serialized.
+     *
+     * @param copiedBytes     the number of bytes of the message that were copied into serialization buffers
+     * @param referencedBytes the number of bytes of the message that were passed through to the network layer by reference
+     */
+    public void markMessageSerialized(long copiedBytes, long referencedBytes) {
+        bytesCopied.add(copiedBytes);
+        bytesReferenced.add(referencedBytes);
+    }
+
+    /**
+     * Marks an outbound message as compressed.
+     *
+     * @param action            the action the message belongs to
+     * @param uncompressedBytes the number of bytes that were compressed
+     * @param compressedBytes   the number of bytes they were compressed to
+     * @param tookNanos         the time it took to serialize and compress the message
+     */
+    public void markMessageCompressed(String action, long uncompressedBytes, long compressedBytes, long tookNanos) {
+        final CompressionCounter counter = compressionCounters.computeIfAbsent(action, a -> new CompressionCounter());
+        counter.messages.increment();
+        counter.uncompressedBytes.add(uncompressedBytes);
+        counter.compressedBytes.add(compressedBytes);
+        counter.nanos.add(tookNanos);
+    }
+
+    /**
+     * Marks a message of the given action as sent.
+     *
+     * @param action the action the request or response belongs to
+     * @param bytes  the size of the message on the wire
+     */
+    public void markActionMessageSent(String action, long bytes) {
+        actionHistograms(action).txSize.record(bytes);
+    }
+
+    /**
+     * Marks a message of the given action as received.
+     *
+     * @param action the action the request or response belongs to
+     * @param bytes  the size of the message on the wire
+     */
+    public void markActionMessageReceived(String action, long bytes) {
+        actionHistograms(action).rxSize.record(bytes);
+    }
+
+    /**
+     * Marks the response to an outbound request as received.
+     *
+     * @param action       the action of the request
+     * @param latencyNanos the time between sending the request and receiving the response
+     */
+    public void markResponseReceived(String action, long latencyNanos) {
+        actionHistograms(action).latency.record(latencyNanos);
+    }
+
+    /**
+     * Marks an inbound request as handled.
+     *
+     * @param action         the action of the request
+     * @param queueNanos     the time the request waited for a thread of the executor of its handler
+     * @param executionNanos the time it took the handler to process the request
+     */
+    public void markRequestHandled(String action, long queueNanos, long executionNanos) {
+        final ActionHistograms histograms = actionHistograms(action);
+        histograms.queueTime.record(queueNanos);
+        histograms.executionTime.record(executionNanos);
+    }
+
+    private ActionHistograms actionHistograms(String action) {
+        // avoid the locking of computeIfAbsent once the histograms of the action exist
+        final ActionHistograms histograms = actionHistograms.get(action);
+        return histograms == null ? actionHistograms.computeIfAbsent(action, a -> new ActionHistograms()) : histograms;
+    }
+
     public long getBytesRead() {
         return bytesRead.sum();
     }
@@ -45,4 +129,51 @@ public class StatsTracker {
     public long getMessagesSent() {
         return writeBytesMetric.count();
     }
+
+    public long getBytesCopied() {
+        return bytesCopied.sum();
+    }
+
+    public long getBytesReferenced() {
+        return bytesReferenced.sum();
+    }
+
+    public Map<String, TransportStats.CompressionStats> getCompressionStats() {
+        final Map<String, TransportStats.CompressionStats> stats = new HashMap<>();
+        for (Map.Entry<String, CompressionCounter> entry : compressionCounters.entrySet()) {
+            final CompressionCounter counter = entry.getValue();
+            stats.put(entry.getKey(), new TransportStats.CompressionStats(counter.messages.sum(), counter.uncompressedBytes.sum(),
+                counter.compressedBytes.sum(), counter.nanos.sum()));
+        }
+        return stats;
+    }
+
+    public Map<String, TransportStats.ActionStats> getActionStats() {
+        final Map<String, TransportStats.ActionStats> stats = new HashMap<>();
+        for (Map.Entry<String, ActionHistograms> entry : actionHistograms.entrySet()) {
+            final ActionHistograms histograms = entry.getValue();
+            stats.put(entry.getKey(), new TransportStats.ActionStats(
+                TransportStats.HistogramStats.of(histograms.latency),
+                TransportStats.HistogramStats.of(histograms.queueTime),
+                TransportStats.HistogramStats.of(histograms.executionTime),
+                TransportStats.HistogramStats.of(histograms.rxSize),
+                TransportStats.HistogramStats.of(histograms.txSize)));
+        }
+        return stats;
+    }
+
+    private static final class ActionHistograms {
+        final HistogramMetric latency = new HistogramMetric();
+        final HistogramMetric queueTime = new HistogramMetric();
+        final HistogramMetric executionTime = new HistogramMetric();
+        final HistogramMetric rxSize = new HistogramMetric();
+        final HistogramMetric txSize = new HistogramMetric();
+    }
+
+    private static final class CompressionCounter {
+        final LongAdder messages = new LongAdder();
+        final LongAdder uncompressedBytes = new LongAdder();
+        final LongAdder compressedBytes = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+    }
 }
@@ -153,10 +153,13 @@ public interface Transport extends LifecycleComponent {
 
         private final String action;
 
+        private final long startTimeNanos;
+
         ResponseContext(TransportResponseHandler<T> handler, Connection connection, String action) {
             this.handler = handler;
             this.connection = connection;
             this.action = action;
+            this.startTimeNanos = System.nanoTime();
         }
 
         public TransportResponseHandler<T> handler() {
@@ -170,6 +173,13 @@ public interface Transport extends LifecycleComponent {
         public String action() {
             return this.action;
         }
+
+        /**
+         * @return the {@link System#nanoTime()} at which the request was sent
+         */
+        public long startTimeNanos() {
+            return startTimeNanos;
+        }
     }
 
     /**
@@ -239,14 +249,24 @@ public interface Transport extends LifecycleComponent {
          */
         public TransportResponseHandler<? extends TransportResponse> onResponseReceived(final long requestId,
                                                                                         final TransportMessageListener listener) {
-            ResponseContext<? extends TransportResponse> context = handlers.remove(requestId);
-            listener.onResponseReceived(requestId, context);
+            ResponseContext<? extends TransportResponse> context = onResponseContextReceived(requestId, listener);
             if (context == null) {
                 return null;
             } else {
                 return context.handler();
             }
         }
+
+        /**
+         * Same as {@link #onResponseReceived(long, TransportMessageListener)} but returns the whole context of the request rather than
+         * only its response handler.
+         */
+        public ResponseContext<? extends TransportResponse> onResponseContextReceived(final long requestId,
+                                                                                      final TransportMessageListener listener) {
+            ResponseContext<? extends TransportResponse> context = handlers.remove(requestId);
+            listener.onResponseReceived(requestId, context);
+            return context;
+        }
     }
 
     final class RequestHandlers {
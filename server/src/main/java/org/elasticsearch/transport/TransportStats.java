@@ -8,14 +8,23 @@
 
 package org.elasticsearch.transport;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.common.metrics.HistogramMetric;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.xcontent.ToXContentFragment;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 public class TransportStats implements Writeable, ToXContentFragment {
 
@@ -25,14 +34,24 @@ public class TransportStats implements Writeable, ToXContentFragment {
     private final long rxSize;
     private final long txCount;
     private final long txSize;
+    private final long txCopiedSize;
+    private final long txReferencedSize;
+    private final Map<String, CompressionStats> compressionStats;
+    private final Map<String, ActionStats> actionStats;
 
-    public TransportStats(long serverOpen, long totalOutboundConnections, long rxCount, long rxSize, long txCount, long txSize) {
+    public TransportStats(long serverOpen, long totalOutboundConnections, long rxCount, long rxSize, long txCount, long txSize,
+                          long txCopiedSize, long txReferencedSize, Map<String, CompressionStats> compressionStats,
+                          Map<String, ActionStats> actionStats) {
         this.serverOpen = serverOpen;
         this.totalOutboundConnections = totalOutboundConnections;
         this.rxCount = rxCount;
         this.rxSize = rxSize;
         this.txCount = txCount;
         this.txSize = txSize;
+        this.txCopiedSize = txCopiedSize;
+        this.txReferencedSize = txReferencedSize;
+        this.compressionStats = Collections.unmodifiableMap(new TreeMap<>(compressionStats));
+        this.actionStats = Collections.unmodifiableMap(new TreeMap<>(actionStats));
     }
 
     public TransportStats(StreamInput in) throws IOException {
@@ -42,6 +61,17 @@ public class TransportStats implements Writeable, ToXContentFragment {
         rxSize = in.readVLong();
         txCount = in.readVLong();
         txSize = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            txCopiedSize = in.readVLong();
+            txReferencedSize = in.readVLong();
+            compressionStats = Collections.unmodifiableMap(in.readMap(StreamInput::readString, CompressionStats::new));
+            actionStats = Collections.unmodifiableMap(in.readMap(StreamInput::readString, ActionStats::new));
+        } else {
+            txCopiedSize = 0;
+            txReferencedSize = 0;
+            compressionStats = Collections.emptyMap();
+            actionStats = Collections.emptyMap();
+        }
     }
 
     @Override
@@ -52,6 +82,12 @@ public class TransportStats implements Writeable, ToXContentFragment {
         out.writeVLong(rxSize);
         out.writeVLong(txCount);
         out.writeVLong(txSize);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVLong(txCopiedSize);
+            out.writeVLong(txReferencedSize);
+            out.writeMap(compressionStats, StreamOutput::writeString, (o, stats) -> stats.writeTo(o));
+            out.writeMap(actionStats, StreamOutput::writeString, (o, stats) -> stats.writeTo(o));
+        }
     }
 
     public long serverOpen() {
@@ -94,6 +130,34 @@ public class TransportStats implements Writeable, ToXContentFragment {
         return txSize();
     }
 
+    /**
+     * @return the number of bytes of outbound messages that were copied into serialization buffers
+     */
+    public ByteSizeValue getTxCopiedSize() {
+        return new ByteSizeValue(txCopiedSize);
+    }
+
+    /**
+     * @return the number of bytes of outbound messages that were passed through to the network layer without being copied
+     */
+    public ByteSizeValue getTxReferencedSize() {
+        return new ByteSizeValue(txReferencedSize);
+    }
+
+    /**
+     * @return statistics about the compression of outbound messages, keyed by the action the messages belong to
+     */
+    public Map<String, CompressionStats> getCompressionStats() {
+        return compressionStats;
+    }
+
+    /**
+     * @return latency and size histograms of the messages sent and received over the network, keyed by the action they belong to
+     */
+    public Map<String, ActionStats> getActionStats() {
+        return actionStats;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(Fields.TRANSPORT);
@@ -103,6 +167,26 @@ public class TransportStats implements Writeable, ToXContentFragment {
         builder.humanReadableField(Fields.RX_SIZE_IN_BYTES, Fields.RX_SIZE, new ByteSizeValue(rxSize));
         builder.field(Fields.TX_COUNT, txCount);
         builder.humanReadableField(Fields.TX_SIZE_IN_BYTES, Fields.TX_SIZE, new ByteSizeValue(txSize));
+        builder.humanReadableField(Fields.TX_COPIED_SIZE_IN_BYTES, Fields.TX_COPIED_SIZE, new ByteSizeValue(txCopiedSize));
+        builder.humanReadableField(Fields.TX_REFERENCED_SIZE_IN_BYTES, Fields.TX_REFERENCED_SIZE, new ByteSizeValue(txReferencedSize));
+        if (compressionStats.isEmpty() == false) {
+            builder.startObject(Fields.COMPRESSION);
+            for (Map.Entry<String, CompressionStats> entry : compressionStats.entrySet()) {
+                builder.startObject(entry.getKey());
+                entry.getValue().toXContent(builder, params);
+                builder.endObject();
+            }
+            builder.endObject();
+        }
+        if (actionStats.isEmpty() == false) {
+            builder.startObject(Fields.ACTIONS);
+            for (Map.Entry<String, ActionStats> entry : actionStats.entrySet()) {
+                builder.startObject(entry.getKey());
+                entry.getValue().toXContent(builder, params);
+                builder.endObject();
+            }
+            builder.endObject();
+        }
         builder.endObject();
         return builder;
     }
@@ -117,5 +201,316 @@ public class TransportStats implements Writeable, ToXContentFragment {
         static final String TX_COUNT = "tx_count";
         static final String TX_SIZE = "tx_size";
         static final String TX_SIZE_IN_BYTES = "tx_size_in_bytes";
+        static final String TX_COPIED_SIZE = "tx_copied_size";
+        static final String TX_COPIED_SIZE_IN_BYTES = "tx_copied_size_in_bytes";
+        static final String TX_REFERENCED_SIZE = "tx_referenced_size";
+        static final String TX_REFERENCED_SIZE_IN_BYTES = "tx_referenced_size_in_bytes";
+        static final String COMPRESSION = "compression";
+        static final String MESSAGES = "messages";
+        static final String UNCOMPRESSED_SIZE = "uncompressed_size";
+        static final String UNCOMPRESSED_SIZE_IN_BYTES = "uncompressed_size_in_bytes";
+        static final String COMPRESSED_SIZE = "compressed_size";
+        static final String COMPRESSED_SIZE_IN_BYTES = "compressed_size_in_bytes";
+        static final String RATIO = "ratio";
+        static final String TIME = "time";
+        static final String TIME_IN_NANOS = "time_in_nanos";
+        static final String ACTIONS = "actions";
+        static final String LATENCY = "latency";
+        static final String QUEUE_TIME = "queue_time";
+        static final String EXECUTION_TIME = "execution_time";
+        static final String RX_SIZE_HISTOGRAM = "rx_size";
+        static final String TX_SIZE_HISTOGRAM = "tx_size";
+        static final String COUNT = "count";
+        static final String NANOS = "nanos";
+        static final String BYTES = "bytes";
+    }
+
+    /**
+     * Statistics about the compression of the outbound messages of a single action.
+     */
+    public static class CompressionStats implements Writeable, ToXContentFragment {
+
+        private final long messages;
+        private final long uncompressedBytes;
+        private final long compressedBytes;
+        private final long nanos;
+
+        public CompressionStats(long messages, long uncompressedBytes, long compressedBytes, long nanos) {
+            this.messages = messages;
+            this.uncompressedBytes = uncompressedBytes;
+            this.compressedBytes = compressedBytes;
+            this.nanos = nanos;
+        }
+
+        public CompressionStats(StreamInput in) throws IOException {
+            messages = in.readVLong();
+            uncompressedBytes = in.readVLong();
+            compressedBytes = in.readVLong();
+            nanos = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(messages);
+            out.writeVLong(uncompressedBytes);
+            out.writeVLong(compressedBytes);
+            out.writeVLong(nanos);
+        }
+
+        /**
+         * @return the number of compressed messages
+         */
+        public long getMessages() {
+            return messages;
+        }
+
+        public ByteSizeValue getUncompressedSize() {
+            return new ByteSizeValue(uncompressedBytes);
+        }
+
+        public ByteSizeValue getCompressedSize() {
+            return new ByteSizeValue(compressedBytes);
+        }
+
+        /**
+         * @return the ratio of the uncompressed size to the compressed size, or 0 if no bytes were compressed
+         */
+        public double getRatio() {
+            return compressedBytes == 0 ? 0 : (double) uncompressedBytes / compressedBytes;
+        }
+
+        /**
+         * @return the time spent serializing and compressing the messages
+         */
+        public TimeValue getTime() {
+            return new TimeValue(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field(Fields.MESSAGES, messages);
+            builder.humanReadableField(Fields.UNCOMPRESSED_SIZE_IN_BYTES, Fields.UNCOMPRESSED_SIZE, getUncompressedSize());
+            builder.humanReadableField(Fields.COMPRESSED_SIZE_IN_BYTES, Fields.COMPRESSED_SIZE, getCompressedSize());
+            builder.field(Fields.RATIO, getRatio());
+            if (builder.humanReadable()) {
+                builder.field(Fields.TIME, getTime().toString());
+            }
+            builder.field(Fields.TIME_IN_NANOS, nanos);
+            return builder;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CompressionStats that = (CompressionStats) o;
+            return messages == that.messages && uncompressedBytes == that.uncompressedBytes && compressedBytes == that.compressedBytes
+                && nanos == that.nanos;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(messages, uncompressedBytes, compressedBytes, nanos);
+        }
+    }
+
+    /**
+     * Latency and size histograms of the messages of a single action that were sent and received over the network. The latency is
+     * measured on the sending node from sending a request to receiving its response, the queue and execution times are measured on the
+     * receiving node from receiving a request to its handler starting to run on the executor of the action, and to the handler returning.
+     */
+    public static class ActionStats implements Writeable, ToXContentFragment {
+
+        private final HistogramStats latency;
+        private final HistogramStats queueTime;
+        private final HistogramStats executionTime;
+        private final HistogramStats rxSize;
+        private final HistogramStats txSize;
+
+        public ActionStats(HistogramStats latency, HistogramStats queueTime, HistogramStats executionTime, HistogramStats rxSize,
+                           HistogramStats txSize) {
+            this.latency = latency;
+            this.queueTime = queueTime;
+            this.executionTime = executionTime;
+            this.rxSize = rxSize;
+            this.txSize = txSize;
+        }
+
+        public ActionStats(StreamInput in) throws IOException {
+            latency = new HistogramStats(in);
+            queueTime = new HistogramStats(in);
+            executionTime = new HistogramStats(in);
+            rxSize = new HistogramStats(in);
+            txSize = new HistogramStats(in);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            latency.writeTo(out);
+            queueTime.writeTo(out);
+            executionTime.writeTo(out);
+            rxSize.writeTo(out);
+            txSize.writeTo(out);
+        }
+
+        /**
+         * @return the histogram of the nanoseconds between sending a request and receiving its response
+         */
+        public HistogramStats getLatency() {
+            return latency;
+        }
+
+        /**
+         * @return the histogram of the nanoseconds received requests waited for a thread to run their handler on
+         */
+        public HistogramStats getQueueTime() {
+            return queueTime;
+        }
+
+        /**
+         * @return the histogram of the nanoseconds it took handlers to process received requests
+         */
+        public HistogramStats getExecutionTime() {
+            return executionTime;
+        }
+
+        /**
+         * @return the histogram of the sizes in bytes of the received requests and responses
+         */
+        public HistogramStats getRxSize() {
+            return rxSize;
+        }
+
+        /**
+         * @return the histogram of the sizes in bytes of the sent requests and responses
+         */
+        public HistogramStats getTxSize() {
+            return txSize;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            latency.toXContent(builder, Fields.LATENCY, Fields.NANOS);
+            queueTime.toXContent(builder, Fields.QUEUE_TIME, Fields.NANOS);
+            executionTime.toXContent(builder, Fields.EXECUTION_TIME, Fields.NANOS);
+            rxSize.toXContent(builder, Fields.RX_SIZE_HISTOGRAM, Fields.BYTES);
+            txSize.toXContent(builder, Fields.TX_SIZE_HISTOGRAM, Fields.BYTES);
+            return builder;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ActionStats that = (ActionStats) o;
+            return latency.equals(that.latency) && queueTime.equals(that.queueTime) && executionTime.equals(that.executionTime)
+                && rxSize.equals(that.rxSize) && txSize.equals(that.txSize);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(latency, queueTime, executionTime, rxSize, txSize);
+        }
+    }
+
+    /**
+     * A summary of a {@link HistogramMetric}: the number, total and maximum of the recorded values and estimates of the
+     * {@link #PERCENTILES}.
+     */
+    public static class HistogramStats implements Writeable {
+
+        public static final double[] PERCENTILES = new double[] { 50, 90, 99 };
+
+        private final long count;
+        private final long sum;
+        private final long max;
+        private final long[] percentiles;
+
+        public HistogramStats(long count, long sum, long max, long[] percentiles) {
+            if (percentiles.length != PERCENTILES.length) {
+                throw new IllegalArgumentException(
+                    "expected [" + PERCENTILES.length + "] percentiles but got [" + percentiles.length + "]");
+            }
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+            this.percentiles = percentiles;
+        }
+
+        public HistogramStats(StreamInput in) throws IOException {
+            count = in.readVLong();
+            sum = in.readVLong();
+            max = in.readVLong();
+            percentiles = new long[PERCENTILES.length];
+            for (int i = 0; i < percentiles.length; i++) {
+                percentiles[i] = in.readVLong();
+            }
+        }
+
+        public static HistogramStats of(HistogramMetric histogram) {
+            final long[] percentiles = new long[PERCENTILES.length];
+            for (int i = 0; i < percentiles.length; i++) {
+                percentiles[i] = histogram.percentile(PERCENTILES[i]);
+            }
+            return new HistogramStats(histogram.count(), histogram.sum(), histogram.max(), percentiles);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(count);
+            out.writeVLong(sum);
+            out.writeVLong(max);
+            for (long percentile : percentiles) {
+                out.writeVLong(percentile);
+            }
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * @return the estimate of the percentile at the same position in {@link #PERCENTILES}
+         */
+        public long getPercentile(int index) {
+            return percentiles[index];
+        }
+
+        void toXContent(XContentBuilder builder, String name, String unit) throws IOException {
+            if (count == 0) {
+                return;
+            }
+            builder.startObject(name);
+            builder.field(Fields.COUNT, count);
+            builder.field("total_in_" + unit, sum);
+            builder.field("max_in_" + unit, max);
+            builder.startObject("percentiles_in_" + unit);
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                builder.field(String.valueOf(PERCENTILES[i]), percentiles[i]);
+            }
+            builder.endObject();
+            builder.endObject();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            HistogramStats that = (HistogramStats) o;
+            return count == that.count && sum == that.sum && max == that.max && Arrays.equals(percentiles, that.percentiles);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(count, sum, max, Arrays.hashCode(percentiles));
+        }
     }
 }
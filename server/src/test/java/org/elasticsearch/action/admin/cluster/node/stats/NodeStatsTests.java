@@ -16,6 +16,8 @@ import org.elasticsearch.cluster.service.ClusterApplierRecordingService.Stats.Re
 import org.elasticsearch.cluster.service.ClusterStateUpdateStats;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.common.util.PageCacheRecyclerStats;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.discovery.DiscoveryStats;
 import org.elasticsearch.http.HttpStats;
@@ -42,6 +44,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -216,6 +219,12 @@ public class NodeStatsTests extends ESTestCase {
                     assertEquals(nodeStats.getTransport().getServerOpen(), deserializedNodeStats.getTransport().getServerOpen());
                     assertEquals(nodeStats.getTransport().getTxCount(), deserializedNodeStats.getTransport().getTxCount());
                     assertEquals(nodeStats.getTransport().getTxSize(), deserializedNodeStats.getTransport().getTxSize());
+                    assertEquals(nodeStats.getTransport().getTxCopiedSize(), deserializedNodeStats.getTransport().getTxCopiedSize());
+                    assertEquals(nodeStats.getTransport().getTxReferencedSize(),
+                        deserializedNodeStats.getTransport().getTxReferencedSize());
+                    assertEquals(nodeStats.getTransport().getCompressionStats(),
+                        deserializedNodeStats.getTransport().getCompressionStats());
+                    assertEquals(nodeStats.getTransport().getActionStats(), deserializedNodeStats.getTransport().getActionStats());
                 }
                 if (nodeStats.getHttp() == null) {
                     assertNull(deserializedNodeStats.getHttp());
@@ -417,6 +426,7 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(aStats.responseTime, bStats.responseTime, 0.01);
                     });
                 }
+                assertEquals(nodeStats.getPageCacheRecyclerStats(), deserializedNodeStats.getPageCacheRecyclerStats());
             }
         }
     }
@@ -520,8 +530,24 @@ public class NodeStatsTests extends ESTestCase {
             }
             fsInfo = new FsInfo(randomNonNegativeLong(), ioStats, paths);
         }
-        TransportStats transportStats = frequently() ? new TransportStats(randomNonNegativeLong(), randomNonNegativeLong(),
-                randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong()) : null;
+        TransportStats transportStats = null;
+        if (frequently()) {
+            Map<String, TransportStats.CompressionStats> compressionStats = new HashMap<>();
+            int numActions = randomIntBetween(0, 5);
+            for (int i = 0; i < numActions; i++) {
+                compressionStats.put(randomAlphaOfLengthBetween(3, 10), new TransportStats.CompressionStats(randomNonNegativeLong(),
+                    randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong()));
+            }
+            Map<String, TransportStats.ActionStats> actionStats = new HashMap<>();
+            numActions = randomIntBetween(0, 5);
+            for (int i = 0; i < numActions; i++) {
+                actionStats.put(randomAlphaOfLengthBetween(3, 10), new TransportStats.ActionStats(randomHistogramStats(),
+                    randomHistogramStats(), randomHistogramStats(), randomHistogramStats(), randomHistogramStats()));
+            }
+            transportStats = new TransportStats(randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(),
+                randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(),
+                randomNonNegativeLong(), compressionStats, actionStats);
+        }
         HttpStats httpStats = null;
         if (frequently()) {
             int numClients = randomIntBetween(0, 50);
@@ -679,10 +705,20 @@ public class NodeStatsTests extends ESTestCase {
             }
             adaptiveSelectionStats = new AdaptiveSelectionStats(nodeConnections, nodeStats);
         }
+        PageCacheRecyclerStats pageCacheRecyclerStats = null;
+        if (frequently()) {
+            Map<String, PageCacheRecyclerStats.PageStats> pages = new HashMap<>();
+            for (String pageType : randomSubsetOf(List.of("bytes", "ints", "longs", "objects", "direct"))) {
+                pages.put(pageType, new PageCacheRecyclerStats.PageStats(randomNonNegativeLong(), randomNonNegativeLong(),
+                    randomNonNegativeLong()));
+            }
+            pageCacheRecyclerStats = new PageCacheRecyclerStats(randomFrom(PageCacheRecycler.Type.values()).name().toLowerCase(Locale.ROOT),
+                pages);
+        }
         //TODO NodeIndicesStats are not tested here, way too complicated to create, also they need to be migrated to Writeable yet
         return new NodeStats(node, randomNonNegativeLong(), null, osStats, processStats, jvmStats, threadPoolStats,
                 fsInfo, transportStats, httpStats, allCircuitBreakerStats, scriptStats, discoveryStats,
-                ingestStats, adaptiveSelectionStats, null);
+                ingestStats, adaptiveSelectionStats, null, pageCacheRecyclerStats);
     }
 
     private static ScriptContextStats.TimeSeries randomTimeSeries() {
@@ -696,6 +732,14 @@ public class NodeStatsTests extends ESTestCase {
         }
     }
 
+    private static TransportStats.HistogramStats randomHistogramStats() {
+        final long[] percentiles = new long[TransportStats.HistogramStats.PERCENTILES.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            percentiles[i] = randomNonNegativeLong();
+        }
+        return new TransportStats.HistogramStats(randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), percentiles);
+    }
+
     private IngestStats.Stats getPipelineStats(List<IngestStats.PipelineStat> pipelineStats, String id) {
         return pipelineStats.stream().filter(p1 -> p1.getPipelineId().equals(id)).findFirst().map(p2 -> p2.getStats()).orElse(null);
     }
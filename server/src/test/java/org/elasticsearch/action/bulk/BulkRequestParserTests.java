@@ -164,4 +164,59 @@ public class BulkRequestParserTests extends ESTestCase {
         assertSame(first.getPipeline(), second.getPipeline());
         assertSame(first.routing(), second.routing());
     }
+
+    public void testIncrementalParsing() throws IOException {
+        final StringBuilder body = new StringBuilder();
+        final int numItems = between(1, 50);
+        for (int i = 0; i < numItems; i++) {
+            switch (between(0, 2)) {
+                case 0:
+                    body.append("{ \"index\":{ \"_id\": \"").append(i).append("\" } }\n{ \"field\": \"value\" }\n");
+                    break;
+                case 1:
+                    body.append("{ \"delete\":{ \"_id\": \"").append(i).append("\" } }\n");
+                    break;
+                default:
+                    body.append("{ \"update\":{ \"_id\": \"").append(i).append("\" } }\n{ \"doc\": {} }\n");
+                    break;
+            }
+        }
+        final BytesArray request = new BytesArray(body.toString());
+        final List<String> expected = new ArrayList<>();
+        new BulkRequestParser(randomBoolean(), RestApiVersion.current()).parse(request, "foo", null, null, null, null, false,
+            XContentType.JSON, (req, type) -> expected.add("index " + req.id()), req -> expected.add("update " + req.id()),
+            req -> expected.add("delete " + req.id()));
+        assertThat(expected, Matchers.hasSize(numItems));
+
+        final List<String> parsed = new ArrayList<>();
+        final BulkRequestParser.IncrementalParser parser = new BulkRequestParser(randomBoolean(), RestApiVersion.current())
+            .incrementalParser("foo", null, null, null, null, false, XContentType.JSON, (req, type) -> parsed.add("index " + req.id()),
+                req -> parsed.add("update " + req.id()), req -> parsed.add("delete " + req.id()));
+        int parsedBytes = 0;
+        int receivedBytes = 0;
+        while (receivedBytes < request.length()) {
+            receivedBytes = Math.min(request.length(), receivedBytes + between(1, 64));
+            final boolean lastData = receivedBytes == request.length();
+            parsedBytes += parser.parse(request.slice(parsedBytes, receivedBytes - parsedBytes), lastData);
+            assertThat(parsedBytes, Matchers.lessThanOrEqualTo(receivedBytes));
+        }
+        assertEquals(request.length(), parsedBytes);
+        assertEquals(expected, parsed);
+    }
+
+    public void testIncrementalParsingFailsOnIncompleteLastData() throws IOException {
+        final BytesArray request = new BytesArray("{ \"index\":{ \"_id\": \"bar\" } }\n{}\n{ \"index\":{ \"_id\": \"baz\" } }\n{}");
+        final List<String> ids = new ArrayList<>();
+        final BulkRequestParser.IncrementalParser parser = new BulkRequestParser(randomBoolean(), RestApiVersion.current())
+            .incrementalParser("foo", null, null, null, null, false, XContentType.JSON, (req, type) -> ids.add(req.id()),
+                req -> fail(), req -> fail());
+        // the incomplete last item is left for more data to arrive
+        final int parsedBytes = parser.parse(request, false);
+        assertEquals(List.of("bar"), ids);
+        assertThat(parsedBytes, Matchers.lessThan(request.length()));
+
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> parser.parse(request.slice(parsedBytes, request.length() - parsedBytes), true));
+        assertEquals("The bulk request must be terminated by a newline [\\n]", e.getMessage());
+    }
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.lucene;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class BytesRefsTests extends ESTestCase {
+
+    public void testToBytesRefFromChars() {
+        final String value = randomBoolean() ? randomUnicodeOfLengthBetween(0, 100) : randomRealisticUnicodeOfLengthBetween(0, 100);
+        final String prefix = randomAlphaOfLengthBetween(0, 5);
+        final char[] chars = (prefix + value + randomAlphaOfLengthBetween(0, 5)).toCharArray();
+        final BytesRef bytesRef = BytesRefs.toBytesRef(chars, prefix.length(), value.length());
+        assertThat(bytesRef, equalTo(new BytesRef(value)));
+        assertThat(bytesRef.offset, equalTo(0));
+        assertThat(bytesRef.bytes.length, equalTo(bytesRef.length));
+    }
+
+    public void testToBytesRefFromCharsWithUnpairedSurrogates() {
+        final char[] chars = new char[] { 'a', '\uD800', 'b', '\uDC00', '\uD83D', '\uDE00', '\uD83D' };
+        final BytesRef bytesRef = BytesRefs.toBytesRef(chars, 0, chars.length);
+        assertThat(bytesRef, equalTo(new BytesRef(new String(chars))));
+        assertThat(bytesRef.bytes.length, equalTo(bytesRef.length));
+    }
+}
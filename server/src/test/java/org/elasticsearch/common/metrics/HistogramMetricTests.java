@@ -0,0 +1,112 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.metrics;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class HistogramMetricTests extends ESTestCase {
+
+    public void testBuckets() {
+        assertThat(HistogramMetric.bucketIndex(0), equalTo(0));
+        assertThat(HistogramMetric.bucketIndex(Long.MAX_VALUE), equalTo(HistogramMetric.BUCKETS - 1));
+        assertThat(HistogramMetric.bucketUpperBound(HistogramMetric.BUCKETS - 1), equalTo(Long.MAX_VALUE));
+        for (int i = 0; i < HistogramMetric.BUCKETS; i++) {
+            final long lower = HistogramMetric.bucketLowerBound(i);
+            final long upper = HistogramMetric.bucketUpperBound(i);
+            assertThat(HistogramMetric.bucketIndex(lower), equalTo(i));
+            assertThat(HistogramMetric.bucketIndex(upper), equalTo(i));
+            if (i > 0) {
+                assertThat(HistogramMetric.bucketUpperBound(i - 1), equalTo(lower - 1));
+            }
+        }
+        final long value = randomNonNegativeLong();
+        final int index = HistogramMetric.bucketIndex(value);
+        assertThat(HistogramMetric.bucketLowerBound(index), lessThanOrEqualTo(value));
+        assertThat(HistogramMetric.bucketUpperBound(index), greaterThanOrEqualTo(value));
+    }
+
+    public void testEmpty() {
+        final HistogramMetric histogram = new HistogramMetric();
+        assertThat(histogram.count(), equalTo(0L));
+        assertThat(histogram.sum(), equalTo(0L));
+        assertThat(histogram.max(), equalTo(0L));
+        assertThat(histogram.percentile(randomDoubleBetween(0, 100, true)), equalTo(0L));
+    }
+
+    public void testPercentiles() {
+        final HistogramMetric histogram = new HistogramMetric();
+        final long[] values = new long[between(1, 10_000)];
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = randomLongBetween(0, 1_000_000_000L);
+            sum += values[i];
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        assertThat(histogram.count(), equalTo((long) values.length));
+        assertThat(histogram.sum(), equalTo(sum));
+        assertThat(histogram.max(), equalTo(values[values.length - 1]));
+        assertThat(histogram.percentile(100), equalTo(values[values.length - 1]));
+
+        final double percent = randomDoubleBetween(0, 100, true);
+        final long exact = values[(int) Math.max(0, Math.ceil(values.length * percent / 100) - 1)];
+        final long estimate = histogram.percentile(percent);
+        // the estimate is the upper bound of the bucket of the exact value, which is at most an eighth larger than the exact value
+        assertThat(estimate, greaterThanOrEqualTo(exact));
+        assertThat(estimate, lessThanOrEqualTo(exact + exact / HistogramMetric.SUB_BUCKETS));
+    }
+
+    public void testNegativeValuesAreRecordedAsZero() {
+        final HistogramMetric histogram = new HistogramMetric();
+        histogram.record(-randomNonNegativeLong() - 1);
+        assertThat(histogram.count(), equalTo(1L));
+        assertThat(histogram.sum(), equalTo(0L));
+        assertThat(histogram.percentile(50), equalTo(0L));
+    }
+
+    public void testInvalidPercentile() {
+        final HistogramMetric histogram = new HistogramMetric();
+        expectThrows(IllegalArgumentException.class, () -> histogram.percentile(randomBoolean() ? -1 : 101));
+    }
+
+    public void testConcurrentRecording() throws InterruptedException {
+        final HistogramMetric histogram = new HistogramMetric();
+        final int numThreads = between(2, 8);
+        final int valuesPerThread = between(1, 10_000);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                for (int i = 0; i < valuesPerThread; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads[t].start();
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(histogram.count(), equalTo((long) numThreads * valuesPerThread));
+        assertThat(histogram.max(), equalTo((long) valuesPerThread - 1));
+        assertThat(histogram.percentile(100), equalTo((long) valuesPerThread - 1));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.recycler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MagazineRecyclerTests extends AbstractRecyclerTestCase {
+
+    @Override
+    protected Recycler<byte[]> newRecycler(int limit) {
+        return Recyclers.magazine(RECYCLER_C, limit, randomFrom(2, 4));
+    }
+
+    public void testStealFromDepot() throws Exception {
+        final MagazineRecycler<byte[]> r = new MagazineRecycler<>(RECYCLER_C, 16, 4);
+        final List<byte[]> released = new ArrayList<>();
+        final Thread thread = new Thread(() -> {
+            final List<Recycler.V<byte[]>> values = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                values.add(r.obtain());
+            }
+            for (Recycler.V<byte[]> v : values) {
+                released.add(v.v());
+                v.close();
+            }
+        });
+        thread.start();
+        thread.join();
+
+        // the magazine of the other thread overflowed, so half of it was moved to the depot
+        final Recycler.V<byte[]> v = r.obtain();
+        assertTrue(v.isRecycled());
+        assertRecycled(v.v());
+        assertTrue(released.contains(v.v()));
+        assertEquals(1L, r.steals());
+        v.close();
+    }
+
+    public void testReclaimMagazinesOfTerminatedThreads() throws Exception {
+        final int magazineSize = 2;
+        final int numThreads = randomIntBetween(2, 5);
+        final MagazineRecycler<byte[]> r = new MagazineRecycler<>(RECYCLER_C, numThreads * magazineSize, magazineSize);
+        for (int i = 0; i < numThreads; i++) {
+            final Thread thread = new Thread(() -> r.obtain().close());
+            thread.start();
+            thread.join();
+        }
+        // all capacity is reserved by the magazines of terminated threads, the first failed reservation reclaims them
+        final Recycler.V<byte[]> v = r.obtain();
+        assertTrue(v.isRecycled());
+        assertRecycled(v.v());
+        v.close();
+        // the entry was cached again rather than destroyed
+        final Recycler.V<byte[]> again = r.obtain();
+        assertTrue(again.isRecycled());
+        again.close();
+    }
+}
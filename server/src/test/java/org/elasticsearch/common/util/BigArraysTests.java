@@ -16,6 +16,7 @@ import org.elasticsearch.core.Releasables;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.test.ESTestCase;
@@ -35,7 +36,10 @@ import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class BigArraysTests extends ESTestCase {
-    private final BigArrays bigArrays = new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), new NoneCircuitBreakerService());
+    private final BigArrays bigArrays = new MockBigArrays(
+        new MockPageCacheRecycler(Settings.builder().put(PageCacheRecycler.OFF_HEAP_SETTING.getKey(), randomBoolean()).build()),
+        new NoneCircuitBreakerService()
+    );
 
     public void testByteArrayGrowth() {
         final int totalLen = randomIntBetween(1, 4000000);
@@ -253,6 +257,70 @@ public class BigArraysTests extends ESTestCase {
         array2.close();
     }
 
+    public void testOffHeapArrays() {
+        final ByteSizeValue offHeapLimit = ByteSizeValue.parseBytesSizeValue(randomFrom("0b", "64kb", "1mb", "16mb"), "off_heap");
+        final PageCacheRecycler recycler = new MockPageCacheRecycler(
+            Settings.builder()
+                .put(PageCacheRecycler.OFF_HEAP_SETTING.getKey(), true)
+                .put(PageCacheRecycler.LIMIT_OFF_HEAP_SETTING.getKey(), offHeapLimit.getStringRep())
+                .build()
+        );
+        final BigArrays offHeapArrays = new BigArrays(recycler, new NoneCircuitBreakerService(), CircuitBreaker.REQUEST);
+        final int totalLen = randomIntBetween(PageCacheRecycler.LONG_PAGE_SIZE + 1, 100000);
+        ByteArray bytes = offHeapArrays.newByteArray(totalLen, randomBoolean());
+        LongArray longs = offHeapArrays.newLongArray(totalLen, randomBoolean());
+        DoubleArray doubles = offHeapArrays.newDoubleArray(totalLen, randomBoolean());
+        // byte arrays back the pages of stream outputs, which must be exposed as BytesRefs without copying
+        assertThat(bytes.getClass(), equalTo(BigByteArray.class));
+        assertThat(longs.getClass(), equalTo(DirectBigLongArray.class));
+        assertThat(doubles.getClass(), equalTo(DirectBigDoubleArray.class));
+        // pages beyond the limit are heap pages
+        assertThat(recycler.directPagesInUse(), lessThanOrEqualTo(offHeapLimit.getBytes() / PageCacheRecycler.PAGE_SIZE_IN_BYTES));
+        if (offHeapLimit.getBytes() > 0) {
+            assertThat(recycler.directPagesInUse(), greaterThanOrEqualTo(1L));
+        }
+
+        final byte[] byteRef = new byte[totalLen];
+        final long[] longRef = new long[totalLen];
+        final double[] doubleRef = new double[totalLen];
+        random().nextBytes(byteRef);
+        bytes.set(0, byteRef, 0, totalLen);
+        for (int i = 0; i < totalLen; ++i) {
+            longRef[i] = randomLong();
+            doubleRef[i] = randomDouble();
+            longs.set(i, longRef[i]);
+            doubles.set(i, doubleRef[i]);
+        }
+        final int newLen = randomIntBetween(1, 2 * totalLen);
+        bytes = offHeapArrays.resize(bytes, newLen);
+        longs = offHeapArrays.resize(longs, newLen);
+        doubles = offHeapArrays.resize(doubles, newLen);
+        for (int i = 0; i < Math.min(totalLen, newLen); ++i) {
+            assertEquals(byteRef[i], bytes.get(i));
+            assertEquals(longRef[i], longs.get(i));
+            assertEquals(doubleRef[i], doubles.get(i), 0.0d);
+        }
+        final BytesRef ref = new BytesRef();
+        final int offset = randomInt(Math.min(totalLen, newLen) - 1);
+        final int len = randomInt(Math.min(totalLen, newLen) - offset);
+        bytes.get(offset, len, ref);
+        assertEquals(new BytesRef(byteRef, offset, len), ref);
+
+        final int fromIndex = randomInt(newLen);
+        final int toIndex = randomIntBetween(fromIndex, newLen);
+        final byte value = randomByte();
+        bytes.fill(fromIndex, toIndex, value);
+        for (int i = fromIndex; i < toIndex; ++i) {
+            assertEquals(value, bytes.get(i));
+        }
+        for (int i = 0; i < Math.min(fromIndex, totalLen); ++i) {
+            assertEquals(byteRef[i], bytes.get(i));
+        }
+
+        Releasables.close(bytes, longs, doubles);
+        assertThat(recycler.directPagesInUse(), equalTo(0L));
+    }
+
     public void testByteArrayEquals() {
         final ByteArray empty1 = byteArrayWithBytes(BytesRef.EMPTY_BYTES);
         final ByteArray empty2 = byteArrayWithBytes(BytesRef.EMPTY_BYTES);
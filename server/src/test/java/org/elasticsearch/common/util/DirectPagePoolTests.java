@@ -0,0 +1,79 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util;
+
+import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.test.ESTestCase;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class DirectPagePoolTests extends ESTestCase {
+
+    public void testPagesAreRecycled() {
+        final DirectPagePool pool = new DirectPagePool(PageCacheRecycler.PAGE_SIZE_IN_BYTES * between(1, 200));
+        final Recycler.V<ByteBuffer> first = pool.obtain(randomBoolean());
+        assertThat(first.isRecycled(), equalTo(false));
+        assertThat(first.v().isDirect(), equalTo(true));
+        assertThat(first.v().capacity(), equalTo(PageCacheRecycler.PAGE_SIZE_IN_BYTES));
+        assertThat(first.v().order(), equalTo(ByteOrder.nativeOrder()));
+        first.v().putLong(0, randomValueOtherThan(0L, ESTestCase::randomLong));
+        final ByteBuffer page = first.v();
+        first.close();
+        assertThat(pool.pagesInUse(), equalTo(0L));
+
+        final Recycler.V<ByteBuffer> second = pool.obtain(true);
+        assertThat(second.isRecycled(), equalTo(true));
+        assertSame(page, second.v());
+        assertThat(second.v().getLong(0), equalTo(0L));
+        second.close();
+        expectThrows(IllegalStateException.class, second::close);
+    }
+
+    public void testPooledPagesAreBounded() {
+        final int maxPooledPages = between(0, 3 * DirectPagePool.PAGES_PER_SLAB);
+        final DirectPagePool pool = new DirectPagePool((long) PageCacheRecycler.PAGE_SIZE_IN_BYTES * maxPooledPages);
+        final List<Recycler.V<ByteBuffer>> pages = new ArrayList<>();
+        final int numPages = between(1, 4 * DirectPagePool.PAGES_PER_SLAB);
+        for (int i = 0; i < numPages; i++) {
+            final Recycler.V<ByteBuffer> page = pool.obtain(randomBoolean());
+            if (i >= maxPooledPages) {
+                // the pool is exhausted
+                assertThat(page, nullValue());
+                continue;
+            }
+            assertThat(page.v().capacity(), equalTo(PageCacheRecycler.PAGE_SIZE_IN_BYTES));
+            // pages must not overlap
+            page.v().putInt(0, i);
+            pages.add(page);
+        }
+        for (int i = 0; i < pages.size(); i++) {
+            assertThat(pages.get(i).v().getInt(0), equalTo(i));
+        }
+        assertThat(pool.pagesInUse(), equalTo((long) Math.min(numPages, maxPooledPages)));
+        assertThat(pool.pooledPages(), lessThanOrEqualTo(maxPooledPages));
+        assertThat(pool.pooledPages(), equalTo(Math.min(numPages, maxPooledPages)));
+
+        Releasables.close(pages);
+        assertThat(pool.pagesInUse(), equalTo(0L));
+        if (maxPooledPages > 0) {
+            // released pages can be obtained again
+            final Recycler.V<ByteBuffer> page = pool.obtain(randomBoolean());
+            assertThat(page.isRecycled(), equalTo(true));
+            page.close();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class RoundRobinBlockingQueueTests extends ESTestCase {
+
+    private static String group(String element) {
+        return element.substring(0, 1);
+    }
+
+    public void testTakesGroupsInTurn() throws InterruptedException {
+        final RoundRobinBlockingQueue<String> queue = new RoundRobinBlockingQueue<>(RoundRobinBlockingQueueTests::group);
+        queue.offer("a1");
+        queue.offer("a2");
+        queue.offer("a3");
+        queue.offer("b1");
+        queue.offer("c1");
+        queue.offer("c2");
+        assertThat(queue.size(), equalTo(6));
+        assertThat(queue.groupCount(), equalTo(3));
+        assertThat(queue.peek(), equalTo("a1"));
+
+        final List<String> taken = new ArrayList<>();
+        taken.add(queue.take());
+        taken.add(queue.poll());
+        // a group that is added while the others are served goes to the end of the line
+        queue.offer("d1");
+        queue.drainTo(taken);
+        assertThat(taken, contains("a1", "b1", "c1", "a2", "d1", "c2", "a3"));
+        assertThat(queue.size(), equalTo(0));
+        assertThat(queue.groupCount(), equalTo(0));
+        assertThat(queue.poll(), nullValue());
+        assertThat(queue.poll(between(0, 10), TimeUnit.MILLISECONDS), nullValue());
+    }
+
+    public void testElementsWithoutKeyShareAGroup() {
+        final RoundRobinBlockingQueue<String> queue = new RoundRobinBlockingQueue<>(e -> e.startsWith("-") ? null : group(e));
+        queue.offer("-1");
+        queue.offer("-2");
+        queue.offer("a1");
+        final List<String> taken = new ArrayList<>();
+        queue.drainTo(taken);
+        assertThat(taken, contains("-1", "a1", "-2"));
+    }
+
+    public void testRemove() {
+        final RoundRobinBlockingQueue<String> queue = new RoundRobinBlockingQueue<>(RoundRobinBlockingQueueTests::group);
+        queue.offer("a1");
+        queue.offer("b1");
+        queue.offer("b2");
+        assertTrue(queue.remove("a1"));
+        assertFalse(queue.remove("a1"));
+        assertThat(queue.groupCount(), equalTo(1));
+        queue.removeIf("b2"::equals);
+        assertThat(queue.size(), equalTo(1));
+        assertThat(queue.poll(), equalTo("b1"));
+    }
+
+    public void testTakeWaitsForElements() throws Exception {
+        final RoundRobinBlockingQueue<String> queue = new RoundRobinBlockingQueue<>(RoundRobinBlockingQueueTests::group);
+        final CountDownLatch taken = new CountDownLatch(1);
+        final Thread thread = new Thread(() -> {
+            try {
+                assertThat(queue.take(), equalTo("a1"));
+                taken.countDown();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        thread.start();
+        queue.offer("a1");
+        assertTrue(taken.await(10, TimeUnit.SECONDS));
+        thread.join();
+    }
+
+    public void testRoundRobinKeyUnwrapsRunnables() {
+        final Object key = new Object();
+        final Runnable keyed = new KeyedRunnable(key);
+        final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        assertSame(key, RoundRobinBlockingQueue.roundRobinKey(keyed));
+        assertSame(key, RoundRobinBlockingQueue.roundRobinKey(threadContext.preserveContext(new TimedRunnable(keyed))));
+        assertThat(RoundRobinBlockingQueue.roundRobinKey(threadContext.preserveContext(() -> {})), nullValue());
+    }
+
+    public void testFairExecutor() throws Exception {
+        final EsThreadPoolExecutor executor = EsExecutors.newFixed(getTestName(), 1, between(5, 10),
+            EsExecutors.daemonThreadFactory("test"), new ThreadContext(Settings.EMPTY), randomBoolean(), true);
+        try {
+            final CountDownLatch blocked = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            executor.execute(() -> {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+            final List<Object> executed = new ArrayList<>();
+            final CountDownLatch done = new CountDownLatch(4);
+            final Object first = "first";
+            final Object second = "second";
+            for (Object key : List.of(first, first, first, second)) {
+                executor.execute(new KeyedRunnable(key) {
+                    @Override
+                    public void run() {
+                        executed.add(key);
+                        done.countDown();
+                    }
+                });
+            }
+            release.countDown();
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertThat(executed, contains(first, second, first, first));
+        } finally {
+            ThreadPool.terminate(executor, 10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static class KeyedRunnable implements Runnable, RoundRobinBlockingQueue.KeyedTask {
+        private final Object key;
+
+        KeyedRunnable(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public Object roundRobinKey() {
+            return key;
+        }
+
+        @Override
+        public void run() {}
+    }
+}
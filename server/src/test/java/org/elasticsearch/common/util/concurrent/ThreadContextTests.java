@@ -10,6 +10,7 @@ package org.elasticsearch.common.util.concurrent;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.logging.HeaderWarning;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.tasks.Task;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
@@ -404,6 +405,53 @@ public class ThreadContextTests extends ESTestCase {
         }
     }
 
+    public void testSerializeRepeatedly() throws IOException {
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        threadContext.putHeader("foo", "bar");
+        BytesStreamOutput first = new BytesStreamOutput();
+        threadContext.writeTo(first);
+        BytesStreamOutput second = new BytesStreamOutput();
+        threadContext.writeTo(second);
+        assertEquals(first.bytes(), second.bytes());
+
+        // a derived context serializes its own headers
+        threadContext.putHeader("baz", "qux");
+        threadContext.addResponseHeader("Warning", "123456");
+        BytesStreamOutput third = new BytesStreamOutput();
+        threadContext.writeTo(third);
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            threadContext.readHeaders(third.bytes().streamInput());
+            assertEquals("bar", threadContext.getHeader("foo"));
+            assertEquals("qux", threadContext.getHeader("baz"));
+            assertEquals(List.of("123456"), threadContext.getResponseHeaders().get("Warning"));
+        }
+
+        // the default context is shared by thread contexts with different default headers
+        ThreadContext withDefaults = new ThreadContext(Settings.builder().put("request.headers.default", "1").build());
+        ThreadContext otherDefaults = new ThreadContext(Settings.builder().put("request.headers.default", "2").build());
+        for (ThreadContext context : List.of(withDefaults, otherDefaults, withDefaults)) {
+            BytesStreamOutput out = new BytesStreamOutput();
+            context.writeTo(out);
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                threadContext.readHeaders(out.bytes().streamInput());
+                assertEquals(context.getHeader("default"), threadContext.getHeader("default"));
+            }
+        }
+    }
+
+    public void testReadHeadersDeduplicatesHeaderNames() throws IOException {
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        threadContext.putHeader(Task.X_OPAQUE_ID, "value");
+        BytesStreamOutput out = new BytesStreamOutput();
+        threadContext.writeTo(out);
+
+        final String first = ThreadContext.readHeadersFromStream(out.bytes().streamInput()).v1().keySet().iterator().next();
+        final String second = ThreadContext.readHeadersFromStream(out.bytes().streamInput()).v1().keySet().iterator().next();
+        assertEquals(Task.X_OPAQUE_ID, first);
+        assertThat(first, sameInstance(Task.X_OPAQUE_ID));
+        assertThat(second, sameInstance(Task.X_OPAQUE_ID));
+    }
+
     public void testCanResetDefault() {
         Settings build = Settings.builder().put("request.headers.default", "1").build();
         ThreadContext threadContext = new ThreadContext(build);
@@ -11,10 +11,13 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.Version;
 import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
 import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.snapshots.SnapshotsService;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.VersionUtils;
 import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xcontent.XContentFactory;
@@ -23,12 +26,16 @@ import org.elasticsearch.xcontent.XContentType;
 import org.elasticsearch.xcontent.json.JsonXContent;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 
 import static org.elasticsearch.index.store.StoreFileMetadata.UNAVAILABLE_WRITER_UUID;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 
 public class FileInfoTests extends ESTestCase {
     private static final org.apache.lucene.util.Version MIN_SUPPORTED_LUCENE_VERSION = org.elasticsearch.Version.CURRENT
@@ -198,4 +205,52 @@ public class FileInfoTests extends ESTestCase {
             assertEquals(numBytes, metadata.length());
         }
     }
+
+    public void testContentDefinedChunks() throws IOException {
+        final List<FileInfo.Chunk> chunks = new ArrayList<>();
+        long length = 0;
+        for (int i = between(1, 10); i > 0; i--) {
+            final long chunkLength = randomLongBetween(1, 1 << 20);
+            chunks.add(new FileInfo.Chunk("__chunk-" + randomAlphaOfLength(64).toLowerCase(Locale.ROOT), chunkLength));
+            length += chunkLength;
+        }
+        final StoreFileMetadata metadata = new StoreFileMetadata("_foobar", length, "666", Version.LATEST.toString());
+        final FileInfo info = new FileInfo("__foobar", metadata, chunks);
+        assertThat(info.hasContentDefinedChunks(), is(true));
+        assertThat(info.numberOfParts(), equalTo(chunks.size()));
+        assertThat(info.partSize(), nullValue());
+        for (int i = 0; i < chunks.size(); i++) {
+            assertThat(info.partName(i), equalTo(chunks.get(i).name()));
+            assertThat(info.partBytes(i), equalTo(chunks.get(i).length()));
+        }
+
+        final XContentBuilder builder = XContentFactory.contentBuilder(XContentType.JSON);
+        FileInfo.toXContent(info, builder, ToXContent.EMPTY_PARAMS);
+        final FileInfo parsedInfo;
+        try (XContentParser parser = createParser(JsonXContent.jsonXContent, BytesReference.bytes(builder))) {
+            parser.nextToken();
+            parsedInfo = FileInfo.fromXContent(parser);
+        }
+        assertThat(parsedInfo.chunks(), equalTo(chunks));
+        assertThat(parsedInfo.isSame(info), is(true));
+
+        final NamedWriteableRegistry registry = new NamedWriteableRegistry(Collections.emptyList());
+        final FileInfo copy = copyWriteable(info, registry, FileInfo::new);
+        assertThat(copy.chunks(), equalTo(chunks));
+        assertThat(copy.isSame(info), is(true));
+
+        final org.elasticsearch.Version oldVersion =
+            VersionUtils.getPreviousVersion(SnapshotsService.CONTENT_DEFINED_CHUNKS_IN_SHARD_DATA_VERSION);
+        expectThrows(IllegalStateException.class, () -> copyWriteable(info, registry, FileInfo::new, oldVersion));
+        final ByteSizeValue partSize = new ByteSizeValue(randomLongBetween(Math.max(1, length / 100), length));
+        final FileInfo withoutChunks = new FileInfo("__foobar", metadata, partSize);
+        assertThat(copyWriteable(withoutChunks, registry, FileInfo::new, oldVersion).isSame(withoutChunks), is(true));
+    }
+
+    public void testContentDefinedChunksMustMatchFileLength() {
+        final StoreFileMetadata metadata = new StoreFileMetadata("_foobar", 10, "666", Version.LATEST.toString());
+        expectThrows(IllegalArgumentException.class, () -> new FileInfo("__foobar", metadata, List.of()));
+        expectThrows(IllegalArgumentException.class, () -> new FileInfo("__foobar", metadata, List.of(new FileInfo.Chunk("__c", 9))));
+        expectThrows(IllegalArgumentException.class, () -> new FileInfo.Chunk("__c", 0));
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class AdaptiveFileChunkSizerTests extends ESTestCase {
+
+    public void testGrowsWhileThroughputImproves() {
+        final AtomicLong clock = new AtomicLong();
+        final int initialChunkSize = between(1, 1024);
+        final int initialConcurrency = between(1, 4);
+        final AdaptiveFileChunkSizer sizer = new AdaptiveFileChunkSizer(initialChunkSize, initialConcurrency, 8, clock::get);
+        assertThat(sizer.chunkSizeInBytes(), equalTo(initialChunkSize));
+        assertThat(sizer.concurrentChunks(), equalTo(initialConcurrency));
+
+        // every window moves more bytes per unit of time than the previous one
+        for (int window = 0; window < 10; window++) {
+            final long bytesPerChunk = sizer.chunkSizeInBytes();
+            ackWindow(sizer, clock, bytesPerChunk, 1_000L);
+        }
+        assertThat(sizer.chunkSizeInBytes(), greaterThan(initialChunkSize));
+        assertThat(sizer.chunkSizeInBytes(), lessThanOrEqualTo(sizer.maxChunkSizeInBytes()));
+        assertThat(sizer.concurrentChunks(), greaterThan(initialConcurrency));
+        assertThat(sizer.concurrentChunks(), lessThanOrEqualTo(8));
+    }
+
+    public void testRevertsLastStepWhenThroughputDrops() {
+        final AtomicLong clock = new AtomicLong();
+        final AdaptiveFileChunkSizer sizer = new AdaptiveFileChunkSizer(1024, 1, 8, clock::get);
+        ackWindow(sizer, clock, 1024, 1_000L); // first window always grows the chunk size
+        assertThat(sizer.chunkSizeInBytes(), equalTo(2048));
+        assertThat(sizer.concurrentChunks(), equalTo(1));
+
+        ackWindow(sizer, clock, 1024, 10_000L); // throughput dropped by a factor of ten
+        assertThat(sizer.chunkSizeInBytes(), equalTo(1024));
+        assertThat(sizer.concurrentChunks(), equalTo(1));
+
+        ackWindow(sizer, clock, 1024, 1_000L); // improves again, now grow the concurrency
+        assertThat(sizer.chunkSizeInBytes(), equalTo(1024));
+        assertThat(sizer.concurrentChunks(), equalTo(2));
+    }
+
+    public void testRevertsLastStepWhenRoundTripsInflate() {
+        final AtomicLong clock = new AtomicLong();
+        final AdaptiveFileChunkSizer sizer = new AdaptiveFileChunkSizer(1024, 1, 8, clock::get);
+        ackWindow(sizer, clock, 1024, 1_000L, 100L);
+        assertThat(sizer.chunkSizeInBytes(), equalTo(2048));
+
+        // same throughput, but each chunk now takes much longer to be acknowledged
+        ackWindow(sizer, clock, 1024, 1_000L, 1_000L);
+        assertThat(sizer.chunkSizeInBytes(), equalTo(1024));
+    }
+
+    public void testNeverShrinksBelowInitialValues() {
+        final AtomicLong clock = new AtomicLong();
+        final int initialChunkSize = between(1, 1024);
+        final int initialConcurrency = between(1, 8);
+        final AdaptiveFileChunkSizer sizer = new AdaptiveFileChunkSizer(initialChunkSize, initialConcurrency, 8, clock::get);
+        for (int window = 0; window < 20; window++) {
+            ackWindow(sizer, clock, randomLongBetween(1, 1 << 20), randomLongBetween(1, 1_000_000L), randomLongBetween(1, 1_000_000L));
+            assertThat(sizer.chunkSizeInBytes(), greaterThanOrEqualTo(initialChunkSize));
+            assertThat(sizer.chunkSizeInBytes(), lessThanOrEqualTo(sizer.maxChunkSizeInBytes()));
+            assertThat(sizer.concurrentChunks(), greaterThanOrEqualTo(initialConcurrency));
+            assertThat(sizer.concurrentChunks(), lessThanOrEqualTo(8));
+        }
+    }
+
+    public void testRejectsInvalidArguments() {
+        expectThrows(IllegalArgumentException.class, () -> new AdaptiveFileChunkSizer(0, 1, 8, System::nanoTime));
+        expectThrows(IllegalArgumentException.class, () -> new AdaptiveFileChunkSizer(1024, 0, 8, System::nanoTime));
+        expectThrows(IllegalArgumentException.class, () -> new AdaptiveFileChunkSizer(1024, 9, 8, System::nanoTime));
+    }
+
+    private static void ackWindow(AdaptiveFileChunkSizer sizer, AtomicLong clock, long bytesPerChunk, long nanosPerChunk) {
+        ackWindow(sizer, clock, bytesPerChunk, nanosPerChunk, nanosPerChunk);
+    }
+
+    private static void ackWindow(AdaptiveFileChunkSizer sizer, AtomicLong clock, long bytesPerChunk, long nanosPerChunk,
+                                  long roundTripNanos) {
+        for (int i = 0; i < AdaptiveFileChunkSizer.SAMPLE_WINDOW_CHUNKS; i++) {
+            clock.addAndGet(nanosPerChunk);
+            sizer.onChunkAcknowledged(bytesPerChunk, roundTripNanos);
+        }
+    }
+}
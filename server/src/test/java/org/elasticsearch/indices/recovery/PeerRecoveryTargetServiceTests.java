@@ -72,8 +72,10 @@ import static java.util.Collections.emptyList;
 import static org.elasticsearch.index.seqno.SequenceNumbers.UNASSIGNED_SEQ_NO;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Mockito.mock;
@@ -410,6 +412,159 @@ public class PeerRecoveryTargetServiceTests extends IndexShardTestCase {
         closeShards(shard);
     }
 
+    public void testSnapshotFileIsDownloadedInConcurrentChunks() throws Exception {
+        DiscoveryNode pNode = new DiscoveryNode("foo", buildNewFakeTransportAddress(),
+            Collections.emptyMap(), Collections.emptySet(), Version.CURRENT);
+        DiscoveryNode rNode = new DiscoveryNode("foo", buildNewFakeTransportAddress(),
+            Collections.emptyMap(), Collections.emptySet(), Version.CURRENT);
+
+        IndexShard shard = newShard(false);
+        shard.markAsRecovering("peer recovery", new RecoveryState(shard.routingEntry(), pNode, rNode));
+        shard.prepareForIndexRecovery();
+
+        RecoveryState.Index recoveryStateIndex = shard.recoveryState().getIndex();
+        Directory directory = shard.store().directory();
+
+        String fileName = randomAlphaOfLength(10);
+        Tuple<StoreFileMetadata, byte[]> storeFileMetadataAndData = createStoreFileMetadataWithRandomContent(fileName);
+        StoreFileMetadata storeFileMetadata = storeFileMetadataAndData.v1();
+        byte[] fileData = storeFileMetadataAndData.v2();
+
+        // the file is split in multiple parts in the repository and chunks never span more than one part
+        ByteSizeValue partSize = new ByteSizeValue(randomIntBetween(100, 500), ByteSizeUnit.BYTES);
+        BlobStoreIndexShardSnapshot.FileInfo fileInfo = new BlobStoreIndexShardSnapshot.FileInfo("name", storeFileMetadata, partSize);
+        assertThat(fileInfo.numberOfParts(), greaterThan(1));
+
+        List<Long> requestedRanges = Collections.synchronizedList(new ArrayList<>());
+        SnapshotFilesProvider snapshotFilesProvider = new SnapshotFilesProvider(mock(RepositoriesService.class)) {
+            @Override
+            public InputStream getInputStreamForSnapshotFilePart(String requestedRepositoryName,
+                                                                 IndexId requestedIndexId,
+                                                                 ShardId requestedShardId,
+                                                                 BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo,
+                                                                 int part,
+                                                                 long position,
+                                                                 long length,
+                                                                 LongConsumer rateLimiterListener) {
+                assertThat(snapshotFileInfo, sameInstance(fileInfo));
+                assertThat(position + length, lessThanOrEqualTo(snapshotFileInfo.partBytes(part)));
+                final long positionInFile = part * partSize.getBytes() + position;
+                requestedRanges.add(positionInFile);
+                return new ByteArrayInputStream(fileData, Math.toIntExact(positionInFile), Math.toIntExact(length));
+            }
+        };
+
+        recoveryStateIndex.addFileDetail(storeFileMetadata.name(), storeFileMetadata.length(), false);
+        recoveryStateIndex.setFileDetailsComplete();
+
+        RecoveryTarget recoveryTarget = new RecoveryTarget(shard, null, snapshotFilesProvider, null);
+
+        final int chunkSize = randomIntBetween(16, 99);
+        PlainActionFuture<Void> writeSnapshotFileFuture = PlainActionFuture.newFuture();
+        recoveryTarget.restoreFileFromSnapshot("repo", new IndexId("index", "uuid"), fileInfo, chunkSize, between(2, 8),
+            writeSnapshotFileFuture);
+        writeSnapshotFileFuture.get();
+
+        assertThat(requestedRanges.size(), greaterThan(fileInfo.numberOfParts()));
+
+        Optional<String> tmpFileName = Arrays.stream(directory.listAll())
+            .filter(directoryFile -> directoryFile.endsWith(fileName))
+            .findFirst();
+
+        assertThat(tmpFileName.isPresent(), is(equalTo(true)));
+        try (IndexInput indexInput = directory.openInput(tmpFileName.get(), IOContext.READONCE)) {
+            byte[] writtenData = new byte[(int) storeFileMetadata.length()];
+            indexInput.readBytes(writtenData, 0, (int) storeFileMetadata.length());
+            assertThat(writtenData, is(equalTo(fileData)));
+        }
+
+        RecoveryState.FileDetail fileDetails = recoveryStateIndex.getFileDetails(storeFileMetadata.name());
+        assertThat(fileDetails.recovered(), equalTo(storeFileMetadata.length()));
+        assertThat(fileDetails.recoveredFromSnapshot(), equalTo(storeFileMetadata.length()));
+
+        recoveryTarget.decRef();
+        closeShards(shard);
+    }
+
+    public void testSnapshotFileDownloadedInConcurrentChunksIsDeletedAfterFailure() throws Exception {
+        DiscoveryNode pNode = new DiscoveryNode("foo", buildNewFakeTransportAddress(),
+            Collections.emptyMap(), Collections.emptySet(), Version.CURRENT);
+        DiscoveryNode rNode = new DiscoveryNode("foo", buildNewFakeTransportAddress(),
+            Collections.emptyMap(), Collections.emptySet(), Version.CURRENT);
+
+        IndexShard shard = newShard(false);
+        shard.markAsRecovering("peer recovery", new RecoveryState(shard.routingEntry(), pNode, rNode));
+        shard.prepareForIndexRecovery();
+
+        RecoveryState.Index recoveryStateIndex = shard.recoveryState().getIndex();
+        Directory directory = shard.store().directory();
+        String[] filesBeforeRestoringSnapshotFile = directory.listAll();
+
+        String fileName = randomAlphaOfLength(10);
+        Tuple<StoreFileMetadata, byte[]> storeFileMetadataAndData = createStoreFileMetadataWithRandomContent(fileName);
+        StoreFileMetadata storeFileMetadata = storeFileMetadataAndData.v1();
+        byte[] fileData = storeFileMetadataAndData.v2();
+        final boolean corruptChunk = randomBoolean();
+        final int failingPosition = randomIntBetween(0, fileData.length - 1);
+
+        SnapshotFilesProvider snapshotFilesProvider = new SnapshotFilesProvider(mock(RepositoriesService.class)) {
+            @Override
+            public InputStream getInputStreamForSnapshotFilePart(String requestedRepositoryName,
+                                                                 IndexId requestedIndexId,
+                                                                 ShardId requestedShardId,
+                                                                 BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo,
+                                                                 int part,
+                                                                 long position,
+                                                                 long length,
+                                                                 LongConsumer rateLimiterListener) {
+                assertThat(part, equalTo(0));
+                final int from = Math.toIntExact(position);
+                final int to = Math.toIntExact(position + length);
+                if (from <= failingPosition && failingPosition < to) {
+                    if (corruptChunk == false) {
+                        throw new RuntimeException("Unexpected error");
+                    }
+                    final byte[] corrupted = Arrays.copyOfRange(fileData, from, to);
+                    corrupted[failingPosition - from] ^= 0xFF;
+                    return new ByteArrayInputStream(corrupted);
+                }
+                return new ByteArrayInputStream(fileData, from, to - from);
+            }
+        };
+
+        recoveryStateIndex.addFileDetail(storeFileMetadata.name(), storeFileMetadata.length(), false);
+        recoveryStateIndex.setFileDetailsComplete();
+
+        RecoveryTarget recoveryTarget = new RecoveryTarget(shard, null, snapshotFilesProvider, null);
+
+        BlobStoreIndexShardSnapshot.FileInfo fileInfo =
+            new BlobStoreIndexShardSnapshot.FileInfo("name", storeFileMetadata, SNAPSHOT_FILE_PART_SIZE);
+
+        PlainActionFuture<Void> writeSnapshotFileFuture = PlainActionFuture.newFuture();
+        recoveryTarget.restoreFileFromSnapshot("repo", new IndexId("index", "uuid"), fileInfo, randomIntBetween(16, 256),
+            between(2, 8), writeSnapshotFileFuture);
+        ExecutionException executionException = expectThrows(ExecutionException.class, writeSnapshotFileFuture::get);
+        if (corruptChunk) {
+            assertThat(executionException.getCause(), is(instanceOf(CorruptIndexException.class)));
+        } else {
+            assertThat(executionException.getCause(), is(instanceOf(RuntimeException.class)));
+        }
+
+        assertThat(filesBeforeRestoringSnapshotFile, equalTo(directory.listAll()));
+        RecoveryState.FileDetail fileDetails = recoveryStateIndex.getFileDetails(storeFileMetadata.name());
+        assertThat(fileDetails.recovered(), equalTo(0L));
+
+        // Subsequent writes on the same file can proceed without issues
+        PlainActionFuture<Void> writeChunkFuture = PlainActionFuture.newFuture();
+        ReleasableBytesReference bytesRef = ReleasableBytesReference.wrap(new BytesArray(fileData));
+        recoveryTarget.writeFileChunk(storeFileMetadata, 0, bytesRef, true, 0, writeChunkFuture);
+        writeChunkFuture.get();
+        assertThat(fileDetails.recovered(), equalTo(storeFileMetadata.length()));
+
+        recoveryTarget.decRef();
+        closeShards(shard);
+    }
+
     enum DownloadFileErrorType {
         CORRUPTED_FILE,
         TRUNCATED_FILE,
@@ -111,7 +111,9 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.IntSupplier;
+import java.util.function.LongUnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.zip.CRC32;
 
 import static java.util.Collections.emptyList;
@@ -119,6 +121,7 @@ import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
@@ -675,6 +678,75 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         store.close();
     }
 
+    public void testAdaptiveChunkSizeGrowsIfRoundTripsDominate() throws Exception {
+        final int chunkSize = between(16, 64);
+        // every chunk takes the same time regardless of its size, so larger chunks yield a higher throughput
+        final List<Integer> chunkLengths = sendFilesWithAdaptiveChunkSize(chunkSize, length -> TimeValue.timeValueMillis(1).nanos());
+        assertThat(chunkLengths.stream().mapToInt(Integer::intValue).max().getAsInt(), greaterThanOrEqualTo(2 * chunkSize));
+        assertThat(chunkLengths.stream().mapToInt(Integer::intValue).min().getAsInt(), greaterThanOrEqualTo(chunkSize));
+    }
+
+    public void testAdaptiveChunkSizeShrinksIfLargerChunksAreSlower() throws Exception {
+        final int chunkSize = between(16, 64);
+        // chunks that are larger than the configured size take ten times longer per byte
+        final List<Integer> chunkLengths = sendFilesWithAdaptiveChunkSize(chunkSize,
+            length -> length * (length > chunkSize ? 10_000L : 1_000L));
+        final int firstLargerChunk = IntStream.range(0, chunkLengths.size())
+            .filter(i -> chunkLengths.get(i) > chunkSize).findFirst().orElse(-1);
+        assertThat("the first window of chunks grows the chunk size", firstLargerChunk, greaterThanOrEqualTo(0));
+        assertTrue("the chunk size shrinks back once larger chunks turn out to be slower",
+            chunkLengths.subList(firstLargerChunk, chunkLengths.size()).contains(chunkSize));
+        // every attempt to grow the chunk size is reverted, so it never grows past a single step
+        assertThat(chunkLengths.stream().mapToInt(Integer::intValue).max().getAsInt(), equalTo(2 * chunkSize));
+    }
+
+    /**
+     * Sends files with adaptive chunk sizes to a target that acknowledges each chunk after the given time on a fake clock.
+     *
+     * @return the lengths of all chunks that are not the last chunk of their file, in the order they were sent
+     */
+    private List<Integer> sendFilesWithAdaptiveChunkSize(int chunkSize, LongUnaryOperator chunkTimeInNanos) throws Exception {
+        final IndexShard shard = mock(IndexShard.class);
+        when(shard.state()).thenReturn(IndexShardState.STARTED);
+        final AtomicLong clock = new AtomicLong();
+        final Map<String, Long> receivedBytes = ConcurrentCollections.newConcurrentMap();
+        final List<Integer> chunkLengths = new CopyOnWriteArrayList<>();
+        final TestRecoveryTargetHandler recoveryTarget = new TestRecoveryTargetHandler() {
+            @Override
+            public void writeFileChunk(StoreFileMetadata md, long position, ReleasableBytesReference content, boolean lastChunk,
+                                       int totalTranslogOps, ActionListener<Void> listener) {
+                final long expectedPosition = receivedBytes.getOrDefault(md.name(), 0L);
+                assertThat("chunks of a file are sent in order", position, equalTo(expectedPosition));
+                receivedBytes.put(md.name(), position + content.length());
+                assertThat(lastChunk, equalTo(position + content.length() == md.length()));
+                if (lastChunk == false) {
+                    chunkLengths.add(content.length());
+                }
+                // acknowledge synchronously so that the fake clock advances by exactly the time of each chunk
+                clock.addAndGet(chunkTimeInNanos.applyAsLong(content.length()));
+                listener.onResponse(null);
+            }
+        };
+        final RecoverySourceHandler handler = new RecoverySourceHandler(shard, recoveryTarget, threadPool, getStartRecoveryRequest(),
+            chunkSize, 1, true, between(1, 10), between(1, 5), false, recoveryPlannerService) {
+            @Override
+            long relativeTimeInNanos() {
+                return clock.get();
+            }
+        };
+        Store store = newStore(createTempDir(), false);
+        // enough chunks for a number of sample windows, even at twice the configured chunk size
+        List<StoreFileMetadata> files = generateFiles(store, between(2, 4), () -> between(chunkSize * 100, chunkSize * 200));
+        PlainActionFuture<Void> sendFilesFuture = new PlainActionFuture<>();
+        handler.sendFiles(store, files.toArray(new StoreFileMetadata[0]), () -> 0, sendFilesFuture);
+        sendFilesFuture.actionGet();
+        for (StoreFileMetadata md : files) {
+            assertThat(receivedBytes.get(md.name()), equalTo(md.length()));
+        }
+        store.close();
+        return chunkLengths;
+    }
+
     public void testSendFileChunksStopOnError() throws Exception {
         final List<FileChunkResponse> unrepliedChunks = new CopyOnWriteArrayList<>();
         final AtomicInteger sentChunks = new AtomicInteger();
@@ -261,6 +261,7 @@ public class RecoveryTargetTests extends ESTestCase {
         long recoveredBytes = 0;
         long sourceThrottling = Index.UNKNOWN;
         long targetThrottling = Index.UNKNOWN;
+        long sourceStallTime = 0L;
 
         List<FileDetail> filesToRecoverFromSnapshot = randomSubsetOf(filesToRecover);
         for (FileDetail fileDetail : filesToRecoverFromSnapshot) {
@@ -306,6 +307,9 @@ public class RecoveryTargetTests extends ESTestCase {
             } else {
                 sourceThrottling += throttledOnSource;
             }
+            final long stalledOnSource = rarely() ? randomIntBetween(10, 200) : 0;
+            index.addSourceStallTime(stalledOnSource);
+            sourceStallTime += stalledOnSource;
             index.addRecoveredBytesToFile(file.name(), toRecover);
             file.addRecoveredBytes(toRecover);
             final long throttledOnTarget = rarely() ? randomIntBetween(10, 200) : 0;
@@ -342,6 +346,7 @@ public class RecoveryTargetTests extends ESTestCase {
         assertThat(lastRead.stopTime(), equalTo(index.stopTime()));
         assertThat(lastRead.targetThrottling(), equalTo(index.targetThrottling()));
         assertThat(lastRead.sourceThrottling(), equalTo(index.sourceThrottling()));
+        assertThat(lastRead.sourceStallTime(), equalTo(index.sourceStallTime()));
 
         logger.info("testing post recovery");
         assertThat(index.totalBytes(), equalTo(totalFileBytes));
@@ -354,6 +359,7 @@ public class RecoveryTargetTests extends ESTestCase {
         assertThat(index.recoveredBytes(), equalTo(recoveredBytes));
         assertThat(index.targetThrottling().nanos(), equalTo(targetThrottling));
         assertThat(index.sourceThrottling().nanos(), equalTo(sourceThrottling));
+        assertThat(index.sourceStallTime().nanos(), equalTo(sourceStallTime));
         assertThat(index.bytesStillToRecover(), equalTo(totalFileBytes - totalReusedBytes - recoveredBytes));
         if (index.totalRecoverFiles() == 0) {
             assertThat((double) index.recoveredFilesPercent(), equalTo(100.0));
@@ -42,6 +42,7 @@ import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.time.DateFormatter;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.core.Tuple;
@@ -76,6 +77,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -85,6 +87,7 @@ import java.util.function.Consumer;
 import java.util.function.IntConsumer;
 import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
@@ -1269,6 +1272,59 @@ public class IngestServiceTests extends ESTestCase {
         }
     }
 
+    public void testBulkRequestExecutionInSlices() throws Exception {
+        BulkRequest bulkRequest = new BulkRequest();
+        int numRequest = between(2 * IngestService.MIN_BULK_SLICE_SIZE, 8 * IngestService.MIN_BULK_SLICE_SIZE);
+        for (int i = 0; i < numRequest; i++) {
+            IndexRequest indexRequest = new IndexRequest("_index").id(Integer.toString(i)).setPipeline("_id").setFinalPipeline("_none");
+            indexRequest.source(XContentType.JSON, "field1", i);
+            bulkRequest.add(indexRequest);
+        }
+
+        // fail every third document
+        final Processor processor = new AbstractProcessor("tag", null) {
+            @Override
+            public IngestDocument execute(IngestDocument ingestDocument) {
+                if (ingestDocument.getFieldValue("field1", Integer.class) % 3 == 0) {
+                    throw new IllegalArgumentException("failed");
+                }
+                return ingestDocument;
+            }
+
+            @Override
+            public String getType() {
+                return "mock";
+            }
+        };
+        IngestService ingestService = createWithProcessors(Map.of("mock", (factories, tag, description, config) -> processor));
+        ingestService.setBulkSlices(between(2, 8));
+        PutPipelineRequest putRequest = new PutPipelineRequest("_id",
+            new BytesArray("{\"processors\": [{\"mock\": {}}]}"), XContentType.JSON);
+        ClusterState clusterState = ClusterState.builder(new ClusterName("_name")).build();
+        ClusterState previousClusterState = clusterState;
+        clusterState = IngestService.innerPut(putRequest, clusterState);
+        ingestService.applyClusterState(new ClusterChangedEvent("", clusterState, previousClusterState));
+
+        final Set<Integer> failedSlots = ConcurrentCollections.newConcurrentSet();
+        final AtomicInteger completions = new AtomicInteger();
+        ingestService.executeBulkRequest(numRequest, bulkRequest.requests(), (slot, e) -> failedSlots.add(slot),
+            (thread, e) -> {
+                assertNull(e);
+                completions.incrementAndGet();
+            }, indexReq -> {}, Names.WRITE);
+
+        assertThat(completions.get(), equalTo(1));
+        assertThat(failedSlots, equalTo(IntStream.range(0, numRequest).filter(i -> i % 3 == 0).boxed().collect(Collectors.toSet())));
+    }
+
+    public void testBulkSliceSize() {
+        assertThat(IngestService.bulkSliceSize(randomIntBetween(0, 10_000), 1), equalTo(Integer.MAX_VALUE));
+        assertThat(IngestService.bulkSliceSize(2 * IngestService.MIN_BULK_SLICE_SIZE - 1, between(2, 64)), equalTo(Integer.MAX_VALUE));
+        assertThat(IngestService.bulkSliceSize(1000, 4), equalTo(250));
+        assertThat(IngestService.bulkSliceSize(1001, 4), equalTo(251));
+        assertThat(IngestService.bulkSliceSize(1000, 64), equalTo(IngestService.MIN_BULK_SLICE_SIZE));
+    }
+
     public void testStats() throws Exception {
         final Processor processor = mock(Processor.class);
         final Processor processorFailure = mock(Processor.class);
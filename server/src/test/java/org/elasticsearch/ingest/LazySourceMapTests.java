@@ -0,0 +1,138 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.ingest;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xcontent.XContentBuilder;
+import org.elasticsearch.xcontent.XContentType;
+import org.elasticsearch.xcontent.json.JsonXContent;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+public class LazySourceMapTests extends ESTestCase {
+
+    private static final String SOURCE = "{ \"message\" : \"caf\\u00e9 \\\"ok\\\" ünïcødé\", \"count\": -12.5e+3,"
+        + " \"big\": 123456789012345, \"flags\": [true, false, null, 0, -0.0],"
+        + " \"nested\": {\"a\": {\"b\": [1, {\"c\": \"d\"}]}, \"empty\": {}}, \"list\": [] }\n";
+
+    public void testParseMatchesParser() {
+        final LazySourceMap source = parse(SOURCE);
+        assertThat(source.keySet(), equalTo(Map.of("message", 0, "count", 0, "big", 0, "flags", 0, "nested", 0, "list", 0).keySet()));
+        assertThat(new HashMap<>(source), equalTo(convertToMap(SOURCE)));
+        assertThat(parse("{}"), equalTo(Map.of()));
+        assertThat(parse(" {\t}\r\n"), equalTo(Map.of()));
+    }
+
+    public void testSourcesLeftToTheParser() {
+        for (String json : List.of(
+            "",
+            "[]",
+            "{\"a\": 1",
+            "{\"a\": 1,}",
+            "{\"a\": 1} {}",
+            "{\"a\": 1, \"a\": 2}",
+            "{\"a\": 01}",
+            "{\"a\": 1.}",
+            "{\"a\": .1}",
+            "{\"a\": NaN}",
+            "{\"a\": tru}",
+            "{\"a\": \"\\x\"}",
+            "{\"a\": \"\\u00g0\"}",
+            "{\"a\": \"unterminated}",
+            "{'a': 1}",
+            "{a: 1}",
+            "{\"\\u0061\": 1}",
+            "{\"ä\": 1}",
+            "{\"a\": 1 /* comment */}",
+            "{\"a\": [1 2]}",
+            "{\"a\": {\"b\" 1}}",
+            "{\"a\": \"" + "\t" + "\"}"
+        )) {
+            assertThat(json, LazySourceMap.parse(new BytesArray(json)), nullValue());
+        }
+        assertThat(LazySourceMap.parse(new BytesArray(new byte[] { '{', '"', 'a', '"', ':', '"', (byte) 0xC3, '"', '}' })), nullValue());
+        assertThat(LazySourceMap.parse(new BytesArray("{\"a\":" + "[".repeat(100) + "]".repeat(100) + "}")), nullValue());
+        assertThat(LazySourceMap.parse(new BytesArray("{\"a\":" + "[".repeat(20) + "]".repeat(20) + "}")), notNullValue());
+    }
+
+    public void testValuesAreParsedWhenRead() {
+        final LazySourceMap source = parse(SOURCE);
+        assertTrue(source.isRaw("message"));
+        assertThat(source.get("message"), equalTo("café \"ok\" ünïcødé"));
+        assertFalse(source.isRaw("message"));
+        assertTrue(source.containsKey("nested"));
+        assertTrue(source.isRaw("nested"));
+        assertThat(source.remove("count"), equalTo(-12500.0));
+        assertThat(source.put("flags", "replaced"), equalTo(convertToMap(SOURCE).get("flags")));
+        assertThat(source.size(), equalTo(5));
+        assertTrue(source.isRaw("big"));
+        assertTrue(source.isRaw("nested"));
+        assertTrue(source.isRaw("list"));
+    }
+
+    public void testToXContentCopiesUnreadValues() throws IOException {
+        final LazySourceMap source = parse(SOURCE);
+        final IngestDocument document = new IngestDocument("index", "id", null, null, null, source);
+        assertThat(document.getFieldValue("nested.a.b.0", Integer.class), equalTo(1));
+        document.setFieldValue("nested.added", "value");
+        document.setFieldValue("added", List.of(1, 2));
+        document.removeField("count");
+        document.extractMetadata();
+
+        final XContentBuilder builder = JsonXContent.contentBuilder();
+        source.toXContent(builder);
+        final String json = BytesReference.bytes(builder).utf8ToString();
+        // the values that were not read are copied as they are, including their escapes and whitespace
+        assertThat(json, startsWith("{\"message\":\"caf\\u00e9 \\\"ok\\\" ünïcødé\",\"big\":123456789012345,"
+            + "\"flags\":[true, false, null, 0, -0.0],\"nested\":{"));
+        assertThat(json, endsWith("},\"list\":[],\"added\":[1,2]}"));
+
+        final Map<String, Object> expected = convertToMap(SOURCE);
+        expected.remove("count");
+        @SuppressWarnings("unchecked")
+        final Map<String, Object> nested = (Map<String, Object>) expected.get("nested");
+        nested.put("added", "value");
+        expected.put("added", List.of(1, 2));
+        assertThat(convertToMap(json), equalTo(expected));
+    }
+
+    public void testIngestDocumentUsesLazySource() {
+        final LazySourceMap source = parse(SOURCE);
+        final IngestDocument document = new IngestDocument("index", "id", "routing", 1L, null, source);
+        assertSame(source, document.getSourceAndMetadata());
+        assertThat(document.getSourceAndMetadata().get(IngestDocument.Metadata.INDEX.getFieldName()), equalTo("index"));
+        assertThat(document.getFieldValue("message", String.class), equalTo("café \"ok\" ünïcødé"));
+        assertTrue(source.isRaw("nested"));
+        // copies of the document are fully parsed
+        final IngestDocument copy = new IngestDocument(document);
+        assertThat(copy.getSourceAndMetadata(), equalTo(document.getSourceAndMetadata()));
+    }
+
+    private static LazySourceMap parse(String json) {
+        final LazySourceMap source = LazySourceMap.parse(new BytesArray(json));
+        assertThat(json, source, notNullValue());
+        return source;
+    }
+
+    private static Map<String, Object> convertToMap(String json) {
+        return XContentHelper.convertToMap(new BytesArray(json), true, XContentType.JSON).v2();
+    }
+}
@@ -10,6 +10,7 @@ package org.elasticsearch.repositories;
 
 import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.snapshots.SnapshotId;
@@ -78,6 +79,69 @@ public class RepositoryDataTests extends ESTestCase {
         }
     }
 
+    public void testSegmentedXContent() throws IOException {
+        final Map<String, BytesReference> segmentBlobs = new HashMap<>();
+        final List<String> segments = new ArrayList<>();
+        RepositoryData previous = RepositoryData.EMPTY;
+        RepositoryData repositoryData = generateRandomRepoData();
+        final int iterations = randomIntBetween(1, 10);
+        for (int i = 0; i < iterations; i++) {
+            if (segments.isEmpty() == false && randomBoolean()) {
+                // compact all segments into a single one
+                segments.clear();
+                previous = RepositoryData.EMPTY;
+            }
+            final XContentBuilder segmentBuilder = JsonXContent.contentBuilder();
+            repositoryData.segmentToXContent(segmentBuilder, previous);
+            final String segment = "segment-" + i;
+            segmentBlobs.put(segment, BytesReference.bytes(segmentBuilder));
+            segments.add(segment);
+
+            final XContentBuilder builder = JsonXContent.contentBuilder();
+            repositoryData.segmentedSnapshotsToXContent(builder, segments);
+            final long gen = randomIntBetween(0, 500);
+            try (XContentParser parser = createParser(JsonXContent.jsonXContent, BytesReference.bytes(builder))) {
+                final RepositoryData fromXContent = RepositoryData.snapshotsFromXContent(
+                    parser,
+                    gen,
+                    randomBoolean(),
+                    name -> createParser(JsonXContent.jsonXContent, segmentBlobs.get(name))
+                );
+                assertEquals(repositoryData, fromXContent);
+                assertEquals(gen, fromXContent.getGenId());
+            }
+
+            previous = repositoryData;
+            final List<SnapshotId> snapshotIds = new ArrayList<>(repositoryData.getSnapshotIds());
+            if (snapshotIds.size() > 1 && randomBoolean()) {
+                repositoryData = repositoryData.removeSnapshots(
+                    randomSubsetOf(randomIntBetween(1, snapshotIds.size() - 1), snapshotIds),
+                    ShardGenerations.EMPTY
+                );
+            } else {
+                repositoryData = addRandomSnapshot(repositoryData);
+            }
+        }
+    }
+
+    public void testSegmentOnlyContainsChanges() throws IOException {
+        final RepositoryData repositoryData = generateRandomRepoData();
+        final XContentBuilder unchanged = JsonXContent.contentBuilder();
+        repositoryData.segmentToXContent(unchanged, repositoryData);
+        assertEquals(
+            "{\"removed_snapshots\":[],\"snapshots\":[],\"removed_indices\":[],\"indices\":{},"
+                + "\"removed_index_metadata_identifiers\":[],\"index_metadata_identifiers\":{}}",
+            Strings.toString(unchanged)
+        );
+
+        final RepositoryData updated = addRandomSnapshot(repositoryData);
+        final XContentBuilder incremental = JsonXContent.contentBuilder();
+        updated.segmentToXContent(incremental, repositoryData);
+        final XContentBuilder compacted = JsonXContent.contentBuilder();
+        updated.segmentToXContent(compacted, RepositoryData.EMPTY);
+        assertThat(BytesReference.bytes(compacted).length(), greaterThan(BytesReference.bytes(incremental).length()));
+    }
+
     public void testAddSnapshots() {
         RepositoryData repositoryData = generateRandomRepoData();
         // test that adding the same snapshot id to the repository data throws an exception
@@ -461,6 +525,28 @@ public class RepositoryDataTests extends ESTestCase {
         return repositoryData;
     }
 
+    private static RepositoryData addRandomSnapshot(RepositoryData repositoryData) {
+        final List<IndexId> indices = new ArrayList<>(randomSubsetOf(repositoryData.getIndices().values()));
+        for (int i = between(indices.isEmpty() ? 1 : 0, 3); i > 0; i--) {
+            indices.add(new IndexId(randomAlphaOfLength(8), UUIDs.randomBase64UUID()));
+        }
+        final ShardGenerations.Builder builder = ShardGenerations.builder();
+        for (IndexId indexId : indices) {
+            for (int j = between(1, 5); j > 0; j--) {
+                builder.put(indexId, j - 1, ShardGeneration.newGeneration(random()));
+            }
+        }
+        final Map<IndexId, String> indexLookup = indices.stream()
+            .collect(Collectors.toMap(Function.identity(), ind -> randomAlphaOfLength(256)));
+        return repositoryData.addSnapshot(
+            new SnapshotId(randomAlphaOfLength(8), UUIDs.randomBase64UUID()),
+            new RepositoryData.SnapshotDetails(SnapshotState.SUCCESS, Version.CURRENT, randomNonNegativeLong(), randomNonNegativeLong()),
+            builder.build(),
+            indexLookup,
+            indexLookup.values().stream().collect(Collectors.toMap(Function.identity(), ignored -> UUIDs.randomBase64UUID(random())))
+        );
+    }
+
     private static Map<IndexId, List<SnapshotId>> randomIndices(final Map<String, SnapshotId> snapshotIdsMap) {
         final List<SnapshotId> snapshotIds = new ArrayList<>(snapshotIdsMap.values());
         final int totalSnapshots = snapshotIds.size();
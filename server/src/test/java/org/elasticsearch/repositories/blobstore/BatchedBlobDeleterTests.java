@@ -0,0 +1,118 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.blobstore.BlobContainer;
+import org.elasticsearch.common.blobstore.BlobPath;
+import org.elasticsearch.common.blobstore.fs.FsBlobContainer;
+import org.elasticsearch.common.blobstore.fs.FsBlobStore;
+import org.elasticsearch.common.blobstore.support.FilterBlobContainer;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class BatchedBlobDeleterTests extends ESTestCase {
+
+    public void testDeletesAllBlobsInBatches() throws Exception {
+        final ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            final int batchSize = between(1, 10);
+            final AtomicInteger batches = new AtomicInteger();
+            final BlobContainer container = new FilterBlobContainer(fsBlobContainer()) {
+                @Override
+                protected BlobContainer wrapChild(BlobContainer child) {
+                    return child;
+                }
+
+                @Override
+                public void deleteBlobsIgnoringIfNotExists(Iterator<String> blobNames) throws IOException {
+                    final List<String> batch = new ArrayList<>();
+                    blobNames.forEachRemaining(batch::add);
+                    assertThat(batch.size(), lessThanOrEqualTo(batchSize));
+                    batches.incrementAndGet();
+                    super.deleteBlobsIgnoringIfNotExists(batch.iterator());
+                }
+            };
+            final List<String> blobs = writeBlobs(container, between(0, 100));
+            final Executor executor = randomBoolean() ? EsExecutors.DIRECT_EXECUTOR_SERVICE : threadPool.generic();
+
+            final PlainActionFuture<Long> future = PlainActionFuture.newFuture();
+            new BatchedBlobDeleter(container, blobs.iterator(), batchSize).run(executor, between(1, 5), future);
+
+            assertThat(future.get(), equalTo((long) blobs.size()));
+            assertThat(batches.get(), equalTo((blobs.size() + batchSize - 1) / batchSize));
+            assertThat(container.listBlobs().size(), equalTo(0));
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
+    public void testFailedBatchDoesNotStopOtherBatches() throws Exception {
+        final BlobContainer fsContainer = fsBlobContainer();
+        final List<String> blobs = writeBlobs(fsContainer, between(2, 20));
+        final String failingBlob = randomFrom(blobs);
+        final BlobContainer container = new FilterBlobContainer(fsContainer) {
+            @Override
+            protected BlobContainer wrapChild(BlobContainer child) {
+                return child;
+            }
+
+            @Override
+            public void deleteBlobsIgnoringIfNotExists(Iterator<String> blobNames) throws IOException {
+                final List<String> batch = new ArrayList<>();
+                blobNames.forEachRemaining(batch::add);
+                if (batch.contains(failingBlob)) {
+                    throw new IOException("simulated");
+                }
+                super.deleteBlobsIgnoringIfNotExists(batch.iterator());
+            }
+        };
+
+        final PlainActionFuture<Long> future = PlainActionFuture.newFuture();
+        final BatchedBlobDeleter deleter = new BatchedBlobDeleter(container, blobs.iterator(), 1);
+        deleter.run(EsExecutors.DIRECT_EXECUTOR_SERVICE, between(1, 3), future);
+
+        final ExecutionException e = expectThrows(ExecutionException.class, future::get);
+        assertThat(e.getCause().getMessage(), equalTo("simulated"));
+        assertThat(deleter.failedBlobs(), equalTo(1L));
+        assertThat(deleter.deletedBlobs(), equalTo((long) blobs.size() - 1));
+        assertThat(container.listBlobs().keySet(), equalTo(Set.of(failingBlob)));
+    }
+
+    private BlobContainer fsBlobContainer() throws IOException {
+        final Path path = createTempDir();
+        return new FsBlobContainer(new FsBlobStore(8 * 1024, path, false), BlobPath.EMPTY, path);
+    }
+
+    private static List<String> writeBlobs(BlobContainer container, int count) throws IOException {
+        final List<String> blobs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final String blobName = "blob-" + i;
+            container.writeBlob(blobName, new BytesArray(randomByteArrayOfLength(between(1, 10))), false);
+            blobs.add(blobName);
+        }
+        return blobs;
+    }
+}
@@ -17,6 +17,7 @@ import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Numbers;
 import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.blobstore.BlobContainer;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
@@ -39,6 +40,8 @@ import org.elasticsearch.test.ESIntegTestCase;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.xcontent.NamedXContentRegistry;
+import org.elasticsearch.xcontent.XContentParser;
+import org.elasticsearch.xcontent.XContentType;
 
 import java.nio.file.Path;
 import java.util.Arrays;
@@ -46,6 +49,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -203,6 +207,49 @@ public class BlobStoreRepositoryTests extends ESSingleNodeTestCase {
         assertThat(repository.readSnapshotIndexLatestBlob(), equalTo(expectedGeneration + 2L));
     }
 
+    public void testSegmentedRepositoryData() throws Exception {
+        final int maxSegments = randomIntBetween(1, 4);
+        final BlobStoreRepository repository = setupRepo(
+            Settings.builder()
+                .put(BlobStoreRepository.SEGMENTED_REPOSITORY_DATA_SETTING.getKey(), true)
+                .put(BlobStoreRepository.MAX_REPOSITORY_DATA_SEGMENTS_SETTING.getKey(), maxSegments)
+                .build()
+        );
+        final BlobContainer blobContainer = repository.blobContainer();
+        final int iterations = randomIntBetween(2, 10);
+        for (int i = 0; i < iterations; i++) {
+            RepositoryData repositoryData = ESBlobStoreRepositoryIntegTestCase.getRepositoryData(repository);
+            if (repositoryData.getSnapshotIds().isEmpty() == false && randomBoolean()) {
+                repositoryData = repositoryData.removeSnapshots(
+                    Collections.singleton(randomFrom(repositoryData.getSnapshotIds())),
+                    ShardGenerations.EMPTY
+                );
+            } else {
+                repositoryData = addRandomSnapshotsToRepoData(repositoryData, true);
+            }
+            writeIndexGen(repository, repositoryData, repositoryData.getGenId());
+
+            final long generation = repository.latestIndexBlobId();
+            final RepositoryData readRepositoryData;
+            try (
+                XContentParser parser = createParser(
+                    XContentType.JSON.xContent(),
+                    blobContainer.readBlob(BlobStoreRepository.INDEX_FILE_PREFIX + generation)
+                )
+            ) {
+                readRepositoryData = RepositoryData.snapshotsFromXContent(
+                    parser,
+                    generation,
+                    false,
+                    segment -> createParser(XContentType.JSON.xContent(), blobContainer.readBlob(segment))
+                );
+            }
+            assertEquals(repositoryData, readRepositoryData);
+            final Set<String> segments = blobContainer.listBlobsByPrefix(BlobStoreRepository.REPOSITORY_DATA_SEGMENT_PREFIX).keySet();
+            assertThat(segments.size(), allOf(greaterThanOrEqualTo(1), lessThanOrEqualTo(maxSegments)));
+        }
+    }
+
     public void testCorruptIndexLatestFile() throws Exception {
         final BlobStoreRepository repository = setupRepo();
 
@@ -334,11 +381,15 @@ public class BlobStoreRepositoryTests extends ESSingleNodeTestCase {
     }
 
     private BlobStoreRepository setupRepo() {
+        return setupRepo(Settings.EMPTY);
+    }
+
+    private BlobStoreRepository setupRepo(Settings settings) {
         final Client client = client();
         final Path location = ESIntegTestCase.randomRepoPath(node().settings());
         final String repositoryName = "test-repo";
 
-        Settings.Builder repoSettings = Settings.builder().put(node().settings()).put("location", location);
+        Settings.Builder repoSettings = Settings.builder().put(node().settings()).put(settings).put("location", location);
         boolean compress = randomBoolean();
         if (compress == false) {
             repoSettings.put(BlobStoreRepository.COMPRESS_SETTING.getKey(), false);
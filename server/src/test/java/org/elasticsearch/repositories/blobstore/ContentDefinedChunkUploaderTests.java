@@ -0,0 +1,128 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.apache.lucene.util.Version;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.blobstore.BlobContainer;
+import org.elasticsearch.common.blobstore.BlobPath;
+import org.elasticsearch.common.blobstore.fs.FsBlobContainer;
+import org.elasticsearch.common.blobstore.fs.FsBlobStore;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.index.snapshots.blobstore.SlicedInputStream;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.UnaryOperator;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+
+public class ContentDefinedChunkUploaderTests extends ESTestCase {
+
+    public void testUploadsEachChunkOnce() throws Exception {
+        final ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            final Path path = createTempDir();
+            final BlobContainer container = new FsBlobContainer(new FsBlobStore(8 * 1024, path, false), BlobPath.EMPTY, path);
+            final Executor executor = randomBoolean() ? EsExecutors.DIRECT_EXECUTOR_SERVICE : threadPool.generic();
+
+            final byte[] data = randomByteArrayOfLength(between(1 << 14, 1 << 16));
+            final FileInfo first = fileInfo("_0.cfs", data);
+            // the second file shares all but a few bytes with the first one, like a segment rewritten by a merge
+            final byte[] modified = data.clone();
+            modified[between(0, modified.length - 1)] ^= 0xFF;
+            final FileInfo second = fileInfo("_1.cfs", modified);
+
+            final ContentDefinedChunkUploader uploader = new ContentDefinedChunkUploader(
+                container,
+                1 << 10,
+                between(1, 4),
+                executor,
+                Set.of(),
+                UnaryOperator.identity()
+            );
+            final FileInfo firstChunked = uploader.upload(first, new ByteArrayInputStream(data));
+            final FileInfo secondChunked = uploader.upload(second, new ByteArrayInputStream(modified));
+            final PlainActionFuture<Void> future = PlainActionFuture.newFuture();
+            uploader.finish(future);
+            future.get();
+
+            assertThat(uploader.chunkedFileInfo(first), sameInstance(firstChunked));
+            assertThat(firstChunked.isSame(first.metadata()), equalTo(true));
+            assertThat(firstChunked.hasContentDefinedChunks(), equalTo(true));
+            assertThat(uploader.uploadedBytes(), lessThan((long) data.length * 2));
+            assertThat(uploader.deduplicatedBytes(), greaterThan(0L));
+            assertThat(uploader.uploadedBytes() + uploader.deduplicatedBytes(), equalTo((long) data.length * 2));
+
+            final Set<String> blobs = container.listBlobs().keySet();
+            assertThat(blobs, everyItem(startsWith(ContentDefinedChunkUploader.CHUNK_BLOB_PREFIX)));
+            final Set<String> referencedChunks = new HashSet<>();
+            firstChunked.chunks().forEach(chunk -> referencedChunks.add(chunk.name()));
+            secondChunked.chunks().forEach(chunk -> referencedChunks.add(chunk.name()));
+            assertThat(blobs, equalTo(referencedChunks));
+
+            assertArrayEquals(data, read(container, firstChunked));
+            assertArrayEquals(modified, read(container, secondChunked));
+
+            // chunks of earlier snapshots are not uploaded again
+            final ContentDefinedChunkUploader nextUploader = new ContentDefinedChunkUploader(
+                container,
+                1 << 10,
+                between(1, 4),
+                executor,
+                referencedChunks,
+                UnaryOperator.identity()
+            );
+            final FileInfo thirdChunked = nextUploader.upload(fileInfo("_2.cfs", data), new ByteArrayInputStream(data));
+            final PlainActionFuture<Void> nextFuture = PlainActionFuture.newFuture();
+            nextUploader.finish(nextFuture);
+            nextFuture.get();
+            assertThat(nextUploader.uploadedBytes(), equalTo(0L));
+            assertThat(thirdChunked.chunks(), equalTo(firstChunked.chunks()));
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
+    private static FileInfo fileInfo(String name, byte[] data) {
+        final StoreFileMetadata metadata = new StoreFileMetadata(name, data.length, randomAlphaOfLength(6), Version.LATEST.toString());
+        return new FileInfo("__" + randomAlphaOfLength(10), metadata, ByteSizeValue.ofBytes(data.length));
+    }
+
+    private static byte[] read(BlobContainer container, FileInfo fileInfo) throws IOException {
+        try (InputStream stream = new SlicedInputStream(fileInfo.numberOfParts()) {
+            @Override
+            protected InputStream openSlice(int slice) throws IOException {
+                return container.readBlob(fileInfo.partName(slice));
+            }
+        }) {
+            final byte[] bytes = new byte[Math.toIntExact(fileInfo.length())];
+            assertThat(Streams.readFully(stream, bytes), equalTo(bytes.length));
+            assertThat(stream.read(), equalTo(-1));
+            return bytes;
+        }
+    }
+}
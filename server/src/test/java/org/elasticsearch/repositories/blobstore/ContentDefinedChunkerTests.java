@@ -0,0 +1,92 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.common.hash.MessageDigests;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ContentDefinedChunkerTests extends ESTestCase {
+
+    public void testChunkSizesAreBounded() {
+        final ContentDefinedChunker chunker = new ContentDefinedChunker(1 << between(6, 12));
+        final byte[] data = randomByteArrayOfLength(between(0, 1 << 16));
+        final List<byte[]> chunks = chunk(chunker, data);
+        int offset = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            final byte[] chunk = chunks.get(i);
+            assertThat(chunk.length, lessThanOrEqualTo(chunker.maxChunkSize()));
+            if (i < chunks.size() - 1) {
+                assertThat(chunk.length, greaterThan(chunker.minChunkSize()));
+            } else {
+                assertThat(chunk.length, greaterThan(0));
+            }
+            assertArrayEquals(Arrays.copyOfRange(data, offset, offset + chunk.length), chunk);
+            offset += chunk.length;
+        }
+        assertThat(offset, equalTo(data.length));
+    }
+
+    public void testRoundsDownToPowerOfTwo() {
+        final ContentDefinedChunker chunker = new ContentDefinedChunker(1000);
+        assertThat(chunker.minChunkSize(), equalTo(128));
+        assertThat(chunker.maxChunkSize(), equalTo(2048));
+        expectThrows(IllegalArgumentException.class, () -> new ContentDefinedChunker(63));
+    }
+
+    public void testBoundariesDependOnContentOnly() {
+        final ContentDefinedChunker chunker = new ContentDefinedChunker(1 << 10);
+        final byte[] data = randomByteArrayOfLength(1 << 18);
+        assertThat(chunkHashes(chunk(chunker, data)), equalTo(chunkHashes(chunk(chunker, data))));
+
+        // inserting bytes only changes the chunks around the insertion
+        final int insertAt = between(0, data.length);
+        final byte[] inserted = randomByteArrayOfLength(between(1, 100));
+        final byte[] modified = new byte[data.length + inserted.length];
+        System.arraycopy(data, 0, modified, 0, insertAt);
+        System.arraycopy(inserted, 0, modified, insertAt, inserted.length);
+        System.arraycopy(data, insertAt, modified, insertAt + inserted.length, data.length - insertAt);
+
+        final List<String> original = chunkHashes(chunk(chunker, data));
+        final Set<String> shared = new HashSet<>(original);
+        shared.retainAll(chunkHashes(chunk(chunker, modified)));
+        assertThat(shared.size(), greaterThanOrEqualTo(original.size() - 3));
+    }
+
+    private static List<byte[]> chunk(ContentDefinedChunker chunker, byte[] data) {
+        final List<byte[]> chunks = new ArrayList<>();
+        int offset = 0;
+        while (offset < data.length) {
+            // only pass a window of the data to verify that the chunker does not look beyond its max chunk size
+            final int available = Math.min(data.length - offset, chunker.maxChunkSize());
+            final int length = chunker.nextChunkLength(data, offset, available);
+            chunks.add(Arrays.copyOfRange(data, offset, offset + length));
+            offset += length;
+        }
+        return chunks;
+    }
+
+    private static List<String> chunkHashes(List<byte[]> chunks) {
+        final List<String> hashes = new ArrayList<>();
+        for (byte[] chunk : chunks) {
+            hashes.add(MessageDigests.toHexString(MessageDigests.sha256().digest(chunk)));
+        }
+        return hashes;
+    }
+}
@@ -42,6 +42,7 @@ import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.snapshots.IndexShardSnapshotStatus;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshots;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.indices.recovery.RecoverySettings;
 import org.elasticsearch.indices.recovery.RecoveryState;
@@ -49,6 +50,7 @@ import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.repositories.ShardGeneration;
 import org.elasticsearch.repositories.ShardSnapshotResult;
 import org.elasticsearch.repositories.SnapshotShardContext;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
 import org.elasticsearch.repositories.blobstore.BlobStoreTestUtil;
 import org.elasticsearch.snapshots.Snapshot;
 import org.elasticsearch.snapshots.SnapshotId;
@@ -65,11 +67,15 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.not;
 
 public class FsRepositoryTests extends ESTestCase {
 
@@ -202,6 +208,91 @@ public class FsRepositoryTests extends ESTestCase {
         }
     }
 
+    public void testSnapshotAndRestoreWithContentDefinedChunking() throws IOException, InterruptedException {
+        ThreadPool threadPool = new TestThreadPool(getClass().getSimpleName());
+        try (Directory directory = newDirectory()) {
+            Path repo = createTempDir();
+            Settings settings = Settings.builder()
+                .put(Environment.PATH_HOME_SETTING.getKey(), createTempDir().toAbsolutePath())
+                .put(Environment.PATH_REPO_SETTING.getKey(), repo.toAbsolutePath())
+                .putList(Environment.PATH_DATA_SETTING.getKey(), tmpPaths())
+                .put("location", repo)
+                .put("chunk_size", randomIntBetween(100, 1000), ByteSizeUnit.BYTES)
+                .put(BlobStoreRepository.CONTENT_DEFINED_CHUNKING_SETTING.getKey(), true)
+                .put(BlobStoreRepository.CONTENT_DEFINED_CHUNK_SIZE_SETTING.getKey(), randomIntBetween(64, 1024), ByteSizeUnit.BYTES)
+                .put(BlobStoreRepository.MAX_CONCURRENT_CHUNK_UPLOADS_SETTING.getKey(), randomIntBetween(1, 4))
+                .build();
+
+            int numDocs = indexDocs(directory);
+            RepositoryMetadata metadata = new RepositoryMetadata("test", "fs", settings);
+            FsRepository repository = new FsRepository(
+                metadata,
+                new Environment(settings, null),
+                NamedXContentRegistry.EMPTY,
+                BlobStoreTestUtil.mockClusterService(),
+                MockBigArrays.NON_RECYCLING_INSTANCE,
+                new RecoverySettings(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS))
+            );
+            repository.start();
+            final Settings indexSettings = Settings.builder().put(IndexMetadata.SETTING_INDEX_UUID, "myindexUUID").build();
+            IndexSettings idxSettings = IndexSettingsModule.newIndexSettings("myindex", indexSettings);
+            ShardId shardId = new ShardId(idxSettings.getIndex(), 1);
+            Store store = new Store(shardId, idxSettings, directory, new DummyShardLock(shardId));
+            SnapshotId snapshotId = new SnapshotId("test", "test");
+            IndexId indexId = new IndexId(idxSettings.getIndex().getName(), idxSettings.getUUID());
+
+            IndexCommit indexCommit = Lucene.getIndexCommit(Lucene.readSegmentInfos(store.directory()), store.directory());
+            final PlainActionFuture<ShardSnapshotResult> future = PlainActionFuture.newFuture();
+            runGeneric(threadPool, () -> {
+                IndexShardSnapshotStatus snapshotStatus = IndexShardSnapshotStatus.newInitializing(null);
+                repository.snapshotShard(
+                    new SnapshotShardContext(
+                        store,
+                        null,
+                        snapshotId,
+                        indexId,
+                        new Engine.IndexCommitRef(indexCommit, () -> {}),
+                        null,
+                        snapshotStatus,
+                        Version.CURRENT,
+                        Collections.emptyMap(),
+                        future
+                    )
+                );
+                future.actionGet();
+            });
+            final ShardGeneration shardGeneration = future.actionGet().getGeneration();
+
+            final BlobStoreIndexShardSnapshots shardSnapshots = repository.getBlobStoreIndexShardSnapshots(
+                indexId,
+                shardId.id(),
+                shardGeneration
+            );
+            assertThat(shardSnapshots.chunkNames(), not(empty()));
+            final Set<String> blobs = repository.shardContainer(indexId, shardId.id()).listBlobs().keySet();
+            assertThat(blobs, hasItems(shardSnapshots.chunkNames().toArray(new String[0])));
+            assertTrue(blobs.toString(), blobs.stream().noneMatch(blob -> blob.contains(".part")));
+
+            Lucene.cleanLuceneIndex(directory);
+            DiscoveryNode localNode = new DiscoveryNode("foo", buildNewFakeTransportAddress(), emptyMap(), emptySet(), Version.CURRENT);
+            ShardRouting routing = ShardRouting.newUnassigned(
+                shardId,
+                true,
+                new RecoverySource.SnapshotRecoverySource("test", new Snapshot("foo", snapshotId), Version.CURRENT, indexId),
+                new UnassignedInfo(UnassignedInfo.Reason.EXISTING_INDEX_RESTORED, "")
+            );
+            routing = ShardRoutingHelper.initialize(routing, localNode.getId(), 0);
+            RecoveryState state = new RecoveryState(routing, localNode, null);
+            final PlainActionFuture<Void> restoreFuture = PlainActionFuture.newFuture();
+            runGeneric(threadPool, () -> repository.restoreShard(store, snapshotId, indexId, shardId, state, restoreFuture));
+            restoreFuture.actionGet();
+            assertEquals(indexCommit.getFileNames().size(), state.getIndex().recoveredFileCount());
+            assertEquals(numDocs, Lucene.readSegmentInfos(directory).totalMaxDoc());
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
     private void runGeneric(ThreadPool threadPool, Runnable runnable) throws InterruptedException {
         CountDownLatch latch = new CountDownLatch(1);
         threadPool.generic().submit(() -> {
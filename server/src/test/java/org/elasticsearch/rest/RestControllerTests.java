@@ -25,6 +25,7 @@ import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xcontent.XContentType;
 import org.elasticsearch.xcontent.yaml.YamlXContent;
 import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.http.HttpContentStream;
 import org.elasticsearch.http.HttpInfo;
 import org.elasticsearch.http.HttpRequest;
 import org.elasticsearch.http.HttpResponse;
@@ -56,6 +57,7 @@ import java.util.stream.Collectors;
 
 import static org.elasticsearch.rest.RestRequest.Method.GET;
 import static org.elasticsearch.rest.RestRequest.Method.OPTIONS;
+import static org.elasticsearch.rest.RestRequest.Method.POST;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
@@ -472,6 +474,86 @@ public class RestControllerTests extends ESTestCase {
         assertTrue(channel.getSendResponseCalled());
     }
 
+    public void testDispatchStreamedContent() {
+        final HttpContentStream contentStream = mock(HttpContentStream.class);
+        FakeRestRequest fakeRestRequest = new FakeRestRequest.Builder(NamedXContentRegistry.EMPTY)
+            .withContentStream(contentStream, XContentType.JSON).withPath("/foo").withMethod(POST).build();
+        AssertingChannel channel = new AssertingChannel(fakeRestRequest, true, RestStatus.OK);
+        restController.registerHandler(new Route(POST, "/foo"), new RestHandler() {
+            @Override
+            public void handleRequest(RestRequest request, RestChannel channel, NodeClient client) throws Exception {
+                assertTrue(request.isStreamedContent());
+                assertTrue(request.hasContent());
+                assertSame(contentStream, request.contentStream());
+                // the chunks of a streamed body are not accounted for in the in-flight requests breaker
+                assertEquals(0, inFlightRequestsBreaker.getUsed());
+                channel.sendResponse(new BytesRestResponse(RestStatus.OK, BytesRestResponse.TEXT_CONTENT_TYPE, BytesArray.EMPTY));
+            }
+
+            @Override
+            public boolean supportsIncrementalContent() {
+                return true;
+            }
+        });
+
+        assertFalse(channel.getSendResponseCalled());
+        restController.dispatchRequest(fakeRestRequest, channel, client.threadPool().getThreadContext());
+        assertTrue(channel.getSendResponseCalled());
+    }
+
+    public void testDispatchStreamedContentToHandlerWithoutSupportForIt() {
+        FakeRestRequest fakeRestRequest = new FakeRestRequest.Builder(NamedXContentRegistry.EMPTY)
+            .withContentStream(mock(HttpContentStream.class), XContentType.JSON).withPath("/foo").withMethod(POST).build();
+        AssertingChannel channel = new AssertingChannel(fakeRestRequest, true, RestStatus.BAD_REQUEST);
+        final AtomicBoolean handlerCalled = new AtomicBoolean();
+        restController.registerHandler(new Route(POST, "/foo"), (request, c, client) -> handlerCalled.set(true));
+
+        restController.dispatchRequest(fakeRestRequest, channel, client.threadPool().getThreadContext());
+        assertTrue(channel.getSendResponseCalled());
+        assertFalse(handlerCalled.get());
+    }
+
+    public void testDispatchStreamedContentRequiresContentType() {
+        FakeRestRequest fakeRestRequest = new FakeRestRequest.Builder(NamedXContentRegistry.EMPTY)
+            .withContentStream(mock(HttpContentStream.class), null).withPath("/foo").withMethod(POST).build();
+        AssertingChannel channel = new AssertingChannel(fakeRestRequest, true, RestStatus.NOT_ACCEPTABLE);
+        final AtomicBoolean handlerCalled = new AtomicBoolean();
+        restController.registerHandler(new Route(POST, "/foo"), new RestHandler() {
+            @Override
+            public void handleRequest(RestRequest request, RestChannel channel, NodeClient client) {
+                handlerCalled.set(true);
+            }
+
+            @Override
+            public boolean supportsIncrementalContent() {
+                return true;
+            }
+        });
+
+        restController.dispatchRequest(fakeRestRequest, channel, client.threadPool().getThreadContext());
+        assertTrue(channel.getSendResponseCalled());
+        assertFalse(handlerCalled.get());
+    }
+
+    public void testSupportsIncrementalContent() {
+        restController.registerHandler(new Route(POST, "/{index}/_stream"), new RestHandler() {
+            @Override
+            public void handleRequest(RestRequest request, RestChannel channel, NodeClient client) {
+            }
+
+            @Override
+            public boolean supportsIncrementalContent() {
+                return true;
+            }
+        });
+
+        assertTrue(restController.supportsIncrementalContent(POST, "/test/_stream"));
+        assertTrue(restController.supportsIncrementalContent(POST, "/test/_stream?refresh=true"));
+        assertFalse(restController.supportsIncrementalContent(GET, "/test/_stream"));
+        assertFalse(restController.supportsIncrementalContent(GET, "/"));
+        assertFalse(restController.supportsIncrementalContent(POST, "/unknown/path"));
+    }
+
     public void testNonStreamingXContentCausesErrorResponse() throws IOException {
         FakeRestRequest fakeRestRequest = new FakeRestRequest.Builder(NamedXContentRegistry.EMPTY)
             .withContent(BytesReference.bytes(YamlXContent.contentBuilder().startObject().endObject()),
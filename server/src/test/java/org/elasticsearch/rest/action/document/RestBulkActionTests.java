@@ -11,23 +11,40 @@ package org.elasticsearch.rest.action.document;
 import org.apache.lucene.util.SetOnce;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.http.HttpContentStream;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.xcontent.XContentType;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.client.NoOpNodeClient;
+import org.elasticsearch.test.rest.FakeRestChannel;
 import org.elasticsearch.test.rest.FakeRestRequest;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.mock;
 
 /**
@@ -66,4 +83,158 @@ public class RestBulkActionTests extends ESTestCase {
             assertThat(bulkCalled.get(), equalTo(true));
         }
     }
+
+    public void testStreamedBulkExecutesBatchesInOrder() throws Exception {
+        final List<BulkRequest> batches = new ArrayList<>();
+        final List<ActionListener<BulkResponse>> listeners = new ArrayList<>();
+        try (NodeClient client = new NoOpNodeClient(getTestName()) {
+            @Override
+            public void bulk(BulkRequest request, ActionListener<BulkResponse> listener) {
+                batches.add(request);
+                listeners.add(listener);
+            }
+        }) {
+            // items of about 1mb so that the request is executed in several batches
+            final int numberOfItems = randomIntBetween(6, 16);
+            final String source = "{\"field\":\"" + randomAlphaOfLength(1 << 20) + "\"}\n";
+            final StringBuilder body = new StringBuilder();
+            for (int i = 0; i < numberOfItems; i++) {
+                body.append("{\"index\":{\"_index\":\"test\",\"_id\":\"").append(i).append("\"}}\n").append(source);
+            }
+            final FakeContentStream stream = new FakeContentStream(new BytesArray(body.toString()));
+            final FakeRestRequest request = new FakeRestRequest.Builder(xContentRegistry()).withPath("/_bulk")
+                .withContentStream(stream, XContentType.JSON).withMethod(RestRequest.Method.POST).build();
+            final FakeRestChannel channel = new FakeRestChannel(request, false, 1);
+            new RestBulkAction(settings(Version.CURRENT).build()).handleRequest(request, channel, client);
+
+            int completedBatches = 0;
+            int executedItems = 0;
+            while (channel.capturedResponse() == null) {
+                assertThat("batches are executed one after the other", listeners.size() - completedBatches, lessThanOrEqualTo(1));
+                if (stream.requested > 0) {
+                    stream.sendChunk(between(1, 1 << 19));
+                } else {
+                    // the next chunk is only requested once the batch in flight completed
+                    assertThat("the request stalled", listeners.size(), equalTo(completedBatches + 1));
+                    final BulkRequest batch = batches.get(completedBatches);
+                    final BulkItemResponse[] items = new BulkItemResponse[batch.numberOfActions()];
+                    for (int i = 0; i < items.length; i++) {
+                        final DocWriteRequest<?> item = batch.requests().get(i);
+                        assertThat(item.id(), equalTo(Integer.toString(executedItems + i)));
+                        items[i] = BulkItemResponse.success(i, item.opType(),
+                            new IndexResponse(new ShardId("test", "_na_", 0), item.id(), 1, 1, 1, true));
+                    }
+                    executedItems += items.length;
+                    listeners.get(completedBatches++).onResponse(new BulkResponse(items, 1));
+                }
+            }
+            assertThat(executedItems, equalTo(numberOfItems));
+            assertThat(completedBatches, greaterThan(1));
+            assertThat(channel.capturedResponse().status(), equalTo(RestStatus.OK));
+            final List<?> responseItems = (List<?>) XContentHelper.convertToMap(channel.capturedResponse().content(), false,
+                XContentType.JSON).v2().get("items");
+            assertThat(responseItems, hasSize(numberOfItems));
+            for (int i = 0; i < numberOfItems; i++) {
+                final Map<?, ?> item = (Map<?, ?>) ((Map<?, ?>) responseItems.get(i)).get("index");
+                assertThat(item.get("_id"), equalTo(Integer.toString(i)));
+            }
+            assertThat("all chunks are released", stream.unreleasedChunks.get(), equalTo(0));
+        }
+    }
+
+    public void testStreamedBulkReleasesChunksOnEarlyClose() throws Exception {
+        final List<ActionListener<BulkResponse>> listeners = new ArrayList<>();
+        try (NodeClient client = new NoOpNodeClient(getTestName()) {
+            @Override
+            public void bulk(BulkRequest request, ActionListener<BulkResponse> listener) {
+                listeners.add(listener);
+            }
+        }) {
+            final FakeContentStream stream = new FakeContentStream(new BytesArray(
+                "{\"index\":{\"_index\":\"test\",\"_id\":\"1\"}}\n{\"field\":\"value\"}\n"));
+            final FakeRestRequest request = new FakeRestRequest.Builder(xContentRegistry()).withPath("/_bulk")
+                .withContentStream(stream, XContentType.JSON).withMethod(RestRequest.Method.POST).build();
+            final FakeRestChannel channel = new FakeRestChannel(request, false, 1);
+            new RestBulkAction(settings(Version.CURRENT).build()).handleRequest(request, channel, client);
+
+            // the chunk ends within the first item
+            stream.sendChunk(between(40, 50));
+            assertThat(stream.requested, equalTo(1));
+            assertThat(stream.unreleasedChunks.get(), equalTo(1));
+
+            // the client disconnects before the rest of the body was received
+            stream.handler.close();
+            assertThat(stream.unreleasedChunks.get(), equalTo(0));
+            assertThat(listeners, hasSize(0));
+            assertThat(channel.capturedResponse(), nullValue());
+        }
+    }
+
+    public void testMalformedStreamedBulkFails() throws Exception {
+        try (NodeClient client = new NoOpNodeClient(getTestName()) {
+            @Override
+            public void bulk(BulkRequest request, ActionListener<BulkResponse> listener) {
+                fail("the items of a malformed request that fit into a single batch are not executed");
+            }
+        }) {
+            final FakeContentStream stream = new FakeContentStream(new BytesArray(
+                "{\"index\":{\"_index\":\"test\",\"_id\":\"1\"}}\n{\"field\":\"value\"}\n{\"unknown\":{}}\n{}\n"));
+            final FakeRestRequest request = new FakeRestRequest.Builder(xContentRegistry()).withPath("/_bulk")
+                .withContentStream(stream, XContentType.JSON).withMethod(RestRequest.Method.POST).build();
+            final FakeRestChannel channel = new FakeRestChannel(request, false, 1);
+            new RestBulkAction(settings(Version.CURRENT).build()).handleRequest(request, channel, client);
+
+            while (channel.capturedResponse() == null) {
+                assertThat(stream.requested, equalTo(1));
+                stream.sendChunk(between(1, 16));
+            }
+            assertThat(channel.capturedResponse().status(), equalTo(RestStatus.BAD_REQUEST));
+            assertThat(stream.unreleasedChunks.get(), equalTo(0));
+        }
+    }
+
+    /**
+     * A {@link HttpContentStream} that hands out the chunks of a body when the test sends them, counting the chunks not released yet.
+     */
+    private static final class FakeContentStream implements HttpContentStream {
+
+        private final BytesReference body;
+        private final AtomicInteger unreleasedChunks = new AtomicInteger();
+        private ChunkHandler handler;
+        private int offset;
+        private int requested;
+
+        FakeContentStream(BytesReference body) {
+            this.body = body;
+        }
+
+        @Override
+        public void setHandler(ChunkHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void next() {
+            assertThat("requested the next chunk before the previous chunk was received", requested, equalTo(0));
+            requested++;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        void sendChunk(int length) {
+            assertThat(requested, equalTo(1));
+            requested--;
+            final int chunkLength = Math.min(length, body.length() - offset);
+            final BytesReference chunk = body.slice(offset, chunkLength);
+            offset += chunkLength;
+            unreleasedChunks.incrementAndGet();
+            final AtomicBoolean released = new AtomicBoolean();
+            handler.onNext(new ReleasableBytesReference(chunk, () -> {
+                assertTrue("released a chunk twice", released.compareAndSet(false, true));
+                unreleasedChunks.decrementAndGet();
+            }), offset == body.length());
+        }
+    }
 }
@@ -10,17 +10,22 @@ package org.elasticsearch.threadpool;
 
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 
 public class ScalingThreadPoolTests extends ESThreadPoolTestCase {
@@ -174,6 +179,44 @@ public class ScalingThreadPoolTests extends ESThreadPoolTestCase {
         }));
     }
 
+    public void testScalingThreadPoolWithVirtualThreads() throws InterruptedException {
+        final String threadPoolName = randomThreadPool(ThreadPool.ThreadPoolType.SCALING);
+        final Settings settings = Settings.builder().put("thread_pool." + threadPoolName + ".virtual_threads", true).build();
+        runScalingThreadPoolTest(settings, ((clusterSettings, threadPool) -> {
+            final int numberOfTasks = randomIntBetween(1, 64);
+            final CountDownLatch taskLatch = new CountDownLatch(numberOfTasks);
+            final AtomicReference<String> threadName = new AtomicReference<>();
+            final AtomicReference<String> header = new AtomicReference<>();
+            try (ThreadContext.StoredContext ignored = threadPool.getThreadContext().stashContext()) {
+                threadPool.getThreadContext().putHeader("header", "value");
+                for (int i = 0; i < numberOfTasks; i++) {
+                    threadPool.executor(threadPoolName).execute(() -> {
+                        threadName.set(Thread.currentThread().getName());
+                        header.set(threadPool.getThreadContext().getHeader("header"));
+                        taskLatch.countDown();
+                    });
+                }
+            }
+            try {
+                taskLatch.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            // virtual threads are only used if the JDK supports them and no security manager is installed
+            final String threadPrefix = EsExecutors.virtualThreadsSupported() ? "[V#" : "[T#";
+            assertThat(threadName.get(), containsString("[" + threadPoolName + "]" + threadPrefix));
+            assertThat(header.get(), equalTo("value"));
+            assertThat(info(threadPool, threadPoolName).getThreadPoolType(), equalTo(ThreadPool.ThreadPoolType.SCALING));
+        }));
+    }
+
+    public void testVirtualThreadsAreNotUsedUnderSecurityManager() {
+        assumeTrue("requires the security manager", System.getSecurityManager() != null);
+        assertFalse(EsExecutors.virtualThreadsSupported());
+        final IllegalStateException e = expectThrows(IllegalStateException.class, () -> EsExecutors.virtualThreadFactory("test"));
+        assertThat(e.getMessage(), anyOf(containsString("security manager"), containsString("not supported by JDK")));
+    }
+
     public void runScalingThreadPoolTest(
             final Settings settings,
             final BiConsumer<ClusterSettings, ThreadPool> consumer) throws InterruptedException {
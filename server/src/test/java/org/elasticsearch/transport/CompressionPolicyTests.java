@@ -0,0 +1,99 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CompressionPolicyTests extends ESTestCase {
+
+    public void testNoRules() {
+        final CompressionPolicy policy = CompressionPolicy.fromSettings(Settings.EMPTY);
+        final Compression.Scheme connectionScheme = randomFrom(Compression.Scheme.LZ4, Compression.Scheme.DEFLATE, null);
+        final String action = randomAlphaOfLength(10);
+        assertThat(policy.scheme(action, connectionScheme), equalTo(connectionScheme));
+        assertThat(policy.minCompressedSize(action), equalTo(0L));
+    }
+
+    public void testMatchingActionsAreCompressed() {
+        final Compression.Scheme scheme = randomFrom(Compression.Scheme.values());
+        final CompressionPolicy policy = CompressionPolicy.fromSettings(Settings.builder()
+            .put(TransportSettings.TRANSPORT_COMPRESSION_SCHEME.getKey(), scheme)
+            .putList("transport.compression_policy.search.actions", "indices:data/read/search*", "indices:data/read/msearch*")
+            .build());
+
+        assertThat(policy.scheme("indices:data/read/search[phase/query]", null), equalTo(scheme));
+        assertThat(policy.scheme("indices:data/read/msearch", null), equalTo(scheme));
+        assertThat(policy.scheme("indices:data/write/bulk[s]", null), nullValue());
+        // the scheme of the connection takes precedence
+        assertThat(policy.scheme("indices:data/read/search", Compression.Scheme.DEFLATE), equalTo(Compression.Scheme.DEFLATE));
+    }
+
+    public void testMinSize() {
+        final CompressionPolicy policy = CompressionPolicy.fromSettings(Settings.builder()
+            .putList("transport.compression_policy.a.actions", "cluster:*")
+            .put("transport.compression_policy.a.min_size", "1kb")
+            .build());
+
+        final Compression.Scheme connectionScheme = randomFrom(Compression.Scheme.LZ4, Compression.Scheme.DEFLATE, null);
+        assertThat(policy.scheme("cluster:monitor/state", connectionScheme),
+            equalTo(connectionScheme == null ? Compression.Scheme.LZ4 : connectionScheme));
+        assertThat(policy.minCompressedSize("cluster:monitor/state"), equalTo(1024L));
+        assertThat(policy.minCompressedSize("indices:data/read/get"), equalTo(0L));
+    }
+
+    public void testRulesAreOrderedByName() {
+        final CompressionPolicy policy = CompressionPolicy.fromSettings(Settings.builder()
+            .putList("transport.compression_policy.b.actions", "*")
+            .putList("transport.compression_policy.a.actions", "internal:*")
+            .put("transport.compression_policy.a.min_size", "1mb")
+            .build());
+
+        // rule [a] matches first
+        assertThat(policy.minCompressedSize("internal:index/shard/recovery/file_chunk"), equalTo(1024L * 1024L));
+        assertThat(policy.minCompressedSize("indices:data/read/get"), equalTo(0L));
+        assertThat(policy.scheme("indices:data/read/get", null), equalTo(Compression.Scheme.LZ4));
+    }
+
+    public void testSmallMessagesAreSerializedUncompressed() throws IOException {
+        final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        final TestRequest request = new TestRequest(randomAlphaOfLength(between(0, 4096)));
+        final long requestId = randomNonNegativeLong();
+        final Compression.Scheme scheme = randomFrom(Compression.Scheme.LZ4, Compression.Scheme.DEFLATE);
+        final long minCompressedSize = between(0, 4096);
+
+        final OutboundMessage message =
+            new OutboundMessage.Request(threadContext, request, Version.CURRENT, "internal:test", requestId, false, scheme);
+        final BytesReference serialized = message.serialize(new BytesStreamOutput(), minCompressedSize);
+        if (message.isCompress()) {
+            assertThat(message.uncompressedBytes(), greaterThan(0L));
+            assertThat(message.uncompressedBytes() >= minCompressedSize, equalTo(true));
+        } else {
+            assertThat(message.uncompressedBytes(), equalTo(0L));
+            final OutboundMessage uncompressed =
+                new OutboundMessage.Request(threadContext, request, Version.CURRENT, "internal:test", requestId, false, null);
+            // the message is sent exactly as if it was never compressed
+            assertEquals(uncompressed.serialize(new BytesStreamOutput()), serialized);
+            final BytesStreamOutput body = new BytesStreamOutput();
+            body.setVersion(Version.CURRENT);
+            request.writeTo(body);
+            assertThat((long) body.size() < minCompressedSize, equalTo(true));
+        }
+    }
+}
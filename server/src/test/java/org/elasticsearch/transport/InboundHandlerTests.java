@@ -53,6 +53,7 @@ public class InboundHandlerTests extends ESTestCase {
     private TaskManager taskManager;
     private Transport.ResponseHandlers responseHandlers;
     private Transport.RequestHandlers requestHandlers;
+    private StatsTracker statsTracker;
     private InboundHandler handler;
     private FakeTcpChannel channel;
 
@@ -64,12 +65,13 @@ public class InboundHandlerTests extends ESTestCase {
         NamedWriteableRegistry namedWriteableRegistry = new NamedWriteableRegistry(Collections.emptyList());
         TransportHandshaker handshaker = new TransportHandshaker(version, threadPool, (n, c, r, v) -> {});
         TransportKeepAlive keepAlive = new TransportKeepAlive(threadPool, TcpChannel::sendMessage);
-        OutboundHandler outboundHandler = new OutboundHandler("node", version, new StatsTracker(), threadPool,
+        statsTracker = new StatsTracker();
+        OutboundHandler outboundHandler = new OutboundHandler("node", version, statsTracker, threadPool,
             BigArrays.NON_RECYCLING_INSTANCE);
         requestHandlers = new Transport.RequestHandlers();
         responseHandlers = new Transport.ResponseHandlers();
         handler = new InboundHandler(threadPool, outboundHandler, namedWriteableRegistry, handshaker, keepAlive, requestHandlers,
-            responseHandlers);
+            responseHandlers, statsTracker);
     }
 
     @After
@@ -92,6 +94,23 @@ public class InboundHandlerTests extends ESTestCase {
         }
     }
 
+    public void testUnknownActionsAreNotTracked() throws Exception {
+        final String action = randomAlphaOfLength(10);
+        final long requestId = randomNonNegativeLong();
+        final OutboundMessage.Request request = new OutboundMessage.Request(threadPool.getThreadContext(),
+            new TestRequest(randomAlphaOfLength(10)), version, action, requestId, false, null);
+        final BytesReference fullRequestBytes = request.serialize(new BytesStreamOutput());
+        final int headerSize = TcpHeader.headerSize(version);
+        final BytesReference requestContent = fullRequestBytes.slice(headerSize, fullRequestBytes.length() - headerSize);
+        final Header requestHeader = new Header(fullRequestBytes.length() - 6, requestId, TransportStatus.setRequest((byte) 0), version);
+        requestHeader.finishParsingHeader(requestContent.streamInput());
+        // the aggregator short circuits requests for actions without a registered handler
+        handler.inboundMessage(channel, new InboundMessage(requestHeader, new ActionNotFoundTransportException(action)));
+
+        assertNotNull(channel.getMessageCaptor().get());
+        assertFalse(statsTracker.getActionStats().containsKey(action));
+    }
+
     public void testRequestAndResponse() throws Exception {
         String action = "test-request";
         int headerSize = TcpHeader.headerSize(version);
@@ -162,6 +181,16 @@ public class InboundHandlerTests extends ESTestCase {
         } else {
             assertEquals(responseValue, responseCaptor.get().value);
         }
+
+        TransportStats.ActionStats actionStats = statsTracker.getActionStats().get(action);
+        assertEquals(1, actionStats.getLatency().getCount());
+        assertEquals(1, actionStats.getQueueTime().getCount());
+        assertEquals(0, actionStats.getQueueTime().getSum());
+        assertEquals(1, actionStats.getExecutionTime().getCount());
+        assertEquals(2, actionStats.getRxSize().getCount());
+        assertEquals(2L * fullRequestBytes.length(), actionStats.getRxSize().getSum());
+        assertEquals(1, actionStats.getTxSize().getCount());
+        assertEquals(fullResponseBytes.length(), actionStats.getTxSize().getSum());
     }
 
     public void testSendsErrorResponseToHandshakeFromCompatibleVersion() throws Exception {
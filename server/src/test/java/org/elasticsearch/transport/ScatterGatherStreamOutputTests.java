@@ -0,0 +1,171 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class ScatterGatherStreamOutputTests extends ESTestCase {
+
+    public void testSerializesLikeBytesStreamOutput() throws IOException {
+        final BytesStreamOutput expected = new BytesStreamOutput();
+        final BytesStreamOutput bytesStream = new BytesStreamOutput();
+        final int prefix = between(0, 10);
+        expected.skip(prefix);
+        bytesStream.skip(prefix);
+        final ScatterGatherStreamOutput stream = new ScatterGatherStreamOutput(bytesStream);
+
+        long expectedReferencedBytes = 0;
+        final int iterations = between(0, 20);
+        for (int i = 0; i < iterations; i++) {
+            switch (between(0, 3)) {
+                case 0:
+                    final String string = randomAlphaOfLengthBetween(0, 100);
+                    expected.writeString(string);
+                    stream.writeString(string);
+                    break;
+                case 1:
+                    final long value = randomLong();
+                    expected.writeVLong(value);
+                    stream.writeVLong(value);
+                    break;
+                case 2:
+                case 3:
+                    final BytesReference bytes = randomFrom(
+                        null,
+                        new BytesArray(randomByteArrayOfLength(between(0, 10_000))),
+                        ReleasableBytesReference.wrap(new BytesArray(randomByteArrayOfLength(between(0, 10_000))))
+                    );
+                    if (randomBoolean()) {
+                        expected.writeBytesReference(bytes);
+                        stream.writeBytesReference(bytes);
+                    } else {
+                        expected.writeOptionalBytesReference(bytes);
+                        stream.writeOptionalBytesReference(bytes);
+                    }
+                    if (bytes instanceof ReleasableBytesReference && bytes.length() >= ScatterGatherStreamOutput.PASS_THROUGH_THRESHOLD) {
+                        expectedReferencedBytes += bytes.length();
+                    }
+                    break;
+            }
+            assertThat(stream.position(), equalTo(expected.position() - prefix));
+        }
+
+        final BytesReference serialized = stream.bytes();
+        assertThat(stream.referencedBytes(), equalTo(expectedReferencedBytes));
+        assertThat(bytesStream.position() + expectedReferencedBytes, equalTo((long) serialized.length()));
+        assertEquals(expected.bytes(), serialized);
+    }
+
+    public void testLargeReferencesAreNotCopied() throws IOException {
+        final byte[] source = randomByteArrayOfLength(between(ScatterGatherStreamOutput.PASS_THROUGH_THRESHOLD, 100_000));
+        final ScatterGatherStreamOutput stream = new ScatterGatherStreamOutput(new BytesStreamOutput());
+        stream.writeString("before");
+        stream.writeBytesReference(ReleasableBytesReference.wrap(new BytesArray(source)));
+        stream.writeString("after");
+        final BytesReference serialized = stream.bytes();
+
+        // the serialized message reads the source array itself
+        final byte[] updated = randomByteArrayOfLength(source.length);
+        System.arraycopy(updated, 0, source, 0, source.length);
+        try (StreamInput in = serialized.streamInput()) {
+            assertThat(in.readString(), equalTo("before"));
+            assertEquals(new BytesArray(updated), in.readBytesReference());
+            assertThat(in.readString(), equalTo("after"));
+        }
+    }
+
+    public void testReleasableReferencesAreRetainedUntilClosed() throws IOException {
+        final byte[] source = randomByteArrayOfLength(between(ScatterGatherStreamOutput.PASS_THROUGH_THRESHOLD, 100_000));
+        final AtomicBoolean released = new AtomicBoolean();
+        final ReleasableBytesReference reference = new ReleasableBytesReference(new BytesArray(source), () -> released.set(true));
+        final ScatterGatherStreamOutput stream = new ScatterGatherStreamOutput(new BytesStreamOutput());
+        if (randomBoolean()) {
+            stream.writeBytesReference(reference);
+        } else {
+            stream.writeOptionalBytesReference(reference);
+        }
+        final BytesReference serialized = stream.bytes();
+        assertThat(stream.referencedBytes(), equalTo((long) source.length));
+
+        // the owner of the reference releases it before the message was sent
+        reference.decRef();
+        assertThat(released.get(), equalTo(false));
+        assertThat(serialized.length(), greaterThan(source.length));
+
+        stream.close();
+        assertThat(released.get(), equalTo(true));
+    }
+
+    public void testResetDiscardsWrittenBytes() throws IOException {
+        final AtomicBoolean released = new AtomicBoolean();
+        final ReleasableBytesReference reference = new ReleasableBytesReference(
+            new BytesArray(randomByteArrayOfLength(between(ScatterGatherStreamOutput.PASS_THROUGH_THRESHOLD, 100_000))),
+            () -> released.set(true)
+        );
+        final BytesStreamOutput bytesStream = new BytesStreamOutput();
+        final int prefix = between(0, 10);
+        bytesStream.skip(prefix);
+        final ScatterGatherStreamOutput stream = new ScatterGatherStreamOutput(bytesStream);
+        stream.writeString("discarded");
+        stream.writeBytesReference(reference);
+        reference.decRef();
+
+        stream.reset();
+        assertThat(released.get(), equalTo(true));
+        assertThat(stream.position(), equalTo(0L));
+        assertThat(stream.referencedBytes(), equalTo(0L));
+
+        stream.writeString("kept");
+        final BytesReference serialized = stream.bytes();
+        try (StreamInput in = serialized.slice(prefix, serialized.length() - prefix).streamInput()) {
+            assertThat(in.readString(), equalTo("kept"));
+            assertThat(in.available(), equalTo(0));
+        }
+    }
+
+    public void testUnreleasableReferencesAreCopied() throws IOException {
+        final byte[] source = randomByteArrayOfLength(between(ScatterGatherStreamOutput.PASS_THROUGH_THRESHOLD, 100_000));
+        final byte[] original = source.clone();
+        final ScatterGatherStreamOutput stream = new ScatterGatherStreamOutput(new BytesStreamOutput());
+        stream.writeBytesReference(new BytesArray(source));
+        final BytesReference serialized = stream.bytes();
+        assertThat(stream.referencedBytes(), equalTo(0L));
+
+        // the array may be a recycled page that is reused once its owner released it
+        source[0]++;
+        try (StreamInput in = serialized.streamInput()) {
+            assertEquals(new BytesArray(original), in.readBytesReference());
+        }
+    }
+
+    public void testSmallReferencesAreCopied() throws IOException {
+        final byte[] source = randomByteArrayOfLength(between(1, ScatterGatherStreamOutput.PASS_THROUGH_THRESHOLD - 1));
+        final byte[] original = source.clone();
+        final ScatterGatherStreamOutput stream = new ScatterGatherStreamOutput(new BytesStreamOutput());
+        stream.writeBytesReference(ReleasableBytesReference.wrap(new BytesArray(source)));
+        final BytesReference serialized = stream.bytes();
+        assertThat(stream.referencedBytes(), equalTo(0L));
+
+        source[0]++;
+        try (StreamInput in = serialized.streamInput()) {
+            assertEquals(new BytesArray(original), in.readBytesReference());
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.elasticsearch.action.support.master.MasterNodeRequest;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.xcontent.ToXContentFragment;
 import org.elasticsearch.xcontent.ToXContentObject;
 import org.elasticsearch.xcontent.XContentBuilder;
@@ -52,11 +53,18 @@ public class EnrichStatsAction extends ActionType<EnrichStatsAction.Response> {
         private final List<ExecutingPolicy> executingPolicies;
         private final List<CoordinatorStats> coordinatorStats;
         private final List<CacheStats> cacheStats;
-
-        public Response(List<ExecutingPolicy> executingPolicies, List<CoordinatorStats> coordinatorStats, List<CacheStats> cacheStats) {
+        private final List<LookupStats> lookupStats;
+
+        public Response(
+            List<ExecutingPolicy> executingPolicies,
+            List<CoordinatorStats> coordinatorStats,
+            List<CacheStats> cacheStats,
+            List<LookupStats> lookupStats
+        ) {
             this.executingPolicies = executingPolicies;
             this.coordinatorStats = coordinatorStats;
             this.cacheStats = cacheStats;
+            this.lookupStats = lookupStats;
         }
 
         public Response(StreamInput in) throws IOException {
@@ -64,6 +72,7 @@ public class EnrichStatsAction extends ActionType<EnrichStatsAction.Response> {
             executingPolicies = in.readList(ExecutingPolicy::new);
             coordinatorStats = in.readList(CoordinatorStats::new);
             cacheStats = in.getVersion().onOrAfter(Version.V_7_16_0) ? in.readList(CacheStats::new) : null;
+            lookupStats = in.getVersion().onOrAfter(Version.V_8_0_0) ? in.readList(LookupStats::new) : null;
         }
 
         public List<ExecutingPolicy> getExecutingPolicies() {
@@ -78,6 +87,10 @@ public class EnrichStatsAction extends ActionType<EnrichStatsAction.Response> {
             return cacheStats;
         }
 
+        public List<LookupStats> getLookupStats() {
+            return lookupStats;
+        }
+
         @Override
         public void writeTo(StreamOutput out) throws IOException {
             out.writeList(executingPolicies);
@@ -85,6 +98,9 @@ public class EnrichStatsAction extends ActionType<EnrichStatsAction.Response> {
             if (out.getVersion().onOrAfter(Version.V_7_16_0)) {
                 out.writeList(cacheStats);
             }
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeList(lookupStats);
+            }
         }
 
         @Override
@@ -113,6 +129,15 @@ public class EnrichStatsAction extends ActionType<EnrichStatsAction.Response> {
                 }
                 builder.endArray();
             }
+            if (lookupStats != null) {
+                builder.startArray("lookup_stats");
+                for (LookupStats lookupStat : lookupStats) {
+                    builder.startObject();
+                    lookupStat.toXContent(builder, params);
+                    builder.endObject();
+                }
+                builder.endArray();
+            }
             builder.endObject();
             return builder;
         }
@@ -124,12 +149,13 @@ public class EnrichStatsAction extends ActionType<EnrichStatsAction.Response> {
             Response response = (Response) o;
             return executingPolicies.equals(response.executingPolicies) &&
                 coordinatorStats.equals(response.coordinatorStats) &&
-                Objects.equals(cacheStats, response.cacheStats);
+                Objects.equals(cacheStats, response.cacheStats) &&
+                Objects.equals(lookupStats, response.lookupStats);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(executingPolicies, coordinatorStats, cacheStats);
+            return Objects.hash(executingPolicies, coordinatorStats, cacheStats, lookupStats);
         }
 
         public static class CoordinatorStats implements Writeable, ToXContentFragment {
@@ -340,6 +366,107 @@ public class EnrichStatsAction extends ActionType<EnrichStatsAction.Response> {
                 return Objects.hash(nodeId, count, hits, misses, evictions);
             }
         }
+
+        /**
+         * Stats of the enrich indices that an ingest node holds in memory to look up documents without a search.
+         */
+        public static class LookupStats implements Writeable, ToXContentFragment {
+
+            private final String nodeId;
+            private final long count;
+            private final long documents;
+            private final long sizeInBytes;
+            private final long hits;
+            private final long misses;
+            private final long rejections;
+
+            public LookupStats(String nodeId, long count, long documents, long sizeInBytes, long hits, long misses, long rejections) {
+                this.nodeId = nodeId;
+                this.count = count;
+                this.documents = documents;
+                this.sizeInBytes = sizeInBytes;
+                this.hits = hits;
+                this.misses = misses;
+                this.rejections = rejections;
+            }
+
+            public LookupStats(StreamInput in) throws IOException {
+                this(
+                    in.readString(),
+                    in.readVLong(),
+                    in.readVLong(),
+                    in.readVLong(),
+                    in.readVLong(),
+                    in.readVLong(),
+                    in.readVLong()
+                );
+            }
+
+            public String getNodeId() {
+                return nodeId;
+            }
+
+            public long getCount() {
+                return count;
+            }
+
+            public long getDocuments() {
+                return documents;
+            }
+
+            public long getSizeInBytes() {
+                return sizeInBytes;
+            }
+
+            public long getHits() {
+                return hits;
+            }
+
+            public long getMisses() {
+                return misses;
+            }
+
+            public long getRejections() {
+                return rejections;
+            }
+
+            @Override
+            public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+                builder.field("node_id", nodeId);
+                builder.field("count", count);
+                builder.field("documents", documents);
+                builder.humanReadableField("size_in_bytes", "size", new ByteSizeValue(sizeInBytes));
+                builder.field("hits", hits);
+                builder.field("misses", misses);
+                builder.field("rejections", rejections);
+                return builder;
+            }
+
+            @Override
+            public void writeTo(StreamOutput out) throws IOException {
+                out.writeString(nodeId);
+                out.writeVLong(count);
+                out.writeVLong(documents);
+                out.writeVLong(sizeInBytes);
+                out.writeVLong(hits);
+                out.writeVLong(misses);
+                out.writeVLong(rejections);
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                if (this == o) return true;
+                if (o == null || getClass() != o.getClass()) return false;
+                LookupStats that = (LookupStats) o;
+                return count == that.count && documents == that.documents && sizeInBytes == that.sizeInBytes && hits == that.hits &&
+                    misses == that.misses && rejections == that.rejections && nodeId.equals(that.nodeId);
+            }
+
+            @Override
+            public int hashCode() {
+                return Objects.hash(nodeId, count, documents, sizeInBytes, hits, misses, rejections);
+            }
+        }
     }
 
 }
@@ -8,6 +8,7 @@
 package org.elasticsearch.xpack.core.ml.action;
 
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionType;
 import org.elasticsearch.action.TaskOperationFailure;
 import org.elasticsearch.action.support.tasks.BaseTasksRequest;
@@ -28,6 +29,7 @@ import org.elasticsearch.xpack.core.ml.inference.allocation.AllocationStatus;
 import org.elasticsearch.xpack.core.ml.inference.allocation.AllocationState;
 import org.elasticsearch.xpack.core.ml.inference.allocation.RoutingState;
 import org.elasticsearch.xpack.core.ml.inference.allocation.RoutingStateAndReason;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.InferenceBatchingStats;
 import org.elasticsearch.xpack.core.ml.utils.ExceptionsHelper;
 
 import java.io.IOException;
@@ -129,32 +131,36 @@ public class GetDeploymentStatsAction extends ActionType<GetDeploymentStatsActio
                 private final Double avgInferenceTime;
                 private final Instant lastAccess;
                 private final RoutingStateAndReason routingState;
+                @Nullable private final InferenceBatchingStats batchingStats;
 
                 public static NodeStats forStartedState(DiscoveryNode node,
                                                  long inferenceCount,
                                                  double avgInferenceTime,
-                                                 Instant lastAccess) {
+                                                 Instant lastAccess,
+                                                 @Nullable InferenceBatchingStats batchingStats) {
                     return new NodeStats(node, inferenceCount, avgInferenceTime, lastAccess,
-                        new RoutingStateAndReason(RoutingState.STARTED, null));
+                        new RoutingStateAndReason(RoutingState.STARTED, null), batchingStats);
                 }
 
                 public static NodeStats forNotStartedState(DiscoveryNode node,
                                                            RoutingState state,
                                                            String reason) {
                     return new NodeStats(node, null, null, null,
-                        new RoutingStateAndReason(state, reason));
+                        new RoutingStateAndReason(state, reason), null);
                 }
 
                 private NodeStats(DiscoveryNode node,
                                  Long inferenceCount,
                                  Double avgInferenceTime,
                                  Instant lastAccess,
-                                 RoutingStateAndReason routingState) {
+                                 RoutingStateAndReason routingState,
+                                 InferenceBatchingStats batchingStats) {
                     this.node = node;
                     this.inferenceCount = inferenceCount;
                     this.avgInferenceTime = avgInferenceTime;
                     this.lastAccess = lastAccess;
                     this.routingState = routingState;
+                    this.batchingStats = batchingStats;
 
                     // if lastAccess time is null there have been no inferences
                     assert this.lastAccess != null || (inferenceCount == null || inferenceCount == 0);
@@ -166,6 +172,11 @@ public class GetDeploymentStatsAction extends ActionType<GetDeploymentStatsActio
                     this.avgInferenceTime = in.readOptionalDouble();
                     this.lastAccess = in.readOptionalInstant();
                     this.routingState = in.readOptionalWriteable(RoutingStateAndReason::new);
+                    if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                        this.batchingStats = in.readOptionalWriteable(InferenceBatchingStats::new);
+                    } else {
+                        this.batchingStats = null;
+                    }
                 }
 
                 public DiscoveryNode getNode() {
@@ -176,6 +187,11 @@ public class GetDeploymentStatsAction extends ActionType<GetDeploymentStatsActio
                     return routingState;
                 }
 
+                @Nullable
+                public InferenceBatchingStats getBatchingStats() {
+                    return batchingStats;
+                }
+
                 @Override
                 public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
                     builder.startObject();
@@ -194,6 +210,9 @@ public class GetDeploymentStatsAction extends ActionType<GetDeploymentStatsActio
                     if (lastAccess != null) {
                         builder.timeField("last_access", "last_access_string", lastAccess.toEpochMilli());
                     }
+                    if (batchingStats != null) {
+                        builder.field("batching", batchingStats);
+                    }
                     builder.endObject();
                     return builder;
                 }
@@ -205,6 +224,9 @@ public class GetDeploymentStatsAction extends ActionType<GetDeploymentStatsActio
                     out.writeOptionalDouble(avgInferenceTime);
                     out.writeOptionalInstant(lastAccess);
                     out.writeOptionalWriteable(routingState);
+                    if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                        out.writeOptionalWriteable(batchingStats);
+                    }
                 }
 
                 @Override
@@ -216,12 +238,13 @@ public class GetDeploymentStatsAction extends ActionType<GetDeploymentStatsActio
                         Objects.equals(that.avgInferenceTime, avgInferenceTime) &&
                         Objects.equals(node, that.node) &&
                         Objects.equals(lastAccess, that.lastAccess) &&
-                        Objects.equals(routingState, that.routingState);
+                        Objects.equals(routingState, that.routingState) &&
+                        Objects.equals(batchingStats, that.batchingStats);
                 }
 
                 @Override
                 public int hashCode() {
-                    return Objects.hash(node, inferenceCount, avgInferenceTime, lastAccess, routingState);
+                    return Objects.hash(node, inferenceCount, avgInferenceTime, lastAccess, routingState, batchingStats);
                 }
             }
 
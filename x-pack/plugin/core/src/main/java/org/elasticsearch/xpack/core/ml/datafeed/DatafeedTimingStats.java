@@ -6,6 +6,7 @@
  */
 package org.elasticsearch.xpack.core.ml.datafeed;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.xcontent.ParseField;
 import org.elasticsearch.common.Strings;
@@ -36,6 +37,7 @@ public class DatafeedTimingStats implements ToXContentObject, Writeable {
     public static final ParseField AVG_SEARCH_TIME_PER_BUCKET_MS = new ParseField("average_search_time_per_bucket_ms");
     public static final ParseField EXPONENTIAL_AVG_CALCULATION_CONTEXT = new ParseField("exponential_average_calculation_context");
     public static final ParseField EXPONENTIAL_AVG_SEARCH_TIME_PER_HOUR_MS = new ParseField("exponential_average_search_time_per_hour_ms");
+    public static final ParseField TOTAL_EXTRACTION_WAIT_TIME_MS = new ParseField("total_extraction_wait_time_ms");
 
     public static final ParseField TYPE = new ParseField("datafeed_timing_stats");
 
@@ -52,18 +54,21 @@ public class DatafeedTimingStats implements ToXContentObject, Writeable {
                     Long bucketCount = (Long) args[2];
                     Double totalSearchTimeMs = (Double) args[3];
                     ExponentialAverageCalculationContext exponentialAvgCalculationContext = (ExponentialAverageCalculationContext) args[4];
+                    Double totalExtractionWaitTimeMs = (Double) args[5];
                     return new DatafeedTimingStats(
                         jobId,
                         getOrDefault(searchCount, 0L),
                         getOrDefault(bucketCount, 0L),
                         getOrDefault(totalSearchTimeMs, 0.0),
-                        getOrDefault(exponentialAvgCalculationContext, new ExponentialAverageCalculationContext()));
+                        getOrDefault(exponentialAvgCalculationContext, new ExponentialAverageCalculationContext()),
+                        getOrDefault(totalExtractionWaitTimeMs, 0.0));
                 });
         parser.declareString(constructorArg(), JOB_ID);
         parser.declareLong(optionalConstructorArg(), SEARCH_COUNT);
         parser.declareLong(optionalConstructorArg(), BUCKET_COUNT);
         parser.declareDouble(optionalConstructorArg(), TOTAL_SEARCH_TIME_MS);
         parser.declareObject(optionalConstructorArg(), ExponentialAverageCalculationContext.PARSER, EXPONENTIAL_AVG_CALCULATION_CONTEXT);
+        parser.declareDouble(optionalConstructorArg(), TOTAL_EXTRACTION_WAIT_TIME_MS);
         return parser;
     }
 
@@ -76,6 +81,7 @@ public class DatafeedTimingStats implements ToXContentObject, Writeable {
     private long bucketCount;
     private double totalSearchTimeMs;
     private final ExponentialAverageCalculationContext exponentialAvgCalculationContext;
+    private double totalExtractionWaitTimeMs;
 
     public DatafeedTimingStats(
             String jobId,
@@ -83,11 +89,22 @@ public class DatafeedTimingStats implements ToXContentObject, Writeable {
             long bucketCount,
             double totalSearchTimeMs,
             ExponentialAverageCalculationContext exponentialAvgCalculationContext) {
+        this(jobId, searchCount, bucketCount, totalSearchTimeMs, exponentialAvgCalculationContext, 0.0);
+    }
+
+    public DatafeedTimingStats(
+            String jobId,
+            long searchCount,
+            long bucketCount,
+            double totalSearchTimeMs,
+            ExponentialAverageCalculationContext exponentialAvgCalculationContext,
+            double totalExtractionWaitTimeMs) {
         this.jobId = Objects.requireNonNull(jobId);
         this.searchCount = searchCount;
         this.bucketCount = bucketCount;
         this.totalSearchTimeMs = totalSearchTimeMs;
         this.exponentialAvgCalculationContext = Objects.requireNonNull(exponentialAvgCalculationContext);
+        this.totalExtractionWaitTimeMs = totalExtractionWaitTimeMs;
     }
 
     public DatafeedTimingStats(String jobId) {
@@ -100,6 +117,9 @@ public class DatafeedTimingStats implements ToXContentObject, Writeable {
         this.bucketCount = in.readLong();
         this.totalSearchTimeMs = in.readDouble();
         this.exponentialAvgCalculationContext = in.readOptionalWriteable(ExponentialAverageCalculationContext::new);
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            this.totalExtractionWaitTimeMs = in.readDouble();
+        }
     }
 
     public DatafeedTimingStats(DatafeedTimingStats other) {
@@ -108,7 +128,8 @@ public class DatafeedTimingStats implements ToXContentObject, Writeable {
             other.searchCount,
             other.bucketCount,
             other.totalSearchTimeMs,
-            new ExponentialAverageCalculationContext(other.exponentialAvgCalculationContext));
+            new ExponentialAverageCalculationContext(other.exponentialAvgCalculationContext),
+            other.totalExtractionWaitTimeMs);
     }
 
     public String getJobId() {
@@ -136,6 +157,14 @@ public class DatafeedTimingStats implements ToXContentObject, Writeable {
         return exponentialAvgCalculationContext.getCurrentExponentialAverageMs();
     }
 
+    /**
+     * The time the datafeed has waited for the extractor to return data, which includes the searches that could not be
+     * overlapped with posting the data to the job.
+     */
+    public double getTotalExtractionWaitTimeMs() {
+        return totalExtractionWaitTimeMs;
+    }
+
     // Visible for testing
     ExponentialAverageCalculationContext getExponentialAvgCalculationContext() {
         return exponentialAvgCalculationContext;
@@ -147,6 +176,10 @@ public class DatafeedTimingStats implements ToXContentObject, Writeable {
         this.exponentialAvgCalculationContext.increment(searchTimeMs);
     }
 
+    public void incrementExtractionWaitTimeMs(double extractionWaitTimeMs) {
+        this.totalExtractionWaitTimeMs += extractionWaitTimeMs;
+    }
+
     public void incrementBucketCount(long bucketCount) {
         this.bucketCount += bucketCount;
     }
@@ -162,6 +195,9 @@ public class DatafeedTimingStats implements ToXContentObject, Writeable {
         out.writeLong(bucketCount);
         out.writeDouble(totalSearchTimeMs);
         out.writeOptionalWriteable(exponentialAvgCalculationContext);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeDouble(totalExtractionWaitTimeMs);
+        }
     }
 
     @Override
@@ -174,6 +210,7 @@ public class DatafeedTimingStats implements ToXContentObject, Writeable {
         builder.field(SEARCH_COUNT.getPreferredName(), searchCount);
         builder.field(BUCKET_COUNT.getPreferredName(), bucketCount);
         builder.field(TOTAL_SEARCH_TIME_MS.getPreferredName(), totalSearchTimeMs);
+        builder.field(TOTAL_EXTRACTION_WAIT_TIME_MS.getPreferredName(), totalExtractionWaitTimeMs);
         if (params.paramAsBoolean(ToXContentParams.INCLUDE_CALCULATED_FIELDS, false)) {
             Double avgSearchTimePerBucketMs = getAvgSearchTimePerBucketMs();
             if (avgSearchTimePerBucketMs != null) {
@@ -205,7 +242,8 @@ public class DatafeedTimingStats implements ToXContentObject, Writeable {
             && this.searchCount == other.searchCount
             && this.bucketCount == other.bucketCount
             && this.totalSearchTimeMs == other.totalSearchTimeMs
-            && Objects.equals(this.exponentialAvgCalculationContext, other.exponentialAvgCalculationContext);
+            && Objects.equals(this.exponentialAvgCalculationContext, other.exponentialAvgCalculationContext)
+            && this.totalExtractionWaitTimeMs == other.totalExtractionWaitTimeMs;
     }
 
     @Override
@@ -215,7 +253,8 @@ public class DatafeedTimingStats implements ToXContentObject, Writeable {
             searchCount,
             bucketCount,
             totalSearchTimeMs,
-            exponentialAvgCalculationContext);
+            exponentialAvgCalculationContext,
+            totalExtractionWaitTimeMs);
     }
 
     @Override
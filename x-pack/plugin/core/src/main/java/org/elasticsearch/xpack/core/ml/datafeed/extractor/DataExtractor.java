@@ -35,6 +35,13 @@ public interface DataExtractor {
      */
     void cancel();
 
+    /**
+     * Cancel the current search and release the resources it holds, as the extractor is not going to be called any more.
+     */
+    default void destroy() {
+        cancel();
+    }
+
     /**
      * @return the end time to which this extractor will search
      */
@@ -0,0 +1,193 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+package org.elasticsearch.xpack.core.ml.inference.trainedmodel;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.xcontent.ParseField;
+import org.elasticsearch.xcontent.ToXContentFragment;
+import org.elasticsearch.xcontent.ToXContentObject;
+import org.elasticsearch.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Statistics of the batches that the inference requests of a deployment are coalesced into on a node.
+ */
+public class InferenceBatchingStats implements ToXContentObject, Writeable {
+
+    public static final ParseField BATCH_COUNT = new ParseField("batch_count");
+    public static final ParseField QUEUE_DEPTH = new ParseField("queue_depth");
+    public static final ParseField BATCH_SIZE = new ParseField("batch_size");
+    public static final ParseField LATENCY_MS = new ParseField("latency_ms");
+
+    private final Histogram queueDepth;
+    private final Histogram batchSize;
+    private final Histogram latencyMillis;
+
+    public InferenceBatchingStats(Histogram queueDepth, Histogram batchSize, Histogram latencyMillis) {
+        this.queueDepth = Objects.requireNonNull(queueDepth);
+        this.batchSize = Objects.requireNonNull(batchSize);
+        this.latencyMillis = Objects.requireNonNull(latencyMillis);
+    }
+
+    public InferenceBatchingStats(StreamInput in) throws IOException {
+        this.queueDepth = new Histogram(in);
+        this.batchSize = new Histogram(in);
+        this.latencyMillis = new Histogram(in);
+    }
+
+    /**
+     * The number of requests that were waiting for their batch to be sent, recorded whenever a request was added to a batch.
+     */
+    public Histogram getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * The number of requests in the batches that were sent to the process.
+     */
+    public Histogram getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * The time from adding a request to a batch until its result was split out of the result of the batch, in milliseconds.
+     */
+    public Histogram getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    /**
+     * The number of batches that were sent to the process.
+     */
+    public long getBatchCount() {
+        return batchSize.getTotalCount();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        queueDepth.writeTo(out);
+        batchSize.writeTo(out);
+        latencyMillis.writeTo(out);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        builder.field(BATCH_COUNT.getPreferredName(), getBatchCount());
+        builder.startArray(QUEUE_DEPTH.getPreferredName());
+        queueDepth.toXContent(builder, params);
+        builder.endArray();
+        builder.startArray(BATCH_SIZE.getPreferredName());
+        batchSize.toXContent(builder, params);
+        builder.endArray();
+        builder.startArray(LATENCY_MS.getPreferredName());
+        latencyMillis.toXContent(builder, params);
+        builder.endArray();
+        builder.endObject();
+        return builder;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        InferenceBatchingStats that = (InferenceBatchingStats) o;
+        return Objects.equals(queueDepth, that.queueDepth) &&
+            Objects.equals(batchSize, that.batchSize) &&
+            Objects.equals(latencyMillis, that.latencyMillis);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(queueDepth, batchSize, latencyMillis);
+    }
+
+    /**
+     * Counts of values in buckets that grow by powers of two. Bucket {@code 0} counts zeros, bucket {@code i} counts the values from
+     * {@code 2^(i-1)} up to but excluding {@code 2^i}, and the last bucket also counts all values that are larger than that.
+     * Only the buckets that counted any values are rendered, each with its lower bound in {@code from} and its count in
+     * {@code count}.
+     */
+    public static class Histogram implements ToXContentFragment, Writeable {
+
+        public static final int BUCKETS = 32;
+
+        private final long[] counts;
+
+        public Histogram(long[] counts) {
+            if (counts.length != BUCKETS) {
+                throw new IllegalArgumentException("histogram must have [" + BUCKETS + "] buckets but got [" + counts.length + "]");
+            }
+            this.counts = counts;
+        }
+
+        public Histogram(StreamInput in) throws IOException {
+            this(in.readVLongArray());
+        }
+
+        public static int bucket(long value) {
+            return Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(Math.max(0, value)));
+        }
+
+        /**
+         * The number of values in the given bucket.
+         */
+        public long getCount(int bucket) {
+            return counts[bucket];
+        }
+
+        /**
+         * The number of values in all buckets.
+         */
+        public long getTotalCount() {
+            return Arrays.stream(counts).sum();
+        }
+
+        /**
+         * The smallest value that is counted in the given bucket.
+         */
+        public static long getLowerBound(int bucket) {
+            return bucket == 0 ? 0 : 1L << (bucket - 1);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLongArray(counts);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                if (counts[bucket] > 0) {
+                    builder.startObject();
+                    builder.field("from", getLowerBound(bucket));
+                    builder.field("count", counts[bucket]);
+                    builder.endObject();
+                }
+            }
+            return builder;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Histogram that = (Histogram) o;
+            return Arrays.equals(counts, that.counts);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(counts);
+        }
+    }
+}
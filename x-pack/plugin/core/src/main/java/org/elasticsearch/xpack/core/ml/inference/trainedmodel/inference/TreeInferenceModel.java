@@ -10,7 +10,6 @@ package org.elasticsearch.xpack.core.ml.inference.trainedmodel.inference;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
-import org.apache.lucene.util.Accountable;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.common.Numbers;
 import org.elasticsearch.core.Tuple;
@@ -39,6 +38,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import static org.apache.lucene.util.RamUsageEstimator.shallowSizeOf;
 import static org.apache.lucene.util.RamUsageEstimator.shallowSizeOfInstance;
 import static org.apache.lucene.util.RamUsageEstimator.sizeOf;
 import static org.apache.lucene.util.RamUsageEstimator.sizeOfCollection;
@@ -58,10 +58,16 @@ import static org.elasticsearch.xpack.core.ml.inference.trainedmodel.tree.TreeNo
 import static org.elasticsearch.xpack.core.ml.inference.trainedmodel.tree.TreeNode.SPLIT_FEATURE;
 import static org.elasticsearch.xpack.core.ml.inference.trainedmodel.tree.TreeNode.THRESHOLD;
 
+/**
+ * A tree that is prepared for inference. The nodes are held in flat arrays that are indexed by the number of the node, so that
+ * walking the tree reads primitive values instead of following references to node objects. Inner nodes have a left child, leaves
+ * have a leaf value.
+ */
 public class TreeInferenceModel implements InferenceModel {
 
     private static final Logger LOGGER = LogManager.getLogger(TreeInferenceModel.class);
     public static final long SHALLOW_SIZE = shallowSizeOfInstance(TreeInferenceModel.class);
+    private static final Operator[] OPERATORS = Operator.values();
 
     @SuppressWarnings("unchecked")
     private static final ConstructingObjectParser<TreeInferenceModel, Void> PARSER = new ConstructingObjectParser<>(
@@ -84,7 +90,15 @@ public class TreeInferenceModel implements InferenceModel {
         return PARSER.apply(parser, null);
     }
 
-    private final Node[] nodes;
+    // Allowed to be adjusted for inference optimization
+    private final int[] splitFeatures;
+    private final double[] thresholds;
+    private final byte[] operators;
+    private final boolean[] defaultLeft;
+    private final int[] leftChildren;
+    private final int[] rightChildren;
+    private final long[] numberSamples;
+    private final double[][] leafValues;
     private String[] featureNames;
     private final TargetType targetType;
     private List<String> classificationLabels;
@@ -101,19 +115,43 @@ public class TreeInferenceModel implements InferenceModel {
         if(ExceptionsHelper.requireNonNull(nodes, TREE_STRUCTURE).size() == 0) {
             throw new IllegalArgumentException("[tree_structure] must not be empty");
         }
-        this.nodes = nodes.stream().map(NodeBuilder::build).toArray(Node[]::new);
+        final int numNodes = nodes.size();
+        this.splitFeatures = new int[numNodes];
+        this.thresholds = new double[numNodes];
+        this.operators = new byte[numNodes];
+        this.defaultLeft = new boolean[numNodes];
+        this.leftChildren = new int[numNodes];
+        this.rightChildren = new int[numNodes];
+        this.numberSamples = new long[numNodes];
+        this.leafValues = new double[numNodes][];
+        for (int i = 0; i < numNodes; i++) {
+            NodeBuilder node = nodes.get(i);
+            numberSamples[i] = node.numberSamples;
+            if (node.isLeaf()) {
+                leftChildren[i] = -1;
+                rightChildren[i] = -1;
+                leafValues[i] = node.leafValue;
+            } else {
+                splitFeatures[i] = node.splitFeature;
+                thresholds[i] = node.threshold;
+                operators[i] = (byte) node.operator.ordinal();
+                defaultLeft[i] = node.defaultLeft;
+                leftChildren[i] = node.leftChild;
+                rightChildren[i] = node.rightChild;
+            }
+        }
         this.targetType = targetType == null ? TargetType.REGRESSION : targetType;
         this.classificationLabels = classificationLabels == null ? null : Collections.unmodifiableList(classificationLabels);
         this.highOrderCategory = maxLeafValue();
         int leafSize = 1;
-        for (Node node : this.nodes) {
-            if (node instanceof LeafNode) {
-                leafSize = ((LeafNode)node).leafValue.length;
+        for (double[] leafValue : leafValues) {
+            if (leafValue != null) {
+                leafSize = leafValue.length;
                 break;
             }
         }
         this.leafSize = leafSize;
-        this.maxDepth = getDepth(this.nodes, 0, 0);
+        this.maxDepth = getDepth(0);
     }
 
     @Override
@@ -213,12 +251,27 @@ public class TreeInferenceModel implements InferenceModel {
         return list;
     }
 
-    private double[] getLeaf(double[] features) {
-        Node node = nodes[0];
-        while(node.isLeaf() == false) {
-            node = nodes[node.compare(features)];
+    /**
+     * Returns the value of the leaf that the features lead to, without building the results of the inference.
+     */
+    double[] getLeaf(double[] features) {
+        int node = 0;
+        while (isLeaf(node) == false) {
+            node = nextNode(node, features);
+        }
+        return leafValues[node];
+    }
+
+    private boolean isLeaf(int node) {
+        return leftChildren[node] < 0;
+    }
+
+    private int nextNode(int node, double[] features) {
+        double feature = features[splitFeatures[node]];
+        if (Numbers.isValidDouble(feature) == false) {
+            return defaultLeft[node] ? leftChildren[node] : rightChildren[node];
         }
-        return ((LeafNode)node).leafValue;
+        return OPERATORS[operators[node]].test(feature, thresholds[node]) ? leftChildren[node] : rightChildren[node];
     }
 
     public double[][] featureImportance(double[] fieldValues) {
@@ -252,10 +305,9 @@ public class TreeInferenceModel implements InferenceModel {
                                double[][] featureImportance,
                                int nextIndex) {
         ShapPath splitPath = new ShapPath(parentSplitPath, nextIndex);
-        Node currNode = nodes[nodeIndex];
         nextIndex = splitPath.extend(parentFractionZero, parentFractionOne, parentFeatureIndex, nextIndex);
-        if (currNode.isLeaf()) {
-            double[] leafValue = ((LeafNode)currNode).leafValue;
+        if (isLeaf(nodeIndex)) {
+            double[] leafValue = leafValues[nodeIndex];
             for (int i = 1; i < nextIndex; ++i) {
                 int inputColumnIndex = splitPath.featureIndex(i);
                 double scaled = splitPath.sumUnwoundPath(i, nextIndex) * (splitPath.fractionOnes(i) - splitPath.fractionZeros(i));
@@ -264,13 +316,12 @@ public class TreeInferenceModel implements InferenceModel {
                 }
             }
         } else {
-            InnerNode innerNode = (InnerNode)currNode;
-            int hotIndex = currNode.compare(processedFeatures);
-            int coldIndex = hotIndex == innerNode.leftChild ? innerNode.rightChild : innerNode.leftChild;
+            int hotIndex = nextNode(nodeIndex, processedFeatures);
+            int coldIndex = hotIndex == leftChildren[nodeIndex] ? rightChildren[nodeIndex] : leftChildren[nodeIndex];
 
             double incomingFractionZero = 1.0;
             double incomingFractionOne = 1.0;
-            int splitFeature = innerNode.splitFeature;
+            int splitFeature = splitFeatures[nodeIndex];
             int pathIndex = splitPath.findFeatureIndex(splitFeature, nextIndex);
             if (pathIndex > -1) {
                 incomingFractionZero = splitPath.fractionZeros(pathIndex);
@@ -278,8 +329,8 @@ public class TreeInferenceModel implements InferenceModel {
                 nextIndex = splitPath.unwind(pathIndex, nextIndex);
             }
 
-            double hotFractionZero = nodes[hotIndex].getNumberSamples() / (double)currNode.getNumberSamples();
-            double coldFractionZero = nodes[coldIndex].getNumberSamples() / (double)currNode.getNumberSamples();
+            double hotFractionZero = numberSamples[hotIndex] / (double)numberSamples[nodeIndex];
+            double coldFractionZero = numberSamples[coldIndex] / (double)numberSamples[nodeIndex];
             shapRecursive(processedFeatures, splitPath,
                 hotIndex, incomingFractionZero * hotFractionZero,
                 incomingFractionOne, splitFeature, featureImportance, nextIndex);
@@ -309,16 +360,15 @@ public class TreeInferenceModel implements InferenceModel {
         if (newFeatureIndexMapping == null || newFeatureIndexMapping.isEmpty()) {
             return;
         }
-        for (Node node : nodes) {
-            if (node.isLeaf()) {
+        for (int node = 0; node < splitFeatures.length; node++) {
+            if (isLeaf(node)) {
                 continue;
             }
-            InnerNode treeNode = (InnerNode)node;
-            Integer newSplitFeatureIndex = newFeatureIndexMapping.get(featureNames[treeNode.splitFeature]);
+            Integer newSplitFeatureIndex = newFeatureIndexMapping.get(featureNames[splitFeatures[node]]);
             if (newSplitFeatureIndex == null) {
                 throw new IllegalArgumentException("[tree] failed to optimize for inference");
             }
-            treeNode.splitFeature = newSplitFeatureIndex;
+            splitFeatures[node] = newSplitFeatureIndex;
         }
         this.featureNames = new String[0];
         // Since we are not top level, we no longer need local classification labels
@@ -330,7 +380,19 @@ public class TreeInferenceModel implements InferenceModel {
         long size = SHALLOW_SIZE;
         size += sizeOfCollection(classificationLabels);
         size += sizeOf(featureNames);
-        size += sizeOf(nodes);
+        size += sizeOf(splitFeatures);
+        size += sizeOf(thresholds);
+        size += sizeOf(operators);
+        size += sizeOf(defaultLeft);
+        size += sizeOf(leftChildren);
+        size += sizeOf(rightChildren);
+        size += sizeOf(numberSamples);
+        size += shallowSizeOf(leafValues);
+        for (double[] leafValue : leafValues) {
+            if (leafValue != null) {
+                size += sizeOf(leafValue);
+            }
+        }
         return size;
     }
 
@@ -339,27 +401,47 @@ public class TreeInferenceModel implements InferenceModel {
             return Double.NaN;
         }
         double max = 0.0;
-        for (Node node : this.nodes) {
-            if (node instanceof LeafNode) {
-                LeafNode leafNode = (LeafNode) node;
-                if (leafNode.leafValue.length > 1) {
-                    return leafNode.leafValue.length;
+        for (double[] leafValue : leafValues) {
+            if (leafValue != null) {
+                if (leafValue.length > 1) {
+                    return leafValue.length;
                 } else {
-                    max = Math.max(leafNode.leafValue[0], max);
+                    max = Math.max(leafValue[0], max);
                 }
             }
         }
         return max;
     }
 
-    public Node[] getNodes() {
-        return nodes;
+    public int getNumberOfLeaves() {
+        int numLeaves = 0;
+        for (int node = 0; node < leftChildren.length; node++) {
+            if (isLeaf(node)) {
+                numLeaves++;
+            }
+        }
+        return numLeaves;
+    }
+
+    public int getNumberOfInnerNodes() {
+        return leftChildren.length - getNumberOfLeaves();
+    }
+
+    public int getLeafSize() {
+        return leafSize;
     }
 
     @Override
     public String toString() {
         return "TreeInferenceModel{" +
-            "nodes=" + Arrays.toString(nodes) +
+            "splitFeatures=" + Arrays.toString(splitFeatures) +
+            ", thresholds=" + Arrays.toString(thresholds) +
+            ", operators=" + Arrays.toString(operators) +
+            ", defaultLeft=" + Arrays.toString(defaultLeft) +
+            ", leftChildren=" + Arrays.toString(leftChildren) +
+            ", rightChildren=" + Arrays.toString(rightChildren) +
+            ", numberSamples=" + Arrays.toString(numberSamples) +
+            ", leafValues=" + Arrays.deepToString(leafValues) +
             ", featureNames=" + Arrays.toString(featureNames) +
             ", targetType=" + targetType +
             ", classificationLabels=" + classificationLabels +
@@ -370,14 +452,12 @@ public class TreeInferenceModel implements InferenceModel {
             '}';
     }
 
-    private static int getDepth(Node[] nodes, int nodeIndex, int depth) {
-        Node node = nodes[nodeIndex];
-        if (node instanceof LeafNode) {
+    private int getDepth(int nodeIndex) {
+        if (isLeaf(nodeIndex)) {
             return 0;
         }
-        InnerNode innerNode = (InnerNode)node;
-        int depthLeft = getDepth(nodes, innerNode.leftChild, depth + 1);
-        int depthRight = getDepth(nodes, innerNode.rightChild, depth + 1);
+        int depthLeft = getDepth(leftChildren[nodeIndex]);
+        int depthRight = getDepth(rightChildren[nodeIndex]);
         return Math.max(depthLeft, depthRight) + 1;
     }
 
@@ -454,128 +534,8 @@ public class TreeInferenceModel implements InferenceModel {
             return this;
         }
 
-        Node build() {
-            if (this.leftChild < 0) {
-                return new LeafNode(leafValue, numberSamples);
-            }
-            return new InnerNode(operator,
-                threshold,
-                splitFeature,
-                defaultLeft,
-                leftChild,
-                rightChild,
-                numberSamples);
-        }
-    }
-
-    public abstract static class Node implements Accountable {
-        int compare(double[] features) {
-            throw new IllegalArgumentException("cannot call compare against a leaf node.");
-        }
-
-        abstract long getNumberSamples();
-
-        public boolean isLeaf() {
-            return this instanceof LeafNode;
-        }
-    }
-
-    public static class InnerNode extends Node {
-
-        public static final long SHALLOW_SIZE = shallowSizeOfInstance(InnerNode.class);
-
-        private final Operator operator;
-        private final double threshold;
-        // Allowed to be adjusted for inference optimization
-        private int splitFeature;
-        private final boolean defaultLeft;
-        private final int leftChild;
-        private final int rightChild;
-        private final long numberSamples;
-
-        InnerNode(Operator operator,
-                  double threshold,
-                  int splitFeature,
-                  boolean defaultLeft,
-                  int leftChild,
-                  int rightChild,
-                  long numberSamples) {
-            this.operator = operator;
-            this.threshold = threshold;
-            this.splitFeature = splitFeature;
-            this.defaultLeft = defaultLeft;
-            this.leftChild = leftChild;
-            this.rightChild = rightChild;
-            this.numberSamples = numberSamples;
-        }
-
-        @Override
-        public int compare(double[] features) {
-            double feature = features[splitFeature];
-            if (isMissing(feature)) {
-                return defaultLeft ? leftChild : rightChild;
-            }
-            return operator.test(feature, threshold) ? leftChild : rightChild;
-        }
-
-        @Override
-        long getNumberSamples() {
-            return numberSamples;
-        }
-
-        private static boolean isMissing(double feature) {
-            return Numbers.isValidDouble(feature) == false;
-        }
-
-        @Override
-        public long ramBytesUsed() {
-            return SHALLOW_SIZE;
-        }
-
-        @Override
-        public String toString() {
-            return "InnerNode{" +
-                "operator=" + operator +
-                ", threshold=" + threshold +
-                ", splitFeature=" + splitFeature +
-                ", defaultLeft=" + defaultLeft +
-                ", leftChild=" + leftChild +
-                ", rightChild=" + rightChild +
-                ", numberSamples=" + numberSamples +
-                '}';
-        }
-    }
-
-    public static class LeafNode extends Node {
-        public static final long SHALLOW_SIZE = shallowSizeOfInstance(LeafNode.class);
-        private final double[] leafValue;
-        private final long numberSamples;
-
-        LeafNode(double[] leafValue, long numberSamples) {
-            this.leafValue = leafValue;
-            this.numberSamples = numberSamples;
-        }
-
-        @Override
-        public long ramBytesUsed() {
-            return SHALLOW_SIZE + sizeOf(leafValue);
-        }
-
-        @Override
-        long getNumberSamples() {
-            return numberSamples;
-        }
-
-        public double[] getLeafValue() {
-            return leafValue;
-        }
-
-        @Override
-        public String toString() {
-            return "LeafNode{" +
-                "leafValue=" + Arrays.toString(leafValue) +
-                ", numberSamples=" + numberSamples +
-                '}';
+        private boolean isLeaf() {
+            return leftChild < 0;
         }
     }
 }
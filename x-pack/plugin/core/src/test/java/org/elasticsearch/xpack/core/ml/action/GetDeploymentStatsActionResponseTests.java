@@ -16,6 +16,7 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.test.AbstractWireSerializingTestCase;
 import org.elasticsearch.xpack.core.ml.inference.allocation.RoutingState;
 import org.elasticsearch.xpack.core.ml.inference.allocation.RoutingStateAndReason;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.InferenceBatchingStatsTests;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
@@ -87,13 +88,15 @@ public class GetDeploymentStatsActionResponseTests extends AbstractWireSerializi
                     nodes.get("node1"),
                     randomNonNegativeLong(),
                     randomDoubleBetween(0.0, 100.0, true),
-                    Instant.now()
+                    Instant.now(),
+                    null
                 ));
         nodeStatsList.add(GetDeploymentStatsAction.Response.AllocationStats.NodeStats.forStartedState(
             nodes.get("node2"),
             randomNonNegativeLong(),
             randomDoubleBetween(0.0, 100.0, true),
-            Instant.now()
+            Instant.now(),
+            null
         ));
 
         var model1 = new GetDeploymentStatsAction.Response.AllocationStats(
@@ -131,13 +134,15 @@ public class GetDeploymentStatsActionResponseTests extends AbstractWireSerializi
             nodes.get("node1"),
             randomNonNegativeLong(),
             randomDoubleBetween(0.0, 100.0, true),
-            Instant.now()
+            Instant.now(),
+            null
         ));
         nodeStatsList.add(GetDeploymentStatsAction.Response.AllocationStats.NodeStats.forStartedState(
             nodes.get("node2"),
             randomNonNegativeLong(),
             randomDoubleBetween(0.0, 100.0, true),
-            Instant.now()
+            Instant.now(),
+            null
         ));
 
         var model1 = new GetDeploymentStatsAction.Response.AllocationStats(
@@ -186,7 +191,8 @@ public class GetDeploymentStatsActionResponseTests extends AbstractWireSerializi
                     node,
                     randomNonNegativeLong(),
                     randomDoubleBetween(0.0, 100.0, true),
-                    Instant.now()
+                    Instant.now(),
+                    randomBoolean() ? null : InferenceBatchingStatsTests.createRandom()
                 ));
             } else {
                 nodeStatsList.add(GetDeploymentStatsAction.Response.AllocationStats.NodeStats.forNotStartedState(
@@ -35,7 +35,8 @@ public class DatafeedTimingStatsTests extends AbstractSerializingTestCase<Datafe
             randomLong(),
             randomLong(),
             randomDouble(),
-            ExponentialAverageCalculationContextTests.createRandom());
+            ExponentialAverageCalculationContextTests.createRandom(),
+            randomDouble());
     }
 
     @Override
@@ -65,12 +66,14 @@ public class DatafeedTimingStatsTests extends AbstractSerializingTestCase<Datafe
         long bucketCount = instance.getBucketCount();
         double totalSearchTimeMs = instance.getTotalSearchTimeMs();
         double incrementalSearchTimeMs = instance.getExponentialAvgCalculationContext().getIncrementalMetricValueMs();
+        double totalExtractionWaitTimeMs = instance.getTotalExtractionWaitTimeMs();
         return new DatafeedTimingStats(
             jobId + randomAlphaOfLength(5),
             searchCount + 2,
             bucketCount + 1,
             totalSearchTimeMs + randomDoubleBetween(1.0, 100.0, true),
-            new ExponentialAverageCalculationContext(incrementalSearchTimeMs + randomDoubleBetween(1.0, 100.0, true), null, null));
+            new ExponentialAverageCalculationContext(incrementalSearchTimeMs + randomDoubleBetween(1.0, 100.0, true), null, null),
+            totalExtractionWaitTimeMs + randomDoubleBetween(1.0, 100.0, true));
     }
 
     public void testParse_OptionalFieldsAbsent() throws IOException {
@@ -85,6 +88,7 @@ public class DatafeedTimingStatsTests extends AbstractSerializingTestCase<Datafe
             assertThat(stats.getTotalSearchTimeMs(), equalTo(0.0));
             assertThat(stats.getAvgSearchTimePerBucketMs(), nullValue());
             assertThat(stats.getExponentialAvgCalculationContext(), equalTo(new ExponentialAverageCalculationContext()));
+            assertThat(stats.getTotalExtractionWaitTimeMs(), equalTo(0.0));
         }
     }
 
@@ -113,7 +117,7 @@ public class DatafeedTimingStatsTests extends AbstractSerializingTestCase<Datafe
     public void testCopyConstructor() {
         ExponentialAverageCalculationContext context =
             new ExponentialAverageCalculationContext(78.9, Instant.ofEpochMilli(123456789), 987.0);
-        DatafeedTimingStats stats1 = new DatafeedTimingStats(JOB_ID, 5, 10, 123.456, context);
+        DatafeedTimingStats stats1 = new DatafeedTimingStats(JOB_ID, 5, 10, 123.456, context, 45.6);
         DatafeedTimingStats stats2 = new DatafeedTimingStats(stats1);
 
         assertThat(stats2.getJobId(), equalTo(JOB_ID));
@@ -122,6 +126,7 @@ public class DatafeedTimingStatsTests extends AbstractSerializingTestCase<Datafe
         assertThat(stats2.getTotalSearchTimeMs(), equalTo(123.456));
         assertThat(stats2.getAvgSearchTimePerBucketMs(), closeTo(12.3456, 1e-9));
         assertThat(stats2.getExponentialAvgCalculationContext(), equalTo(context));
+        assertThat(stats2.getTotalExtractionWaitTimeMs(), equalTo(45.6));
     }
 
     public void testIncrementTotalSearchTimeMs() {
@@ -136,6 +141,15 @@ public class DatafeedTimingStatsTests extends AbstractSerializingTestCase<Datafe
         assertThat(stats.getExponentialAvgCalculationContext(), equalTo(new ExponentialAverageCalculationContext(250.0, null, null)));
     }
 
+    public void testIncrementExtractionWaitTimeMs() {
+        DatafeedTimingStats stats =
+            new DatafeedTimingStats(JOB_ID, 5, 10, 100.0, new ExponentialAverageCalculationContext(50.0, null, null), 20.0);
+        stats.incrementExtractionWaitTimeMs(30.0);
+        assertThat(stats.getSearchCount(), equalTo(5L));
+        assertThat(stats.getTotalSearchTimeMs(), equalTo(100.0));
+        assertThat(stats.getTotalExtractionWaitTimeMs(), equalTo(50.0));
+    }
+
     public void testIncrementBucketCount() {
         DatafeedTimingStats stats =
             new DatafeedTimingStats(JOB_ID, 5, 10, 100.0, new ExponentialAverageCalculationContext(50.0, null, null));
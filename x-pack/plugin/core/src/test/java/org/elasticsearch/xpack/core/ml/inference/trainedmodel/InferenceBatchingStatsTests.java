@@ -0,0 +1,64 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+package org.elasticsearch.xpack.core.ml.inference.trainedmodel;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.test.AbstractWireSerializingTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class InferenceBatchingStatsTests extends AbstractWireSerializingTestCase<InferenceBatchingStats> {
+
+    public static InferenceBatchingStats createRandom() {
+        return new InferenceBatchingStats(randomHistogram(), randomHistogram(), randomHistogram());
+    }
+
+    private static InferenceBatchingStats.Histogram randomHistogram() {
+        long[] counts = new long[InferenceBatchingStats.Histogram.BUCKETS];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = randomBoolean() ? 0 : randomLongBetween(1, 1000);
+        }
+        return new InferenceBatchingStats.Histogram(counts);
+    }
+
+    @Override
+    protected InferenceBatchingStats createTestInstance() {
+        return createRandom();
+    }
+
+    @Override
+    protected Writeable.Reader<InferenceBatchingStats> instanceReader() {
+        return InferenceBatchingStats::new;
+    }
+
+    public void testHistogramBuckets() {
+        assertThat(InferenceBatchingStats.Histogram.bucket(0), equalTo(0));
+        assertThat(InferenceBatchingStats.Histogram.bucket(1), equalTo(1));
+        assertThat(InferenceBatchingStats.Histogram.bucket(2), equalTo(2));
+        assertThat(InferenceBatchingStats.Histogram.bucket(3), equalTo(2));
+        assertThat(InferenceBatchingStats.Histogram.bucket(4), equalTo(3));
+        assertThat(InferenceBatchingStats.Histogram.bucket(Long.MAX_VALUE), equalTo(InferenceBatchingStats.Histogram.BUCKETS - 1));
+        for (int bucket = 0; bucket < InferenceBatchingStats.Histogram.BUCKETS; bucket++) {
+            assertThat(InferenceBatchingStats.Histogram.bucket(InferenceBatchingStats.Histogram.getLowerBound(bucket)), equalTo(bucket));
+        }
+    }
+
+    public void testToXContentRendersOnlyNonEmptyBuckets() {
+        long[] batchSizes = new long[InferenceBatchingStats.Histogram.BUCKETS];
+        batchSizes[InferenceBatchingStats.Histogram.bucket(1)] = 2;
+        batchSizes[InferenceBatchingStats.Histogram.bucket(4)] = 3;
+        long[] empty = new long[InferenceBatchingStats.Histogram.BUCKETS];
+        InferenceBatchingStats stats = new InferenceBatchingStats(
+            new InferenceBatchingStats.Histogram(empty),
+            new InferenceBatchingStats.Histogram(batchSizes),
+            new InferenceBatchingStats.Histogram(empty)
+        );
+        assertThat(Strings.toString(stats), equalTo("{\"batch_count\":5,\"queue_depth\":[],"
+            + "\"batch_size\":[{\"from\":1,\"count\":2},{\"from\":4,\"count\":3}],\"latency_ms\":[]}"));
+    }
+}
@@ -14,9 +14,11 @@ import org.elasticsearch.search.SearchModule;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.xpack.core.ml.inference.MlInferenceNamedXContentProvider;
 import org.elasticsearch.xpack.core.ml.inference.results.ClassificationInferenceResults;
+import org.elasticsearch.xpack.core.ml.inference.results.RawInferenceResults;
 import org.elasticsearch.xpack.core.ml.inference.results.SingleValueInferenceResults;
 import org.elasticsearch.xpack.core.ml.inference.results.TopClassEntry;
 import org.elasticsearch.xpack.core.ml.inference.trainedmodel.ClassificationConfig;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.NullInferenceConfig;
 import org.elasticsearch.xpack.core.ml.inference.trainedmodel.RegressionConfig;
 import org.elasticsearch.xpack.core.ml.inference.trainedmodel.TargetType;
 import org.elasticsearch.xpack.core.ml.inference.trainedmodel.ensemble.Ensemble;
@@ -87,6 +89,24 @@ public class EnsembleInferenceModelTests extends ESTestCase {
         expectThrows(ElasticsearchException.class, () -> model.infer(Collections.emptyMap(), RegressionConfig.EMPTY_PARAMS, null));
     }
 
+    public void testTreesWalkedDirectlyWithoutFeatureImportance() throws IOException {
+        for (int i = 0; i < NUMBER_OF_TEST_RUNS; ++i) {
+            List<String> featureNames = Stream.generate(() -> randomAlphaOfLength(10))
+                .limit(randomIntBetween(1, 10))
+                .collect(Collectors.toList());
+            EnsembleInferenceModel model = serializeFromTrainedModel(
+                EnsembleTests.createRandom(randomFrom(TargetType.values()), featureNames));
+            double[] features = new double[model.getFeatureNames().length];
+            for (int j = 0; j < features.length; j++) {
+                features[j] = randomBoolean() ? Double.NaN : randomDouble();
+            }
+            // without feature importance the trees are walked directly, with it they are inferred one by one
+            RawInferenceResults direct = (RawInferenceResults) model.infer(features, new NullInferenceConfig(false));
+            RawInferenceResults inferred = (RawInferenceResults) model.infer(features, new NullInferenceConfig(true));
+            assertArrayEquals(inferred.getValue(), direct.getValue(), 0.0);
+        }
+    }
+
     public void testClassificationProbability() throws IOException {
         List<String> featureNames = Arrays.asList("foo", "bar");
         Tree tree1 = Tree.builder()
@@ -70,6 +70,13 @@ public abstract class AbstractEnrichProcessor extends AbstractProcessor {
                 return;
             }
 
+            List<Map<String, Object>> matches = lookup(value);
+            if (matches != null) {
+                setMatches(ingestDocument, matches);
+                handler.accept(ingestDocument, null);
+                return;
+            }
+
             QueryBuilder queryBuilder = getQueryBuilder(value);
             ConstantScoreQueryBuilder constantScore = new ConstantScoreQueryBuilder(queryBuilder);
             SearchSourceBuilder searchBuilder = new SearchSourceBuilder();
@@ -93,25 +100,11 @@ public abstract class AbstractEnrichProcessor extends AbstractProcessor {
                 // If the enrich key does not exist in the index, throw an error
                 // If no documents match the key, return the unchanged document
                 SearchHit[] searchHits = searchResponse.getHits().getHits();
-                if (searchHits.length < 1) {
-                    handler.accept(ingestDocument, null);
-                    return;
-                }
-
-                String targetField = ingestDocument.renderTemplate(this.targetField);
-                if (overrideEnabled || ingestDocument.hasField(targetField) == false) {
-                    if (maxMatches == 1) {
-                        Map<String, Object> firstDocument = searchHits[0].getSourceAsMap();
-                        ingestDocument.setFieldValue(targetField, firstDocument);
-                    } else {
-                        List<Map<String, Object>> enrichDocuments = new ArrayList<>(searchHits.length);
-                        for (SearchHit searchHit : searchHits) {
-                            Map<String, Object> enrichDocument = searchHit.getSourceAsMap();
-                            enrichDocuments.add(enrichDocument);
-                        }
-                        ingestDocument.setFieldValue(targetField, enrichDocuments);
-                    }
+                List<Map<String, Object>> enrichDocuments = new ArrayList<>(searchHits.length);
+                for (SearchHit searchHit : searchHits) {
+                    enrichDocuments.add(searchHit.getSourceAsMap());
                 }
+                setMatches(ingestDocument, enrichDocuments);
                 handler.accept(ingestDocument, null);
             });
         } catch (Exception e) {
@@ -119,6 +112,28 @@ public abstract class AbstractEnrichProcessor extends AbstractProcessor {
         }
     }
 
+    /**
+     * Returns the sources of the documents that match the value if they can be found without searching the enrich index, or
+     * {@code null} if the enrich index has to be searched.
+     */
+    protected List<Map<String, Object>> lookup(Object fieldValue) {
+        return null;
+    }
+
+    private void setMatches(IngestDocument ingestDocument, List<Map<String, Object>> enrichDocuments) {
+        if (enrichDocuments.isEmpty()) {
+            return;
+        }
+        String targetField = ingestDocument.renderTemplate(this.targetField);
+        if (overrideEnabled || ingestDocument.hasField(targetField) == false) {
+            if (maxMatches == 1) {
+                ingestDocument.setFieldValue(targetField, enrichDocuments.get(0));
+            } else {
+                ingestDocument.setFieldValue(targetField, enrichDocuments);
+            }
+        }
+    }
+
     @Override
     public IngestDocument execute(IngestDocument ingestDocument) throws Exception {
         throw new UnsupportedOperationException("this method should not get executed");
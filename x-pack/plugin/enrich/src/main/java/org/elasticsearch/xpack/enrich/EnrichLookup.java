@@ -0,0 +1,193 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.enrich;
+
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable copy of the enrich index of a match policy that is held in memory on an ingest node, so that the documents
+ * that match a value can be found without a search. The documents are kept as the bytes of their source, in the order of the
+ * enrich index, and each value of the match field refers to the documents that contain it. Looking up a value returns the same
+ * documents as the term query the enrich processor would otherwise send.
+ *
+ * Only string, boolean, integer and long values are looked up. The match field is mapped as a keyword, so other values match
+ * the documents that contain their indexed text, which is not always the text of the parsed value. Lookups of such values and
+ * enrich indices that contain them are left to search.
+ */
+final class EnrichLookup {
+
+    // estimated cost of an entry in the map of values and of the array of ordinals it refers to
+    private static final long VALUE_OVERHEAD = 3 * RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + 2 * RamUsageEstimator.NUM_BYTES_OBJECT_REF
+        + Integer.BYTES;
+
+    private final String index;
+    private final Map<String, int[]> ordinalsByValue;
+    private final BytesReference[] documents;
+    private final long sizeInBytes;
+
+    private EnrichLookup(String index, Map<String, int[]> ordinalsByValue, BytesReference[] documents, long sizeInBytes) {
+        this.index = index;
+        this.ordinalsByValue = ordinalsByValue;
+        this.documents = documents;
+        this.sizeInBytes = sizeInBytes;
+    }
+
+    /**
+     * Whether the given value of a document can be looked up, see {@link #lookup(Object, int)}.
+     */
+    static boolean canLookup(Object value) {
+        if (value instanceof List) {
+            for (Object element : (List<?>) value) {
+                if (isSupportedValue(element) == false) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return isSupportedValue(value);
+    }
+
+    private static boolean isSupportedValue(Object value) {
+        return value instanceof String || value instanceof Boolean || value instanceof Integer || value instanceof Long;
+    }
+
+    /**
+     * Returns the sources of at most {@code maxMatches} documents that match the value, or any of the values of a list, in the
+     * order of the enrich index. The value must be supported, see {@link #canLookup(Object)}.
+     */
+    List<Map<String, Object>> lookup(Object value, int maxMatches) {
+        assert canLookup(value) : "unsupported value [" + value + "]";
+        final int[] ordinals;
+        if (value instanceof List) {
+            List<?> values = (List<?>) value;
+            if (values.size() == 1) {
+                ordinals = ordinalsByValue.get(values.get(0).toString());
+            } else {
+                ordinals = values.stream()
+                    .map(v -> ordinalsByValue.get(v.toString()))
+                    .filter(Objects::nonNull)
+                    .flatMapToInt(Arrays::stream)
+                    .sorted()
+                    .distinct()
+                    .toArray();
+            }
+        } else {
+            ordinals = ordinalsByValue.get(value.toString());
+        }
+        if (ordinals == null || ordinals.length == 0) {
+            return Collections.emptyList();
+        }
+        final int size = Math.min(ordinals.length, maxMatches);
+        final List<Map<String, Object>> matches = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            // every match gets its own copy of the source, just like the hits of a search
+            matches.add(XContentHelper.convertToMap(documents[ordinals[i]], false, null).v2());
+        }
+        return matches;
+    }
+
+    String getIndex() {
+        return index;
+    }
+
+    int getDocumentCount() {
+        return documents.length;
+    }
+
+    long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * Collects the documents of an enrich index, in the order of the index.
+     */
+    static final class Builder {
+
+        private final String index;
+        private final String matchField;
+        private final long maxSizeInBytes;
+        private final Map<String, List<Integer>> ordinalsByValue = new HashMap<>();
+        private final List<BytesReference> documents = new ArrayList<>();
+        private long sizeInBytes;
+
+        Builder(String index, String matchField, long maxSizeInBytes) {
+            this.index = index;
+            this.matchField = matchField;
+            this.maxSizeInBytes = maxSizeInBytes;
+        }
+
+        /**
+         * Adds the next document of the index. Returns {@code false} if the document cannot be looked up, or if the lookup would grow
+         * larger than its maximum size, in which case the index has to be searched instead.
+         */
+        boolean add(BytesReference source) {
+            final Object value = XContentMapValues.extractValue(matchField, XContentHelper.convertToMap(source, false, null).v2());
+            if (value != null && canLookup(value) == false) {
+                return false;
+            }
+            final int ordinal = documents.size();
+            // copy the source out of the buffers of the search response, which may be shared and larger than the source
+            final BytesReference document = new BytesArray(BytesReference.toBytes(source));
+            documents.add(document);
+            sizeInBytes += RamUsageEstimator.NUM_BYTES_OBJECT_REF + RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+                + RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + document.length();
+            if (value instanceof List) {
+                for (Object element : (List<?>) value) {
+                    addValue(element.toString(), ordinal);
+                }
+            } else if (value != null) {
+                addValue(value.toString(), ordinal);
+            }
+            return sizeInBytes <= maxSizeInBytes;
+        }
+
+        private void addValue(String value, int ordinal) {
+            final List<Integer> ordinals = ordinalsByValue.computeIfAbsent(value, k -> {
+                sizeInBytes += VALUE_OVERHEAD + RamUsageEstimator.sizeOf(k);
+                return new ArrayList<>(1);
+            });
+            // a document that contains the same value twice is only returned once
+            if (ordinals.isEmpty() || ordinals.get(ordinals.size() - 1) != ordinal) {
+                ordinals.add(ordinal);
+                sizeInBytes += Integer.BYTES;
+            }
+        }
+
+        String getIndex() {
+            return index;
+        }
+
+        int getDocumentCount() {
+            return documents.size();
+        }
+
+        long getSizeInBytes() {
+            return sizeInBytes;
+        }
+
+        EnrichLookup build() {
+            final Map<String, int[]> ordinals = new HashMap<>(ordinalsByValue.size());
+            for (Map.Entry<String, List<Integer>> entry : ordinalsByValue.entrySet()) {
+                ordinals.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+            return new EnrichLookup(index, Collections.unmodifiableMap(ordinals), documents.toArray(new BytesReference[0]), sizeInBytes);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.enrich;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.OriginSettingClient;
+import org.elasticsearch.cluster.metadata.IndexAbstraction;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.xpack.core.enrich.EnrichPolicy;
+import org.elasticsearch.xpack.core.enrich.action.EnrichStatsAction;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.elasticsearch.xpack.core.ClientHelper.ENRICH_ORIGIN;
+
+/**
+ * Holds an {@link EnrichLookup} for the current enrich index of every match policy, so that the enrich processors of this node can
+ * look up documents in memory instead of searching the enrich index. A lookup is loaded when a policy has been executed and the
+ * alias of the policy points to a new enrich index, and it is dropped when the alias moves on. Until the lookup of an index has been
+ * loaded, or if it cannot be loaded, the processors search the enrich index as usual.
+ *
+ * The lookups of all policies share a memory budget. An enrich index that does not fit into the part of the budget that is left, or
+ * that holds match values that cannot be looked up, is not loaded, and it is not retried until the policy is executed again. An enrich
+ * index that fails to load, for instance because one of its shards is not available, is retried with an exponential backoff.
+ */
+public class EnrichLookupService {
+
+    private static final Logger logger = LogManager.getLogger(EnrichLookupService.class);
+
+    public static final Setting<Boolean> LOCAL_LOOKUP_ENABLED = Setting.boolSetting(
+        "enrich.local_lookup.enabled",
+        false,
+        Setting.Property.NodeScope
+    );
+
+    public static final Setting<ByteSizeValue> LOCAL_LOOKUP_MAX_SIZE = Setting.memorySizeSetting(
+        "enrich.local_lookup.max_size",
+        "5%",
+        Setting.Property.NodeScope
+    );
+
+    private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+    private static final TimeValue INITIAL_RETRY_DELAY = TimeValue.timeValueSeconds(1);
+    private static final TimeValue MAX_RETRY_DELAY = TimeValue.timeValueMinutes(5);
+
+    private final boolean enabled;
+    private final long maxSizeInBytes;
+    private final int fetchSize;
+
+    // the lookups by the name of the enrich index, replaced as a whole whenever a lookup is added or dropped
+    private volatile Map<String, EnrichLookup> lookups = Map.of();
+    private volatile Metadata metadata;
+    private Client client;
+    // the enrich index that is being loaded, and the enrich indices that cannot be held in memory
+    private String loading;
+    private final Set<String> rejected = new HashSet<>();
+    // the number of failed attempts to load an enrich index, and the enrich indices that wait for their next attempt
+    private final Map<String, Integer> failedAttempts = new HashMap<>();
+    private final Set<String> awaitingRetry = new HashSet<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    EnrichLookupService(Settings settings) {
+        this.enabled = LOCAL_LOOKUP_ENABLED.get(settings) && DiscoveryNode.isIngestNode(settings);
+        this.maxSizeInBytes = LOCAL_LOOKUP_MAX_SIZE.get(settings).getBytes();
+        this.fetchSize = EnrichPlugin.ENRICH_FETCH_SIZE_SETTING.get(settings);
+    }
+
+    /**
+     * Returns the lookup for the current enrich index of the given policy, or {@code null} if there is none and the enrich index has
+     * to be searched.
+     */
+    EnrichLookup getLookup(String policyName) {
+        if (enabled == false) {
+            return null;
+        }
+        final Metadata metadata = this.metadata;
+        final IndexAbstraction alias = metadata != null ? metadata.getIndicesLookup().get(EnrichPolicy.getBaseName(policyName)) : null;
+        final EnrichLookup lookup = alias != null && alias.getIndices().size() == 1
+            ? lookups.get(alias.getIndices().get(0).getIndex().getName())
+            : null;
+        if (lookup == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return lookup;
+    }
+
+    /**
+     * Drops the lookups of the enrich indices that the policies no longer point to, and starts to load the enrich indices that the
+     * policies point to and that have not been loaded yet.
+     */
+    void setMetadata(Metadata metadata, Client client) {
+        this.metadata = metadata;
+        if (enabled == false) {
+            return;
+        }
+        synchronized (this) {
+            this.client = client;
+            final Set<String> enrichIndices = getEnrichIndices(metadata).keySet();
+            if (enrichIndices.containsAll(lookups.keySet()) == false) {
+                final Map<String, EnrichLookup> retained = new HashMap<>(lookups);
+                retained.keySet().retainAll(enrichIndices);
+                lookups = Map.copyOf(retained);
+            }
+            rejected.retainAll(enrichIndices);
+            failedAttempts.keySet().retainAll(enrichIndices);
+            awaitingRetry.retainAll(enrichIndices);
+            maybeLoadNext();
+        }
+    }
+
+    /**
+     * Loads the next enrich index that has no lookup yet, one at a time so that every index can use all of the memory that is left.
+     */
+    private synchronized void maybeLoadNext() {
+        if (loading != null) {
+            return;
+        }
+        for (Map.Entry<String, String> entry : getEnrichIndices(metadata).entrySet()) {
+            final String enrichIndex = entry.getKey();
+            if (lookups.containsKey(enrichIndex) || rejected.contains(enrichIndex) || awaitingRetry.contains(enrichIndex)) {
+                continue;
+            }
+            loading = enrichIndex;
+            final long availableSizeInBytes = maxSizeInBytes - sizeInBytes(lookups);
+            final EnrichLookup.Builder builder = new EnrichLookup.Builder(enrichIndex, entry.getValue(), availableSizeInBytes);
+            final Client originClient = new OriginSettingClient(client, ENRICH_ORIGIN);
+            load(originClient, builder, ActionListener.wrap(lookup -> onLoaded(enrichIndex, lookup), e -> onLoadFailed(enrichIndex, e)));
+            return;
+        }
+    }
+
+    private synchronized void onLoaded(String enrichIndex, EnrichLookup lookup) {
+        loading = null;
+        failedAttempts.remove(enrichIndex);
+        if (lookup == null) {
+            rejected.add(enrichIndex);
+            rejections.increment();
+        } else if (getEnrichIndices(metadata).containsKey(enrichIndex)) {
+            final Map<String, EnrichLookup> added = new HashMap<>(lookups);
+            added.put(enrichIndex, lookup);
+            lookups = Map.copyOf(added);
+        }
+        maybeLoadNext();
+    }
+
+    private synchronized void onLoadFailed(String enrichIndex, Exception e) {
+        loading = null;
+        if (getEnrichIndices(metadata).containsKey(enrichIndex)) {
+            final TimeValue delay = retryDelay(failedAttempts.merge(enrichIndex, 1, Integer::sum));
+            logger.warn(new ParameterizedMessage("failed to load enrich index [{}] into memory, retrying in [{}]", enrichIndex, delay), e);
+            try {
+                client.threadPool().schedule(() -> retry(enrichIndex), delay, ThreadPool.Names.GENERIC);
+                awaitingRetry.add(enrichIndex);
+            } catch (EsRejectedExecutionException ex) {
+                logger.debug("failed to schedule loading enrich index [{}] again, the node is shutting down", enrichIndex);
+                return;
+            }
+        }
+        maybeLoadNext();
+    }
+
+    private synchronized void retry(String enrichIndex) {
+        // the alias of the policy may have moved on in the meantime
+        if (awaitingRetry.remove(enrichIndex)) {
+            maybeLoadNext();
+        }
+    }
+
+    /**
+     * The delay before loading an enrich index again after the given number of failed attempts, doubling with every attempt.
+     */
+    static TimeValue retryDelay(int failedAttempts) {
+        assert failedAttempts > 0 : failedAttempts;
+        final long delayInMillis = INITIAL_RETRY_DELAY.millis() << Math.min(failedAttempts - 1, 30);
+        return TimeValue.timeValueMillis(Math.min(delayInMillis, MAX_RETRY_DELAY.millis()));
+    }
+
+    /**
+     * Scrolls through the enrich index in the order of the index and adds all documents to the builder. Completes the listener with
+     * {@code null} if the index cannot be held in memory.
+     */
+    private void load(Client client, EnrichLookup.Builder builder, ActionListener<EnrichLookup> listener) {
+        final SearchRequest searchRequest = new SearchRequest(builder.getIndex());
+        searchRequest.scroll(SCROLL_KEEP_ALIVE);
+        searchRequest.source(new SearchSourceBuilder().size(fetchSize).sort("_doc", SortOrder.ASC).fetchSource(true));
+        client.search(searchRequest, new ActionListener<>() {
+            @Override
+            public void onResponse(SearchResponse response) {
+                final String scrollId = response.getScrollId();
+                boolean done = response.getHits().getHits().length == 0;
+                for (SearchHit hit : response.getHits().getHits()) {
+                    if (builder.add(hit.getSourceRef()) == false) {
+                        logger.info("enrich index [{}] cannot be held in memory, searching it instead", builder.getIndex());
+                        clearScroll(client, scrollId);
+                        listener.onResponse(null);
+                        return;
+                    }
+                }
+                if (done) {
+                    clearScroll(client, scrollId);
+                    logger.debug("loaded [{}] documents of enrich index [{}] into memory, using [{}]", builder.getDocumentCount(),
+                        builder.getIndex(), new ByteSizeValue(builder.getSizeInBytes()));
+                    listener.onResponse(builder.build());
+                } else {
+                    client.searchScroll(new SearchScrollRequest(scrollId).scroll(SCROLL_KEEP_ALIVE), this);
+                }
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                listener.onFailure(e);
+            }
+        });
+    }
+
+    private static void clearScroll(Client client, String scrollId) {
+        if (scrollId != null) {
+            final ClearScrollRequest clearScrollRequest = new ClearScrollRequest();
+            clearScrollRequest.addScrollId(scrollId);
+            client.clearScroll(clearScrollRequest, ActionListener.wrap(r -> {}, e -> logger.debug("failed to clear scroll", e)));
+        }
+    }
+
+    /**
+     * Returns the current enrich index of the given policy if it is a match policy.
+     */
+    private static IndexMetadata getEnrichIndex(Metadata metadata, String policyName) {
+        if (metadata == null) {
+            return null;
+        }
+        final IndexAbstraction alias = metadata.getIndicesLookup().get(EnrichPolicy.getBaseName(policyName));
+        if (alias == null || alias.getIndices().size() != 1) {
+            return null;
+        }
+        final IndexMetadata indexMetadata = alias.getIndices().get(0);
+        return EnrichPolicy.MATCH_TYPE.equals(getMeta(indexMetadata, EnrichPolicyRunner.ENRICH_POLICY_TYPE_FIELD_NAME))
+            ? indexMetadata
+            : null;
+    }
+
+    private static Object getMeta(IndexMetadata indexMetadata, String name) {
+        if (indexMetadata.mapping() == null) {
+            return null;
+        }
+        return XContentMapValues.extractValue("_meta." + name, indexMetadata.mapping().sourceAsMap());
+    }
+
+    /**
+     * Returns the match fields of the current enrich indices of all match policies, by the name of the enrich index.
+     */
+    private static Map<String, String> getEnrichIndices(Metadata metadata) {
+        final Map<String, String> enrichIndices = new HashMap<>();
+        final EnrichMetadata enrichMetadata = metadata != null ? metadata.custom(EnrichMetadata.TYPE) : null;
+        if (enrichMetadata != null) {
+            for (String policyName : enrichMetadata.getPolicies().keySet()) {
+                final IndexMetadata enrichIndex = getEnrichIndex(metadata, policyName);
+                final Object matchField = enrichIndex != null ? getMeta(enrichIndex, EnrichPolicyRunner.ENRICH_MATCH_FIELD_NAME) : null;
+                if (matchField instanceof String) {
+                    enrichIndices.put(enrichIndex.getIndex().getName(), (String) matchField);
+                }
+            }
+        }
+        return enrichIndices;
+    }
+
+    private static long sizeInBytes(Map<String, EnrichLookup> lookups) {
+        return lookups.values().stream().mapToLong(EnrichLookup::getSizeInBytes).sum();
+    }
+
+    public EnrichStatsAction.Response.LookupStats getStats(String localNodeId) {
+        final Map<String, EnrichLookup> lookups = this.lookups;
+        return new EnrichStatsAction.Response.LookupStats(
+            localNodeId,
+            lookups.size(),
+            lookups.values().stream().mapToLong(EnrichLookup::getDocumentCount).sum(),
+            sizeInBytes(lookups),
+            hits.sum(),
+            misses.sum(),
+            rejections.sum()
+        );
+    }
+}
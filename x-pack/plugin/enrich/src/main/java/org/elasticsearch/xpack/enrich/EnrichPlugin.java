@@ -131,15 +131,22 @@ public class EnrichPlugin extends Plugin implements SystemIndexPlugin, IngestPlu
 
     private final Settings settings;
     private final EnrichCache enrichCache;
+    private final EnrichLookupService enrichLookupService;
 
     public EnrichPlugin(final Settings settings) {
         this.settings = settings;
         this.enrichCache = new EnrichCache(CACHE_SIZE.get(settings));
+        this.enrichLookupService = new EnrichLookupService(settings);
     }
 
     @Override
     public Map<String, Processor.Factory> getProcessors(Processor.Parameters parameters) {
-        EnrichProcessorFactory factory = new EnrichProcessorFactory(parameters.client, parameters.scriptService, enrichCache);
+        EnrichProcessorFactory factory = new EnrichProcessorFactory(
+            parameters.client,
+            parameters.scriptService,
+            enrichCache,
+            enrichLookupService
+        );
         parameters.ingestService.addIngestClusterStateListener(factory);
         return Map.of(EnrichProcessorFactory.TYPE, factory);
     }
@@ -222,7 +229,8 @@ public class EnrichPlugin extends Plugin implements SystemIndexPlugin, IngestPlu
             new EnrichCoordinatorProxyAction.Coordinator(client, settings),
             enrichPolicyMaintenanceService,
             enrichPolicyExecutor,
-            enrichCache
+            enrichCache,
+            enrichLookupService
         );
     }
 
@@ -255,7 +263,9 @@ public class EnrichPlugin extends Plugin implements SystemIndexPlugin, IngestPlu
             COORDINATOR_PROXY_MAX_LOOKUPS_PER_REQUEST,
             COORDINATOR_PROXY_QUEUE_CAPACITY,
             ENRICH_MAX_FORCE_MERGE_ATTEMPTS,
-            CACHE_SIZE
+            CACHE_SIZE,
+            EnrichLookupService.LOCAL_LOOKUP_ENABLED,
+            EnrichLookupService.LOCAL_LOOKUP_MAX_SIZE
         );
     }
 
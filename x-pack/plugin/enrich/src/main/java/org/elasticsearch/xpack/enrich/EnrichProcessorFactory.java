@@ -37,13 +37,15 @@ final class EnrichProcessorFactory implements Processor.Factory, Consumer<Cluste
     private final Client client;
     private final ScriptService scriptService;
     private final EnrichCache enrichCache;
+    private final EnrichLookupService enrichLookupService;
 
     volatile Metadata metadata;
 
-    EnrichProcessorFactory(Client client, ScriptService scriptService, EnrichCache enrichCache) {
+    EnrichProcessorFactory(Client client, ScriptService scriptService, EnrichCache enrichCache, EnrichLookupService enrichLookupService) {
         this.client = client;
         this.scriptService = scriptService;
         this.enrichCache = Objects.requireNonNull(enrichCache);
+        this.enrichLookupService = Objects.requireNonNull(enrichLookupService);
     }
 
     @Override
@@ -85,6 +87,8 @@ final class EnrichProcessorFactory implements Processor.Factory, Consumer<Cluste
                     tag,
                     description,
                     searchRunner,
+                    // range queries cannot be answered by looking up values
+                    EnrichPolicy.MATCH_TYPE.equals(policyType) ? enrichLookupService : null,
                     policyName,
                     field,
                     targetField,
@@ -121,6 +125,7 @@ final class EnrichProcessorFactory implements Processor.Factory, Consumer<Cluste
     public void accept(ClusterState state) {
         metadata = state.getMetadata();
         enrichCache.setMetadata(metadata);
+        enrichLookupService.setMetadata(metadata, client);
     }
 
     private static BiConsumer<SearchRequest, BiConsumer<SearchResponse, Exception>> createSearchRunner(
@@ -14,10 +14,13 @@ import org.elasticsearch.index.query.TermsQueryBuilder;
 import org.elasticsearch.script.TemplateScript;
 
 import java.util.List;
+import java.util.Map;
 import java.util.function.BiConsumer;
 
 public final class MatchProcessor extends AbstractEnrichProcessor {
 
+    private final EnrichLookupService lookupService;
+
     MatchProcessor(
         String tag,
         String description,
@@ -29,8 +32,25 @@ public final class MatchProcessor extends AbstractEnrichProcessor {
         boolean ignoreMissing,
         String matchField,
         int maxMatches
+    ) {
+        this(tag, description, searchRunner, null, policyName, field, targetField, overrideEnabled, ignoreMissing, matchField, maxMatches);
+    }
+
+    MatchProcessor(
+        String tag,
+        String description,
+        BiConsumer<SearchRequest, BiConsumer<SearchResponse, Exception>> searchRunner,
+        EnrichLookupService lookupService,
+        String policyName,
+        TemplateScript.Factory field,
+        TemplateScript.Factory targetField,
+        boolean overrideEnabled,
+        boolean ignoreMissing,
+        String matchField,
+        int maxMatches
     ) {
         super(tag, description, searchRunner, policyName, field, targetField, ignoreMissing, overrideEnabled, matchField, maxMatches);
+        this.lookupService = lookupService;
     }
 
     @Override
@@ -41,4 +61,15 @@ public final class MatchProcessor extends AbstractEnrichProcessor {
             return new TermQueryBuilder(matchField, fieldValue);
         }
     }
+
+    @Override
+    protected List<Map<String, Object>> lookup(Object fieldValue) {
+        if (lookupService != null && EnrichLookup.canLookup(fieldValue)) {
+            EnrichLookup lookup = lookupService.getLookup(getPolicyName());
+            if (lookup != null) {
+                return lookup.lookup(fieldValue, maxMatches);
+            }
+        }
+        return null;
+    }
 }
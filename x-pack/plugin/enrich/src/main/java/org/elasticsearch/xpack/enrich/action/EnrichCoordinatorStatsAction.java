@@ -28,6 +28,7 @@ import org.elasticsearch.transport.TransportService;
 import org.elasticsearch.xpack.core.enrich.action.EnrichStatsAction;
 import org.elasticsearch.xpack.core.enrich.action.EnrichStatsAction.Response.CoordinatorStats;
 import org.elasticsearch.xpack.enrich.EnrichCache;
+import org.elasticsearch.xpack.enrich.EnrichLookupService;
 
 import java.io.IOException;
 import java.util.List;
@@ -92,17 +93,25 @@ public class EnrichCoordinatorStatsAction extends ActionType<EnrichCoordinatorSt
 
         private final EnrichStatsAction.Response.CacheStats cacheStats;
         private final CoordinatorStats coordinatorStats;
+        private final EnrichStatsAction.Response.LookupStats lookupStats;
 
-        NodeResponse(DiscoveryNode node, EnrichStatsAction.Response.CacheStats cacheStats, CoordinatorStats coordinatorStats) {
+        NodeResponse(
+            DiscoveryNode node,
+            EnrichStatsAction.Response.CacheStats cacheStats,
+            CoordinatorStats coordinatorStats,
+            EnrichStatsAction.Response.LookupStats lookupStats
+        ) {
             super(node);
             this.cacheStats = cacheStats;
             this.coordinatorStats = coordinatorStats;
+            this.lookupStats = lookupStats;
         }
 
         NodeResponse(StreamInput in) throws IOException {
             super(in);
             this.cacheStats = in.getVersion().onOrAfter(Version.V_7_16_0) ? new EnrichStatsAction.Response.CacheStats(in) : null;
             this.coordinatorStats = new CoordinatorStats(in);
+            this.lookupStats = in.getVersion().onOrAfter(Version.V_8_0_0) ? new EnrichStatsAction.Response.LookupStats(in) : null;
         }
 
         public CoordinatorStats getCoordinatorStats() {
@@ -113,6 +122,10 @@ public class EnrichCoordinatorStatsAction extends ActionType<EnrichCoordinatorSt
             return cacheStats;
         }
 
+        public EnrichStatsAction.Response.LookupStats getLookupStats() {
+            return lookupStats;
+        }
+
         @Override
         public void writeTo(StreamOutput out) throws IOException {
             super.writeTo(out);
@@ -120,6 +133,9 @@ public class EnrichCoordinatorStatsAction extends ActionType<EnrichCoordinatorSt
                 cacheStats.writeTo(out);
             }
             coordinatorStats.writeTo(out);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                lookupStats.writeTo(out);
+            }
         }
     }
 
@@ -127,6 +143,7 @@ public class EnrichCoordinatorStatsAction extends ActionType<EnrichCoordinatorSt
 
         private final EnrichCache enrichCache;
         private final EnrichCoordinatorProxyAction.Coordinator coordinator;
+        private final EnrichLookupService enrichLookupService;
 
         @Inject
         public TransportAction(
@@ -135,7 +152,8 @@ public class EnrichCoordinatorStatsAction extends ActionType<EnrichCoordinatorSt
             TransportService transportService,
             ActionFilters actionFilters,
             EnrichCache enrichCache,
-            EnrichCoordinatorProxyAction.Coordinator coordinator
+            EnrichCoordinatorProxyAction.Coordinator coordinator,
+            EnrichLookupService enrichLookupService
         ) {
             super(
                 NAME,
@@ -150,6 +168,7 @@ public class EnrichCoordinatorStatsAction extends ActionType<EnrichCoordinatorSt
             );
             this.enrichCache = enrichCache;
             this.coordinator = coordinator;
+            this.enrichLookupService = enrichLookupService;
         }
 
         @Override
@@ -176,7 +195,12 @@ public class EnrichCoordinatorStatsAction extends ActionType<EnrichCoordinatorSt
         @Override
         protected NodeResponse nodeOperation(NodeRequest request, Task task) {
             DiscoveryNode node = clusterService.localNode();
-            return new NodeResponse(node, enrichCache.getStats(node.getId()), coordinator.getStats(node.getId()));
+            return new NodeResponse(
+                node,
+                enrichCache.getStats(node.getId()),
+                coordinator.getStats(node.getId()),
+                enrichLookupService.getStats(node.getId())
+            );
         }
     }
 
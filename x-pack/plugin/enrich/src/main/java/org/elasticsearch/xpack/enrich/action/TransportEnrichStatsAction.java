@@ -99,7 +99,13 @@ public class TransportEnrichStatsAction extends TransportMasterNodeAction<Enrich
                 .filter(Objects::nonNull)
                 .sorted(Comparator.comparing(EnrichStatsAction.Response.CacheStats::getNodeId))
                 .collect(Collectors.toList());
-            listener.onResponse(new EnrichStatsAction.Response(policyExecutionTasks, coordinatorStats, cacheStats));
+            List<EnrichStatsAction.Response.LookupStats> lookupStats = response.getNodes()
+                .stream()
+                .map(EnrichCoordinatorStatsAction.NodeResponse::getLookupStats)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(EnrichStatsAction.Response.LookupStats::getNodeId))
+                .collect(Collectors.toList());
+            listener.onResponse(new EnrichStatsAction.Response(policyExecutionTasks, coordinatorStats, cacheStats, lookupStats));
         }, listener::onFailure);
         client.execute(EnrichCoordinatorStatsAction.INSTANCE, statsRequest, statsListener);
     }
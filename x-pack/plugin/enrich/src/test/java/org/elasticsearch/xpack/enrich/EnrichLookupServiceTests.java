@@ -0,0 +1,328 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.enrich;
+
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.ActionType;
+import org.elasticsearch.action.search.ClearScrollAction;
+import org.elasticsearch.action.search.ClearScrollResponse;
+import org.elasticsearch.action.search.SearchAction;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchResponseSections;
+import org.elasticsearch.action.search.SearchScrollAction;
+import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.cluster.metadata.AliasMetadata;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.DeterministicTaskQueue;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.suggest.Suggest;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.client.NoOpClient;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.xpack.core.enrich.EnrichPolicy;
+import org.elasticsearch.xpack.core.enrich.action.EnrichStatsAction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class EnrichLookupServiceTests extends ESTestCase {
+
+    private DeterministicTaskQueue taskQueue;
+    private FakeClient client;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        taskQueue = new DeterministicTaskQueue();
+        client = new FakeClient(taskQueue.getThreadPool());
+    }
+
+    public void testLoadsLookupsOfMatchPolicies() {
+        client.addIndex(".enrich-match-1", "{\"key\": \"a\", \"value\": \"1\"}", "{\"key\": \"b\", \"value\": \"2\"}");
+        client.addIndex(".enrich-range-1", "{\"key\": \"10.0.0.0/8\", \"value\": \"1\"}");
+        final EnrichLookupService service = new EnrichLookupService(enabledSettings(Settings.EMPTY));
+        final Metadata metadata = Metadata.builder()
+            .put(enrichIndex("match", ".enrich-match-1", EnrichPolicy.MATCH_TYPE))
+            .put(enrichIndex("range", ".enrich-range-1", EnrichPolicy.RANGE_TYPE))
+            .putCustom(EnrichMetadata.TYPE, enrichMetadata("match", "range"))
+            .build();
+
+        service.setMetadata(metadata, client);
+        final EnrichLookup lookup = service.getLookup("match");
+        assertThat(lookup, notNullValue());
+        assertThat(lookup.getIndex(), equalTo(".enrich-match-1"));
+        assertThat(lookup.lookup("b", 1).get(0).get("value"), equalTo("2"));
+        // range policies are searched
+        assertThat(service.getLookup("range"), nullValue());
+        assertThat(client.searches(".enrich-range-1"), equalTo(0));
+        assertThat(client.openScrolls, equalTo(0));
+
+        final EnrichStatsAction.Response.LookupStats stats = service.getStats("node");
+        assertThat(stats.getCount(), equalTo(1L));
+        assertThat(stats.getDocuments(), equalTo(2L));
+        assertThat(stats.getHits(), equalTo(1L));
+        assertThat(stats.getMisses(), equalTo(1L));
+        assertThat(stats.getRejections(), equalTo(0L));
+    }
+
+    public void testDisabled() {
+        client.addIndex(".enrich-match-1", "{\"key\": \"a\", \"value\": \"1\"}");
+        final EnrichLookupService service = new EnrichLookupService(Settings.EMPTY);
+        service.setMetadata(metadata(Map.of("match", ".enrich-match-1")), client);
+        assertThat(service.getLookup("match"), nullValue());
+        assertThat(client.searches(".enrich-match-1"), equalTo(0));
+    }
+
+    public void testDropsLookupWhenAliasMoves() {
+        client.addIndex(".enrich-match-1", "{\"key\": \"a\", \"value\": \"1\"}");
+        client.addIndex(".enrich-match-2", "{\"key\": \"a\", \"value\": \"2\"}");
+        final EnrichLookupService service = new EnrichLookupService(enabledSettings(Settings.EMPTY));
+
+        service.setMetadata(metadata(Map.of("match", ".enrich-match-1")), client);
+        assertThat(service.getLookup("match").getIndex(), equalTo(".enrich-match-1"));
+
+        // the policy was executed again
+        service.setMetadata(metadata(Map.of("match", ".enrich-match-2")), client);
+        assertThat(service.getLookup("match").getIndex(), equalTo(".enrich-match-2"));
+        assertThat(service.getLookup("match").lookup("a", 1).get(0).get("value"), equalTo("2"));
+        assertThat(service.getStats("node").getCount(), equalTo(1L));
+
+        // the policy was deleted
+        service.setMetadata(metadata(Map.of()), client);
+        assertThat(service.getLookup("match"), nullValue());
+        assertThat(service.getStats("node").getCount(), equalTo(0L));
+        assertThat(service.getStats("node").getSizeInBytes(), equalTo(0L));
+        assertThat(client.searches(".enrich-match-1"), equalTo(1));
+        assertThat(client.searches(".enrich-match-2"), equalTo(1));
+    }
+
+    public void testLookupsShareMaxSize() {
+        final String[] documents = new String[randomIntBetween(1, 16)];
+        for (int i = 0; i < documents.length; i++) {
+            documents[i] = "{\"key\": \"" + i + "\", \"value\": \"" + randomAlphaOfLength(64) + "\"}";
+        }
+        client.addIndex(".enrich-first-1", documents);
+        client.addIndex(".enrich-second-1", documents);
+        client.addIndex(".enrich-second-2", documents);
+        final EnrichLookupService measuring = new EnrichLookupService(enabledSettings(Settings.EMPTY));
+        measuring.setMetadata(metadata(Map.of("first", ".enrich-first-1")), client);
+        final long sizeInBytes = measuring.getStats("node").getSizeInBytes();
+        assertThat(sizeInBytes, greaterThan(0L));
+
+        // there is only room for one of the two indices
+        final Settings settings = Settings.builder().put(EnrichLookupService.LOCAL_LOOKUP_MAX_SIZE.getKey(), (sizeInBytes * 3 / 2) + "b")
+            .build();
+        final EnrichLookupService service = new EnrichLookupService(enabledSettings(settings));
+        service.setMetadata(metadata(Map.of("first", ".enrich-first-1", "second", ".enrich-second-1")), client);
+        final boolean firstLoaded = service.getLookup("first") != null;
+        assertThat(service.getLookup("second") != null, equalTo(firstLoaded == false));
+        assertThat(service.getStats("node").getCount(), equalTo(1L));
+        assertThat(service.getStats("node").getSizeInBytes(), equalTo(sizeInBytes));
+        assertThat(service.getStats("node").getRejections(), equalTo(1L));
+        // an index that does not fit is not retried
+        assertThat(taskQueue.hasDeferredTasks(), equalTo(false));
+        assertThat(client.openScrolls, equalTo(0));
+
+        // once the first policy is deleted, there is room for the next index of the second policy
+        service.setMetadata(metadata(Map.of("second", firstLoaded ? ".enrich-second-1" : ".enrich-second-2")), client);
+        if (firstLoaded) {
+            assertThat("a rejected index is not retried until the policy is executed again", service.getLookup("second"), nullValue());
+            service.setMetadata(metadata(Map.of("second", ".enrich-second-2")), client);
+        }
+        assertThat(service.getLookup("second").getIndex(), equalTo(".enrich-second-2"));
+        assertThat(service.getStats("node").getCount(), equalTo(1L));
+    }
+
+    public void testIndexWithUnsupportedValuesIsRejected() {
+        client.addIndex(".enrich-match-1", "{\"key\": \"a\", \"value\": \"1\"}", "{\"key\": 1.5, \"value\": \"2\"}");
+        final EnrichLookupService service = new EnrichLookupService(enabledSettings(Settings.EMPTY));
+        service.setMetadata(metadata(Map.of("match", ".enrich-match-1")), client);
+        assertThat(service.getLookup("match"), nullValue());
+        assertThat(service.getStats("node").getRejections(), equalTo(1L));
+        assertThat(taskQueue.hasDeferredTasks(), equalTo(false));
+
+        service.setMetadata(metadata(Map.of("match", ".enrich-match-1")), client);
+        assertThat(client.searches(".enrich-match-1"), equalTo(1));
+    }
+
+    public void testRetriesFailedLoads() {
+        client.addIndex(".enrich-match-1", "{\"key\": \"a\", \"value\": \"1\"}");
+        client.addIndex(".enrich-other-1", "{\"key\": \"b\", \"value\": \"2\"}");
+        final int failures = randomIntBetween(1, 4);
+        client.failures.put(".enrich-match-1", failures);
+        final EnrichLookupService service = new EnrichLookupService(enabledSettings(Settings.EMPTY));
+
+        service.setMetadata(metadata(Map.of("match", ".enrich-match-1", "other", ".enrich-other-1")), client);
+        // a failure does not hold up the other indices
+        assertThat(service.getLookup("other"), notNullValue());
+        long expectedTimeMillis = 0;
+        for (int attempt = 1; attempt <= failures; attempt++) {
+            assertThat(service.getLookup("match"), nullValue());
+            assertThat(client.searches(".enrich-match-1"), equalTo(attempt));
+            assertThat(taskQueue.hasDeferredTasks(), equalTo(true));
+            taskQueue.advanceTime();
+            expectedTimeMillis += EnrichLookupService.retryDelay(attempt).millis();
+            assertThat(taskQueue.getCurrentTimeMillis(), equalTo(expectedTimeMillis));
+            taskQueue.runAllRunnableTasks();
+        }
+        assertThat(service.getLookup("match"), notNullValue());
+        assertThat(client.searches(".enrich-match-1"), equalTo(failures + 1));
+        assertThat(service.getStats("node").getRejections(), equalTo(0L));
+        assertThat(taskQueue.hasDeferredTasks(), equalTo(false));
+    }
+
+    public void testDoesNotRetryIndexThatAliasMovedAwayFrom() {
+        client.addIndex(".enrich-match-1", "{\"key\": \"a\", \"value\": \"1\"}");
+        client.addIndex(".enrich-match-2", "{\"key\": \"a\", \"value\": \"2\"}");
+        client.failures.put(".enrich-match-1", Integer.MAX_VALUE);
+        final EnrichLookupService service = new EnrichLookupService(enabledSettings(Settings.EMPTY));
+
+        service.setMetadata(metadata(Map.of("match", ".enrich-match-1")), client);
+        assertThat(service.getLookup("match"), nullValue());
+        service.setMetadata(metadata(Map.of("match", ".enrich-match-2")), client);
+        assertThat(service.getLookup("match").getIndex(), equalTo(".enrich-match-2"));
+
+        taskQueue.runAllTasks();
+        assertThat(client.searches(".enrich-match-1"), equalTo(1));
+        assertThat(service.getLookup("match").getIndex(), equalTo(".enrich-match-2"));
+    }
+
+    public void testRetryDelay() {
+        assertThat(EnrichLookupService.retryDelay(1), equalTo(TimeValue.timeValueSeconds(1)));
+        assertThat(EnrichLookupService.retryDelay(2), equalTo(TimeValue.timeValueSeconds(2)));
+        assertThat(EnrichLookupService.retryDelay(5), equalTo(TimeValue.timeValueSeconds(16)));
+        assertThat(EnrichLookupService.retryDelay(randomIntBetween(10, Integer.MAX_VALUE)), equalTo(TimeValue.timeValueMinutes(5)));
+    }
+
+    private static Settings enabledSettings(Settings settings) {
+        return Settings.builder().put(settings).put(EnrichLookupService.LOCAL_LOOKUP_ENABLED.getKey(), true).build();
+    }
+
+    private static Metadata metadata(Map<String, String> enrichIndices) {
+        final Metadata.Builder builder = Metadata.builder();
+        enrichIndices.forEach((policyName, enrichIndex) -> builder.put(enrichIndex(policyName, enrichIndex, EnrichPolicy.MATCH_TYPE)));
+        return builder.putCustom(EnrichMetadata.TYPE, enrichMetadata(enrichIndices.keySet().toArray(new String[0]))).build();
+    }
+
+    private static IndexMetadata.Builder enrichIndex(String policyName, String enrichIndex, String policyType) {
+        return IndexMetadata.builder(enrichIndex)
+            .settings(settings(Version.CURRENT))
+            .numberOfShards(1)
+            .numberOfReplicas(0)
+            .putAlias(AliasMetadata.builder(EnrichPolicy.getBaseName(policyName)))
+            .putMapping("{\"_doc\": {\"_meta\": {\"" + EnrichPolicyRunner.ENRICH_POLICY_TYPE_FIELD_NAME + "\": \"" + policyType + "\", \""
+                + EnrichPolicyRunner.ENRICH_MATCH_FIELD_NAME + "\": \"key\"}}}");
+    }
+
+    private static EnrichMetadata enrichMetadata(String... policyNames) {
+        final Map<String, EnrichPolicy> policies = new HashMap<>();
+        for (String policyName : policyNames) {
+            policies.put(policyName, new EnrichPolicy(EnrichPolicy.MATCH_TYPE, null, List.of("source"), "key", List.of("value")));
+        }
+        return new EnrichMetadata(policies);
+    }
+
+    /**
+     * A client that answers the scroll searches of the service with the documents of the enrich indices, in a single page.
+     */
+    private static final class FakeClient extends NoOpClient {
+
+        private final Map<String, List<String>> indices = new HashMap<>();
+        private final Map<String, Integer> searches = new HashMap<>();
+        // the number of searches of an index that fail before the index can be searched
+        private final Map<String, Integer> failures = new HashMap<>();
+        private int openScrolls;
+
+        FakeClient(ThreadPool threadPool) {
+            super(threadPool);
+        }
+
+        void addIndex(String index, String... documents) {
+            indices.put(index, List.of(documents));
+        }
+
+        int searches(String index) {
+            return searches.getOrDefault(index, 0);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <Request extends ActionRequest, Response extends ActionResponse> void doExecute(
+            ActionType<Response> action,
+            Request request,
+            ActionListener<Response> listener
+        ) {
+            if (action == SearchAction.INSTANCE) {
+                final String index = ((SearchRequest) request).indices()[0];
+                searches.merge(index, 1, Integer::sum);
+                final int remainingFailures = failures.getOrDefault(index, 0);
+                if (remainingFailures > 0) {
+                    failures.put(index, remainingFailures - 1);
+                    listener.onFailure(new IllegalStateException("no shard of [" + index + "] is available"));
+                    return;
+                }
+                openScrolls++;
+                listener.onResponse((Response) searchResponse(indices.get(index), index));
+            } else if (action == SearchScrollAction.INSTANCE) {
+                listener.onResponse((Response) searchResponse(List.of(), ((SearchScrollRequest) request).scrollId()));
+            } else if (action == ClearScrollAction.INSTANCE) {
+                openScrolls--;
+                listener.onResponse((Response) new ClearScrollResponse(true, 1));
+            } else {
+                throw new AssertionError("unexpected action [" + action.name() + "]");
+            }
+        }
+
+        private static SearchResponse searchResponse(List<String> documents, String scrollId) {
+            final List<SearchHit> hits = new ArrayList<>();
+            for (int i = 0; i < documents.size(); i++) {
+                final SearchHit hit = new SearchHit(i, Integer.toString(i), Collections.emptyMap(), Collections.emptyMap());
+                hit.sourceRef(new BytesArray(documents.get(i)));
+                hits.add(hit);
+            }
+            return new SearchResponse(
+                new SearchResponseSections(
+                    new SearchHits(hits.toArray(new SearchHit[0]), new TotalHits(hits.size(), TotalHits.Relation.EQUAL_TO), 1.0f),
+                    new Aggregations(Collections.emptyList()),
+                    new Suggest(Collections.emptyList()),
+                    false,
+                    false,
+                    null,
+                    1
+                ),
+                scrollId,
+                1,
+                1,
+                0,
+                1,
+                ShardSearchFailure.EMPTY_ARRAY,
+                new SearchResponse.Clusters(1, 1, 0)
+            );
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.enrich;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class EnrichLookupTests extends ESTestCase {
+
+    public void testLookup() {
+        final EnrichLookup.Builder builder = new EnrichLookup.Builder("index", "host.ip", Long.MAX_VALUE);
+        assertTrue(builder.add(new BytesArray("{\"host\": {\"ip\": \"10.0.0.1\"}, \"owner\": \"a\"}")));
+        assertTrue(builder.add(new BytesArray("{\"host\": {\"ip\": [\"10.0.0.2\", \"10.0.0.1\", \"10.0.0.2\"]}, \"owner\": \"b\"}")));
+        assertTrue(builder.add(new BytesArray("{\"host\": {\"ip\": \"10.0.0.3\"}, \"owner\": \"c\"}")));
+        assertTrue(builder.add(new BytesArray("{\"owner\": \"d\"}")));
+        assertTrue(builder.add(new BytesArray("{\"host\": {\"ip\": 42}, \"owner\": \"e\"}")));
+        final EnrichLookup lookup = builder.build();
+        assertThat(lookup.getIndex(), equalTo("index"));
+        assertThat(lookup.getDocumentCount(), equalTo(5));
+        assertThat(lookup.getSizeInBytes(), equalTo(builder.getSizeInBytes()));
+        assertThat(lookup.getSizeInBytes(), greaterThan(0L));
+
+        assertThat(owners(lookup.lookup("10.0.0.1", 128)), equalTo(List.of("a", "b")));
+        assertThat(owners(lookup.lookup("10.0.0.1", 1)), equalTo(List.of("a")));
+        assertThat(owners(lookup.lookup("10.0.0.2", 128)), equalTo(List.of("b")));
+        assertThat(lookup.lookup("10.0.0.4", 128), empty());
+        // documents are returned once and in the order of the index, like the hits of a terms query
+        assertThat(owners(lookup.lookup(List.of("10.0.0.3", "10.0.0.2", "10.0.0.1"), 128)), equalTo(List.of("a", "b", "c")));
+        assertThat(owners(lookup.lookup(List.of("10.0.0.3", "10.0.0.2"), 1)), equalTo(List.of("b")));
+        assertThat(owners(lookup.lookup(List.of("10.0.0.3"), 128)), equalTo(List.of("c")));
+        // the match field is a keyword, so numbers match their text
+        assertThat(owners(lookup.lookup(42, 128)), equalTo(List.of("e")));
+        assertThat(owners(lookup.lookup(42L, 128)), equalTo(List.of("e")));
+        assertThat(owners(lookup.lookup("42", 128)), equalTo(List.of("e")));
+        assertThat(lookup.lookup(true, 128), empty());
+
+        // every lookup returns its own copy of the source
+        final Map<String, Object> first = lookup.lookup("10.0.0.1", 1).get(0);
+        assertThat(lookup.lookup("10.0.0.1", 1).get(0), not(sameInstance(first)));
+        assertThat(lookup.lookup("10.0.0.1", 1).get(0), equalTo(first));
+    }
+
+    public void testUnsupportedValues() {
+        assertTrue(EnrichLookup.canLookup("value"));
+        assertTrue(EnrichLookup.canLookup(1));
+        assertTrue(EnrichLookup.canLookup(1L));
+        assertTrue(EnrichLookup.canLookup(false));
+        assertTrue(EnrichLookup.canLookup(List.of("a", 1)));
+        assertFalse(EnrichLookup.canLookup(1.5d));
+        assertFalse(EnrichLookup.canLookup(1.5f));
+        assertFalse(EnrichLookup.canLookup(Map.of("a", "b")));
+        assertFalse(EnrichLookup.canLookup(List.of("a", 1.5d)));
+
+        // an enrich index with values that cannot be looked up has to be searched
+        final EnrichLookup.Builder builder = new EnrichLookup.Builder("index", "value", Long.MAX_VALUE);
+        assertTrue(builder.add(new BytesArray("{\"value\": 1}")));
+        assertFalse(builder.add(new BytesArray("{\"value\": 1.0}")));
+    }
+
+    public void testMaxSize() {
+        final EnrichLookup.Builder builder = new EnrichLookup.Builder("index", "key", 1024);
+        int added = 0;
+        while (builder.add(new BytesArray("{\"key\": \"" + added + "\", \"value\": \"" + randomAlphaOfLength(32) + "\"}"))) {
+            added++;
+        }
+        assertThat(added, greaterThan(0));
+        assertThat(builder.getSizeInBytes(), greaterThan(1024L));
+    }
+
+    private static List<Object> owners(List<Map<String, Object>> documents) {
+        return documents.stream().map(document -> document.get("owner")).collect(Collectors.toList());
+    }
+}
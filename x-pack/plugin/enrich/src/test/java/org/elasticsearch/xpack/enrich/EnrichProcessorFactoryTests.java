@@ -55,6 +55,7 @@ public class EnrichProcessorFactoryTests extends ESTestCase {
 
     private ScriptService scriptService;
     private EnrichCache enrichCache = new EnrichCache(0L);
+    private EnrichLookupService enrichLookupService = new EnrichLookupService(Settings.EMPTY);
 
     @Before
     public void initializeScriptService() {
@@ -65,7 +66,7 @@ public class EnrichProcessorFactoryTests extends ESTestCase {
         List<String> enrichValues = List.of("globalRank", "tldRank", "tld");
         EnrichPolicy policy = new EnrichPolicy(EnrichPolicy.MATCH_TYPE, null, List.of("source_index"), "my_key", enrichValues);
         try (Client client = new NoOpClient(this.getClass().getSimpleName() + "TestClient")) {
-            EnrichProcessorFactory factory = new EnrichProcessorFactory(client, scriptService, enrichCache);
+            EnrichProcessorFactory factory = new EnrichProcessorFactory(client, scriptService, enrichCache, enrichLookupService);
             factory.metadata = createMetadata("majestic", policy);
 
             Map<String, Object> config = new HashMap<>();
@@ -116,7 +117,7 @@ public class EnrichProcessorFactoryTests extends ESTestCase {
 
     public void testPolicyDoesNotExist() {
         List<String> enrichValues = List.of("globalRank", "tldRank", "tld");
-        EnrichProcessorFactory factory = new EnrichProcessorFactory(null, scriptService, enrichCache);
+        EnrichProcessorFactory factory = new EnrichProcessorFactory(null, scriptService, enrichCache, enrichLookupService);
         factory.metadata = Metadata.builder().build();
 
         Map<String, Object> config = new HashMap<>();
@@ -145,7 +146,7 @@ public class EnrichProcessorFactoryTests extends ESTestCase {
 
     public void testPolicyNameMissing() {
         List<String> enrichValues = List.of("globalRank", "tldRank", "tld");
-        EnrichProcessorFactory factory = new EnrichProcessorFactory(null, scriptService, enrichCache);
+        EnrichProcessorFactory factory = new EnrichProcessorFactory(null, scriptService, enrichCache, enrichLookupService);
 
         Map<String, Object> config = new HashMap<>();
         config.put("enrich_key", "host");
@@ -174,7 +175,7 @@ public class EnrichProcessorFactoryTests extends ESTestCase {
         List<String> enrichValues = List.of("globalRank", "tldRank", "tld");
         EnrichPolicy policy = new EnrichPolicy("unsupported", null, List.of("source_index"), "my_key", enrichValues);
         try (Client client = new NoOpClient(this.getClass().getSimpleName() + "TestClient")) {
-            EnrichProcessorFactory factory = new EnrichProcessorFactory(client, scriptService, enrichCache);
+            EnrichProcessorFactory factory = new EnrichProcessorFactory(client, scriptService, enrichCache, enrichLookupService);
             factory.metadata = createMetadata("majestic", policy);
 
             Map<String, Object> config = new HashMap<>();
@@ -195,7 +196,7 @@ public class EnrichProcessorFactoryTests extends ESTestCase {
         List<String> enrichValues = List.of("globalRank", "tldRank", "tld");
         EnrichPolicy policy = new EnrichPolicy(EnrichPolicy.MATCH_TYPE, null, List.of("source_index"), "host", enrichValues);
         try (Client client = new NoOpClient(this.getClass().getSimpleName() + "TestClient")) {
-            EnrichProcessorFactory factory = new EnrichProcessorFactory(client, scriptService, enrichCache);
+            EnrichProcessorFactory factory = new EnrichProcessorFactory(client, scriptService, enrichCache, enrichLookupService);
             factory.metadata = createMetadata("majestic", policy);
 
             Map<String, Object> config = new HashMap<>();
@@ -214,7 +215,7 @@ public class EnrichProcessorFactoryTests extends ESTestCase {
     public void testNoTargetField() throws Exception {
         List<String> enrichValues = List.of("globalRank", "tldRank", "tld");
         EnrichPolicy policy = new EnrichPolicy(EnrichPolicy.MATCH_TYPE, null, List.of("source_index"), "host", enrichValues);
-        EnrichProcessorFactory factory = new EnrichProcessorFactory(null, scriptService, enrichCache);
+        EnrichProcessorFactory factory = new EnrichProcessorFactory(null, scriptService, enrichCache, enrichLookupService);
         factory.metadata = createMetadata("majestic", policy);
 
         Map<String, Object> config1 = new HashMap<>();
@@ -228,7 +229,7 @@ public class EnrichProcessorFactoryTests extends ESTestCase {
     public void testIllegalMaxMatches() throws Exception {
         List<String> enrichValues = List.of("globalRank", "tldRank", "tld");
         EnrichPolicy policy = new EnrichPolicy(EnrichPolicy.MATCH_TYPE, null, List.of("source_index"), "my_key", enrichValues);
-        EnrichProcessorFactory factory = new EnrichProcessorFactory(null, scriptService, enrichCache);
+        EnrichProcessorFactory factory = new EnrichProcessorFactory(null, scriptService, enrichCache, enrichLookupService);
         factory.metadata = createMetadata("majestic", policy);
 
         Map<String, Object> config = new HashMap<>();
@@ -278,7 +279,7 @@ public class EnrichProcessorFactoryTests extends ESTestCase {
                 listener.onResponse((Response) emptyResponse);
             }
         }) {
-            EnrichProcessorFactory factory = new EnrichProcessorFactory(client, scriptService, enrichCache);
+            EnrichProcessorFactory factory = new EnrichProcessorFactory(client, scriptService, enrichCache, enrichLookupService);
             factory.accept(ClusterState.builder(new ClusterName("_name")).metadata(createMetadata("majestic", policy)).build());
 
             Map<String, Object> config = new HashMap<>();
@@ -14,6 +14,7 @@ import org.elasticsearch.xpack.core.enrich.action.EnrichStatsAction;
 import org.elasticsearch.xpack.core.enrich.action.EnrichStatsAction.Response.CacheStats;
 import org.elasticsearch.xpack.core.enrich.action.EnrichStatsAction.Response.CoordinatorStats;
 import org.elasticsearch.xpack.core.enrich.action.EnrichStatsAction.Response.ExecutingPolicy;
+import org.elasticsearch.xpack.core.enrich.action.EnrichStatsAction.Response.LookupStats;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -33,6 +34,7 @@ public class EnrichStatsResponseTests extends AbstractWireSerializingTestCase<En
         int numCoordinatingStats = randomIntBetween(0, 16);
         List<CoordinatorStats> coordinatorStats = new ArrayList<>(numCoordinatingStats);
         List<CacheStats> cacheStats = new ArrayList<>(numCoordinatingStats);
+        List<LookupStats> lookupStats = new ArrayList<>(numCoordinatingStats);
         for (int i = 0; i < numCoordinatingStats; i++) {
             String nodeId = randomAlphaOfLength(4);
             CoordinatorStats stats = new CoordinatorStats(
@@ -46,8 +48,19 @@ public class EnrichStatsResponseTests extends AbstractWireSerializingTestCase<En
             cacheStats.add(
                 new CacheStats(nodeId, randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong())
             );
+            lookupStats.add(
+                new LookupStats(
+                    nodeId,
+                    randomIntBetween(0, 16),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong()
+                )
+            );
         }
-        return new EnrichStatsAction.Response(executingPolicies, coordinatorStats, cacheStats);
+        return new EnrichStatsAction.Response(executingPolicies, coordinatorStats, cacheStats, lookupStats);
     }
 
     @Override
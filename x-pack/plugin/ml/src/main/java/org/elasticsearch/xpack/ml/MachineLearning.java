@@ -652,7 +652,9 @@ public class MachineLearning extends Plugin implements SystemIndexPlugin,
                 NIGHTLY_MAINTENANCE_REQUESTS_PER_SECOND,
                 USE_AUTO_MACHINE_MEMORY_PERCENT,
                 MAX_ML_NODE_SIZE,
-                DELAYED_DATA_CHECK_FREQ
+                DELAYED_DATA_CHECK_FREQ,
+                DeploymentManager.INFERENCE_BATCH_MAX_SIZE,
+                DeploymentManager.INFERENCE_BATCH_MAX_LATENCY
             );
     }
 
@@ -871,7 +873,7 @@ public class MachineLearning extends Plugin implements SystemIndexPlugin,
             getLicenseState()
         );
         this.modelLoadingService.set(modelLoadingService);
-        this.deploymentManager.set(new DeploymentManager(client, xContentRegistry, threadPool, pyTorchProcessFactory));
+        this.deploymentManager.set(new DeploymentManager(client, xContentRegistry, threadPool, pyTorchProcessFactory, settings));
 
         // Data frame analytics components
         AnalyticsProcessManager analyticsProcessManager = new AnalyticsProcessManager(
@@ -171,7 +171,8 @@ public class TransportGetDeploymentStatsAction extends TransportTasksAction<Trai
                 clusterService.localNode(),
                 stats.get().getTimingStats().getCount(),
                 stats.get().getTimingStats().getAverage(),
-                stats.get().getLastUsed()));
+                stats.get().getLastUsed(),
+                stats.get().getBatchingStats()));
         } else {
             // if there are no stats the process is missing.
             // Either because it is starting or stopped
@@ -339,14 +339,18 @@ class DatafeedJob {
                 dataExtractor.cancel();
             }
             if (isIsolated) {
+                dataExtractor.destroy();
                 return;
             }
 
             Optional<InputStream> extractedData;
             try {
+                long extractionStartNanos = System.nanoTime();
                 extractedData = dataExtractor.next();
+                timingStatsReporter.reportExtractionWaitTime(TimeValue.timeValueNanos(System.nanoTime() - extractionStartNanos));
             } catch (Exception e) {
                 LOGGER.error(new ParameterizedMessage("[{}] error while extracting data", jobId), e);
+                dataExtractor.destroy();
                 // When extraction problems are encountered, we do not want to advance time.
                 // Instead, it is preferable to retry the given interval next time an extraction
                 // is triggered.
@@ -363,6 +367,7 @@ class DatafeedJob {
                 throw new ExtractionProblemException(nextRealtimeTimestamp(), e);
             }
             if (isIsolated) {
+                dataExtractor.destroy();
                 return;
             }
             if (extractedData.isPresent()) {
@@ -378,6 +383,7 @@ class DatafeedJob {
                     if (e instanceof InterruptedException) {
                         Thread.currentThread().interrupt();
                     }
+                    dataExtractor.destroy();
                     if (isIsolated) {
                         return;
                     }
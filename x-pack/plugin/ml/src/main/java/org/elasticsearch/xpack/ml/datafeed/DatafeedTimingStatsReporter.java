@@ -65,6 +65,17 @@ public class DatafeedTimingStatsReporter {
         flushIfDifferSignificantly();
     }
 
+    /**
+     * Reports how much time the datafeed waited for the data extractor to return the next data.
+     * This does not persist the timing stats by itself, as it is reported along with every search.
+     */
+    public void reportExtractionWaitTime(TimeValue waitTime) {
+        if (waitTime == null) {
+            return;
+        }
+        currentTimingStats.incrementExtractionWaitTimeMs(waitTime.millis());
+    }
+
     /**
      * Reports the data counts received from the autodetect process.
      */
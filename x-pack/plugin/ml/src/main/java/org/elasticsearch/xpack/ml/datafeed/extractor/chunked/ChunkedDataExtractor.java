@@ -44,6 +44,8 @@ import java.util.Optional;
  * that includes the number of total hits and the earliest/latest times. Those are then used to determine the chunk span,
  * when necessary, and to jump the search forward to the time where the earliest data can be found.
  * If a search for a chunk returns empty, the set up is performed again for the remaining time.
+ * As the heuristic assumes that the data are spread evenly over time, an automatic chunk span is
+ * halved after a chunk that took many more pages than expected, and grown back once the data thin out.
  *
  * <p> Cancellation's behaviour depends on the delegate extractor.
  *
@@ -66,6 +68,12 @@ public class ChunkedDataExtractor implements DataExtractor {
     /** Let us set a minimum chunk span of 1 minute */
     private static final long MIN_CHUNK_SPAN = 60000L;
 
+    /**
+     * The number of pages {@link ScrolledDataSummary#estimateChunk()} aims for. An automatic chunk span is halved
+     * after a chunk took more than twice as many pages, and doubled up to the estimate after a chunk took less than half.
+     */
+    private static final int EXPECTED_PAGES_PER_CHUNK = 10;
+
     private final Client client;
     private final DataExtractorFactory dataExtractorFactory;
     private final ChunkedDataExtractorContext context;
@@ -74,6 +82,9 @@ public class ChunkedDataExtractor implements DataExtractor {
     private long currentStart;
     private long currentEnd;
     private long chunkSpan;
+    private long estimatedChunkSpan;
+    private boolean adaptChunkSpan;
+    private int pagesInChunk;
     private boolean isCancelled;
     private DataExtractor currentExtractor;
 
@@ -122,6 +133,8 @@ public class ChunkedDataExtractor implements DataExtractor {
             currentEnd = currentStart;
             chunkSpan = context.chunkSpan == null ? dataSummary.estimateChunk() : context.chunkSpan.getMillis();
             chunkSpan = context.timeAligner.alignToCeil(chunkSpan);
+            estimatedChunkSpan = chunkSpan;
+            adaptChunkSpan = context.chunkSpan == null && context.hasAggregations == false;
             LOGGER.debug("[{}] Chunked search configured: kind = {}, dataTimeSpread = {} ms, chunk span = {} ms",
                     context.jobId, dataSummary.getClass().getSimpleName(), dataSummary.getDataTimeSpread(), chunkSpan);
         } else {
@@ -146,6 +159,7 @@ public class ChunkedDataExtractor implements DataExtractor {
 
             Optional<InputStream> nextStream = currentExtractor.next();
             if (nextStream.isPresent()) {
+                pagesInChunk++;
                 return nextStream;
             }
 
@@ -159,12 +173,37 @@ public class ChunkedDataExtractor implements DataExtractor {
     }
 
     private void advanceTime() {
+        if (currentExtractor != null && currentEnd - currentStart == chunkSpan) {
+            adaptChunkSpan();
+        }
+        pagesInChunk = 0;
         currentStart = currentEnd;
         currentEnd = Math.min(currentStart + chunkSpan, context.end);
         currentExtractor = dataExtractorFactory.newExtractor(currentStart, currentEnd);
         LOGGER.trace("[{}] advances time to [{}, {})", context.jobId, currentStart, currentEnd);
     }
 
+    /**
+     * Adapts an automatic chunk span to the density of the data in the chunk that has just been searched in full.
+     */
+    private void adaptChunkSpan() {
+        if (adaptChunkSpan == false) {
+            return;
+        }
+        long adaptedChunkSpan = chunkSpan;
+        if (pagesInChunk > 2 * EXPECTED_PAGES_PER_CHUNK) {
+            adaptedChunkSpan = Math.max(chunkSpan / 2, MIN_CHUNK_SPAN);
+        } else if (pagesInChunk < EXPECTED_PAGES_PER_CHUNK / 2) {
+            adaptedChunkSpan = Math.min(chunkSpan * 2, estimatedChunkSpan);
+        }
+        adaptedChunkSpan = context.timeAligner.alignToCeil(adaptedChunkSpan);
+        if (adaptedChunkSpan != chunkSpan) {
+            LOGGER.debug("[{}] Chunk took [{}] pages, changing chunk span from [{}] ms to [{}] ms",
+                context.jobId, pagesInChunk, chunkSpan, adaptedChunkSpan);
+            chunkSpan = adaptedChunkSpan;
+        }
+    }
+
     @Override
     public boolean isCancelled() {
         return isCancelled;
@@ -178,6 +217,14 @@ public class ChunkedDataExtractor implements DataExtractor {
         isCancelled = true;
     }
 
+    @Override
+    public void destroy() {
+        if (currentExtractor != null) {
+            currentExtractor.destroy();
+        }
+        isCancelled = true;
+    }
+
     @Override
     public long getEndTime() {
         return context.end;
@@ -8,19 +8,28 @@ package org.elasticsearch.xpack.ml.datafeed.extractor.scroll;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.search.ClearScrollAction;
 import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.ClosePointInTimeAction;
+import org.elasticsearch.action.search.ClosePointInTimeRequest;
+import org.elasticsearch.action.search.OpenPointInTimeAction;
+import org.elasticsearch.action.search.OpenPointInTimeRequest;
 import org.elasticsearch.action.search.SearchAction;
 import org.elasticsearch.action.search.SearchPhaseExecutionException;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchScrollAction;
 import org.elasticsearch.action.search.SearchScrollRequestBuilder;
+import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.fetch.StoredFieldsContext;
+import org.elasticsearch.search.sort.SortBuilders;
 import org.elasticsearch.search.sort.SortOrder;
 import org.elasticsearch.xpack.core.ClientHelper;
 import org.elasticsearch.xpack.core.ml.datafeed.extractor.DataExtractor;
@@ -41,17 +50,30 @@ import java.util.concurrent.TimeUnit;
  * An implementation that extracts data from elasticsearch using search and scroll on a client.
  * It supports safe and responsive cancellation by continuing the scroll until a new timestamp
  * is seen.
+ *
+ * When the context allows it, the pages are searched with {@code search_after} in a point in time
+ * instead of a scroll. The search of the next page is then sent as soon as a page has been
+ * extracted, so that it runs while the page is posted to the job. Once the extractor is cancelled, the next
+ * page is only searched when it is asked for, and {@link #destroy()} closes the point in time of an extractor
+ * that is abandoned before it has finished.
+ *
  * Note that this class is NOT thread-safe.
  */
 class ScrollDataExtractor implements DataExtractor {
 
     private static final Logger LOGGER = LogManager.getLogger(ScrollDataExtractor.class);
     private static final TimeValue SCROLL_TIMEOUT = new TimeValue(30, TimeUnit.MINUTES);
+    // a page is posted to the job before the next page is consumed, so keep the point in time alive as long as a scroll
+    private static final TimeValue POINT_IN_TIME_KEEP_ALIVE = SCROLL_TIMEOUT;
 
     private final Client client;
     private final ScrollDataExtractorContext context;
     private final DatafeedTimingStatsReporter timingStatsReporter;
     private String scrollId;
+    private String pointInTimeId;
+    private long pointInTimeStart;
+    private Object[] searchAfter;
+    private PlainActionFuture<SearchResponse> nextPage;
     private boolean isCancelled;
     private boolean hasNext;
     private Long timestampOnCancel;
@@ -82,6 +104,14 @@ class ScrollDataExtractor implements DataExtractor {
         isCancelled = true;
     }
 
+    @Override
+    public void destroy() {
+        cancel();
+        hasNext = false;
+        clearScroll();
+        clearPointInTime();
+    }
+
     @Override
     public long getEndTime() {
         return context.end;
@@ -101,19 +131,71 @@ class ScrollDataExtractor implements DataExtractor {
 
     private Optional<InputStream> tryNextStream() throws IOException {
         try {
+            if (context.usePointInTime) {
+                return Optional.ofNullable(pointInTimeId == null ? initPointInTime(context.start) : continuePointInTime());
+            }
             return scrollId == null ?
                 Optional.ofNullable(initScroll(context.start)) : Optional.ofNullable(continueScroll());
         } catch (Exception e) {
             scrollId = null;
+            clearPointInTime();
             if (searchHasShardFailure) {
                 throw e;
             }
             LOGGER.debug("[{}] Resetting scroll search after shard failure", context.jobId);
             markScrollAsErrored();
-            return Optional.ofNullable(initScroll(lastTimestamp == null ? context.start : lastTimestamp));
+            long startTimestamp = lastTimestamp == null ? context.start : lastTimestamp;
+            return Optional.ofNullable(context.usePointInTime ? initPointInTime(startTimestamp) : initScroll(startTimestamp));
         }
     }
 
+    private InputStream initPointInTime(long startTimestamp) throws IOException {
+        LOGGER.debug("[{}] Opening point in time", context.jobId);
+        pointInTimeId = openPointInTime();
+        pointInTimeStart = startTimestamp;
+        searchAfter = null;
+        return continuePointInTime();
+    }
+
+    private InputStream continuePointInTime() throws IOException {
+        if (nextPage == null) {
+            nextPage = searchNextPage();
+        }
+        PlainActionFuture<SearchResponse> page = nextPage;
+        nextPage = null;
+        SearchResponse searchResponse = page.actionGet();
+        LOGGER.debug("[{}] Search response was obtained", context.jobId);
+        timingStatsReporter.reportSearchDuration(searchResponse.getTook());
+        if (searchResponse.pointInTimeId() != null) {
+            pointInTimeId = searchResponse.pointInTimeId();
+        }
+        InputStream stream = processSearchResponse(searchResponse);
+        if (hasNext && isCancelled == false) {
+            // search the next page while this one is posted to the job; once cancelled, the next page may never be consumed
+            nextPage = searchNextPage();
+        }
+        return stream;
+    }
+
+    private PlainActionFuture<SearchResponse> searchNextPage() {
+        PlainActionFuture<SearchResponse> future = PlainActionFuture.newFuture();
+        executePointInTimeSearchRequest(buildPointInTimeSearchRequest(), future);
+        return future;
+    }
+
+    protected String openPointInTime() {
+        OpenPointInTimeRequest request = new OpenPointInTimeRequest(context.indices)
+            .indicesOptions(context.indicesOptions)
+            .keepAlive(POINT_IN_TIME_KEEP_ALIVE);
+        return ClientHelper.executeWithHeaders(context.headers, ClientHelper.ML_ORIGIN, client,
+            () -> client.execute(OpenPointInTimeAction.INSTANCE, request).actionGet()).getPointInTimeId();
+    }
+
+    protected void executePointInTimeSearchRequest(SearchRequestBuilder searchRequestBuilder, ActionListener<SearchResponse> listener) {
+        ClientHelper.executeWithHeadersAsync(context.headers, ClientHelper.ML_ORIGIN, client, SearchAction.INSTANCE,
+            searchRequestBuilder.request(), listener);
+    }
+
     protected InputStream initScroll(long startTimestamp) throws IOException {
         LOGGER.debug("[{}] Initializing scroll", context.jobId);
         SearchResponse searchResponse = executeSearchRequest(buildSearchRequest(startTimestamp));
@@ -127,6 +209,24 @@ class ScrollDataExtractor implements DataExtractor {
     }
 
     private SearchRequestBuilder buildSearchRequest(long start) {
+        return newSearchRequestBuilder(start)
+            .setScroll(SCROLL_TIMEOUT)
+            .setIndices(context.indices)
+            .setIndicesOptions(context.indicesOptions);
+    }
+
+    private SearchRequestBuilder buildPointInTimeSearchRequest() {
+        // the point in time has resolved the indices already
+        SearchRequestBuilder searchRequestBuilder = newSearchRequestBuilder(pointInTimeStart)
+            .setPointInTime(new PointInTimeBuilder(pointInTimeId).setKeepAlive(POINT_IN_TIME_KEEP_ALIVE))
+            .addSort(SortBuilders.pitTiebreaker());
+        if (searchAfter != null) {
+            searchRequestBuilder.searchAfter(searchAfter);
+        }
+        return searchRequestBuilder;
+    }
+
+    private SearchRequestBuilder newSearchRequestBuilder(long start) {
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
             .size(context.scrollSize)
             .sort(context.extractedFields.timeField(), SortOrder.ASC)
@@ -135,9 +235,6 @@ class ScrollDataExtractor implements DataExtractor {
             .runtimeMappings(context.runtimeMappings);
 
         SearchRequestBuilder searchRequestBuilder = new SearchRequestBuilder(client, SearchAction.INSTANCE)
-                .setScroll(SCROLL_TIMEOUT)
-                .setIndices(context.indices)
-                .setIndicesOptions(context.indicesOptions)
                 .setAllowPartialSearchResults(false)
                 .setSource(searchSourceBuilder);
 
@@ -161,6 +258,7 @@ class ScrollDataExtractor implements DataExtractor {
         if (searchResponse.getHits().getHits().length == 0) {
             hasNext = false;
             clearScroll();
+            clearPointInTime();
             return null;
         }
 
@@ -175,6 +273,7 @@ class ScrollDataExtractor implements DataExtractor {
                         } else if (timestamp.equals(timestampOnCancel) == false) {
                             hasNext = false;
                             clearScroll();
+                            clearPointInTime();
                             break;
                         }
                     }
@@ -183,6 +282,7 @@ class ScrollDataExtractor implements DataExtractor {
             }
             SearchHit lastHit = searchResponse.getHits().getHits()[searchResponse.getHits().getHits().length -1];
             lastTimestamp = context.extractedFields.timeFieldValue(lastHit);
+            searchAfter = lastHit.getSortValues();
         }
         return new ByteArrayInputStream(outputStream.toByteArray());
     }
@@ -233,4 +333,22 @@ class ScrollDataExtractor implements DataExtractor {
             scrollId = null;
         }
     }
+
+    private void clearPointInTime() {
+        // a search of the next page that is still running fails once the point in time is closed, and it is not waited for
+        nextPage = null;
+        if (pointInTimeId != null) {
+            closePointInTime(pointInTimeId);
+            pointInTimeId = null;
+        }
+    }
+
+    protected void closePointInTime(String pointInTimeId) {
+        ClosePointInTimeRequest request = new ClosePointInTimeRequest(pointInTimeId);
+        ClientHelper.executeWithHeadersAsync(context.headers, ClientHelper.ML_ORIGIN, client, ClosePointInTimeAction.INSTANCE, request,
+            ActionListener.wrap(
+                response -> {},
+                e -> LOGGER.debug(new ParameterizedMessage("[{}] Failed to close point in time", context.jobId), e)
+            ));
+    }
 }
@@ -27,10 +27,12 @@ class ScrollDataExtractorContext {
     final Map<String, String> headers;
     final IndicesOptions indicesOptions;
     final Map<String, Object> runtimeMappings;
+    final boolean usePointInTime;
 
     ScrollDataExtractorContext(String jobId, TimeBasedExtractedFields extractedFields, List<String> indices, QueryBuilder query,
                                List<SearchSourceBuilder.ScriptField> scriptFields, int scrollSize, long start, long end,
-                               Map<String, String> headers, IndicesOptions indicesOptions, Map<String, Object> runtimeMappings) {
+                               Map<String, String> headers, IndicesOptions indicesOptions, Map<String, Object> runtimeMappings,
+                               boolean usePointInTime) {
         this.jobId = Objects.requireNonNull(jobId);
         this.extractedFields = Objects.requireNonNull(extractedFields);
         this.indices = indices.toArray(new String[indices.size()]);
@@ -42,5 +44,6 @@ class ScrollDataExtractorContext {
         this.headers = headers;
         this.indicesOptions = Objects.requireNonNull(indicesOptions);
         this.runtimeMappings = Objects.requireNonNull(runtimeMappings);
+        this.usePointInTime = usePointInTime;
     }
 }
@@ -14,6 +14,7 @@ import org.elasticsearch.action.fieldcaps.FieldCapabilitiesResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.xcontent.NamedXContentRegistry;
 import org.elasticsearch.index.IndexNotFoundException;
+import org.elasticsearch.license.RemoteClusterLicenseChecker;
 import org.elasticsearch.xpack.core.ClientHelper;
 import org.elasticsearch.xpack.core.ml.datafeed.DatafeedConfig;
 import org.elasticsearch.xpack.core.ml.datafeed.extractor.DataExtractor;
@@ -57,7 +58,9 @@ public class ScrollDataExtractorFactory implements DataExtractorFactory {
                 end,
                 datafeedConfig.getHeaders(),
                 datafeedConfig.getIndicesOptions(),
-                datafeedConfig.getRuntimeMappings()
+                datafeedConfig.getRuntimeMappings(),
+                // points in time cannot be opened on remote clusters
+                RemoteClusterLicenseChecker.containsRemoteIndex(datafeedConfig.getIndices()) == false
         );
         return new ScrollDataExtractor(client, dataExtractorContext, timingStatsReporter);
     }
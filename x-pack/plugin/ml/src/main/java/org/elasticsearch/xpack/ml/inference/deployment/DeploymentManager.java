@@ -17,6 +17,8 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.search.SearchAction;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.xcontent.LoggingDeprecationHandler;
 import org.elasticsearch.xcontent.NamedXContentRegistry;
@@ -71,22 +73,42 @@ public class DeploymentManager {
     private static final Logger logger = LogManager.getLogger(DeploymentManager.class);
     private static final AtomicLong requestIdCounter = new AtomicLong(1);
 
+    /**
+     * The maximum number of inference requests of a deployment that are sent to its process as a single batch.
+     * The default of {@code 1} sends every request on its own.
+     */
+    public static final Setting<Integer> INFERENCE_BATCH_MAX_SIZE =
+        Setting.intSetting("xpack.ml.inference_batch.max_size", 1, 1, 256, Setting.Property.NodeScope);
+
+    /**
+     * The maximum time that an inference request waits for other requests to fill its batch.
+     */
+    public static final Setting<TimeValue> INFERENCE_BATCH_MAX_LATENCY =
+        Setting.timeSetting("xpack.ml.inference_batch.max_latency",
+            TimeValue.timeValueMillis(10),
+            TimeValue.ZERO,
+            Setting.Property.NodeScope);
+
     private final Client client;
     private final NamedXContentRegistry xContentRegistry;
     private final PyTorchProcessFactory pyTorchProcessFactory;
     private final ExecutorService executorServiceForDeployment;
     private final ExecutorService executorServiceForProcess;
     private final ThreadPool threadPool;
+    private final int maxBatchSize;
+    private final TimeValue maxBatchLatency;
     private final ConcurrentMap<Long, ProcessContext> processContextByAllocation = new ConcurrentHashMap<>();
 
     public DeploymentManager(Client client, NamedXContentRegistry xContentRegistry,
-                             ThreadPool threadPool, PyTorchProcessFactory pyTorchProcessFactory) {
+                             ThreadPool threadPool, PyTorchProcessFactory pyTorchProcessFactory, Settings settings) {
         this.client = Objects.requireNonNull(client);
         this.xContentRegistry = Objects.requireNonNull(xContentRegistry);
         this.pyTorchProcessFactory = Objects.requireNonNull(pyTorchProcessFactory);
         this.threadPool = Objects.requireNonNull(threadPool);
         this.executorServiceForDeployment = threadPool.executor(MachineLearning.UTILITY_THREAD_POOL_NAME);
         this.executorServiceForProcess = threadPool.executor(MachineLearning.JOB_COMMS_THREAD_POOL_NAME);
+        this.maxBatchSize = INFERENCE_BATCH_MAX_SIZE.get(settings);
+        this.maxBatchLatency = INFERENCE_BATCH_MAX_LATENCY.get(settings);
     }
 
     public void startDeployment(TrainedModelDeploymentTask task, ActionListener<TrainedModelDeploymentTask> listener) {
@@ -97,7 +119,8 @@ public class DeploymentManager {
         return Optional.ofNullable(processContextByAllocation.get(task.getId()))
             .map(processContext ->
                 new ModelStats(processContext.getResultProcessor().getTimingStats(),
-                    processContext.getResultProcessor().getLastUsed())
+                    processContext.getResultProcessor().getLastUsed(),
+                    processContext.batcher.isEnabled() ? processContext.batcher.getStats() : null)
             );
     }
 
@@ -303,14 +326,24 @@ public class DeploymentManager {
         protected void doRun() throws Exception {
             final String requestIdStr = String.valueOf(requestId);
             try {
-                // The request builder expect a list of inputs which are then batched.
-                // TODO batching was implemented for expected use-cases such as zero-shot
-                // classification but is not used here.
                 List<String> text = Collections.singletonList(NlpTask.extractInput(processContext.modelInput.get(), doc));
                 NlpTask.Processor processor = processContext.nlpTaskProcessor.get();
                 processor.validateInputs(text);
                 assert config instanceof NlpConfig;
-                NlpTask.Request request = processor.getRequestBuilder((NlpConfig) config).buildRequest(text, requestIdStr);
+                NlpTask.RequestBuilder requestBuilder = processor.getRequestBuilder((NlpConfig) config);
+                TokenizationResult tokenization = requestBuilder.tokenize(text);
+                NlpTask.ResultProcessor inferenceResultsProcessor = processor.getResultProcessor((NlpConfig) config);
+                // Requests with a single input, which are all but zero-shot classification, can share a batch with other
+                // requests. Their results are split out of the result of the batch.
+                if (processContext.batcher.isEnabled() && tokenization.getTokenizations().size() == 1) {
+                    processContext.batcher.add(tokenization, requestBuilder, timeout, ActionListener.wrap(
+                        pyTorchResult -> processResult(tokenization, pyTorchResult, inferenceResultsProcessor,
+                            ActionListener.wrap(this::onSuccess, this::onFailure)),
+                        this::onFailure
+                    ));
+                    return;
+                }
+                NlpTask.Request request = requestBuilder.buildRequest(tokenization, requestIdStr);
                 logger.trace(() -> "Inference Request "+ request.processInput.utf8ToString());
                 PyTorchResultProcessor.PendingResult pendingResult = processContext.getResultProcessor().registerRequest(requestIdStr);
                 processContext.process.get().writeInferenceRequest(request.processInput);
@@ -320,7 +353,7 @@ public class DeploymentManager {
                     request.tokenization,
                     requestIdStr,
                     timeout,
-                    processor.getResultProcessor((NlpConfig) config),
+                    inferenceResultsProcessor,
                     ActionListener.wrap(this::onSuccess,this::onFailure)
                 );
             } catch (IOException e) {
@@ -354,22 +387,29 @@ public class DeploymentManager {
                     return;
                 }
 
-                if (pyTorchResult.isError()) {
-                    listener.onFailure(new ElasticsearchStatusException(pyTorchResult.getError(),
-                        RestStatus.INTERNAL_SERVER_ERROR));
-                    return;
-                }
-
-                logger.debug(() -> new ParameterizedMessage(
-                    "[{}] retrieved result for request [{}]", processContext.task.getModelId(), requestId));
-                InferenceResults results = inferenceResultsProcessor.processResult(tokenization, pyTorchResult);
-                logger.debug(() -> new ParameterizedMessage(
-                    "[{}] processed result for request [{}]", processContext.task.getModelId(), requestId));
-                listener.onResponse(results);
+                processResult(tokenization, pyTorchResult, inferenceResultsProcessor, listener);
             } catch (InterruptedException e) {
                 listener.onFailure(e);
             }
         }
+
+        private void processResult(TokenizationResult tokenization,
+                                   PyTorchResult pyTorchResult,
+                                   NlpTask.ResultProcessor inferenceResultsProcessor,
+                                   ActionListener<InferenceResults> listener) {
+            if (pyTorchResult.isError()) {
+                listener.onFailure(new ElasticsearchStatusException(pyTorchResult.getError(),
+                    RestStatus.INTERNAL_SERVER_ERROR));
+                return;
+            }
+
+            logger.debug(() -> new ParameterizedMessage(
+                "[{}] retrieved result for request [{}]", processContext.task.getModelId(), requestId));
+            InferenceResults results = inferenceResultsProcessor.processResult(tokenization, pyTorchResult);
+            logger.debug(() -> new ParameterizedMessage(
+                "[{}] processed result for request [{}]", processContext.task.getModelId(), requestId));
+            listener.onResponse(results);
+        }
     }
 
     class ProcessContext {
@@ -380,17 +420,35 @@ public class DeploymentManager {
         private final SetOnce<TrainedModelInput> modelInput = new SetOnce<>();
         private final PyTorchResultProcessor resultProcessor;
         private final PyTorchStateStreamer stateStreamer;
+        private final InferenceBatcher batcher;
 
         ProcessContext(TrainedModelDeploymentTask task, ExecutorService executorService) {
             this.task = Objects.requireNonNull(task);
             resultProcessor = new PyTorchResultProcessor(task.getModelId());
             this.stateStreamer = new PyTorchStateStreamer(client, executorService, xContentRegistry);
+            this.batcher = new InferenceBatcher(task.getModelId(), maxBatchSize, maxBatchLatency, threadPool, executorServiceForProcess,
+                requestIdCounter::getAndIncrement, this::sendBatch);
         }
 
         PyTorchResultProcessor getResultProcessor() {
             return resultProcessor;
         }
 
+        private PyTorchResult sendBatch(NlpTask.Request request, String requestId, TimeValue timeout) throws Exception {
+            // the inference time of the batch counts for each of its requests
+            PyTorchResultProcessor.PendingResult pendingResult = resultProcessor.registerRequest(requestId,
+                request.tokenization.getTokenizations().size());
+            try {
+                process.get().writeInferenceRequest(request.processInput);
+                return resultProcessor.waitForResult(process.get(), requestId, pendingResult, timeout);
+            } catch (IOException e) {
+                logger.error(new ParameterizedMessage("[{}] error writing to process", task.getModelId()), e);
+                throw ExceptionsHelper.serverError("error writing to process", e);
+            } finally {
+                resultProcessor.requestIgnored(requestId);
+            }
+        }
+
         synchronized void startProcess() {
             process.set(pyTorchProcessFactory.createProcess(task, executorServiceForProcess, onProcessCrash()));
         }
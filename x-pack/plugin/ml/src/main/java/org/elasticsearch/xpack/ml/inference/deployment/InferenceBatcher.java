@@ -0,0 +1,252 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.ml.inference.deployment;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.threadpool.Scheduler;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.InferenceBatchingStats;
+import org.elasticsearch.xpack.core.ml.utils.ExceptionsHelper;
+import org.elasticsearch.xpack.ml.MachineLearning;
+import org.elasticsearch.xpack.ml.inference.nlp.NlpTask;
+import org.elasticsearch.xpack.ml.inference.nlp.tokenizers.TokenizationResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Coalesces the inference requests of a deployment that arrive close to each other into a single request to the native process.
+ * The inputs of a batch are padded to the longest input of the batch, and the result of the batch is split into a result per
+ * request, without the rows of the padding. A batch is sent as soon as it is full, or when the first request of the batch has
+ * waited for the maximum latency, whichever comes first.
+ *
+ * Only requests with a single input are batched.
+ */
+class InferenceBatcher {
+
+    private static final Logger logger = LogManager.getLogger(InferenceBatcher.class);
+
+    /**
+     * Sends a request to the native process and waits for its result.
+     */
+    interface Sender {
+        /**
+         * @return the result, or {@code null} if the result did not arrive within the timeout
+         */
+        PyTorchResult send(NlpTask.Request request, String requestId, TimeValue timeout) throws Exception;
+    }
+
+    private final String modelId;
+    private final int maxBatchSize;
+    private final TimeValue maxLatency;
+    private final ThreadPool threadPool;
+    private final ExecutorService executor;
+    private final LongSupplier requestIds;
+    private final Sender sender;
+
+    private List<Entry> pending = new ArrayList<>();
+    private Scheduler.Cancellable scheduledFlush;
+
+    private final HistogramRecorder queueDepth = new HistogramRecorder();
+    private final HistogramRecorder batchSize = new HistogramRecorder();
+    private final HistogramRecorder latencyMillis = new HistogramRecorder();
+
+    InferenceBatcher(String modelId, int maxBatchSize, TimeValue maxLatency, ThreadPool threadPool, ExecutorService executor,
+                     LongSupplier requestIds, Sender sender) {
+        this.modelId = modelId;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatency = maxLatency;
+        this.threadPool = threadPool;
+        this.executor = executor;
+        this.requestIds = requestIds;
+        this.sender = sender;
+    }
+
+    boolean isEnabled() {
+        return maxBatchSize > 1 && maxLatency.nanos() > 0;
+    }
+
+    /**
+     * Adds a request with a single input to the next batch. The listener is called with the rows of the result of the batch that
+     * belong to the input, or with the error of the batch.
+     */
+    void add(TokenizationResult tokenization, NlpTask.RequestBuilder requestBuilder, TimeValue timeout,
+             ActionListener<PyTorchResult> listener) {
+        assert isEnabled();
+        assert tokenization.getTokenizations().size() == 1 : "only requests with a single input can be batched";
+        final Entry entry = new Entry(tokenization.getTokenizations().get(0), requestBuilder, timeout, listener);
+        final List<Entry> batch;
+        synchronized (this) {
+            pending.add(entry);
+            queueDepth.record(pending.size());
+            if (pending.size() >= maxBatchSize) {
+                batch = takePending();
+            } else {
+                if (pending.size() == 1) {
+                    scheduledFlush = threadPool.schedule(this::flush, maxLatency, MachineLearning.UTILITY_THREAD_POOL_NAME);
+                }
+                batch = null;
+            }
+        }
+        if (batch != null) {
+            send(batch);
+        }
+    }
+
+    private void flush() {
+        final List<Entry> batch;
+        synchronized (this) {
+            // a batch that filled up before its latency was spent has been sent already, and the entries that are
+            // pending now belong to the next batch, which are sent a little early then
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = takePending();
+        }
+        send(batch);
+    }
+
+    private synchronized List<Entry> takePending() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel();
+            scheduledFlush = null;
+        }
+        final List<Entry> batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void send(List<Entry> batch) {
+        batchSize.record(batch.size());
+        executor.execute(new AbstractRunnable() {
+            @Override
+            public void onFailure(Exception e) {
+                for (Entry entry : batch) {
+                    entry.onFailure(e);
+                }
+            }
+
+            @Override
+            protected void doRun() throws Exception {
+                sendAndSplit(batch);
+            }
+        });
+    }
+
+    private void sendAndSplit(List<Entry> batch) throws Exception {
+        final String requestId = String.valueOf(requestIds.getAsLong());
+        // the vocabulary is only needed to process the results, which is done with the tokenization of each request
+        final TokenizationResult tokenization = new TokenizationResult(Collections.emptyList());
+        TimeValue timeout = TimeValue.ZERO;
+        for (Entry entry : batch) {
+            tokenization.addTokenization(entry.tokenization);
+            timeout = entry.timeout.compareTo(timeout) > 0 ? entry.timeout : timeout;
+        }
+        final NlpTask.Request request = batch.get(0).requestBuilder.buildRequest(tokenization, requestId);
+        logger.trace(() -> "Batched inference request " + request.processInput.utf8ToString());
+        final PyTorchResult result = sender.send(request, requestId, timeout);
+        if (result == null) {
+            final Exception e = new ElasticsearchStatusException("timeout [{}] waiting for inference result",
+                RestStatus.TOO_MANY_REQUESTS, timeout);
+            for (Entry entry : batch) {
+                entry.onFailure(e);
+            }
+            return;
+        }
+        if (result.isError()) {
+            for (Entry entry : batch) {
+                entry.onResponse(result);
+            }
+            return;
+        }
+        final double[][][] inference = result.getInferenceResult();
+        if (inference == null || inference.length != batch.size()) {
+            final Exception e = ExceptionsHelper.serverError("[{}] expected [{}] results for batched request [{}] but got [{}]",
+                modelId, batch.size(), requestId, inference == null ? 0 : inference.length);
+            for (Entry entry : batch) {
+                entry.onFailure(e);
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            final Entry entry = batch.get(i);
+            final double[][] rows = inference[i];
+            // rows beyond the length of an input are the results of its padding
+            final int length = Math.min(rows.length, entry.tokenization.getTokenIds().length);
+            entry.onResponse(new PyTorchResult(
+                requestId,
+                new double[][][] { length == rows.length ? rows : Arrays.copyOf(rows, length) },
+                result.getTimeMs(),
+                null
+            ));
+        }
+    }
+
+    InferenceBatchingStats getStats() {
+        return new InferenceBatchingStats(queueDepth.snapshot(), batchSize.snapshot(), latencyMillis.snapshot());
+    }
+
+    private class Entry {
+        private final TokenizationResult.Tokenization tokenization;
+        private final NlpTask.RequestBuilder requestBuilder;
+        private final TimeValue timeout;
+        private final ActionListener<PyTorchResult> listener;
+        private final long startNanos;
+
+        Entry(TokenizationResult.Tokenization tokenization, NlpTask.RequestBuilder requestBuilder, TimeValue timeout,
+              ActionListener<PyTorchResult> listener) {
+            this.tokenization = tokenization;
+            this.requestBuilder = requestBuilder;
+            this.timeout = timeout;
+            this.listener = listener;
+            this.startNanos = System.nanoTime();
+        }
+
+        void onResponse(PyTorchResult result) {
+            recordLatency();
+            listener.onResponse(result);
+        }
+
+        void onFailure(Exception e) {
+            recordLatency();
+            listener.onFailure(e);
+        }
+
+        private void recordLatency() {
+            latencyMillis.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+    }
+
+    private static class HistogramRecorder {
+        private final AtomicLongArray counts = new AtomicLongArray(InferenceBatchingStats.Histogram.BUCKETS);
+
+        void record(long value) {
+            counts.incrementAndGet(InferenceBatchingStats.Histogram.bucket(value));
+        }
+
+        InferenceBatchingStats.Histogram snapshot() {
+            final long[] snapshot = new long[counts.length()];
+            for (int i = 0; i < snapshot.length; i++) {
+                snapshot[i] = counts.get(i);
+            }
+            return new InferenceBatchingStats.Histogram(snapshot);
+        }
+    }
+}
@@ -7,6 +7,9 @@
 
 package org.elasticsearch.xpack.ml.inference.deployment;
 
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.InferenceBatchingStats;
+
 import java.time.Instant;
 import java.util.LongSummaryStatistics;
 
@@ -14,12 +17,17 @@ public class ModelStats {
 
     private final LongSummaryStatistics timingStats;
     private final Instant lastUsed;
+    private final InferenceBatchingStats batchingStats;
 
-    ModelStats(LongSummaryStatistics timingStats, Instant lastUsed) {
+    ModelStats(LongSummaryStatistics timingStats, Instant lastUsed, @Nullable InferenceBatchingStats batchingStats) {
         this.timingStats = timingStats;
         this.lastUsed = lastUsed;
+        this.batchingStats = batchingStats;
     }
 
+    /**
+     * The inference times of the requests, where each request of a batch counts with the inference time of its batch.
+     */
     public LongSummaryStatistics getTimingStats() {
         return timingStats;
     }
@@ -27,4 +35,12 @@ public class ModelStats {
     public Instant getLastUsed() {
         return lastUsed;
     }
+
+    /**
+     * The statistics of the batches of inference requests, or {@code null} if the requests of the deployment are not batched.
+     */
+    @Nullable
+    public InferenceBatchingStats getBatchingStats() {
+        return batchingStats;
+    }
 }
@@ -65,16 +65,23 @@ public class TreeSizeInfo implements Accountable, ToXContentObject {
     @Override
     public long ramBytesUsed() {
         long size = TreeInferenceModel.SHALLOW_SIZE;
-        // Node shallow sizes, covers most information as elements are primitive
-        size += NUM_BYTES_ARRAY_HEADER + ((numLeaves + numNodes) * NUM_BYTES_OBJECT_REF);
-        size += numLeaves * TreeInferenceModel.LeafNode.SHALLOW_SIZE;
-        size += numNodes * TreeInferenceModel.InnerNode.SHALLOW_SIZE;
+        // The arrays that hold the nodes, one element per node
+        int numAllNodes = numLeaves + numNodes;
+        size += sizeOfArray(numAllNodes, Integer.BYTES) * 3;
+        size += sizeOfArray(numAllNodes, Double.BYTES);
+        size += sizeOfArray(numAllNodes, Long.BYTES);
+        size += sizeOfArray(numAllNodes, Byte.BYTES) * 2;
+        size += sizeOfArray(numAllNodes, NUM_BYTES_OBJECT_REF);
         // This handles the values within the leaf value array
         int numLeafVals = numClasses <= 2 ? 1 : numClasses;
         size += sizeOfDoubleArray(numLeafVals) * numLeaves;
         return alignObjectSize(size);
     }
 
+    private static long sizeOfArray(int arrayLength, int bytesPerElement) {
+        return alignObjectSize((long) NUM_BYTES_ARRAY_HEADER + (long) bytesPerElement * arrayLength);
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject();
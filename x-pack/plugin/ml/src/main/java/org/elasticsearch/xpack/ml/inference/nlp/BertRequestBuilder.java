@@ -32,16 +32,15 @@ public class BertRequestBuilder implements NlpTask.RequestBuilder {
     }
 
     @Override
-    public NlpTask.Request buildRequest(List<String> inputs, String requestId) throws IOException {
+    public TokenizationResult tokenize(List<String> inputs) {
         if (tokenizer.getPadToken().isEmpty()) {
             throw new IllegalStateException("The input tokenizer does not have a " + BertTokenizer.PAD_TOKEN +
                 " token in its vocabulary");
         }
 
-        TokenizationResult tokenization = tokenizer.buildTokenizationResult(
+        return tokenizer.buildTokenizationResult(
             inputs.stream().map(tokenizer::tokenize).collect(Collectors.toList())
         );
-        return buildRequest(tokenization, requestId);
     }
 
     @Override
@@ -54,7 +54,14 @@ public class NlpTask {
             int apply(TokenizationResult.Tokenization tokenization, int index);
         }
 
-        Request buildRequest(List<String> inputs, String requestId) throws IOException;
+        /**
+         * Tokenizes the inputs of a request, without building the request.
+         */
+        TokenizationResult tokenize(List<String> inputs);
+
+        default Request buildRequest(List<String> inputs, String requestId) throws IOException {
+            return buildRequest(tokenize(inputs), requestId);
+        }
 
         Request buildRequest(TokenizationResult tokenizationResult, String requestId) throws IOException;
 
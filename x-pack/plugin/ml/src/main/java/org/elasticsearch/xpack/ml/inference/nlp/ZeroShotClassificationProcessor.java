@@ -113,7 +113,7 @@ public class ZeroShotClassificationProcessor implements NlpTask.Processor {
         }
 
         @Override
-        public NlpTask.Request buildRequest(List<String> inputs, String requestId) throws IOException {
+        public TokenizationResult tokenize(List<String> inputs) {
             if (inputs.size() > 1) {
                 throw new IllegalArgumentException("Unable to do zero-shot classification on more than one text input at a time");
             }
@@ -121,8 +121,7 @@ public class ZeroShotClassificationProcessor implements NlpTask.Processor {
             for (String label : labels) {
                 tokenizations.add(tokenizer.tokenize(inputs.get(0), LoggerMessageFormat.format(null, hypothesisTemplate, label)));
             }
-            TokenizationResult result = tokenizer.buildTokenizationResult(tokenizations);
-            return buildRequest(result, requestId);
+            return tokenizer.buildTokenizationResult(tokenizations);
         }
 
         @Override
@@ -44,6 +44,7 @@ public class BertTokenizer implements NlpTokenizer {
 
     private final Set<String> NEVER_SPLIT =  Set.of(MASK_TOKEN);
 
+    private final BasicTokenizer basicTokenizer;
     private final WordPieceTokenizer wordPieceTokenizer;
     private final List<String> originalVocab;
     // TODO Not sure this needs to be a sorted map
@@ -73,6 +74,7 @@ public class BertTokenizer implements NlpTokenizer {
         this.doStripAccents = doStripAccents;
         this.withSpecialTokens = withSpecialTokens;
         this.neverSplit = Sets.union(neverSplit, NEVER_SPLIT);
+        this.basicTokenizer = new BasicTokenizer(doLowerCase, doTokenizeCjKChars, doStripAccents, this.neverSplit);
         this.maxSequenceLength = maxSequenceLength;
         this.requestBuilder = requestBuilderFactory.apply(this);
     }
@@ -206,7 +208,6 @@ public class BertTokenizer implements NlpTokenizer {
     }
 
     private Tuple<List<WordPieceTokenizer.TokenAndId>, List<Integer>> innerTokenize(String seq) {
-        BasicTokenizer basicTokenizer = new BasicTokenizer(doLowerCase, doTokenizeCjKChars, doStripAccents, neverSplit);
         List<String> delineatedTokens = basicTokenizer.tokenize(seq);
         List<WordPieceTokenizer.TokenAndId> wordPieceTokens = new ArrayList<>();
         List<Integer> tokenPositionMap = new ArrayList<>();
@@ -7,6 +7,8 @@
 package org.elasticsearch.xpack.ml.inference.nlp.tokenizers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -16,13 +18,20 @@ import java.util.Map;
  *
  * The input is split by white space and should be pre-processed
  * by {@link BasicTokenizer}
+ *
+ * The vocabulary is held in two tries, one for the pieces that start
+ * a word and one for the {@code ##} continuation pieces, so that the
+ * longest piece at a position is found in a single pass over the
+ * chars of the word rather than by looking up every shorter substring.
  */
 public class WordPieceTokenizer {
 
     private static final String CONTINUATION = "##";
 
-    private final Map<String, Integer> vocab;
+    private final Trie words;
+    private final Trie continuations;
     private final String unknownToken;
+    private final Integer unknownTokenId;
     private final int maxInputCharsPerWord;
 
     public static class TokenAndId {
@@ -50,8 +59,10 @@ public class WordPieceTokenizer {
      * @param maxInputCharsPerWord Inputs tokens longer than this are 'unknown'
      */
     public WordPieceTokenizer(Map<String, Integer> vocab, String unknownToken, int maxInputCharsPerWord) {
-        this.vocab = vocab;
+        this.words = Trie.build(vocab, "");
+        this.continuations = Trie.build(vocab, CONTINUATION);
         this.unknownToken = unknownToken;
+        this.unknownTokenId = vocab.get(unknownToken);
         this.maxInputCharsPerWord = maxInputCharsPerWord;
     }
 
@@ -68,53 +79,135 @@ public class WordPieceTokenizer {
         List<TokenAndId> output = new ArrayList<>();
         for (String token : tokens) {
             if (token.length() > maxInputCharsPerWord) {
-                assert vocab.containsKey(unknownToken);
-                output.add(new TokenAndId(unknownToken, vocab.get(unknownToken)));
+                assert unknownTokenId != null;
+                output.add(new TokenAndId(unknownToken, unknownTokenId));
                 continue;
             }
 
-            boolean isBad = false;
+            int firstSubToken = output.size();
             int start = 0;
-            List<TokenAndId> subTokens = new ArrayList<>();
             int length = token.length();
             while (start < length) {
-                int end = length;
+                Trie trie = start > 0 ? continuations : words;
+                int node = trie.longestMatch(token, start);
+                if (node < 0) {
+                    // a word that cannot be split into pieces is unknown as a whole
+                    output.subList(firstSubToken, output.size()).clear();
+                    output.add(new TokenAndId(unknownToken, unknownTokenId));
+                    break;
+                }
+                output.add(new TokenAndId(trie.tokens[node], trie.ids[node]));
+                start += trie.length(node);
+            }
+        }
 
-                String currentValidSubStr = null;
+        return output;
+    }
 
-                while (start < end) {
-                    String subStr;
-                    if (start > 0) {
-                        subStr = CONTINUATION + token.substring(start, end);
-                    } else {
-                        subStr = token.substring(start, end);
-                    }
+    /**
+     * A trie over the chars of the vocabulary entries that start with a prefix, without the prefix. The nodes are numbered in
+     * breadth first order, so the children of a node are consecutive nodes, and the child that is reached by the label at index
+     * {@code i} is node {@code i + 1}.
+     */
+    private static final class Trie {
+        private final int prefixLength;
+        // the index of the label of the first child of every node, followed by the number of labels
+        private final int[] firstChild;
+        // the char that leads to a node from its parent, sorted among its siblings
+        private final char[] labels;
+        // the vocabulary entry and id of the nodes that complete an entry, null and -1 for the other nodes
+        private final String[] tokens;
+        private final int[] ids;
+
+        private Trie(int prefixLength, int[] firstChild, char[] labels, String[] tokens, int[] ids) {
+            this.prefixLength = prefixLength;
+            this.firstChild = firstChild;
+            this.labels = labels;
+            this.tokens = tokens;
+            this.ids = ids;
+        }
 
-                    if (vocab.containsKey(subStr)) {
-                        currentValidSubStr = subStr;
-                        break;
+        static Trie build(Map<String, Integer> vocab, String prefix) {
+            List<String> keys = new ArrayList<>();
+            for (String token : vocab.keySet()) {
+                if (token.startsWith(prefix)) {
+                    keys.add(token);
+                }
+            }
+            // sorting the entries sorts the keys without the prefix, and an entry comes before the entries that extend it
+            Collections.sort(keys);
+            int prefixLength = prefix.length();
+
+            // the range of keys below each node, and the depth of the node
+            List<int[]> ranges = new ArrayList<>();
+            ranges.add(new int[] { 0, keys.size(), prefixLength });
+            StringBuilder labels = new StringBuilder();
+            List<Integer> firstChild = new ArrayList<>();
+            for (int node = 0; node < ranges.size(); node++) {
+                int[] range = ranges.get(node);
+                int depth = range[2];
+                firstChild.add(labels.length());
+                int i = range[0];
+                if (i < range[1] && keys.get(i).length() == depth) {
+                    i++;
+                }
+                while (i < range[1]) {
+                    char label = keys.get(i).charAt(depth);
+                    int end = i + 1;
+                    while (end < range[1] && keys.get(end).charAt(depth) == label) {
+                        end++;
                     }
-
-                    end--;
+                    labels.append(label);
+                    ranges.add(new int[] { i, end, depth + 1 });
+                    i = end;
                 }
-
-                if (currentValidSubStr == null) {
-                    isBad = true;
-                    break;
+            }
+            firstChild.add(labels.length());
+
+            String[] tokens = new String[ranges.size()];
+            int[] ids = new int[ranges.size()];
+            Arrays.fill(ids, -1);
+            for (int node = 0; node < ranges.size(); node++) {
+                int[] range = ranges.get(node);
+                // the root stands for the prefix alone, which is never a piece
+                if (node > 0 && range[0] < range[1] && keys.get(range[0]).length() == range[2]) {
+                    tokens[node] = keys.get(range[0]);
+                    ids[node] = vocab.get(tokens[node]);
                 }
-
-                subTokens.add(new TokenAndId(currentValidSubStr, vocab.get(currentValidSubStr)));
-
-                start = end;
             }
+            return new Trie(
+                prefixLength,
+                firstChild.stream().mapToInt(Integer::intValue).toArray(),
+                labels.toString().toCharArray(),
+                tokens,
+                ids
+            );
+        }
 
-            if (isBad) {
-                output.add(new TokenAndId(unknownToken, vocab.get(unknownToken)));
-            } else  {
-                output.addAll(subTokens);
+        /**
+         * Returns the node of the longest vocabulary entry that matches the word from the given start, or {@code -1} if there is none.
+         */
+        int longestMatch(String word, int start) {
+            int node = 0;
+            int match = -1;
+            for (int i = start; i < word.length(); i++) {
+                int label = Arrays.binarySearch(labels, firstChild[node], firstChild[node + 1], word.charAt(i));
+                if (label < 0) {
+                    break;
+                }
+                node = label + 1;
+                if (tokens[node] != null) {
+                    match = node;
+                }
             }
+            return match;
         }
 
-        return output;
+        /**
+         * The number of chars of the word that the entry of the given node matches.
+         */
+        int length(int node) {
+            return tokens[node].length() - prefixLength;
+        }
     }
 }
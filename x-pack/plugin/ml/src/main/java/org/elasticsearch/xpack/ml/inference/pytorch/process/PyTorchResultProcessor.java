@@ -41,7 +41,18 @@ public class PyTorchResultProcessor {
     }
 
     public PendingResult registerRequest(String requestId) {
-        return pendingResults.computeIfAbsent(requestId, k -> new PendingResult());
+        return registerRequest(requestId, 1);
+    }
+
+    /**
+     * Registers a request that carries the inputs of several inference requests. Its inference time
+     * is counted once for each of them.
+     *
+     * @param requestId The request ID
+     * @param requestCount The number of inference requests that are sent in the request
+     */
+    public PendingResult registerRequest(String requestId, int requestCount) {
+        return pendingResults.computeIfAbsent(requestId, k -> new PendingResult(requestCount));
     }
 
     /**
@@ -62,8 +73,8 @@ public class PyTorchResultProcessor {
             while (iterator.hasNext()) {
                 PyTorchResult result = iterator.next();
                 logger.trace(() -> new ParameterizedMessage("[{}] Parsed result with id [{}]", deploymentId, result.getRequestId()));
-                processResult(result);
                 PendingResult pendingResult = pendingResults.remove(result.getRequestId());
+                processResult(result, pendingResult == null ? 1 : pendingResult.requestCount);
                 if (pendingResult == null) {
                     logger.debug(() -> new ParameterizedMessage("[{}] no pending result for [{}]", deploymentId, result.getRequestId()));
                 } else {
@@ -113,9 +124,11 @@ public class PyTorchResultProcessor {
     }
 
 
-    private synchronized void processResult(PyTorchResult result) {
+    private synchronized void processResult(PyTorchResult result, int requestCount) {
         if (result.isError() == false) {
-            timingStats.accept(result.getTimeMs());
+            for (int i = 0; i < requestCount; i++) {
+                timingStats.accept(result.getTimeMs());
+            }
             lastUsed = Instant.now();
         }
     }
@@ -149,5 +162,10 @@ public class PyTorchResultProcessor {
     public static class PendingResult {
         private final AtomicReference<PyTorchResult> result = new AtomicReference<>();
         private final CountDownLatch latch = new CountDownLatch(1);
+        private final int requestCount;
+
+        private PendingResult(int requestCount) {
+            this.requestCount = requestCount;
+        }
     }
 }
@@ -100,7 +100,7 @@ public class TransportPreviewDatafeedActionTests extends ESTestCase {
 
         assertThat(capturedResponse, equalTo("[]"));
         assertThat(capturedFailure, is(nullValue()));
-        verify(dataExtractor).cancel();
+        verify(dataExtractor).destroy();
     }
 
     public void testPreviewDatafed_GivenNonEmptyStream() throws IOException {
@@ -112,7 +112,7 @@ public class TransportPreviewDatafeedActionTests extends ESTestCase {
 
         assertThat(capturedResponse, equalTo("[{\"a\":1, \"b\":2},{\"c\":3, \"d\":4},{\"e\":5, \"f\":6}]"));
         assertThat(capturedFailure, is(nullValue()));
-        verify(dataExtractor).cancel();
+        verify(dataExtractor).destroy();
     }
 
     public void testPreviewDatafed_GivenFailure() throws IOException {
@@ -122,6 +122,6 @@ public class TransportPreviewDatafeedActionTests extends ESTestCase {
 
         assertThat(capturedResponse, is(nullValue()));
         assertThat(capturedFailure.getMessage(), equalTo("failed"));
-        verify(dataExtractor).cancel();
+        verify(dataExtractor).destroy();
     }
 }
@@ -88,6 +88,24 @@ public class DatafeedTimingStatsReporterTests extends ESTestCase {
         verifyNoMoreInteractions(timingStatsPersister);
     }
 
+    public void testReportExtractionWaitTime() {
+        DatafeedTimingStatsReporter reporter = createReporter(createDatafeedTimingStats(JOB_ID, 3, 10, 10000.0));
+
+        reporter.reportExtractionWaitTime(null);
+        reporter.reportExtractionWaitTime(ONE_SECOND);
+        reporter.reportExtractionWaitTime(ONE_SECOND);
+        assertThat(reporter.getCurrentTimingStats().getTotalExtractionWaitTimeMs(), equalTo(2000.0));
+        assertThat(reporter.getCurrentTimingStats().getSearchCount(), equalTo(3L));
+        verifyZeroInteractions(timingStatsPersister);
+
+        // The wait time is persisted along with the other stats
+        reporter.finishReporting();
+        ExponentialAverageCalculationContext context = new ExponentialAverageCalculationContext(0.0, null, null);
+        verify(timingStatsPersister).persistDatafeedTimingStats(
+            new DatafeedTimingStats(JOB_ID, 3, 10, 10000.0, context, 2000.0), RefreshPolicy.IMMEDIATE);
+        verifyNoMoreInteractions(timingStatsPersister);
+    }
+
     public void testReportDataCounts_Null() {
         DatafeedTimingStatsReporter reporter = createReporter(createDatafeedTimingStats(JOB_ID, 3, 10, 10000.0));
         assertThat(reporter.getCurrentTimingStats(), equalTo(createDatafeedTimingStats(JOB_ID, 3, 10, 10000.0)));
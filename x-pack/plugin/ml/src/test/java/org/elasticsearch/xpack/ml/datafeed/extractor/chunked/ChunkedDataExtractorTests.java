@@ -427,6 +427,46 @@ public class ChunkedDataExtractorTests extends ESTestCase {
         assertThat(searchRequest, containsString("\"from\":200000,\"to\":400000"));
     }
 
+    public void testExtractionGivenAutoChunkAndDenseChunkShouldAdaptChunkSpan() throws IOException {
+        chunkSpan = null;
+        scrollSize = 1000;
+        TestDataExtractor extractor = new TestDataExtractor(1000000L, 5000000L);
+
+        // 4M millis * 1000 * 10 / 40K docs = 1000000
+        extractor.setNextResponse(createSearchResponse(40000L, 1000000L, 5000000L));
+
+        // The first chunk holds most of the data
+        InputStream[] denseStreams = new InputStream[21];
+        for (int i = 0; i < denseStreams.length; i++) {
+            denseStreams[i] = mock(InputStream.class);
+        }
+        when(dataExtractorFactory.newExtractor(1000000L, 2000000L)).thenReturn(new StubSubExtractor(denseStreams));
+
+        // So the next chunk is half as long
+        InputStream inputStream2 = mock(InputStream.class);
+        when(dataExtractorFactory.newExtractor(2000000L, 2500000L)).thenReturn(new StubSubExtractor(inputStream2));
+
+        // And the one after that grows back to the estimate
+        InputStream inputStream3 = mock(InputStream.class);
+        when(dataExtractorFactory.newExtractor(2500000L, 3500000L)).thenReturn(new StubSubExtractor(inputStream3));
+
+        for (InputStream denseStream : denseStreams) {
+            assertThat(extractor.hasNext(), is(true));
+            assertEquals(denseStream, extractor.next().get());
+        }
+        assertThat(extractor.hasNext(), is(true));
+        assertEquals(inputStream2, extractor.next().get());
+        assertThat(extractor.hasNext(), is(true));
+        assertEquals(inputStream3, extractor.next().get());
+
+        verify(dataExtractorFactory).newExtractor(1000000L, 2000000L);
+        verify(dataExtractorFactory).newExtractor(2000000L, 2500000L);
+        verify(dataExtractorFactory).newExtractor(2500000L, 3500000L);
+        Mockito.verifyNoMoreInteractions(dataExtractorFactory);
+
+        assertThat(capturedSearchRequests.size(), equalTo(1));
+    }
+
     public void testCancelGivenNextWasNeverCalled() {
         chunkSpan = TimeValue.timeValueSeconds(1);
         TestDataExtractor extractor = new TestDataExtractor(1000L, 2300L);
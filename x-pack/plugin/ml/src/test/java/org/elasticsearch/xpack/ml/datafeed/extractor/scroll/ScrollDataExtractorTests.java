@@ -9,6 +9,7 @@ package org.elasticsearch.xpack.ml.datafeed.extractor.scroll;
 import org.apache.lucene.search.TotalHits;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.search.ClearScrollAction;
 import org.elasticsearch.action.search.ClearScrollRequest;
 import org.elasticsearch.action.search.ClearScrollResponse;
@@ -28,6 +29,7 @@ import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.script.Script;
 import org.elasticsearch.script.ScriptType;
+import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
@@ -62,6 +64,8 @@ import static java.util.Collections.emptyMap;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.same;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -71,6 +75,8 @@ public class ScrollDataExtractorTests extends ESTestCase {
     private Client client;
     private List<SearchRequestBuilder> capturedSearchRequests;
     private List<String> capturedContinueScrollIds;
+    private List<String> openedPointInTimeIds;
+    private List<String> closedPointInTimeIds;
     private ArgumentCaptor<ClearScrollRequest> capturedClearScrollRequests;
     private String jobId;
     private TimeBasedExtractedFields extractedFields;
@@ -121,6 +127,30 @@ public class ScrollDataExtractorTests extends ESTestCase {
             return responseOrException.v1();
         }
 
+        @Override
+        protected String openPointInTime() {
+            String pointInTimeId = "pit-" + openedPointInTimeIds.size();
+            openedPointInTimeIds.add(pointInTimeId);
+            return pointInTimeId;
+        }
+
+        @Override
+        protected void executePointInTimeSearchRequest(SearchRequestBuilder searchRequestBuilder,
+                                                       ActionListener<SearchResponse> listener) {
+            capturedSearchRequests.add(searchRequestBuilder);
+            Tuple<SearchResponse, ElasticsearchException> responseOrException = responses.remove();
+            if (responseOrException.v2() != null) {
+                listener.onFailure(responseOrException.v2());
+            } else {
+                listener.onResponse(responseOrException.v1());
+            }
+        }
+
+        @Override
+        protected void closePointInTime(String pointInTimeId) {
+            closedPointInTimeIds.add(pointInTimeId);
+        }
+
         @Override
         void markScrollAsErrored() {
             ++numScrollReset;
@@ -157,6 +187,8 @@ public class ScrollDataExtractorTests extends ESTestCase {
         when(client.threadPool()).thenReturn(threadPool);
         capturedSearchRequests = new ArrayList<>();
         capturedContinueScrollIds = new ArrayList<>();
+        openedPointInTimeIds = new ArrayList<>();
+        closedPointInTimeIds = new ArrayList<>();
         jobId = "test-job";
         ExtractedField timeField = new TimeField("time", ExtractedField.Method.DOC_VALUE);
         extractedFields = new TimeBasedExtractedFields(timeField,
@@ -438,6 +470,129 @@ public class ScrollDataExtractorTests extends ESTestCase {
         assertThat(extractor.getNumScrollReset(), equalTo(1));
     }
 
+    public void testPointInTimeExtraction() throws IOException {
+        TestDataExtractor extractor = new TestDataExtractor(createContext(1000L, 2000L, true));
+
+        SearchResponse response1 = createSearchResponse(
+            Arrays.asList(1000L, 1200L),
+            Arrays.asList("a1", "a2"),
+            Arrays.asList("b1", "b2")
+        );
+        extractor.setNextResponse(response1);
+        SearchResponse response2 = createSearchResponse(
+            Collections.singletonList(1400L),
+            Collections.singletonList("a3"),
+            Collections.singletonList("b3")
+        );
+        extractor.setNextResponse(response2);
+        extractor.setNextResponse(createEmptySearchResponse());
+
+        assertThat(extractor.hasNext(), is(true));
+        Optional<InputStream> stream = extractor.next();
+        assertThat(stream.isPresent(), is(true));
+        assertThat(asString(stream.get()), equalTo("{\"time\":1000,\"field_1\":\"a1\"} {\"time\":1200,\"field_1\":\"a2\"}"));
+        // the search of the second page has been sent before the first page is consumed
+        assertThat(capturedSearchRequests.size(), equalTo(2));
+
+        assertThat(extractor.hasNext(), is(true));
+        stream = extractor.next();
+        assertThat(stream.isPresent(), is(true));
+        assertThat(asString(stream.get()), equalTo("{\"time\":1400,\"field_1\":\"a3\"}"));
+
+        assertThat(extractor.hasNext(), is(true));
+        assertThat(extractor.next().isPresent(), is(false));
+        assertThat(extractor.hasNext(), is(false));
+        assertThat(capturedSearchRequests.size(), equalTo(3));
+
+        assertThat(openedPointInTimeIds, equalTo(Collections.singletonList("pit-0")));
+        assertThat(closedPointInTimeIds, equalTo(Collections.singletonList("pit-0")));
+        assertThat(capturedContinueScrollIds.isEmpty(), is(true));
+        assertThat(capturedClearScrollRequests.getAllValues().isEmpty(), is(true));
+
+        String searchRequest = capturedSearchRequests.get(0).toString().replaceAll("\\s", "");
+        assertThat(searchRequest, containsString("\"pit\":{\"id\":\"pit-0\""));
+        assertThat(searchRequest, containsString("\"sort\":[{\"time\":{\"order\":\"asc\"}},{\"_shard_doc\":{\"order\":\"asc\"}}]"));
+        assertThat(searchRequest, not(containsString("search_after")));
+        // the indices are resolved by the point in time
+        assertThat(capturedSearchRequests.get(0).request().indices().length, equalTo(0));
+        assertThat(capturedSearchRequests.get(0).request().scroll(), is(nullValue()));
+        searchRequest = capturedSearchRequests.get(1).toString().replaceAll("\\s", "");
+        assertThat(searchRequest, containsString("\"search_after\":[1200,1]"));
+        assertThat(searchRequest, containsString("\"from\":1000,\"to\":2000"));
+        searchRequest = capturedSearchRequests.get(2).toString().replaceAll("\\s", "");
+        assertThat(searchRequest, containsString("\"search_after\":[1400,0]"));
+    }
+
+    public void testPointInTimeExtractionGivenCancelStopsPrefetching() throws IOException {
+        TestDataExtractor extractor = new TestDataExtractor(createContext(1000L, 2000L, true));
+
+        extractor.setNextResponse(createSearchResponse(
+            Arrays.asList(1000L, 1200L),
+            Arrays.asList("a1", "a2"),
+            Arrays.asList("b1", "b2")
+        ));
+        extractor.setNextResponse(createSearchResponse(
+            Arrays.asList(1200L, 1200L),
+            Arrays.asList("a3", "a4"),
+            Arrays.asList("b3", "b4")
+        ));
+
+        assertThat(extractor.next().isPresent(), is(true));
+        assertThat(capturedSearchRequests.size(), equalTo(2));
+
+        extractor.cancel();
+
+        // the page that was already searched is consumed, but the next one is not searched ahead any more
+        Optional<InputStream> stream = extractor.next();
+        assertThat(stream.isPresent(), is(true));
+        assertThat(asString(stream.get()), equalTo("{\"time\":1200,\"field_1\":\"a3\"} {\"time\":1200,\"field_1\":\"a4\"}"));
+        assertThat(extractor.hasNext(), is(true));
+        assertThat(capturedSearchRequests.size(), equalTo(2));
+        assertThat(closedPointInTimeIds.isEmpty(), is(true));
+
+        // the point in time of an abandoned extractor is closed when it is destroyed
+        extractor.destroy();
+        assertThat(extractor.hasNext(), is(false));
+        assertThat(capturedSearchRequests.size(), equalTo(2));
+        assertThat(closedPointInTimeIds, equalTo(Collections.singletonList("pit-0")));
+    }
+
+    public void testPointInTimeExtractionGivenSearchFailure() throws IOException {
+        TestDataExtractor extractor = new TestDataExtractor(createContext(1000L, 2000L, true));
+
+        extractor.setNextResponse(createSearchResponse(
+            Arrays.asList(1000L, 1200L),
+            Arrays.asList("a1", "a2"),
+            Arrays.asList("b1", "b2")
+        ));
+        extractor.setNextResponseToError(new SearchPhaseExecutionException("search phase 1", "boom", ShardSearchFailure.EMPTY_ARRAY));
+        extractor.setNextResponse(createSearchResponse(
+            Collections.singletonList(1400L),
+            Collections.singletonList("a3"),
+            Collections.singletonList("b3")
+        ));
+        extractor.setNextResponseToError(new SearchPhaseExecutionException("search phase 1", "boom", ShardSearchFailure.EMPTY_ARRAY));
+
+        assertThat(extractor.next().isPresent(), is(true));
+        assertEquals(Long.valueOf(1200L), extractor.getLastTimestamp());
+
+        // The failed search is retried in a new point in time from after the last timestamp
+        Optional<InputStream> stream = extractor.next();
+        assertThat(stream.isPresent(), is(true));
+        assertThat(asString(stream.get()), equalTo("{\"time\":1400,\"field_1\":\"a3\"}"));
+        assertThat(extractor.getNumScrollReset(), equalTo(1));
+        assertThat(openedPointInTimeIds, equalTo(Arrays.asList("pit-0", "pit-1")));
+        String searchRequest = capturedSearchRequests.get(2).toString().replaceAll("\\s", "");
+        assertThat(searchRequest, containsString("\"pit\":{\"id\":\"pit-1\""));
+        assertThat(searchRequest, containsString("\"from\":1201,\"to\":2000"));
+        assertThat(searchRequest, not(containsString("search_after")));
+
+        // A second failure is not tolerated
+        assertThat(extractor.hasNext(), is(true));
+        expectThrows(SearchPhaseExecutionException.class, extractor::next);
+        assertThat(closedPointInTimeIds, equalTo(Arrays.asList("pit-0", "pit-1")));
+    }
+
     public void testDomainSplitScriptField() throws IOException {
 
         SearchSourceBuilder.ScriptField withoutSplit = new SearchSourceBuilder.ScriptField(
@@ -448,7 +603,7 @@ public class ScrollDataExtractorTests extends ESTestCase {
         List<SearchSourceBuilder.ScriptField> sFields = Arrays.asList(withoutSplit, withSplit);
         ScrollDataExtractorContext context = new ScrollDataExtractorContext(jobId, extractedFields, indices,
                 query, sFields, scrollSize, 1000, 2000, Collections.emptyMap(), SearchRequest.DEFAULT_INDICES_OPTIONS,
-            Collections.emptyMap());
+            Collections.emptyMap(), false);
 
         TestDataExtractor extractor = new TestDataExtractor(context);
 
@@ -493,8 +648,12 @@ public class ScrollDataExtractorTests extends ESTestCase {
     }
 
     private ScrollDataExtractorContext createContext(long start, long end) {
+        return createContext(start, end, false);
+    }
+
+    private ScrollDataExtractorContext createContext(long start, long end, boolean usePointInTime) {
         return new ScrollDataExtractorContext(jobId, extractedFields, indices, query, scriptFields, scrollSize, start, end,
-            Collections.emptyMap(), SearchRequest.DEFAULT_INDICES_OPTIONS, Collections.emptyMap());
+            Collections.emptyMap(), SearchRequest.DEFAULT_INDICES_OPTIONS, Collections.emptyMap(), usePointInTime);
     }
 
     private SearchResponse createEmptySearchResponse() {
@@ -512,6 +671,7 @@ public class ScrollDataExtractorTests extends ESTestCase {
             fields.put("field_1", new DocumentField("field_1", Collections.singletonList(field1Values.get(i))));
             fields.put("field_2", new DocumentField("field_2", Collections.singletonList(field2Values.get(i))));
             SearchHit hit = new SearchHit(randomInt(), null, fields, null);
+            hit.sortValues(new Object[] { timestamps.get(i), (long) i }, new DocValueFormat[] { DocValueFormat.RAW, DocValueFormat.RAW });
             hits.add(hit);
         }
         SearchHits searchHits = new SearchHits(hits.toArray(new SearchHit[0]),
@@ -9,6 +9,7 @@ package org.elasticsearch.xpack.ml.inference.deployment;
 
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.ScalingExecutorBuilder;
@@ -46,7 +47,8 @@ public class DeploymentManagerTests extends ESTestCase {
             mock(Client.class),
             xContentRegistry(),
             tp,
-            (task, executorService, onProcessCrash) -> mock(NativePyTorchProcess.class)
+            (task, executorService, onProcessCrash) -> mock(NativePyTorchProcess.class),
+            Settings.EMPTY
         );
     }
 
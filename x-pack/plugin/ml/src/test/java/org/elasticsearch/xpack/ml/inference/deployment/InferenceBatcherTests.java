@@ -0,0 +1,195 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.ml.inference.deployment;
+
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.ScalingExecutorBuilder;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.InferenceBatchingStats;
+import org.elasticsearch.xpack.ml.inference.nlp.NlpTask;
+import org.elasticsearch.xpack.ml.inference.nlp.tokenizers.TokenizationResult;
+import org.junit.After;
+import org.junit.Before;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.elasticsearch.xpack.ml.MachineLearning.JOB_COMMS_THREAD_POOL_NAME;
+import static org.elasticsearch.xpack.ml.MachineLearning.UTILITY_THREAD_POOL_NAME;
+import static org.hamcrest.Matchers.equalTo;
+
+public class InferenceBatcherTests extends ESTestCase {
+
+    private static final NlpTask.RequestBuilder REQUEST_BUILDER = new NlpTask.RequestBuilder() {
+        @Override
+        public TokenizationResult tokenize(List<String> inputs) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NlpTask.Request buildRequest(TokenizationResult tokenizationResult, String requestId) {
+            return new NlpTask.Request(tokenizationResult, new BytesArray(requestId));
+        }
+    };
+
+    private ThreadPool tp;
+    private final AtomicLong requestIds = new AtomicLong();
+    private final List<Integer> sentBatchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setupThreadPool() {
+        tp = new TestThreadPool(
+            "InferenceBatcherTests",
+            new ScalingExecutorBuilder(UTILITY_THREAD_POOL_NAME, 1, 4, TimeValue.timeValueMinutes(10), "xpack.ml.utility_thread_pool"),
+            new ScalingExecutorBuilder(JOB_COMMS_THREAD_POOL_NAME, 1, 4, TimeValue.timeValueMinutes(10), "xpack.ml.job_comms_thread_pool")
+        );
+    }
+
+    @After
+    public void shutdownThreadPool() {
+        tp.shutdown();
+    }
+
+    public void testFullBatchIsSentWithoutWaitingForLatency() {
+        InferenceBatcher batcher = batcher(4, TimeValue.timeValueHours(1), this::echoTokenIds);
+        List<PlainActionFuture<PyTorchResult>> futures = new ArrayList<>();
+        List<int[]> tokenIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tokenIds.add(randomTokenIds());
+            PlainActionFuture<PyTorchResult> future = PlainActionFuture.newFuture();
+            batcher.add(tokenization(tokenIds.get(i)), REQUEST_BUILDER, TimeValue.timeValueSeconds(10), future);
+            futures.add(future);
+        }
+        for (int i = 0; i < 4; i++) {
+            PyTorchResult result = futures.get(i).actionGet(10, TimeUnit.SECONDS);
+            assertResultIsTokenIds(result, tokenIds.get(i));
+        }
+        assertThat(sentBatchSizes, equalTo(List.of(4)));
+        InferenceBatchingStats stats = batcher.getStats();
+        assertThat(stats.getBatchCount(), equalTo(1L));
+        assertThat(stats.getBatchSize().getCount(InferenceBatchingStats.Histogram.bucket(4)), equalTo(1L));
+        assertThat(stats.getQueueDepth().getTotalCount(), equalTo(4L));
+        assertThat(stats.getLatencyMillis().getTotalCount(), equalTo(4L));
+    }
+
+    public void testPartialBatchIsSentAfterLatency() {
+        InferenceBatcher batcher = batcher(8, TimeValue.timeValueMillis(randomIntBetween(1, 20)), this::echoTokenIds);
+        List<PlainActionFuture<PyTorchResult>> futures = new ArrayList<>();
+        List<int[]> tokenIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            tokenIds.add(randomTokenIds());
+            PlainActionFuture<PyTorchResult> future = PlainActionFuture.newFuture();
+            batcher.add(tokenization(tokenIds.get(i)), REQUEST_BUILDER, TimeValue.timeValueSeconds(10), future);
+            futures.add(future);
+        }
+        for (int i = 0; i < 3; i++) {
+            assertResultIsTokenIds(futures.get(i).actionGet(10, TimeUnit.SECONDS), tokenIds.get(i));
+        }
+        assertThat(sentBatchSizes.stream().mapToInt(Integer::intValue).sum(), equalTo(3));
+    }
+
+    public void testErrorsAreSentToAllRequestsOfBatch() {
+        InferenceBatcher batcher = batcher(2, TimeValue.timeValueHours(1), (request, requestId, timeout) ->
+            new PyTorchResult(requestId, null, null, "model failed"));
+        PlainActionFuture<PyTorchResult> first = PlainActionFuture.newFuture();
+        PlainActionFuture<PyTorchResult> second = PlainActionFuture.newFuture();
+        batcher.add(tokenization(randomTokenIds()), REQUEST_BUILDER, TimeValue.timeValueSeconds(10), first);
+        batcher.add(tokenization(randomTokenIds()), REQUEST_BUILDER, TimeValue.timeValueSeconds(10), second);
+        assertThat(first.actionGet(10, TimeUnit.SECONDS).getError(), equalTo("model failed"));
+        assertThat(second.actionGet(10, TimeUnit.SECONDS).getError(), equalTo("model failed"));
+
+        batcher = batcher(2, TimeValue.timeValueHours(1), (request, requestId, timeout) -> null);
+        first = PlainActionFuture.newFuture();
+        second = PlainActionFuture.newFuture();
+        batcher.add(tokenization(randomTokenIds()), REQUEST_BUILDER, TimeValue.timeValueSeconds(10), first);
+        batcher.add(tokenization(randomTokenIds()), REQUEST_BUILDER, TimeValue.timeValueSeconds(10), second);
+        for (PlainActionFuture<PyTorchResult> future : List.of(first, second)) {
+            ElasticsearchStatusException e = expectThrows(ElasticsearchStatusException.class, () -> future.actionGet(10, TimeUnit.SECONDS));
+            assertThat(e.status(), equalTo(RestStatus.TOO_MANY_REQUESTS));
+        }
+
+        batcher = batcher(2, TimeValue.timeValueHours(1), (request, requestId, timeout) -> {
+            throw new IllegalStateException("process died");
+        });
+        first = PlainActionFuture.newFuture();
+        second = PlainActionFuture.newFuture();
+        batcher.add(tokenization(randomTokenIds()), REQUEST_BUILDER, TimeValue.timeValueSeconds(10), first);
+        batcher.add(tokenization(randomTokenIds()), REQUEST_BUILDER, TimeValue.timeValueSeconds(10), second);
+        for (PlainActionFuture<PyTorchResult> future : List.of(first, second)) {
+            IllegalStateException e = expectThrows(IllegalStateException.class, () -> future.actionGet(10, TimeUnit.SECONDS));
+            assertThat(e.getMessage(), equalTo("process died"));
+        }
+    }
+
+    public void testDisabled() {
+        assertFalse(batcher(1, TimeValue.timeValueMillis(10), this::echoTokenIds).isEnabled());
+        assertFalse(batcher(8, TimeValue.ZERO, this::echoTokenIds).isEnabled());
+        assertTrue(batcher(8, TimeValue.timeValueMillis(10), this::echoTokenIds).isEnabled());
+    }
+
+    private InferenceBatcher batcher(int maxBatchSize, TimeValue maxLatency, InferenceBatcher.Sender sender) {
+        return new InferenceBatcher("model", maxBatchSize, maxLatency, tp, tp.executor(JOB_COMMS_THREAD_POOL_NAME),
+            requestIds::incrementAndGet, sender);
+    }
+
+    /**
+     * Stands in for a model that returns a row per token, padded to the longest input of the batch, with the token id in the row.
+     */
+    private PyTorchResult echoTokenIds(NlpTask.Request request, String requestId, TimeValue timeout) {
+        List<TokenizationResult.Tokenization> tokenizations = request.tokenization.getTokenizations();
+        sentBatchSizes.add(tokenizations.size());
+        int length = request.tokenization.getLongestSequenceLength();
+        double[][][] inference = new double[tokenizations.size()][length][1];
+        for (int i = 0; i < tokenizations.size(); i++) {
+            int[] tokenIds = tokenizations.get(i).getTokenIds();
+            for (int j = 0; j < length; j++) {
+                inference[i][j][0] = j < tokenIds.length ? tokenIds[j] : -1;
+            }
+        }
+        return new PyTorchResult(requestId, inference, 1L, null);
+    }
+
+    private static void assertResultIsTokenIds(PyTorchResult result, int[] tokenIds) {
+        assertNull(result.getError());
+        double[][][] inference = result.getInferenceResult();
+        assertThat(inference.length, equalTo(1));
+        assertThat(inference[0].length, equalTo(tokenIds.length));
+        for (int i = 0; i < tokenIds.length; i++) {
+            assertThat(inference[0][i][0], equalTo((double) tokenIds[i]));
+        }
+    }
+
+    private static int[] randomTokenIds() {
+        int[] tokenIds = new int[randomIntBetween(1, 16)];
+        for (int i = 0; i < tokenIds.length; i++) {
+            tokenIds[i] = randomIntBetween(0, 1000);
+        }
+        return tokenIds;
+    }
+
+    private static TokenizationResult tokenization(int[] tokenIds) {
+        TokenizationResult tokenization = new TokenizationResult(Collections.emptyList());
+        String[] tokens = new String[tokenIds.length];
+        int[] tokenMap = new int[tokenIds.length];
+        for (int i = 0; i < tokenIds.length; i++) {
+            tokens[i] = Integer.toString(tokenIds[i]);
+            tokenMap[i] = i;
+        }
+        tokenization.addTokenization("input", tokens, tokenIds, tokenMap);
+        return tokenization;
+    }
+}
@@ -36,13 +36,7 @@ public class EnsembleSizeInfoTests extends SizeEstimatorTestCase<EnsembleSizeInf
 
     static EnsembleSizeInfo translateToEstimate(EnsembleInferenceModel ensemble) {
         TreeInferenceModel tree = (TreeInferenceModel)ensemble.getModels().get(0);
-        int numClasses = Arrays.stream(tree.getNodes())
-            .filter(TreeInferenceModel.Node::isLeaf)
-            .map(n -> (TreeInferenceModel.LeafNode)n)
-            .findFirst()
-            .get()
-            .getLeafValue()
-            .length;
+        int numClasses = tree.getLeafSize();
         return new EnsembleSizeInfo(
             ensemble.getModels()
                 .stream()
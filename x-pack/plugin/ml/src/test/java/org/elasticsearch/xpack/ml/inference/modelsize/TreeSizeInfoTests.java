@@ -24,16 +24,7 @@ public class TreeSizeInfoTests extends SizeEstimatorTestCase<TreeSizeInfo, TreeI
     }
 
     static TreeSizeInfo translateToEstimate(TreeInferenceModel tree) {
-        int numClasses = Arrays.stream(tree.getNodes())
-            .filter(TreeInferenceModel.Node::isLeaf)
-            .map(n -> (TreeInferenceModel.LeafNode)n)
-            .findFirst()
-            .get()
-            .getLeafValue()
-            .length;
-        return new TreeSizeInfo((int)Arrays.stream(tree.getNodes()).filter(TreeInferenceModel.Node::isLeaf).count(),
-            (int)Arrays.stream(tree.getNodes()).filter(t -> t.isLeaf() == false).count(),
-            numClasses);
+        return new TreeSizeInfo(tree.getNumberOfLeaves(), tree.getNumberOfInnerNodes(), tree.getLeafSize());
     }
 
     @Override
@@ -9,6 +9,7 @@ package org.elasticsearch.xpack.ml.inference.nlp.tokenizers;
 
 import org.elasticsearch.test.ESTestCase;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +17,7 @@ import java.util.stream.Collectors;
 
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
 
 public class WordPieceTokenizerTests extends ESTestCase {
 
@@ -47,6 +49,79 @@ public class WordPieceTokenizerTests extends ESTestCase {
         assertThat(tokens, contains("Some", "UNK", "will", "UNK", "UNK"));
     }
 
+    public void testContinuationPieces() {
+        Map<String, Integer> vocabMap = createVocabMap(UNKNOWN_TOKEN, "##", "####", "##ab", "a", "ab", "##b", "##c");
+        WordPieceTokenizer tokenizer = new WordPieceTokenizer(vocabMap, UNKNOWN_TOKEN, 100);
+
+        List<String> tokens = tokenizer.tokenize("abc ##ab a## abcd")
+            .stream().map(WordPieceTokenizer.TokenAndId::getToken).collect(Collectors.toList());
+        assertThat(tokens, contains("ab", "##c", "##ab", "a", "####", UNKNOWN_TOKEN));
+    }
+
+    public void testMatchesSubstringLookups() {
+        String alphabet = "ab#\u00e9\ud83d\ude00";
+        for (int iteration = 0; iteration < 100; iteration++) {
+            Map<String, Integer> vocabMap = createVocabMap(UNKNOWN_TOKEN);
+            int vocabSize = randomIntBetween(0, 50);
+            for (int i = 0; i < vocabSize; i++) {
+                String piece = (randomBoolean() ? "##" : "") + randomString(alphabet, randomIntBetween(0, 4));
+                vocabMap.putIfAbsent(piece, vocabMap.size());
+            }
+            int maxInputCharsPerWord = randomIntBetween(1, 12);
+            WordPieceTokenizer tokenizer = new WordPieceTokenizer(vocabMap, UNKNOWN_TOKEN, maxInputCharsPerWord);
+            for (int i = 0; i < 20; i++) {
+                String text = randomString(alphabet + " ", randomIntBetween(0, 16));
+                List<String> tokens = tokenizer.tokenize(text).stream()
+                    .map(tokenAndId -> tokenAndId.getToken() + "/" + tokenAndId.getId())
+                    .collect(Collectors.toList());
+                assertThat(text, tokens, equalTo(substringLookups(vocabMap, maxInputCharsPerWord, text)));
+            }
+        }
+    }
+
+    private static String randomString(String alphabet, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(randomIntBetween(0, alphabet.length() - 1)));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Word Piece tokenization by looking up ever shorter substrings of a word in the vocabulary.
+     */
+    private static List<String> substringLookups(Map<String, Integer> vocab, int maxInputCharsPerWord, String text) {
+        List<String> output = new ArrayList<>();
+        for (String token : BasicTokenizer.whiteSpaceTokenize(text)) {
+            if (token.length() > maxInputCharsPerWord) {
+                output.add(UNKNOWN_TOKEN + "/" + vocab.get(UNKNOWN_TOKEN));
+                continue;
+            }
+            List<String> subTokens = new ArrayList<>();
+            int start = 0;
+            while (start < token.length()) {
+                int end = token.length();
+                String match = null;
+                while (start < end) {
+                    String subStr = (start > 0 ? "##" : "") + token.substring(start, end);
+                    if (vocab.containsKey(subStr)) {
+                        match = subStr;
+                        break;
+                    }
+                    end--;
+                }
+                if (match == null) {
+                    subTokens = List.of(UNKNOWN_TOKEN + "/" + vocab.get(UNKNOWN_TOKEN));
+                    break;
+                }
+                subTokens.add(match + "/" + vocab.get(match));
+                start = end;
+            }
+            output.addAll(subTokens);
+        }
+        return output;
+    }
+
     static Map<String, Integer> createVocabMap(String ... words) {
         Map<String, Integer> vocabMap = new HashMap<>();
         for (int i=0; i<words.length; i++) {
@@ -296,6 +296,7 @@ public class JobResultsPersisterTests extends ESTestCase {
                     "search_count", 6,
                     "bucket_count", 66,
                     "total_search_time_ms", 666.0,
+                    "total_extraction_wait_time_ms", 0.0,
                     "exponential_average_calculation_context", Map.of(
                         "incremental_metric_value_ms", 600.0,
                         "previous_exponential_average_ms", 60.0,
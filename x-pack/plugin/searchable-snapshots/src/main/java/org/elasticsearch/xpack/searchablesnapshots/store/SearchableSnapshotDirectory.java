@@ -222,8 +222,15 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
             synchronized (this) {
                 alreadyLoaded = this.loaded;
                 if (alreadyLoaded == false) {
+                    final BlobStoreIndexShardSnapshot snapshot = snapshotSupplier.get();
+                    if (snapshot.indexFiles().stream().anyMatch(BlobStoreIndexShardSnapshot.FileInfo::hasContentDefinedChunks)) {
+                        // the inputs of searchable snapshots rely on all parts of a file having the same size
+                        throw new IllegalArgumentException(
+                            "cannot mount snapshot [" + snapshotId + "] whose files are stored as content defined chunks"
+                        );
+                    }
                     this.blobContainer = blobContainerSupplier.get();
-                    this.snapshot = snapshotSupplier.get();
+                    this.snapshot = snapshot;
                     this.loaded = true;
                     cleanExistingRegularShardFiles();
                     waitForPendingEvictions();